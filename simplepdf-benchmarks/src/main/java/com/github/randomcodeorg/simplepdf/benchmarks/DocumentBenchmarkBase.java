@@ -0,0 +1,18 @@
+package com.github.randomcodeorg.simplepdf.benchmarks;
+
+import com.github.randomcodeorg.simplepdf.DocumentTestBase;
+
+/**
+ * The base class of all benchmarks. It creates the benchmarked documents using the random generators and the document fixture (see
+ * {@link DocumentTestBase#createDocument(int)}) of {@link DocumentTestBase}.
+ * @author Marcel Singer
+ *
+ */
+public abstract class DocumentBenchmarkBase extends DocumentTestBase {
+
+	/**
+	 * The seed of the random generators. Using a fixed seed makes sure that every run measures the same documents.
+	 */
+	protected static final long SEED = 42;
+
+}
@@ -0,0 +1,80 @@
+package com.github.randomcodeorg.simplepdf.benchmarks;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.github.randomcodeorg.simplepdf.SimplePDFDocument;
+import com.github.randomcodeorg.simplepdf.creation.DefaultRenderMetrics;
+import com.github.randomcodeorg.simplepdf.creation.PDDocumentCreator;
+import com.github.randomcodeorg.simplepdf.creation.RenderCounter;
+
+/**
+ * Measures the creation of complete PDF documents (layout, rendering and saving).
+ * @author Marcel Singer
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class DocumentCreationBenchmark extends DocumentBenchmarkBase {
+
+	/**
+	 * The amount of chapters used to estimate the amount of chapters per page.
+	 */
+	private static final int CALIBRATION_CHAPTERS = 20;
+
+	/**
+	 * The (approximate) amount of pages of the created document.
+	 */
+	@Param({ "1", "10", "100", "1000" })
+	public int pages;
+
+	private PDDocumentCreator creator;
+	private SimplePDFDocument document;
+
+	@Setup
+	public void setup() throws IOException {
+		creator = new PDDocumentCreator();
+		setSeed(SEED);
+		int calibrationPages = countPages(createDocument(CALIBRATION_CHAPTERS));
+		int chapters = Math.max(1, Math.round((float) pages * CALIBRATION_CHAPTERS / calibrationPages));
+		setSeed(SEED);
+		document = createDocument(chapters);
+	}
+
+	/**
+	 * Creates the given document once and returns the amount of created pages.
+	 * @param doc The document to create.
+	 * @return The amount of created pages.
+	 * @throws IOException If an I/O error occurs.
+	 */
+	private int countPages(SimplePDFDocument doc) throws IOException {
+		DefaultRenderMetrics metrics = new DefaultRenderMetrics();
+		creator.create(doc, new ByteArrayOutputStream(), metrics);
+		return (int) metrics.getCount(RenderCounter.PAGES);
+	}
+
+	@Benchmark
+	public int create() throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		creator.create(document, out);
+		return out.size();
+	}
+
+}
@@ -0,0 +1,80 @@
+package com.github.randomcodeorg.simplepdf.benchmarks;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import javax.xml.parsers.ParserConfigurationException;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.xml.sax.SAXException;
+
+import com.github.randomcodeorg.simplepdf.DIN5008ADocument;
+import com.github.randomcodeorg.simplepdf.SimplePDFDocument;
+import com.github.randomcodeorg.simplepdf.SimplePDFReader;
+import com.github.randomcodeorg.simplepdf.TextBlock;
+
+/**
+ * Measures the serialization of documents to XML and the parsing of the resulting XML text.
+ * @author Marcel Singer
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class XmlBenchmark extends DocumentBenchmarkBase {
+
+	/**
+	 * The amount of paragraphs of the serialized document.
+	 */
+	@Param({ "10", "100", "1000" })
+	public int paragraphs;
+
+	private SimplePDFDocument document;
+	private String xml;
+
+	@Setup
+	public void setup() {
+		setSeed(SEED);
+		document = createPlainDocument(paragraphs);
+		xml = document.toXML();
+	}
+
+	/**
+	 * Creates a document containing only text blocks (which are the elements supported by the {@link SimplePDFReader}).
+	 * @param paragraphs The amount of paragraphs to create.
+	 * @return The created document.
+	 */
+	private SimplePDFDocument createPlainDocument(int paragraphs) {
+		DIN5008ADocument doc = new DIN5008ADocument("Benchmark", "Benchmark");
+		doc.addHeaderElement(new TextBlock("/", "/", "Header element").setIsRepeating(true));
+		for (int i = 0; i < paragraphs; i++) {
+			doc.addTextElement(new TextBlock("/", "/", createText()));
+		}
+		return doc;
+	}
+
+	@Benchmark
+	public String toXML() {
+		return document.toXML();
+	}
+
+	@Benchmark
+	@SuppressWarnings("deprecation")
+	public SimplePDFDocument read() throws SAXException, IOException, ParserConfigurationException {
+		return new SimplePDFReader().read(xml);
+	}
+
+}
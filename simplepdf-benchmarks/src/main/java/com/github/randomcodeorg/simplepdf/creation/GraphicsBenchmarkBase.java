@@ -0,0 +1,42 @@
+package com.github.randomcodeorg.simplepdf.creation;
+
+import java.util.ArrayList;
+
+import com.github.randomcodeorg.simplepdf.SimplePDFDocument;
+import com.github.randomcodeorg.simplepdf.benchmarks.DocumentBenchmarkBase;
+
+/**
+ * The base class of the benchmarks that measure single render elements. It provides the {@link PDDocumentGraphics} of a started document.
+ * <p><b>Note:</b> The benchmarks are located in the creation package because they access protected members of the render elements.</p>
+ * @author Marcel Singer
+ *
+ */
+public abstract class GraphicsBenchmarkBase extends DocumentBenchmarkBase {
+
+	private PDDocumentGraphicsCreator graphicsCreator;
+	private SimplePDFDocument startedDocument;
+	protected PDDocumentGraphics graphics;
+	protected PreRenderInformation info;
+
+	/**
+	 * Starts the given document and creates its first page.
+	 * @param doc The document to start.
+	 */
+	protected void startDocument(SimplePDFDocument doc) {
+		graphicsCreator = new PDDocumentGraphicsCreator(FontManager.getDefaultFontManager());
+		graphicsCreator.startDocument(doc);
+		startedDocument = doc;
+		graphics = (PDDocumentGraphics) graphicsCreator.nextPage(doc);
+		info = new PreRenderInformationImpl(doc, new ArrayList<DocumentArea>(), new AreaLayout(graphics, null, 0), graphics,
+				ElementRenderMapping.getDefault());
+	}
+
+	/**
+	 * Releases the document that was started by {@link #startDocument(SimplePDFDocument)}.
+	 */
+	protected void releaseDocument() {
+		graphics.dispose();
+		graphicsCreator.releaseDocument(startedDocument);
+	}
+
+}
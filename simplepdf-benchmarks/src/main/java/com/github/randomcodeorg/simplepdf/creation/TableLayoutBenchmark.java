@@ -0,0 +1,79 @@
+package com.github.randomcodeorg.simplepdf.creation;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.github.randomcodeorg.simplepdf.DIN5008ADocument;
+import com.github.randomcodeorg.simplepdf.DocumentElement;
+import com.github.randomcodeorg.simplepdf.Size;
+import com.github.randomcodeorg.simplepdf.Table;
+
+/**
+ * Measures the layout of the rows of a table ({@link RenderTableRow}).
+ * @author Marcel Singer
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class TableLayoutBenchmark extends GraphicsBenchmarkBase {
+
+	/**
+	 * The amount of rows of the table.
+	 */
+	private static final int ROWS = 20;
+
+	/**
+	 * The amount of columns of the table. Narrower cells can not be laid out if they are smaller than a single word.
+	 */
+	@Param({ "2", "4", "6" })
+	public int columns;
+
+	private DIN5008ADocument document;
+	private Table table;
+	private Size areaSize;
+
+	@Setup
+	public void setup() {
+		setSeed(SEED);
+		document = new DIN5008ADocument("Benchmark", "Benchmark");
+		table = createTable(columns, ROWS);
+		document.addTextElement(table);
+		areaSize = document.getAreaDefinition(table.getAreaID()).getSize();
+		startDocument(document);
+	}
+
+	@TearDown
+	public void tearDown() {
+		releaseDocument();
+	}
+
+	/**
+	 * Creates the row elements of the table and lays out their cells.
+	 * @return The total height of all rows.
+	 */
+	@Benchmark
+	public double layoutRows() {
+		double height = 0;
+		for (RenderElement<? extends DocumentElement> row : info.getElementRenderMapping().getRenderer(document, table)) {
+			height += row.getRenderSize(info, areaSize).getHeight();
+		}
+		return height;
+	}
+
+}
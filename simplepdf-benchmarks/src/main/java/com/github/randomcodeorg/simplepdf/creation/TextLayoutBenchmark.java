@@ -0,0 +1,88 @@
+package com.github.randomcodeorg.simplepdf.creation;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.github.randomcodeorg.simplepdf.DIN5008ADocument;
+import com.github.randomcodeorg.simplepdf.DocumentElement;
+import com.github.randomcodeorg.simplepdf.Size;
+import com.github.randomcodeorg.simplepdf.StyleDefinition;
+import com.github.randomcodeorg.simplepdf.TextBlock;
+
+/**
+ * Measures the text measurement of {@link PDDocumentGraphics} and the line splitting of {@link TextLine}.
+ * @author Marcel Singer
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class TextLayoutBenchmark extends GraphicsBenchmarkBase {
+
+	/**
+	 * The amount of sentences of the measured paragraph.
+	 */
+	@Param({ "10", "100", "1000" })
+	public int sentences;
+
+	private DIN5008ADocument document;
+	private TextBlock paragraph;
+	private StyleDefinition style;
+	private Size areaSize;
+
+	@Setup
+	public void setup() {
+		setSeed(SEED);
+		document = new DIN5008ADocument("Benchmark", "Benchmark");
+		paragraph = new TextBlock("/", "/", createText(sentences));
+		document.addTextElement(paragraph);
+		areaSize = document.getAreaDefinition(paragraph.getAreaID()).getSize();
+		style = new TextLine(document, paragraph).getStyleDefinition();
+		startDocument(document);
+	}
+
+	@TearDown
+	public void tearDown() {
+		releaseDocument();
+	}
+
+	/**
+	 * Splits the paragraph into lines that fit into the text area (ignoring its height).
+	 * @return The amount of lines.
+	 */
+	@Benchmark
+	public int splitToFit() {
+		Size lineSize = new Size(areaSize.getWidth(), Float.MAX_VALUE);
+		RenderElement<? extends DocumentElement> current = new TextLine(document, paragraph);
+		int lines = 1;
+		List<RenderElement<? extends DocumentElement>> splits = current.splitToFit(info, lineSize);
+		while (splits != null && splits.size() > 1) {
+			lines += splits.size() - 1;
+			current = splits.get(splits.size() - 1);
+			splits = current.splitToFit(info, lineSize);
+		}
+		return lines;
+	}
+
+	@Benchmark
+	public float getTextWidth() {
+		return graphics.getTextWidth(paragraph.getContent(), style, areaSize);
+	}
+
+}
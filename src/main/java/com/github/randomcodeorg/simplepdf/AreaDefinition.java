@@ -10,6 +10,7 @@ import static com.github.randomcodeorg.simplepdf.ParseTool.*;
 public class AreaDefinition implements XmlSerializable {
 	
 	private String id;
+	private final IdentifierIndex.Indexes indexes = new IdentifierIndex.Indexes();
 	private AreaAvailability availability = AreaAvailability.GLOBAL;
 	private Position position;
 	private Size size;
@@ -74,6 +75,15 @@ public class AreaDefinition implements XmlSerializable {
 		if(id == null) throw new NullPointerException("The id may not be null.");
 		if(id.isEmpty()) throw new IllegalArgumentException("The id may not be empty.");
 		this.id = id;
+		indexes.identifierChanged();
+	}
+
+	/**
+	 * Returns the indexes containing this area definition.
+	 * @return The indexes containing this area definition.
+	 */
+	IdentifierIndex.Indexes getIndexes() {
+		return indexes;
 	}
 	
 	/**
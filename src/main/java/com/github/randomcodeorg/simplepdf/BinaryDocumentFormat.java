@@ -0,0 +1,627 @@
+package com.github.randomcodeorg.simplepdf;
+
+import java.awt.Color;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.util.Calendar;
+import java.util.List;
+import java.util.TimeZone;
+
+/**
+ * <p>A compact binary encoding of {@link SimplePDFDocument}s that can be used to cache documents or to transfer them between
+ * processes.</p>
+ * <p>In contrast to the XML representation (see {@link SimplePDFDocument#toXML()}) the binary encoding holds the complete model: the
+ * meta information, the page size and padding, all style and area definitions, the raw bytes of the data and all elements including
+ * the contents of tables. Documents are encoded and decoded in a single pass. The data is copied from and into the streams in chunks,
+ * so the encoder does not need to know the length of data that is provided by a source (see {@link DocumentData#fromFile(String,
+ * java.io.File)}).</p>
+ * <p>The encoding starts with a magic number and the version of the format (see {@link #VERSION}). Documents that were encoded using
+ * a newer version are rejected. Only the element types of this library are supported. Custom subclasses of {@link DocumentElement}
+ * can not be encoded.</p>
+ * <p>The decoder does not buffer the given stream and reads exactly the bytes of one document. Callers should provide a buffered
+ * stream.</p>
+ * @author Marcel Singer
+ *
+ */
+public final class BinaryDocumentFormat {
+
+	/**
+	 * The version of the format written by this class.
+	 */
+	public static final int VERSION = 1;
+
+	/**
+	 * The magic number that starts every encoded document ('SPDB').
+	 */
+	private static final int MAGIC = 0x53504442;
+
+	private static final int TEXT_BLOCK = 1;
+	private static final int CHAPTER = 2;
+	private static final int TABLE_OF_CONTENTS = 3;
+	private static final int PAGE_NUMBER = 4;
+	private static final int PAGE_CLOSER = 5;
+	private static final int LINE = 6;
+	private static final int RECTANGLE = 7;
+	private static final int IMAGE = 8;
+	private static final int TABLE = 9;
+
+	/**
+	 * The encoded values of the enumerations. The position within the array (plus one, <i>0</i> stands for <code>null</code>) is
+	 * written, so the encoding does not depend on the declaration order of the enumeration constants.
+	 */
+	private static final TextDecoration[] DECORATIONS = { TextDecoration.NONE, TextDecoration.BOLD, TextDecoration.UNDERLINE,
+			TextDecoration.ITALIC, TextDecoration.STRIKE_OUT };
+	private static final TextAlignment[] ALIGNMENTS = { TextAlignment.LEFT, TextAlignment.JUSTIFIED, TextAlignment.RIGHT,
+			TextAlignment.CENTER };
+	private static final AreaAvailability[] AVAILABILITIES = { AreaAvailability.GLOBAL, AreaAvailability.ONLY_FIRST_PAGE };
+
+	private static final Charset UTF_8 = Charset.forName("UTF-8");
+	private static final int BUFFER_SIZE = 8192;
+
+	private BinaryDocumentFormat() {
+
+	}
+
+	/**
+	 * Encodes the given document and writes it to the given stream. The stream is flushed but not closed.
+	 * @param doc The document to encode.
+	 * @param out The stream to write to.
+	 * @throws IOException Is thrown if an I/O error occurs or if the data of the document could not be read.
+	 * @throws IllegalArgumentException Is thrown if the document contains elements whose type is not supported by this format.
+	 */
+	public static void write(SimplePDFDocument doc, OutputStream out) throws IOException, IllegalArgumentException {
+		DataOutputStream dos = new DataOutputStream(new BufferedOutputStream(out, BUFFER_SIZE));
+		new Encoder(dos).writeDocument(doc);
+		dos.flush();
+	}
+
+	/**
+	 * Encodes the given document.
+	 * @param doc The document to encode.
+	 * @return The encoded document.
+	 * @throws IOException Is thrown if the data of the document could not be read.
+	 * @throws IllegalArgumentException Is thrown if the document contains elements whose type is not supported by this format.
+	 */
+	public static byte[] toByteArray(SimplePDFDocument doc) throws IOException, IllegalArgumentException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		write(doc, out);
+		return out.toByteArray();
+	}
+
+	/**
+	 * Decodes a document from the given stream. The stream is not closed.
+	 * @param in The stream to read from.
+	 * @return The decoded document.
+	 * @throws IOException Is thrown if an I/O error occurs, if the stream does not hold an encoded document or if the document was
+	 * encoded using a newer version of this format.
+	 */
+	public static SimplePDFDocument read(InputStream in) throws IOException {
+		return read(in, null);
+	}
+
+	/**
+	 * Decodes a document from the given stream. Every element is handed to the given handler as soon as it is decoded and is not added
+	 * to the returned document. The style definitions, area definitions and the data are decoded before the elements. The stream is
+	 * not closed.
+	 * @param in The stream to read from.
+	 * @param handler The handler that receives the decoded elements or <code>null</code> if the elements should be added to the
+	 * returned document.
+	 * @return The decoded document.
+	 * @throws IOException Is thrown if an I/O error occurs, if the stream does not hold an encoded document or if the document was
+	 * encoded using a newer version of this format.
+	 */
+	public static SimplePDFDocument read(InputStream in, ElementHandler handler) throws IOException {
+		return new Decoder(new DataInputStream(in), handler).readDocument();
+	}
+
+	/**
+	 * Decodes a document from the given bytes.
+	 * @param data The encoded document.
+	 * @return The decoded document.
+	 * @throws IOException Is thrown if the given bytes do not hold an encoded document or if the document was encoded using a newer
+	 * version of this format.
+	 */
+	public static SimplePDFDocument read(byte[] data) throws IOException {
+		return read(new ByteArrayInputStream(data));
+	}
+
+	/**
+	 * Writes the binary encoding of a document.
+	 * @author Marcel Singer
+	 *
+	 */
+	private static final class Encoder {
+
+		private final DataOutputStream out;
+
+		public Encoder(DataOutputStream out) {
+			this.out = out;
+		}
+
+		public void writeDocument(SimplePDFDocument doc) throws IOException {
+			out.writeInt(MAGIC);
+			writeVarInt(VERSION);
+			writeMetaInformation(doc.getMetaInformation());
+			writeSize(doc.getPageSize());
+			writeSpacing(doc.getPagePadding());
+			List<StyleDefinition> styles = doc.getStyles();
+			writeVarInt(styles.size());
+			for (StyleDefinition sd : styles)
+				writeStyle(sd);
+			List<AreaDefinition> areas = doc.getAreas();
+			writeVarInt(areas.size());
+			for (AreaDefinition ad : areas)
+				writeArea(ad);
+			List<DocumentData> data = doc.getData();
+			writeVarInt(data.size());
+			for (DocumentData dd : data)
+				writeData(dd);
+			writeElements(doc.getElements());
+		}
+
+		private void writeMetaInformation(DocumentMetaInformation meta) throws IOException {
+			writeString(meta.getTitle());
+			writeString(meta.getAuthor());
+			writeString(meta.getProducer());
+			writeString(meta.getCreator());
+			writeString(meta.getSubject());
+			writeString(meta.getKeywords());
+			writeCalendar(meta.getCreationDate());
+			writeCalendar(meta.getModificationDate());
+		}
+
+		private void writeStyle(StyleDefinition sd) throws IOException {
+			writeString(sd.getID());
+			writeVarInt(sd.getFontSize());
+			writeString(sd.getFontName());
+			writeEnum(DECORATIONS, sd.getDecoration());
+			writeEnum(ALIGNMENTS, sd.getAlignment());
+			writeSpacing(sd.getLinePadding());
+			writeSpacing(sd.getBlockPadding());
+			out.writeInt(sd.getColor().getRGB());
+		}
+
+		private void writeArea(AreaDefinition ad) throws IOException {
+			writeString(ad.getID());
+			writeEnum(AVAILABILITIES, ad.getAvailability());
+			writePosition(ad.getPosition());
+			writeSize(ad.getSize());
+		}
+
+		private void writeData(DocumentData dd) throws IOException {
+			writeString(dd.getID());
+			InputStream in = dd.openStream();
+			try {
+				byte[] buffer = new byte[BUFFER_SIZE];
+				int read;
+				while ((read = in.read(buffer)) != -1) {
+					if (read == 0)
+						continue;
+					writeVarInt(read);
+					out.write(buffer, 0, read);
+				}
+			} finally {
+				in.close();
+			}
+			writeVarInt(0);
+		}
+
+		private void writeElements(List<DocumentElement> elements) throws IOException {
+			writeVarInt(elements.size());
+			for (DocumentElement e : elements)
+				writeElement(e);
+		}
+
+		private void writeElement(DocumentElement e) throws IOException {
+			Class<?> type = e.getClass();
+			if (type == TextBlock.class) {
+				writeHeader(TEXT_BLOCK, e);
+				writeString(((TextBlock) e).getContent());
+			} else if (type == ChapterElement.class) {
+				ChapterElement ce = (ChapterElement) e;
+				writeHeader(CHAPTER, e);
+				writeString(ce.getContent());
+				writeVarInt(ce.getLevel());
+				out.writeBoolean(ce.getDisplayNumber());
+			} else if (type == TableOfContents.class) {
+				TableOfContents toc = (TableOfContents) e;
+				writeHeader(TABLE_OF_CONTENTS, e);
+				out.writeBoolean(toc.getResetsChapterNumbering());
+				writeString(toc.getIndentString());
+			} else if (type == PageNumber.class) {
+				writeHeader(PAGE_NUMBER, e);
+				writeString(((PageNumber) e).getFormat());
+			} else if (type == PageCloser.class) {
+				writeHeader(PAGE_CLOSER, e);
+			} else if (type == Line.class) {
+				Line l = (Line) e;
+				writeHeader(LINE, e);
+				writePosition(l.getStartPoint());
+				writePosition(l.getEndPoint());
+				out.writeDouble(l.getLineWidth());
+			} else if (type == Rectangle.class) {
+				Rectangle r = (Rectangle) e;
+				writeHeader(RECTANGLE, e);
+				writePosition(r.getLocation());
+				writeSize(r.getSize());
+				out.writeFloat(r.getLineWidth());
+			} else if (type == DocumentImage.class) {
+				writeHeader(IMAGE, e);
+				writeString(((DocumentImage) e).getDataID());
+			} else if (type == Table.class) {
+				Table t = (Table) e;
+				writeHeader(TABLE, e);
+				out.writeBoolean(t.getDoAutoAligment());
+				writeVarInt(t.getRows().size());
+				for (TableRow tr : t.getRows())
+					writeRow(tr);
+			} else {
+				throw new IllegalArgumentException(
+						"The element type '" + type.getName() + "' is not supported by the binary document format.");
+			}
+		}
+
+		private void writeHeader(int type, DocumentElement e) throws IOException {
+			out.writeByte(type);
+			writeString(e.getAreaID());
+			writeString(e.getStyleID());
+			out.writeBoolean(e.getIsRepeating());
+		}
+
+		private void writeRow(TableRow tr) throws IOException {
+			writeVarInt(tr.getCells().size());
+			for (TableCell tc : tr.getCells()) {
+				out.writeFloat(tc.getWidth());
+				out.writeFloat(tc.getHeight());
+				writeElements(tc.getContents());
+			}
+		}
+
+		private void writePosition(Position p) throws IOException {
+			out.writeFloat(p.getX());
+			out.writeFloat(p.getY());
+		}
+
+		private void writeSize(Size s) throws IOException {
+			out.writeDouble(s.getWidth());
+			out.writeDouble(s.getHeight());
+		}
+
+		private void writeSpacing(Spacing s) throws IOException {
+			out.writeDouble(s.getLeft());
+			out.writeDouble(s.getTop());
+			out.writeDouble(s.getRight());
+			out.writeDouble(s.getBottom());
+		}
+
+		private void writeCalendar(Calendar c) throws IOException {
+			out.writeBoolean(c != null);
+			if (c == null)
+				return;
+			out.writeLong(c.getTimeInMillis());
+			writeString(c.getTimeZone().getID());
+		}
+
+		private <T> void writeEnum(T[] values, T value) throws IOException {
+			if (value == null) {
+				out.writeByte(0);
+				return;
+			}
+			for (int i = 0; i < values.length; i++) {
+				if (values[i] == value) {
+					out.writeByte(i + 1);
+					return;
+				}
+			}
+			throw new IllegalArgumentException("The value '" + value + "' is not supported by the binary document format.");
+		}
+
+		/**
+		 * Writes the given string as UTF-8 encoded bytes preceded by their length plus one. <code>null</code> is written as length
+		 * <i>0</i>.
+		 * @param s The string to write.
+		 * @throws IOException If an I/O error occurs.
+		 */
+		private void writeString(String s) throws IOException {
+			if (s == null) {
+				writeVarInt(0);
+				return;
+			}
+			byte[] data = s.getBytes(UTF_8);
+			writeVarInt(data.length + 1);
+			out.write(data);
+		}
+
+		/**
+		 * Writes the given non negative value using seven bits per byte. The highest bit marks that another byte follows.
+		 * @param value The value to write.
+		 * @throws IOException If an I/O error occurs.
+		 */
+		private void writeVarInt(int value) throws IOException {
+			if (value < 0)
+				throw new IllegalArgumentException("Negative values can not be encoded.");
+			while (value >= 0x80) {
+				out.writeByte((value & 0x7F) | 0x80);
+				value >>>= 7;
+			}
+			out.writeByte(value);
+		}
+
+	}
+
+	/**
+	 * Reads the binary encoding of a document.
+	 * @author Marcel Singer
+	 *
+	 */
+	private static final class Decoder {
+
+		private final DataInputStream in;
+		private final ElementHandler handler;
+
+		public Decoder(DataInputStream in, ElementHandler handler) {
+			this.in = in;
+			this.handler = handler;
+		}
+
+		/**
+		 * Reads the document. Values that are rejected by the document model (e.g. negative sizes or duplicate identifiers) are reported as
+		 * an {@link IOException}. Exceptions thrown by the element handler are passed on.
+		 * @return The read document.
+		 * @throws IOException If an I/O error occurs or if the stream does not hold a valid encoded document.
+		 */
+		public SimplePDFDocument readDocument() throws IOException {
+			if (in.readInt() != MAGIC)
+				throw new IOException("The stream does not contain a binary encoded document.");
+			int version = readVarInt();
+			if (version > VERSION)
+				throw new IOException("The document was encoded using the unsupported format version " + version + ".");
+			SimplePDFDocument doc = new SimplePDFDocument();
+			int count;
+			try {
+				readMetaInformation(doc.getMetaInformation());
+				doc.setPageSize(readSize());
+				doc.setPagePadding(readSpacing());
+				count = readVarInt();
+				for (int i = 0; i < count; i++)
+					doc.addStyleDefinition(readStyle());
+				count = readVarInt();
+				for (int i = 0; i < count; i++)
+					doc.addAreaDefinition(readArea());
+				count = readVarInt();
+				for (int i = 0; i < count; i++)
+					doc.addData(readData());
+			} catch (RuntimeException e) {
+				throw invalid(e);
+			}
+			count = readVarInt();
+			DocumentElement element;
+			for (int i = 0; i < count; i++) {
+				try {
+					element = readElement();
+				} catch (RuntimeException e) {
+					throw invalid(e);
+				}
+				if (handler != null) {
+					handler.elementParsed(doc, element);
+				} else {
+					doc.addElement(element);
+				}
+			}
+			return doc;
+		}
+
+		private IOException invalid(RuntimeException cause) {
+			return new IOException("The stream does not contain a valid encoded document.", cause);
+		}
+
+		private void readMetaInformation(DocumentMetaInformation meta) throws IOException {
+			meta.setTitle(readString());
+			meta.setAuthor(readString());
+			meta.setProducer(readString());
+			meta.setCreator(readString());
+			meta.setSubject(readString());
+			meta.setKeywords(readString());
+			meta.setCreationDate(readCalendar());
+			meta.setModificationDate(readCalendar());
+		}
+
+		private StyleDefinition readStyle() throws IOException {
+			StyleDefinition sd = new StyleDefinition(readString());
+			sd.setFontSize(readVarInt());
+			sd.setFontName(readString());
+			sd.setDecoration(readEnum(DECORATIONS));
+			sd.setAlignment(readEnum(ALIGNMENTS));
+			sd.setLinePadding(readSpacing());
+			sd.setBlockPadding(readSpacing());
+			sd.setColor(new Color(in.readInt(), true));
+			return sd;
+		}
+
+		private AreaDefinition readArea() throws IOException {
+			String id = readString();
+			AreaAvailability availability = readEnum(AVAILABILITIES);
+			AreaDefinition ad = new AreaDefinition(id, readPosition(), readSize());
+			ad.setAvailability(availability);
+			return ad;
+		}
+
+		private DocumentData readData() throws IOException {
+			String id = readString();
+			ByteArrayOutputStream data = new ByteArrayOutputStream();
+			byte[] buffer = new byte[BUFFER_SIZE];
+			int length;
+			int read;
+			while ((length = readVarInt()) > 0) {
+				while (length > 0) {
+					read = Math.min(length, buffer.length);
+					in.readFully(buffer, 0, read);
+					data.write(buffer, 0, read);
+					length -= read;
+				}
+			}
+			return new DocumentData(id, data.toByteArray());
+		}
+
+		private List<DocumentElement> readElements(List<DocumentElement> target) throws IOException {
+			int count = readVarInt();
+			for (int i = 0; i < count; i++)
+				target.add(readElement());
+			return target;
+		}
+
+		private DocumentElement readElement() throws IOException {
+			int type = in.readUnsignedByte();
+			String areaID = readString();
+			String styleID = readString();
+			boolean isRepeating = in.readBoolean();
+			DocumentElement e;
+			switch (type) {
+			case TEXT_BLOCK:
+				e = new TextBlock(areaID, styleID, readString());
+				break;
+			case CHAPTER:
+				ChapterElement ce = new ChapterElement(areaID, styleID, readString());
+				ce.setLevel(readVarInt());
+				ce.setDisplayNumber(in.readBoolean());
+				e = ce;
+				break;
+			case TABLE_OF_CONTENTS:
+				TableOfContents toc = new TableOfContents(areaID, styleID);
+				toc.setResetsChapterNumbering(in.readBoolean());
+				toc.setIndentString(readString());
+				e = toc;
+				break;
+			case PAGE_NUMBER:
+				e = new PageNumber(areaID, styleID, readString());
+				break;
+			case PAGE_CLOSER:
+				e = new PageCloser(areaID);
+				break;
+			case LINE:
+				e = new Line(areaID, readPosition(), readPosition(), in.readDouble());
+				break;
+			case RECTANGLE:
+				e = new Rectangle(areaID, readPosition(), readSize(), in.readFloat());
+				break;
+			case IMAGE:
+				e = new DocumentImage(areaID, readString());
+				break;
+			case TABLE:
+				Table t = new Table(areaID, in.readBoolean());
+				int rows = readVarInt();
+				for (int i = 0; i < rows; i++)
+					t.getRows().add(readRow());
+				e = t;
+				break;
+			default:
+				throw new IOException("Unknown element type " + type + ".");
+			}
+			if (styleID == null ? e.getStyleID() != null : !styleID.equals(e.getStyleID()))
+				e.setStyleID(styleID);
+			e.setIsRepeating(isRepeating);
+			return e;
+		}
+
+		private TableRow readRow() throws IOException {
+			TableRow tr = new TableRow();
+			int cells = readVarInt();
+			TableCell tc;
+			for (int i = 0; i < cells; i++) {
+				tc = new TableCell();
+				tc.setWidth(in.readFloat());
+				tc.setHeight(in.readFloat());
+				readElements(tc.getContents());
+				tr.getCells().add(tc);
+			}
+			return tr;
+		}
+
+		private Position readPosition() throws IOException {
+			float x = in.readFloat();
+			return new Position(x, in.readFloat());
+		}
+
+		private Size readSize() throws IOException {
+			double width = in.readDouble();
+			return new Size(width, in.readDouble());
+		}
+
+		private Spacing readSpacing() throws IOException {
+			double left = in.readDouble();
+			double top = in.readDouble();
+			double right = in.readDouble();
+			return new Spacing(left, top, right, in.readDouble());
+		}
+
+		private Calendar readCalendar() throws IOException {
+			if (!in.readBoolean())
+				return null;
+			long time = in.readLong();
+			Calendar c = Calendar.getInstance(TimeZone.getTimeZone(readString()));
+			c.setTimeInMillis(time);
+			return c;
+		}
+
+		private <T> T readEnum(T[] values) throws IOException {
+			int index = in.readUnsignedByte();
+			if (index == 0)
+				return null;
+			if (index > values.length)
+				throw new IOException("Unknown value " + index + ".");
+			return values[index - 1];
+		}
+
+		/**
+		 * Reads a string. The length is not trusted, so the string is read in chunks and the memory grows with the bytes that were
+		 * actually read.
+		 * @return The read string or <code>null</code>.
+		 * @throws IOException If an I/O error occurs or if the stream ends before the string was read.
+		 */
+		private String readString() throws IOException {
+			int length = readVarInt();
+			if (length == 0)
+				return null;
+			length--;
+			if (length <= BUFFER_SIZE) {
+				byte[] data = new byte[length];
+				in.readFully(data);
+				return new String(data, UTF_8);
+			}
+			ByteArrayOutputStream data = new ByteArrayOutputStream(BUFFER_SIZE);
+			byte[] buffer = new byte[BUFFER_SIZE];
+			int read;
+			while (length > 0) {
+				read = Math.min(length, buffer.length);
+				in.readFully(buffer, 0, read);
+				data.write(buffer, 0, read);
+				length -= read;
+			}
+			return new String(data.toByteArray(), UTF_8);
+		}
+
+		private int readVarInt() throws IOException {
+			int result = 0;
+			int b;
+			for (int shift = 0; shift < 32; shift += 7) {
+				b = in.readUnsignedByte();
+				result |= (b & 0x7F) << shift;
+				if ((b & 0x80) == 0) {
+					if (result < 0)
+						throw new IOException("Invalid length.");
+					return result;
+				}
+			}
+			throw new IOException("Invalid length.");
+		}
+
+	}
+
+}
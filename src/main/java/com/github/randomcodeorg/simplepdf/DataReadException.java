@@ -0,0 +1,47 @@
+package com.github.randomcodeorg.simplepdf;
+
+import java.io.IOException;
+
+/**
+ * An unchecked exception that is thrown if the data of a document could not be read by a method that can not throw an
+ * {@link IOException} (see {@link DocumentData#getData()}). The causing {@link IOException} is returned by {@link #getCause()}.
+ * @author Marcel Singer
+ *
+ */
+public class DataReadException extends RuntimeException {
+
+	private static final long serialVersionUID = -3902784152315734637L;
+
+	/**
+	 * Creates a new instance of {@link DataReadException} with a given inner exception.
+	 * @param cause The inner exception that caused this exception.
+	 * @throws NullPointerException If the given exception is <code>null</code>.
+	 */
+	public DataReadException(IOException cause) throws NullPointerException {
+		super(cause);
+		if (cause == null)
+			throw new NullPointerException("The cause may not be null.");
+	}
+
+	/**
+	 * Creates a new instance of {@link DataReadException} with a given message and inner exception.
+	 * @param message The message of the exception to create.
+	 * @param cause The inner exception that caused this exception.
+	 * @throws NullPointerException If the given exception is <code>null</code>.
+	 */
+	public DataReadException(String message, IOException cause) throws NullPointerException {
+		super(message, cause);
+		if (cause == null)
+			throw new NullPointerException("The cause may not be null.");
+	}
+
+	/**
+	 * Returns the {@link IOException} that caused this exception.
+	 * @return The {@link IOException} that caused this exception.
+	 */
+	@Override
+	public synchronized IOException getCause() {
+		return (IOException) super.getCause();
+	}
+
+}
@@ -0,0 +1,21 @@
+package com.github.randomcodeorg.simplepdf;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * <p>Provides binary data that is only read when it is needed (see {@link DocumentData#DocumentData(String, DataSource)}).</p>
+ * <p>Implementations must be able to provide the same data multiple times.</p>
+ * @author Marcel Singer
+ *
+ */
+public interface DataSource {
+
+	/**
+	 * Opens a new stream that reads the data from the beginning. The returned stream is closed by the caller.
+	 * @return A new stream that reads the data.
+	 * @throws IOException If an I/O error occurs.
+	 */
+	public InputStream openStream() throws IOException;
+
+}
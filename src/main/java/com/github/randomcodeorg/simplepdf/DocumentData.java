@@ -1,26 +1,45 @@
 package com.github.randomcodeorg.simplepdf;
 
-import static com.github.randomcodeorg.simplepdf.ParseTool.getAttribute;
-import static com.github.randomcodeorg.simplepdf.ParseTool.getChildContentText;
-
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.io.Writer;
 import java.net.HttpURLConnection;
 import java.net.URL;
-import java.util.ArrayList;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
 import java.util.Base64;
 
-import org.w3c.dom.Node;
-
 /**
- * Defines binary data used within a document.
+ * <p>Defines binary data used within a document.</p>
+ * <p>The data is either held in memory or provided by a {@link DataSource} that is only read when the data is needed (e.g. by the
+ * renderer of an image). Data that is provided by a source is never held in memory by this class. Use {@link #fromFile(String, File)}
+ * or {@link #mapFile(String, File)} to refer to large files without reading them while the document is built.</p>
  * @author Marcel Singer
  *
  */
-public class DocumentData implements XmlSerializable {
+public class DocumentData implements XmlWritable {
+
+	/**
+	 * The size of the buffer used to copy streams.
+	 */
+	private static final int BUFFER_SIZE = 8192;
+	/**
+	 * The amount of bytes encoded at once when the data is written as Base64 text. Has to be a multiple of three.
+	 */
+	private static final int BASE64_CHUNK_SIZE = 3 * 4096;
 
 	private String id;
+	private final IdentifierIndex.Indexes indexes = new IdentifierIndex.Indexes();
 	private byte[] data;
+	private DataSource source;
 
 	
 	
@@ -55,6 +74,53 @@ public class DocumentData implements XmlSerializable {
 		this.data = data;
 	}
 
+	/**
+	 * Creates a new instance using the given identifier. The data is read from the given source whenever it is needed.
+	 * @param id The identifier of the data to store.
+	 * @param source The source that provides the data.
+	 * @throws NullPointerException If the given identifier or source is <code>null</code>.
+	 * @throws IllegalArgumentException If the given identifier is an empty string.
+	 */
+	public DocumentData(String id, DataSource source) throws IllegalArgumentException, NullPointerException {
+		if (id == null)
+			throw new NullPointerException("The id may not be null.");
+		if (id.isEmpty())
+			throw new IllegalArgumentException("The id may not be empty.");
+		if (source == null)
+			throw new NullPointerException("The source may not be null.");
+		this.id = id;
+		this.source = source;
+	}
+
+	/**
+	 * Creates a new instance that refers to the given file. The file is read whenever the data is needed.
+	 * @param id The identifier of the data to store.
+	 * @param file The file that holds the data.
+	 * @return An instance of {@link DocumentData} that refers to the given file.
+	 * @throws NullPointerException If the given identifier or file is <code>null</code>.
+	 * @throws IllegalArgumentException If the given identifier is an empty string.
+	 */
+	public static DocumentData fromFile(String id, File file) throws IllegalArgumentException, NullPointerException {
+		if (file == null)
+			throw new NullPointerException("The file may not be null.");
+		return new DocumentData(id, new FileSource(file));
+	}
+
+	/**
+	 * Creates a new instance that refers to the given file. The file is mapped into memory (outside of the heap) as soon as the data is
+	 * needed for the first time. The mapping is reused afterwards.
+	 * @param id The identifier of the data to store.
+	 * @param file The file that holds the data.
+	 * @return An instance of {@link DocumentData} that refers to the given file.
+	 * @throws NullPointerException If the given identifier or file is <code>null</code>.
+	 * @throws IllegalArgumentException If the given identifier is an empty string.
+	 */
+	public static DocumentData mapFile(String id, File file) throws IllegalArgumentException, NullPointerException {
+		if (file == null)
+			throw new NullPointerException("The file may not be null.");
+		return new DocumentData(id, new MappedFileSource(file));
+	}
+
 	/**
 	 * Returns the identifier of this data.
 	 * @return The identifier of this data.
@@ -64,11 +130,38 @@ public class DocumentData implements XmlSerializable {
 	}
 
 	/**
-	 * Returns the data.
+	 * Returns the data. If the data is provided by a source, the source is read on every call. Use {@link #openStream()} to read large
+	 * data without copying it into memory.
 	 * @return The data.
+	 * @throws DataReadException If the data is provided by a source that could not be read.
 	 */
-	public byte[] getData() {
-		return data;
+	public byte[] getData() throws DataReadException {
+		if (data != null)
+			return data;
+		try {
+			return toByteArray(source.openStream());
+		} catch (IOException e) {
+			throw new DataReadException(e);
+		}
+	}
+
+	/**
+	 * Opens a new stream that reads the data. The returned stream is closed by the caller.
+	 * @return A new stream that reads the data.
+	 * @throws IOException If the data is provided by a source that could not be opened.
+	 */
+	public InputStream openStream() throws IOException {
+		if (data != null)
+			return new ByteArrayInputStream(data);
+		return source.openStream();
+	}
+
+	/**
+	 * Returns the source that provides the data.
+	 * @return The source that provides the data or <code>null</code> if the data is held in memory.
+	 */
+	public DataSource getSource() {
+		return source;
 	}
 
 	/**
@@ -83,6 +176,15 @@ public class DocumentData implements XmlSerializable {
 		if (id.isEmpty())
 			throw new IllegalArgumentException("The id may not be empty.");
 		this.id = id;
+		indexes.identifierChanged();
+	}
+
+	/**
+	 * Returns the indexes containing this data record.
+	 * @return The indexes containing this data record.
+	 */
+	IdentifierIndex.Indexes getIndexes() {
+		return indexes;
 	}
 
 
@@ -95,40 +197,81 @@ public class DocumentData implements XmlSerializable {
 		if (data == null)
 			throw new NullPointerException("The data may not be null.");
 		this.data = data;
+		this.source = null;
 	}
 
 	
 	private static byte[] toByteArray(InputStream in) throws IOException {
-		ArrayList<Byte> bytes = new ArrayList<Byte>();
+		ByteArrayOutputStream out = new ByteArrayOutputStream(BUFFER_SIZE);
 		try {
-			int read = -1;
-			while ((read = in.read()) != -1) {
-				bytes.add((byte) read);
+			byte[] buffer = new byte[BUFFER_SIZE];
+			int read;
+			while ((read = in.read(buffer)) != -1) {
+				out.write(buffer, 0, read);
 			}
 		} finally {
 			if (in != null)
 				in.close();
 		}
-		byte[] result = new byte[bytes.size()];
-		for (int i = 0; i < result.length; i++) {
-			result[i] = bytes.get(i);
-		}
-		return result;
+		return out.toByteArray();
 	}
 
-	private static String toBase64String(byte[] data) {
-		return Base64.getEncoder().encodeToString(data);
+	@Override
+	public String toXML() {
+		return XmlWriter.toXML(this);
 	}
 
+	/**
+	 * {@inheritDoc}
+	 * <p>The data is read and encoded in chunks, so neither the data nor its Base64 representation is held in memory as a whole.</p>
+	 */
 	@Override
-	public String toXML() {
-		StringBuilder sb = new StringBuilder();
-		sb.append(String.format("<DocumentData ID=\"%s\">\n", id));
-		sb.append("\t<Data>");
-		sb.append(toBase64String(data));
-		sb.append("</Data>\n");
-		sb.append("</DocumentData>");
-		return sb.toString();
+	public void writeXML(XmlWriter out) throws IOException {
+		out.write(String.format("<DocumentData ID=\"%s\">\n", id));
+		out.write("\t<Data>");
+		writeBase64(out);
+		out.write("</Data>\n");
+		out.write("</DocumentData>");
+	}
+
+	/**
+	 * Writes the Base64 representation of the data to the given writer.
+	 * @param out The writer to write to.
+	 * @throws IOException If an I/O error occurs.
+	 */
+	private void writeBase64(Writer out) throws IOException {
+		Base64.Encoder encoder = Base64.getEncoder();
+		InputStream in = openStream();
+		try {
+			// The chunk size is a multiple of three, so the encoded chunks can be concatenated without padding
+			byte[] buffer = new byte[BASE64_CHUNK_SIZE];
+			int length;
+			while ((length = readFully(in, buffer)) > 0) {
+				if (length == buffer.length) {
+					out.write(encoder.encodeToString(buffer));
+				} else {
+					out.write(encoder.encodeToString(Arrays.copyOf(buffer, length)));
+				}
+			}
+		} finally {
+			in.close();
+		}
+	}
+
+	/**
+	 * Reads from the given stream until the buffer is full or the end of the stream is reached.
+	 * @param in The stream to read from.
+	 * @param buffer The buffer to fill.
+	 * @return The amount of bytes read.
+	 * @throws IOException If an I/O error occurs.
+	 */
+	private static int readFully(InputStream in, byte[] buffer) throws IOException {
+		int length = 0;
+		int read;
+		while (length < buffer.length && (read = in.read(buffer, length, buffer.length - length)) != -1) {
+			length += read;
+		}
+		return length;
 	}
 
 	/**
@@ -148,11 +291,106 @@ public class DocumentData implements XmlSerializable {
 		return res;
 	}
 
-	static DocumentData parse(Node n) {
-		String id = getAttribute(n, "ID", "");
-		String hex = getChildContentText(n, "Data");
-		byte[] data = Base64.getDecoder().decode(hex);
-		return new DocumentData(id, data);
+	/**
+	 * A source that reads the data from a file.
+	 * @author Marcel Singer
+	 *
+	 */
+	private static class FileSource implements DataSource {
+
+		private final File file;
+
+		public FileSource(File file) {
+			this.file = file;
+		}
+
+		@Override
+		public InputStream openStream() throws IOException {
+			return new BufferedInputStream(new FileInputStream(file), BUFFER_SIZE);
+		}
+
+	}
+
+	/**
+	 * A source that maps a file into memory and reads the data from the mapping.
+	 * @author Marcel Singer
+	 *
+	 */
+	private static class MappedFileSource implements DataSource {
+
+		private final File file;
+		private MappedByteBuffer buffer;
+
+		public MappedFileSource(File file) {
+			this.file = file;
+		}
+
+		@Override
+		public InputStream openStream() throws IOException {
+			return new ByteBufferInputStream(getBuffer());
+		}
+
+		private synchronized ByteBuffer getBuffer() throws IOException {
+			if (buffer == null) {
+				RandomAccessFile raf = new RandomAccessFile(file, "r");
+				try {
+					FileChannel channel = raf.getChannel();
+					// The mapping stays valid after the channel was closed
+					buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+				} finally {
+					raf.close();
+				}
+			}
+			return buffer.duplicate();
+		}
+
+	}
+
+	/**
+	 * A stream that reads the remaining bytes of a buffer.
+	 * @author Marcel Singer
+	 *
+	 */
+	private static class ByteBufferInputStream extends InputStream {
+
+		private final ByteBuffer buffer;
+
+		public ByteBufferInputStream(ByteBuffer buffer) {
+			this.buffer = buffer;
+		}
+
+		@Override
+		public int read() throws IOException {
+			if (!buffer.hasRemaining())
+				return -1;
+			return buffer.get() & 0xFF;
+		}
+
+		@Override
+		public int read(byte[] b, int off, int len) throws IOException {
+			if (len == 0)
+				return 0;
+			if (!buffer.hasRemaining())
+				return -1;
+			int count = Math.min(len, buffer.remaining());
+			buffer.get(b, off, count);
+			return count;
+		}
+
+		@Override
+		public long skip(long n) throws IOException {
+			if (n <= 0)
+				return 0;
+			int count = (int) Math.min(n, buffer.remaining());
+			buffer.position(buffer.position() + count);
+			return count;
+		}
+
+		@Override
+		public int available() throws IOException {
+			return buffer.remaining();
+		}
+
 	}
 
 }
@@ -2,7 +2,11 @@ package com.github.randomcodeorg.simplepdf;
 
 import static com.github.randomcodeorg.simplepdf.ParseTool.getAttribute;
 import static com.github.randomcodeorg.simplepdf.ParseTool.getChild;
+import static com.github.randomcodeorg.simplepdf.ParseTool.getChildContent;
 import static com.github.randomcodeorg.simplepdf.ParseTool.getChildContentText;
+
+import java.io.IOException;
+
 import com.github.randomcodeorg.simplepdf.creation.ProcessListener;
 
 import org.w3c.dom.Node;
@@ -14,7 +18,7 @@ import org.w3c.dom.Node;
  * @author Marcel Singer
  *
  */
-public abstract class DocumentElement implements XmlSerializable {
+public abstract class DocumentElement implements XmlWritable {
 
 	private String styleID;
 	private String areaID = "";
@@ -154,13 +158,16 @@ public abstract class DocumentElement implements XmlSerializable {
 	 * @param listener
 	 *            A listener that will be notified if there are issues.
 	 * @param docXml
-	 *            The XML representation of this document.
+	 *            The XML representation of the document or <code>null</code>.
+	 *            It is not used anymore, because the affected positions of
+	 *            the reported messages are determined using the given document
+	 *            when they are requested.
 	 */
 	public void validate(SimplePDFDocument doc, ProcessListener listener, String docXml) {
 		if (!doc.containsAreaDefinition(areaID))
-			listener.addMessage(ProcessMessage.createNoAreaIDMessage(this, docXml));
+			listener.addMessage(ProcessMessage.createNoAreaIDMessage(this, doc));
 		if (needsStyleID() && !doc.containsStyleDefinition(styleID))
-			listener.addMessage(ProcessMessage.createNoStyleIDMessage(this, docXml));
+			listener.addMessage(ProcessMessage.createNoStyleIDMessage(this, doc));
 	}
 
 	/**
@@ -176,9 +183,35 @@ public abstract class DocumentElement implements XmlSerializable {
 
 	@Override
 	public String toXML() {
+		return XmlWriter.toXML(this);
+	}
+
+	@Override
+	public void writeXML(XmlWriter out) throws IOException {
+		String content = getXmlContent();
+		writeStartTag(out);
+		if (content != null) {
+			out.write(">\n");
+			out.indent();
+			out.write(content);
+			out.unindent();
+			out.write("\n</DocumentElement>");
+		} else {
+			out.write("/>");
+		}
+	}
+
+	/**
+	 * Writes the start tag of the XML representation of this element including its attributes. The tag is not closed, so the caller
+	 * has to write either <code>&gt;</code> followed by the content or <code>/&gt;</code>. Elements whose content can grow override
+	 * {@link #writeXML(XmlWriter)} and use this method to stream their content instead of returning it by {@link #getXmlContent()}.
+	 * @param out The writer to write to.
+	 * @throws IOException If an I/O error occurs.
+	 * @throws NullPointerException If the xsi-type of this element is <code>null</code>. Nothing is written in this case.
+	 */
+	protected void writeStartTag(XmlWriter out) throws IOException, NullPointerException {
 		String xsiType = getXSIType();
 		String additionalAttributes = getAdditionalAttributes();
-		String content = getXmlContent();
 
 		if (xsiType == null)
 			throw new NullPointerException("The xsi-type of an element is invalid.");
@@ -186,24 +219,16 @@ public abstract class DocumentElement implements XmlSerializable {
 		String rep = "false";
 		if (isRepeating)
 			rep = "true";
-		StringBuilder sb = new StringBuilder();
-		sb.append(String.format("<DocumentElement xsi:type=\"%s\" IsRepeating=\"%s\" AreaID=\"%s\" ", xsiType, rep,
+		out.markPosition(this);
+		out.write(String.format("<DocumentElement xsi:type=\"%s\" IsRepeating=\"%s\" AreaID=\"%s\" ", xsiType, rep,
 				areaID));
 
 		if (styleID != null) {
-			sb.append(String.format("StyleID=\"%s\" ", styleID));
+			out.write(String.format("StyleID=\"%s\" ", styleID));
 		}
 		if (additionalAttributes != null) {
-			sb.append(additionalAttributes);
-		}
-		if (content != null) {
-			sb.append(">\n");
-			sb.append(FormattingTools.indentText(content));
-			sb.append("\n</DocumentElement>");
-		} else {
-			sb.append("/>");
+			out.write(additionalAttributes);
 		}
-		return sb.toString();
 	}
 
 	/**
@@ -261,7 +286,8 @@ public abstract class DocumentElement implements XmlSerializable {
 	static DocumentElement parse(Node n) {
 		String xsiType = getAttribute(n, "xsi:type", "");
 		String areaID = getAttribute(n, "AreaID", "/");
-		String stlyeID = getAttribute(n, "StyleID", "/");
+		// The style identifier is not written if it is not set
+		String stlyeID = getAttribute(n, "StyleID", (String) null);
 		boolean isRepeating = getAttribute(n, "IsRepeating", false);
 		DocumentElement de = parseElement(n, xsiType, areaID, stlyeID, isRepeating);
 		if (de != null) {
@@ -277,7 +303,8 @@ public abstract class DocumentElement implements XmlSerializable {
 		if (xsiType.equals("TextBlock"))
 			return new TextBlock(areaID, styleID, getChildContentText(n, "Content"));
 		if (xsiType.equals("Line"))
-			return new Line(areaID, Position.parse(getChild(n, "StartPoint")), Position.parse(getChild(n, "EndPoint")));
+			return new Line(areaID, Position.parse(getChild(n, "StartPoint")), Position.parse(getChild(n, "EndPoint")),
+					getChildContent(n, "LineWidth", 0.5f));
 		if (xsiType.equals("Image"))
 			return new DocumentImage(areaID, getAttribute(n, "DataID", "/"));
 		if (xsiType.equals("Rectangle"))
@@ -56,7 +56,7 @@ public class DocumentImage extends DocumentElement {
 	@Override
 	public void validate(SimplePDFDocument doc, ProcessListener listener, String docXml)  {
 		super.validate(doc, listener, docXml);
-		if(!doc.containsData(dataID)) listener.addMessage(ProcessMessage.createNoDataIDMessage(this, dataID, docXml));
+		if(!doc.containsData(dataID)) listener.addMessage(ProcessMessage.createNoDataIDMessage(this, dataID, doc));
 	}
 
 	@Override
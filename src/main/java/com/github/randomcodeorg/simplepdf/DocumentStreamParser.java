@@ -0,0 +1,360 @@
+package com.github.randomcodeorg.simplepdf;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Base64;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+
+/**
+ * <p>Parses a {@link SimplePDFDocument} from a StAX stream in a single forward pass.</p>
+ * <p>Only the definitions, elements and data that make up the resulting document are held in memory. Every style definition, area
+ * definition and element is read into a small detached node that is parsed by the same methods as a node of a complete DOM document
+ * (e.g. {@link DocumentElement#parse(Node)}), so both ways of parsing create the same objects. The Base64 text of binary data is
+ * decoded in chunks while it is read and never held in memory as a whole.</p>
+ * @author Marcel Singer
+ *
+ */
+final class DocumentStreamParser {
+
+	/**
+	 * The amount of Base64 characters decoded at once. Has to be a multiple of four.
+	 */
+	private static final int BASE64_CHUNK_SIZE = 4 * 4096;
+
+	/**
+	 * The property of the JDK's stream reader that reports CDATA sections as {@link XMLStreamConstants#CDATA} events.
+	 */
+	private static final String REPORT_CDATA_EVENT = "http://java.sun.com/xml/stream/properties/report-cdata-event";
+
+	private final XMLStreamReader reader;
+	private final Document nodeFactory;
+	private final ElementHandler handler;
+
+	/**
+	 * Creates a new instance of {@link DocumentStreamParser}.
+	 * @param reader The reader to parse from.
+	 * @param handler The handler that receives the parsed elements or <code>null</code> if the elements should be added to the
+	 * document.
+	 * @throws ParserConfigurationException Is thrown if the nodes used to parse single definitions and elements can not be created.
+	 */
+	public DocumentStreamParser(XMLStreamReader reader, ElementHandler handler) throws ParserConfigurationException {
+		this.reader = reader;
+		this.handler = handler;
+		this.nodeFactory = DocumentBuilderFactory.newInstance().newDocumentBuilder().newDocument();
+	}
+
+	/**
+	 * Creates a factory for readers that can be parsed by this class.
+	 * @return A factory for readers that can be parsed by this class.
+	 */
+	public static XMLInputFactory createInputFactory() {
+		XMLInputFactory factory = XMLInputFactory.newInstance();
+		// The names are looked up as they are written (e.g. 'xsi:type') like it is done using a DOM document
+		if (factory.isPropertySupported(XMLInputFactory.IS_NAMESPACE_AWARE))
+			factory.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, false);
+		// CDATA sections separate the text nodes of a DOM document, so they have to be reported separately
+		if (factory.isPropertySupported(REPORT_CDATA_EVENT))
+			factory.setProperty(REPORT_CDATA_EVENT, true);
+		return factory;
+	}
+
+	/**
+	 * Parses the document.
+	 * @return The parsed document.
+	 * @throws XMLStreamException Is thrown if there is an error parsing the document.
+	 */
+	public SimplePDFDocument parse() throws XMLStreamException {
+		nextElement();
+		SimplePDFDocument doc = new SimplePDFDocument("", "");
+		boolean hasTitle = false;
+		boolean hasCreator = false;
+		Node pageSize = null;
+		Node pagePadding = null;
+		String name;
+		while (nextElement() == XMLStreamConstants.START_ELEMENT) {
+			name = getName();
+			if (name.equals("Title") && !hasTitle) {
+				doc.getMetaInformation().setTitle(ParseTool.getContentText(readNode()));
+				hasTitle = true;
+			} else if (name.equals("Creator") && !hasCreator) {
+				doc.getMetaInformation().setAuthor(ParseTool.getContentText(readNode()));
+				hasCreator = true;
+			} else if (name.equals("PageSize") && pageSize == null) {
+				pageSize = readNode();
+			} else if (name.equals("PagePadding") && pagePadding == null) {
+				pagePadding = readNode();
+			} else if (name.equals("Styles")) {
+				parseStyles(doc);
+			} else if (name.equals("Areas")) {
+				parseAreas(doc);
+			} else if (name.equals("ResourceData")) {
+				parseData(doc);
+			} else if (name.equals("Elements")) {
+				parseElements(doc);
+			} else {
+				skipElement();
+			}
+		}
+		doc.setPageSize(Size.parse(pageSize));
+		doc.setPagePadding(Spacing.parse(pagePadding));
+		return doc;
+	}
+
+	private void parseStyles(SimplePDFDocument doc) throws XMLStreamException {
+		while (nextElement() == XMLStreamConstants.START_ELEMENT) {
+			if (getName().equals("StyleDefinition")) {
+				doc.addStyleDefinition(StyleDefinition.parse(readNode()));
+			} else {
+				skipElement();
+			}
+		}
+	}
+
+	private void parseAreas(SimplePDFDocument doc) throws XMLStreamException {
+		while (nextElement() == XMLStreamConstants.START_ELEMENT) {
+			if (getName().equals("AreaDefinition")) {
+				doc.addAreaDefinition(AreaDefinition.parse(readNode()));
+			} else {
+				skipElement();
+			}
+		}
+	}
+
+	private void parseElements(SimplePDFDocument doc) throws XMLStreamException {
+		Node n;
+		DocumentElement element;
+		while (nextElement() == XMLStreamConstants.START_ELEMENT) {
+			if (!getName().equals("DocumentElement")) {
+				skipElement();
+				continue;
+			}
+			n = readNode();
+			element = DocumentElement.parse(n);
+			if (element == null) {
+				System.err.println(
+						"No mapping found for xsi-type '" + ParseTool.getAttribute(n, "xsi:type", "") + "' => skipped!");
+			} else if (handler != null) {
+				handler.elementParsed(doc, element);
+			} else {
+				doc.addElement(element);
+			}
+		}
+	}
+
+	private void parseData(SimplePDFDocument doc) throws XMLStreamException {
+		while (nextElement() == XMLStreamConstants.START_ELEMENT) {
+			if (getName().equals("DocumentData")) {
+				doc.addData(readData());
+			} else {
+				skipElement();
+			}
+		}
+	}
+
+	/**
+	 * Reads the data element the reader is positioned at. The first text node of the first data child is decoded while it is read.
+	 * @return The parsed data.
+	 * @throws XMLStreamException Is thrown if there is an error parsing the document.
+	 */
+	private DocumentData readData() throws XMLStreamException {
+		String id = getAttribute("ID", "");
+		Base64Decoder decoder = null;
+		while (nextElement() == XMLStreamConstants.START_ELEMENT) {
+			if (decoder != null || !getName().equals("Data")) {
+				skipElement();
+				continue;
+			}
+			decoder = new Base64Decoder();
+			boolean inText = false;
+			boolean textRead = false;
+			int event;
+			while ((event = reader.next()) != XMLStreamConstants.END_ELEMENT) {
+				if (isText(event)) {
+					if (!textRead) {
+						decoder.write(reader.getTextCharacters(), reader.getTextStart(), reader.getTextLength());
+						inText = true;
+					}
+					continue;
+				}
+				// Any other node ends the text node
+				textRead |= inText;
+				if (event == XMLStreamConstants.START_ELEMENT)
+					skipElement();
+			}
+		}
+		if (decoder == null)
+			return new DocumentData(id, new byte[0]);
+		return new DocumentData(id, decoder.toByteArray());
+	}
+
+	/**
+	 * Reads the element the reader is positioned at into a detached node. The reader is positioned at the end of the element
+	 * afterwards. Adjacent text is joined into a single text node. CDATA sections, comments and processing instructions separate
+	 * the text nodes like they do within a DOM document.
+	 * @return The node holding the element.
+	 * @throws XMLStreamException Is thrown if there is an error parsing the document.
+	 */
+	private Element readNode() throws XMLStreamException {
+		Element root = createElement();
+		Node current = root;
+		StringBuilder text = new StringBuilder();
+		Element child;
+		int event;
+		while (true) {
+			event = reader.next();
+			if (isText(event)) {
+				text.append(reader.getTextCharacters(), reader.getTextStart(), reader.getTextLength());
+			} else if (event == XMLStreamConstants.CDATA) {
+				appendText(current, text);
+				current.appendChild(nodeFactory.createCDATASection(reader.getText()));
+			} else if (event == XMLStreamConstants.COMMENT || event == XMLStreamConstants.PROCESSING_INSTRUCTION) {
+				appendText(current, text);
+			} else if (event == XMLStreamConstants.START_ELEMENT) {
+				appendText(current, text);
+				child = createElement();
+				current.appendChild(child);
+				current = child;
+			} else if (event == XMLStreamConstants.END_ELEMENT) {
+				appendText(current, text);
+				if (current == root)
+					return root;
+				current = current.getParentNode();
+			}
+		}
+	}
+
+	private Element createElement() {
+		Element e = nodeFactory.createElement(getName());
+		for (int i = 0; i < reader.getAttributeCount(); i++) {
+			e.setAttribute(getQualifiedName(reader.getAttributePrefix(i), reader.getAttributeLocalName(i)),
+					reader.getAttributeValue(i));
+		}
+		return e;
+	}
+
+	private void appendText(Node parent, StringBuilder text) {
+		if (text.length() == 0)
+			return;
+		parent.appendChild(nodeFactory.createTextNode(text.toString()));
+		text.setLength(0);
+	}
+
+	/**
+	 * Moves the reader to the start of the next child element or to the end of the current element. Text, comments and other events
+	 * in between are ignored.
+	 * @return {@link XMLStreamConstants#START_ELEMENT} or {@link XMLStreamConstants#END_ELEMENT}.
+	 * @throws XMLStreamException Is thrown if there is an error parsing the document or if the end of the document was reached.
+	 */
+	private int nextElement() throws XMLStreamException {
+		int event;
+		do {
+			if (!reader.hasNext())
+				throw new XMLStreamException("Unexpected end of the document.", reader.getLocation());
+			event = reader.next();
+		} while (event != XMLStreamConstants.START_ELEMENT && event != XMLStreamConstants.END_ELEMENT);
+		return event;
+	}
+
+	/**
+	 * Skips the element the reader is positioned at including all of its children.
+	 * @throws XMLStreamException Is thrown if there is an error parsing the document.
+	 */
+	private void skipElement() throws XMLStreamException {
+		int depth = 1;
+		int event;
+		while (depth > 0) {
+			event = reader.next();
+			if (event == XMLStreamConstants.START_ELEMENT) {
+				depth++;
+			} else if (event == XMLStreamConstants.END_ELEMENT) {
+				depth--;
+			}
+		}
+	}
+
+	private String getAttribute(String name, String defaultValue) {
+		for (int i = 0; i < reader.getAttributeCount(); i++) {
+			if (getQualifiedName(reader.getAttributePrefix(i), reader.getAttributeLocalName(i)).equals(name))
+				return reader.getAttributeValue(i);
+		}
+		return defaultValue;
+	}
+
+	private String getName() {
+		return getQualifiedName(reader.getPrefix(), reader.getLocalName());
+	}
+
+	private static String getQualifiedName(String prefix, String localName) {
+		if (prefix == null || prefix.isEmpty())
+			return localName;
+		return prefix + ":" + localName;
+	}
+
+	private static boolean isText(int event) {
+		return event == XMLStreamConstants.CHARACTERS || event == XMLStreamConstants.SPACE;
+	}
+
+	/**
+	 * Decodes Base64 text in chunks. White space is ignored.
+	 * @author Marcel Singer
+	 *
+	 */
+	private static final class Base64Decoder {
+
+		private final Base64.Decoder decoder = Base64.getDecoder();
+		private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+		private final byte[] chunk = new byte[BASE64_CHUNK_SIZE];
+		private final byte[] decoded = new byte[BASE64_CHUNK_SIZE / 4 * 3];
+		private int length = 0;
+
+		/**
+		 * Decodes the given characters.
+		 * @param text The array holding the characters.
+		 * @param start The index of the first character.
+		 * @param count The amount of characters.
+		 * @throws IllegalArgumentException If the given text is not Base64 encoded.
+		 */
+		public void write(char[] text, int start, int count) throws IllegalArgumentException {
+			char c;
+			for (int i = start; i < start + count; i++) {
+				c = text[i];
+				if (Character.isWhitespace(c))
+					continue;
+				if (c > 0x7F)
+					throw new IllegalArgumentException("Illegal base64 character " + Integer.toHexString(c));
+				chunk[length++] = (byte) c;
+				if (length == chunk.length) {
+					out.write(decoded, 0, decoder.decode(chunk, decoded));
+					length = 0;
+				}
+			}
+		}
+
+		/**
+		 * Decodes the remaining characters and returns the decoded data.
+		 * @return The decoded data.
+		 * @throws IllegalArgumentException If the given text is not Base64 encoded.
+		 */
+		public byte[] toByteArray() throws IllegalArgumentException {
+			if (length > 0) {
+				byte[] rest = new byte[length];
+				System.arraycopy(chunk, 0, rest, 0, length);
+				byte[] result = decoder.decode(rest);
+				out.write(result, 0, result.length);
+				length = 0;
+			}
+			return out.toByteArray();
+		}
+
+	}
+
+}
@@ -0,0 +1,18 @@
+package com.github.randomcodeorg.simplepdf;
+
+/**
+ * Receives the elements of a document as soon as they are parsed (see {@link SimplePDFReader#read(java.io.InputStream, ElementHandler)}).
+ * @author Marcel Singer
+ *
+ */
+public interface ElementHandler {
+
+	/**
+	 * Is called as soon as an element was parsed. The element is not added to the given document.
+	 * @param document The document that is parsed. It contains the style definitions, area definitions and data that precede the
+	 * element within the parsed XML.
+	 * @param element The parsed element.
+	 */
+	public void elementParsed(SimplePDFDocument document, DocumentElement element);
+
+}
@@ -0,0 +1,227 @@
+package com.github.randomcodeorg.simplepdf;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * <p>A hash index that maps identifiers to the elements of an {@link XmlList}. Identifiers are compared case insensitive and ignoring
+ * leading and trailing white space. If multiple elements share the same identifier, the first one is returned.</p>
+ * <p>The index is rebuilt lazily if the list was modified or if the identifier of one of its elements was changed (see
+ * {@link Indexes}). Elements added using {@link #add(Object)} are indexed without a rebuild. Lookups of identifiers that were already
+ * found before neither normalize the identifier nor allocate memory. Identifiers that do not belong to any element are not cached, so
+ * looking up arbitrary identifiers does not fill the memory.</p>
+ * <p>Lookups do not acquire any lock. The indexed elements are published using a volatile field, so the index can be read by multiple
+ * threads as long as the indexed list is not modified at the same time.</p>
+ * @author Marcel Singer
+ *
+ * @param <T> The type of the indexed elements.
+ */
+abstract class IdentifierIndex<T> {
+
+	/**
+	 * The maximum amount of looked up identifiers that are cached per state. Different spellings of the same identifier are cached
+	 * separately.
+	 */
+	private static final int MAX_CACHED_LOOKUPS = 1024;
+
+	/**
+	 * Is incremented every time the identifier of an indexed element was changed.
+	 */
+	private final AtomicInteger generation = new AtomicInteger();
+	private final XmlList<T> source;
+	private volatile State<T> state;
+
+	/**
+	 * Creates a new index of the given list.
+	 * @param source The list to be indexed.
+	 */
+	public IdentifierIndex(XmlList<T> source) {
+		this.source = source;
+	}
+
+	/**
+	 * Returns the identifier of the given element.
+	 * @param element The element thats identifier should be returned.
+	 * @return The identifier of the given element.
+	 */
+	protected abstract String getID(T element);
+
+	/**
+	 * Returns the indexes containing the given element. The element has to notify them as soon as its identifier is changed.
+	 * @param element The indexed element.
+	 * @return The indexes containing the given element.
+	 */
+	protected abstract Indexes getIndexes(T element);
+
+	/**
+	 * Returns the element with the given identifier.
+	 * @param id The identifier of the element to return.
+	 * @return The element with the given identifier or <code>null</code> if there is none.
+	 */
+	public T get(String id) {
+		if (id == null)
+			return null;
+		State<T> current = state;
+		if (!isValid(current))
+			current = rebuild();
+		T result = current.lookups.get(id);
+		if (result == null) {
+			result = current.index.get(normalize(id));
+			if (result != null && current.lookups.size() < MAX_CACHED_LOOKUPS)
+				current.lookups.put(id, result);
+		}
+		return result;
+	}
+
+	/**
+	 * Returns the amount of identifiers whose lookup is cached.
+	 * @return The amount of identifiers whose lookup is cached.
+	 */
+	int getCachedLookupCount() {
+		State<T> current = state;
+		if (current == null)
+			return 0;
+		return current.lookups.size();
+	}
+
+	/**
+	 * Adds the given element to the indexed list and to this index.
+	 * @param element The element to add.
+	 */
+	public synchronized void add(T element) {
+		State<T> current = state;
+		boolean wasValid = isValid(current);
+		source.add(element);
+		if (!wasValid)
+			return;
+		getIndexes(element).add(this);
+		current.index.putIfAbsent(normalize(getID(element)), element);
+		// Previous lookups might have missed the added element
+		state = new State<T>(current.index, current.generation, source.getModificationCount());
+	}
+
+	/**
+	 * Returns <code>true</code> if the given state reflects the current state of the indexed list.
+	 * @param state The state to check.
+	 * @return <code>true</code> if the given state reflects the current state of the indexed list.
+	 */
+	private boolean isValid(State<T> state) {
+		if (state == null)
+			return false;
+		int currentModifications = source.getModificationCount();
+		return currentModifications != -1 && currentModifications == state.modificationCount
+				&& state.generation == generation.get();
+	}
+
+	/**
+	 * Rebuilds this index from the indexed list.
+	 * @return The rebuilt state.
+	 */
+	private synchronized State<T> rebuild() {
+		State<T> current = state;
+		if (isValid(current))
+			return current;
+		// The generation is read first, so identifiers that are changed during the rebuild cause another one
+		int currentGeneration = generation.get();
+		ConcurrentMap<String, T> index = new ConcurrentHashMap<String, T>();
+		for (T element : source) {
+			getIndexes(element).add(this);
+			index.putIfAbsent(normalize(getID(element)), element);
+		}
+		current = new State<T>(index, currentGeneration, source.getModificationCount());
+		state = current;
+		return current;
+	}
+
+	/**
+	 * Notifies this index that the identifier of one of its elements was changed.
+	 */
+	private void identifierChanged() {
+		generation.incrementAndGet();
+	}
+
+	/**
+	 * Returns the normalized form of the given identifier.
+	 * @param id The identifier to normalize.
+	 * @return The normalized identifier.
+	 */
+	static String normalize(String id) {
+		return id.toLowerCase().trim();
+	}
+
+	/**
+	 * The indexed elements and the state of the indexed list they were taken from.
+	 * @author Marcel Singer
+	 *
+	 * @param <T> The type of the indexed elements.
+	 */
+	private static final class State<T> {
+
+		private final ConcurrentMap<String, T> index;
+		/**
+		 * Maps the identifiers that were found (as they were looked up) to the resulting elements.
+		 */
+		private final ConcurrentMap<String, T> lookups = new ConcurrentHashMap<String, T>();
+		private final int generation;
+		private final int modificationCount;
+
+		public State(ConcurrentMap<String, T> index, int generation, int modificationCount) {
+			this.index = index;
+			this.generation = generation;
+			this.modificationCount = modificationCount;
+		}
+
+	}
+
+	/**
+	 * <p>The indexes containing an element. Every indexed element type holds an instance of this class and calls
+	 * {@link #identifierChanged()} within its <code>setID</code> method, so only the indexes of the documents containing the element are
+	 * rebuilt.</p>
+	 * <p>The indexes are referenced weakly, so an element that is shared by multiple documents does not keep their indexes alive.</p>
+	 * @author Marcel Singer
+	 *
+	 */
+	static final class Indexes {
+
+		private final List<WeakReference<IdentifierIndex<?>>> indexes = new ArrayList<WeakReference<IdentifierIndex<?>>>(1);
+
+		/**
+		 * Adds the given index unless it was already added.
+		 * @param index The index containing the element.
+		 */
+		synchronized void add(IdentifierIndex<?> index) {
+			IdentifierIndex<?> current;
+			Iterator<WeakReference<IdentifierIndex<?>>> iterator = indexes.iterator();
+			while (iterator.hasNext()) {
+				current = iterator.next().get();
+				if (current == index)
+					return;
+				if (current == null)
+					iterator.remove();
+			}
+			indexes.add(new WeakReference<IdentifierIndex<?>>(index));
+		}
+
+		/**
+		 * Notifies all indexes containing the element that its identifier was changed.
+		 */
+		synchronized void identifierChanged() {
+			IdentifierIndex<?> current;
+			Iterator<WeakReference<IdentifierIndex<?>>> iterator = indexes.iterator();
+			while (iterator.hasNext()) {
+				current = iterator.next().get();
+				if (current == null)
+					iterator.remove();
+				else
+					current.identifierChanged();
+			}
+		}
+
+	}
+
+}
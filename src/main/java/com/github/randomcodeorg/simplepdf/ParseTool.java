@@ -20,11 +20,9 @@ class ParseTool {
 	 * @return The first child with the specified name or <code>null</code> if there is none.
 	 */
 	public static Node getChild(Node parent, String nodeName) {
-		if (parent == null || parent.getChildNodes() == null)
+		if (parent == null)
 			return null;
-		Node n;
-		for (int i = 0; i < parent.getChildNodes().getLength(); i++) {
-			n = parent.getChildNodes().item(i);
+		for (Node n = parent.getFirstChild(); n != null; n = n.getNextSibling()) {
 			if (n.getNodeName().equals(nodeName))
 				return n;
 		}
@@ -1,8 +1,15 @@
 package com.github.randomcodeorg.simplepdf;
 
 /**
+ * <p>
  * This class represents a message that might be created during the validation
  * of a document.
+ * </p>
+ * <p>
+ * The position of the affected element within the XML representation of the
+ * document is only determined when it is requested (see
+ * {@link #getAffectedPosition()}).
+ * </p>
  * 
  * @author Marcel Singer
  *
@@ -34,6 +41,9 @@ public class ProcessMessage {
 	private final DocumentElement affectedElement;
 	private final String message;
 	private int affectedPosition;
+	private boolean positionResolved = true;
+	private String xml;
+	private XmlPositionIndex positions;
 
 	/**
 	 * Creates a new instance of {@link ProcessMessage}.
@@ -67,8 +77,28 @@ public class ProcessMessage {
 	public ProcessMessage(MessageType type, DocumentElement affectedElement, String message, String xml) {
 		this(type, affectedElement, message);
 		if (affectedElement != null) {
-			String eXml = affectedElement.toXML();
-			setAffectedPosition(FormattingTools.findIndex(xml, eXml));
+			this.xml = xml;
+			positionResolved = false;
+		}
+	}
+
+	/**
+	 * Creates a new instance of {@link ProcessMessage}.
+	 * 
+	 * @param type
+	 *            The type of the message.
+	 * @param affectedElement
+	 *            The affected document element.
+	 * @param message
+	 *            The message text.
+	 * @param doc
+	 *            The document containing the affected element.
+	 */
+	public ProcessMessage(MessageType type, DocumentElement affectedElement, String message, SimplePDFDocument doc) {
+		this(type, affectedElement, message);
+		if (affectedElement != null) {
+			this.positions = doc.getPositionIndex();
+			positionResolved = false;
 		}
 	}
 
@@ -106,7 +136,19 @@ public class ProcessMessage {
 	 * @return The affected position within the XML representation of the
 	 *         document.
 	 */
-	public int getAffectedPosition() {
+	public synchronized int getAffectedPosition() {
+		if (!positionResolved) {
+			if (positions != null) {
+				affectedPosition = positions.getPosition(affectedElement);
+			} else if (xml != null) {
+				affectedPosition = FormattingTools.findIndex(xml, affectedElement.toXML());
+			} else {
+				affectedPosition = -1;
+			}
+			positionResolved = true;
+			positions = null;
+			xml = null;
+		}
 		return affectedPosition;
 	}
 
@@ -116,8 +158,11 @@ public class ProcessMessage {
 	 * @param position
 	 *            The position to set.
 	 */
-	public void setAffectedPosition(int position) {
+	public synchronized void setAffectedPosition(int position) {
 		this.affectedPosition = position;
+		positionResolved = true;
+		positions = null;
+		xml = null;
 	}
 
 	/**
@@ -126,7 +171,7 @@ public class ProcessMessage {
 	 * @return <code>true</code> if there is a set position.
 	 */
 	public boolean hasPosition() {
-		return affectedPosition != -1;
+		return getAffectedPosition() != -1;
 	}
 
 	/**
@@ -144,6 +189,20 @@ public class ProcessMessage {
 		return message;
 	}
 
+	/**
+	 * Creates a {@link ProcessMessage} reporting a missing area identifier.
+	 * 
+	 * @param el
+	 *            The affected element.
+	 * @param doc
+	 *            The document containing the affected element.
+	 * @return A {@link ProcessMessage} reporting a missing area identifier.
+	 */
+	public static ProcessMessage createNoAreaIDMessage(DocumentElement el, SimplePDFDocument doc) {
+		return new ProcessMessage(MessageType.ERROR, el,
+				"There is no area-definition for the given id ('" + el.getAreaID() + "').", doc);
+	}
+
 	/**
 	 * Creates a {@link ProcessMessage} reporting a missing style identifier.
 	 * 
@@ -158,6 +217,20 @@ public class ProcessMessage {
 				"There is no style-definition for the given id ('" + el.getStyleID() + "').", xml);
 	}
 
+	/**
+	 * Creates a {@link ProcessMessage} reporting a missing style identifier.
+	 * 
+	 * @param el
+	 *            The affected element.
+	 * @param doc
+	 *            The document containing the affected element.
+	 * @return A {@link ProcessMessage} reporting a missing style identifier.
+	 */
+	public static ProcessMessage createNoStyleIDMessage(DocumentElement el, SimplePDFDocument doc) {
+		return new ProcessMessage(MessageType.ERROR, el,
+				"There is no style-definition for the given id ('" + el.getStyleID() + "').", doc);
+	}
+
 	/**
 	 * Creates a {@link ProcessMessage} reporting a missing data identifier.
 	 * 
@@ -172,4 +245,19 @@ public class ProcessMessage {
 		return new ProcessMessage(MessageType.ERROR, el,
 				"There is no data-definition for the given id ('" + dataID + "').", xml);
 	}
+
+	/**
+	 * Creates a {@link ProcessMessage} reporting a missing data identifier.
+	 * 
+	 * @param el
+	 *            The affected element.
+	 * @param dataID The identifier of the missing data definition.
+	 * @param doc
+	 *            The document containing the affected element.
+	 * @return A {@link ProcessMessage} reporting a missing data identifier.
+	 */
+	public static ProcessMessage createNoDataIDMessage(DocumentElement el, String dataID, SimplePDFDocument doc) {
+		return new ProcessMessage(MessageType.ERROR, el,
+				"There is no data-definition for the given id ('" + dataID + "').", doc);
+	}
 }
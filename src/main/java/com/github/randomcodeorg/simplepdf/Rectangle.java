@@ -99,7 +99,7 @@ public class Rectangle extends DocumentElement{
 	public static Rectangle parse(Node n){
 		Position p = Position.parse(getChild(n, "Location"));
 		Size s = Size.parse(getChild(n, "Size"));
-		float lineWidth = getAttribute(n, "LineWidth", 0.5f);
+		float lineWidth = getChildContent(n, "LineWidth", 0.5f);
 		return new Rectangle("/", p, s, lineWidth);
 	}
 	
@@ -1,18 +1,16 @@
 package com.github.randomcodeorg.simplepdf;
 
-import static com.github.randomcodeorg.simplepdf.ParseTool.getAttribute;
-import static com.github.randomcodeorg.simplepdf.ParseTool.getChild;
-
+import java.io.BufferedWriter;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
 import java.nio.charset.Charset;
 import java.util.ArrayList;
 import java.util.List;
 
-import org.w3c.dom.Node;
-
 import com.github.randomcodeorg.simplepdf.creation.ProcessListener;
 
 
@@ -71,16 +69,53 @@ import com.github.randomcodeorg.simplepdf.creation.ProcessListener;
  * @author Marcel Singer
  * 
  */
-public class SimplePDFDocument implements XmlSerializable {
+public class SimplePDFDocument implements XmlWritable {
 
 
 	private final XmlList<StyleDefinition> styles = new XmlList<StyleDefinition>("Styles");
 	private final XmlList<AreaDefinition> areas = new XmlList<AreaDefinition>("Areas");
 	private final XmlList<DocumentElement> elements = new XmlList<DocumentElement>("Elements");
 	private final XmlList<DocumentData> data = new XmlList<DocumentData>("ResourceData");
+	private final IdentifierIndex<StyleDefinition> styleIndex = new IdentifierIndex<StyleDefinition>(styles) {
+
+		@Override
+		protected String getID(StyleDefinition element) {
+			return element.getID();
+		}
+
+		@Override
+		protected Indexes getIndexes(StyleDefinition element) {
+			return element.getIndexes();
+		}
+	};
+	private final IdentifierIndex<AreaDefinition> areaIndex = new IdentifierIndex<AreaDefinition>(areas) {
+
+		@Override
+		protected String getID(AreaDefinition element) {
+			return element.getID();
+		}
+
+		@Override
+		protected Indexes getIndexes(AreaDefinition element) {
+			return element.getIndexes();
+		}
+	};
+	private final IdentifierIndex<DocumentData> dataIndex = new IdentifierIndex<DocumentData>(data) {
+
+		@Override
+		protected String getID(DocumentData element) {
+			return element.getID();
+		}
+
+		@Override
+		protected Indexes getIndexes(DocumentData element) {
+			return element.getIndexes();
+		}
+	};
 	private final DocumentMetaInformation metaInformation = new DocumentMetaInformation();
 	private Spacing pagePadding = new Spacing(0);
 	private Size pageSize = new Size(210, 297);
+	private XmlPositionIndex positionIndex;
 
 	/**
 	 * Creates a new document using the given title and author.
@@ -190,6 +225,10 @@ public class SimplePDFDocument implements XmlSerializable {
 	 * public Spacing getPagePadding() { return pagePadding; }
 	 */
 
+	Spacing getPagePadding() {
+		return pagePadding;
+	}
+
 	/**
 	 * Returns the page size of this document.
 	 * 
@@ -223,7 +262,7 @@ public class SimplePDFDocument implements XmlSerializable {
 		metaInformation.setAuthor(creator);
 	}
 
-	private void setPagePadding(Spacing pagePadding) {
+	void setPagePadding(Spacing pagePadding) {
 		if (pagePadding == null)
 			throw new NullPointerException("The pagePadding may not be null.");
 		this.pagePadding = pagePadding;
@@ -244,7 +283,9 @@ public class SimplePDFDocument implements XmlSerializable {
 	}
 
 	/**
-	 * Validates this document.
+	 * Validates this document. The positions of the reported messages within
+	 * the XML representation of this document are only determined if they are
+	 * requested (see {@link ProcessMessage#getAffectedPosition()}).
 	 * 
 	 * @param listener
 	 *            A listener that will be notified when issues are found during
@@ -252,13 +293,32 @@ public class SimplePDFDocument implements XmlSerializable {
 	 */
 	public void validate(ProcessListener listener) {
 		listener.start();
-		String xml = toXML();
-		for (DocumentElement de : elements) {
-			de.validate(this, listener, xml);
+		XmlPositionIndex previous = positionIndex;
+		positionIndex = new XmlPositionIndex(this);
+		try {
+			for (DocumentElement de : elements) {
+				de.validate(this, listener, null);
+			}
+		} finally {
+			positionIndex = previous;
 		}
 		listener.complete();
 	}
 
+	/**
+	 * Returns the index that is used to locate elements within the XML
+	 * representation of this document. All messages of a validation share the
+	 * same index, so this document is serialized at most once per validation.
+	 * 
+	 * @return The index that is used to locate elements within the XML
+	 *         representation of this document.
+	 */
+	XmlPositionIndex getPositionIndex() {
+		if (positionIndex == null)
+			return new XmlPositionIndex(this);
+		return positionIndex;
+	}
+
 	/**
 	 * Adds a style definition to this document. This method will have no effect
 	 * if the given instance is already part of this document.
@@ -278,7 +338,7 @@ public class SimplePDFDocument implements XmlSerializable {
 			throw new NullPointerException("The style may not be null.");
 		if (containsStyleDefinition(style.getID()))
 			throw new DuplicateIDException("There already is a style-definition with the id '" + style.getID() + "'.");
-		styles.add(style);
+		styleIndex.add(style);
 	}
 
 	/**
@@ -290,13 +350,7 @@ public class SimplePDFDocument implements XmlSerializable {
 	 *         <code>null</code> if there is none.
 	 */
 	public StyleDefinition getStyleDefinition(String styleID) {
-		if (styleID == null)
-			return null;
-		for (StyleDefinition sd : styles) {
-			if (sd.getID().toLowerCase().trim().equals(styleID.toLowerCase().trim()))
-				return sd;
-		}
-		return null;
+		return styleIndex.get(styleID);
 	}
 
 	/**
@@ -382,7 +436,7 @@ public class SimplePDFDocument implements XmlSerializable {
 			throw new NullPointerException("The area may not be null.");
 		if (containsAreaDefinition(area.getID()))
 			throw new DuplicateIDException("There is a already an area-definition with the id '" + area.getID() + "'.");
-		areas.add(area);
+		areaIndex.add(area);
 	}
 
 	/**
@@ -434,11 +488,7 @@ public class SimplePDFDocument implements XmlSerializable {
 	 *         <code>null</code> if there is none.
 	 */
 	public AreaDefinition getAreaDefinition(String areaID) {
-		for (AreaDefinition ad : areas) {
-			if (ad.getID().toLowerCase().trim().equals(areaID.toLowerCase().trim()))
-				return ad;
-		}
-		return null;
+		return areaIndex.get(areaID);
 	}
 
 	/**
@@ -473,7 +523,7 @@ public class SimplePDFDocument implements XmlSerializable {
 			throw new NullPointerException("The data may not be null.");
 		if (containsData(data.getID()))
 			throw new DuplicateIDException("There is already a data-element with the id '" + data.getID() + "'.");
-		this.data.add(data);
+		dataIndex.add(data);
 	}
 
 	/**
@@ -517,11 +567,7 @@ public class SimplePDFDocument implements XmlSerializable {
 	 *         <code>null</code> if there is none.
 	 */
 	public DocumentData getData(String dataID) {
-		for (DocumentData dd : data) {
-			if (dd.getID().toLowerCase().trim().equals(dataID.toLowerCase().trim()))
-				return dd;
-		}
-		return null;
+		return dataIndex.get(dataID);
 	}
 
 	/**
@@ -716,102 +762,89 @@ public class SimplePDFDocument implements XmlSerializable {
 	@Deprecated
 	public void save(OutputStream stream, boolean autoClose) throws IOException {
 		try {
-			String xml = toXML();
-			byte[] data = xml.getBytes(Charset.forName("UTF-8"));
-			stream.write(data);
+			writeXML(stream);
 		} finally {
 			if (autoClose)
 				stream.close();
 		}
 	}
 
+	/**
+	 * Writes the XML representation of this document (see {@link #toXML()}) to the given stream using the UTF-8 encoding. The
+	 * document is streamed, so neither the XML text nor the encoded binary data (see {@link DocumentData}) is held in memory as a
+	 * whole. The given stream is flushed but not closed.
+	 * 
+	 * @param stream
+	 *            The stream to write to.
+	 * @throws IOException
+	 *             Is thrown if an I/O error occurred.
+	 */
+	public void writeXML(OutputStream stream) throws IOException {
+		Writer out = new BufferedWriter(new OutputStreamWriter(stream, Charset.forName("UTF-8")));
+		writeXML(out);
+		out.flush();
+	}
+
+	/**
+	 * Writes the XML representation of this document (see {@link #toXML()}) to the given writer. The given writer is neither
+	 * flushed nor closed.
+	 * 
+	 * @param out
+	 *            The writer to write to.
+	 * @throws IOException
+	 *             Is thrown if an I/O error occurred.
+	 */
+	public void writeXML(Writer out) throws IOException {
+		writeXML(new XmlWriter(out));
+	}
+
 	@Override
-	public String toXML() {
+	public void writeXML(XmlWriter out) throws IOException {
+		writeXML(out, true);
+	}
+
+	/**
+	 * Writes the XML representation of this document to the given writer.
+	 * 
+	 * @param out
+	 *            The writer to write to.
+	 * @param complete
+	 *            <code>false</code> if the writer should stop after the
+	 *            elements. The binary data is neither read nor written in this
+	 *            case.
+	 * @throws IOException
+	 *             Is thrown if an I/O error occurred.
+	 */
+	void writeXML(XmlWriter out, boolean complete) throws IOException {
 		String title = metaInformation.getTitle();
 		if (title == null)
 			title = "";
 		String creator = metaInformation.getAuthor();
 		if (creator == null)
 			creator = "";
-		StringBuilder sb = new StringBuilder();
-		sb.append(
+		out.write(
 				"<?xml version=\"1.0\"?>\n<SimplePDFDocument xmlns:xsi=\"http://www.w3.org/2001/XMLSchema-instance\" xmlns:xsd=\"http://www.w3.org/2001/XMLSchema\">\n");
-		sb.append(String.format("\t<Title>%s</Title>\n\t<Creator>%s</Creator>\n\t", title, creator));
-		sb.append(pagePadding.toXML("PagePadding"));
-		sb.append("\n\t");
-		sb.append(pageSize.toXML("PageSize"));
-		sb.append("\n");
-		sb.append(FormattingTools.indentText(styles.toXML()));
-		sb.append("\n");
-		sb.append(FormattingTools.indentText(areas.toXML()));
-		sb.append("\n");
-		sb.append(FormattingTools.indentText(elements.toXML()));
-		sb.append("\n");
-		sb.append(FormattingTools.indentText(data.toXML()));
-		sb.append("\n");
-		sb.append("</SimplePDFDocument>");
-		return sb.toString();
-	}
-
-	/**
-	 * Creates an instance of {@link SimplePDFDocument} by parsing the given node.
-	 * @param n The node to parse.
-	 * @return An instance of {@link SimplePDFDocument}.
-	 */
-	static SimplePDFDocument parse(Node n) {
-		String title = ParseTool.getContentText(ParseTool.getChild(n, "Title"));
-		String creator = ParseTool.getChildContentText(n, "Creator");
-		SimplePDFDocument doc = new SimplePDFDocument(title, creator);
-		doc.setPageSize(Size.parse(getChild(n, "PageSize")));
-		doc.setPagePadding(Spacing.parse(getChild(n, "PagePadding")));
-		parseAreas(doc, getChild(n, "Areas"));
-		parseStyles(doc, getChild(n, "Styles"));
-		parseData(doc, getChild(n, "ResourceData"));
-		parseElements(doc, getChild(n, "Elements"));
-		return doc;
-	}
-
-	private static void parseElements(SimplePDFDocument doc, Node n) {
-		DocumentElement currentE;
-		for (int i = 0; i < n.getChildNodes().getLength(); i++) {
-			Node eN = n.getChildNodes().item(i);
-			if (!eN.getNodeName().equals("DocumentElement"))
-				continue;
-			currentE = DocumentElement.parse(eN);
-			if (currentE != null)
-				doc.addElement(currentE);
-			else {
-				System.err.println(
-						"No mapping found for xsi-type '" + getAttribute(eN, "xsi:type", "") + "' => skipped!");
-			}
-		}
-	}
-
-	private static void parseAreas(SimplePDFDocument doc, Node n) {
-		for (int i = 0; i < n.getChildNodes().getLength(); i++) {
-			Node aN = n.getChildNodes().item(i);
-			if (!aN.getNodeName().equals("AreaDefinition"))
-				continue;
-			doc.addAreaDefinition(AreaDefinition.parse(aN));
-		}
-	}
-
-	private static void parseStyles(SimplePDFDocument doc, Node n) {
-		for (int i = 0; i < n.getChildNodes().getLength(); i++) {
-			Node sN = n.getChildNodes().item(i);
-			if (!sN.getNodeName().equals("StyleDefinition"))
-				continue;
-			doc.addStyleDefinition(StyleDefinition.parse(sN));
-		}
+		out.write(String.format("\t<Title>%s</Title>\n\t<Creator>%s</Creator>\n\t", title, creator));
+		out.write(pagePadding.toXML("PagePadding"));
+		out.write("\n\t");
+		out.write(pageSize.toXML("PageSize"));
+		out.write("\n");
+		out.writeIndented(styles);
+		out.write("\n");
+		out.writeIndented(areas);
+		out.write("\n");
+		out.writeIndented(elements);
+		if (!complete)
+			return;
+		out.write("\n");
+		out.writeIndented(data);
+		out.write("\n");
+		out.write("</SimplePDFDocument>");
 	}
 
-	private static void parseData(SimplePDFDocument doc, Node n) {
-		for (int i = 0; i < n.getChildNodes().getLength(); i++) {
-			Node dN = n.getChildNodes().item(i);
-			if (!dN.getNodeName().equals("DocumentData"))
-				continue;
-			doc.addData(DocumentData.parse(dN));
-		}
+	@Override
+	public String toXML() {
+		return XmlWriter.toXML(this);
 	}
 
 }
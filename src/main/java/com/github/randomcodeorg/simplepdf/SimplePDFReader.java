@@ -4,18 +4,23 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.StringReader;
 
-import javax.xml.parsers.DocumentBuilder;
-import javax.xml.parsers.DocumentBuilderFactory;
 import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
 
-import org.w3c.dom.Document;
-import org.w3c.dom.Node;
-import org.xml.sax.InputSource;
 import org.xml.sax.SAXException;
 
+import com.github.randomcodeorg.simplepdf.creation.RenderMetrics;
+import com.github.randomcodeorg.simplepdf.creation.RenderPhase;
+
 
 /**
- * A reader to parse a document.
+ * <p>A reader to parse a document.</p>
+ * <p>The document is parsed in a single forward pass using a StAX stream. Apart from the resulting document only the definition or
+ * element that is currently parsed is held in memory. Binary data is decoded while it is read. Use
+ * {@link #read(InputStream, ElementHandler)} to receive the elements as soon as they are parsed instead of collecting them within
+ * the document.</p>
  * 
  * @deprecated The SDF format is currently not maintained.
  * @author Marcel Singer
@@ -31,28 +36,56 @@ public class SimplePDFReader {
 	}
 
 	/**
-	 * Returns the document builder.
-	 * @return The document builder.
+	 * Parses a {@link SimplePDFDocument} by reading the given input stream.
+	 * @param in The input stream to read.
+	 * @return The parsed document.
 	 * @throws ParserConfigurationException Is thrown if the parser is not configured correctly.
+	 * @throws SAXException Is thrown if there is an error parsing the document.
+	 * @throws IOException Is thrown if an I/O error occurs.
 	 */
-	private DocumentBuilder getBuilder() throws ParserConfigurationException {
-		DocumentBuilderFactory dbFactory = DocumentBuilderFactory.newInstance();
-		DocumentBuilder dBuilder = dbFactory.newDocumentBuilder();
-		return dBuilder;
+	public SimplePDFDocument read(InputStream in)
+			throws ParserConfigurationException, SAXException, IOException {
+		return read(in, null);
 	}
 
 	/**
-	 * Parses a {@link SimplePDFDocument} by reading the given input stream.
+	 * Parses a {@link SimplePDFDocument} by reading the given input stream. Every element is handed to the given handler as soon as
+	 * it is parsed and is not added to the returned document.
 	 * @param in The input stream to read.
+	 * @param handler The handler that receives the parsed elements or <code>null</code> if the elements should be added to the
+	 * returned document.
 	 * @return The parsed document.
 	 * @throws ParserConfigurationException Is thrown if the parser is not configured correctly.
 	 * @throws SAXException Is thrown if there is an error parsing the document.
 	 * @throws IOException Is thrown if an I/O error occurs.
 	 */
-	public SimplePDFDocument read(InputStream in)
+	public SimplePDFDocument read(InputStream in, ElementHandler handler)
+			throws ParserConfigurationException, SAXException, IOException {
+		XMLInputFactory factory = DocumentStreamParser.createInputFactory();
+		try {
+			return parse(factory.createXMLStreamReader(in), handler);
+		} catch (XMLStreamException e) {
+			throw toException(e);
+		}
+	}
+
+	/**
+	 * Parses a {@link SimplePDFDocument} by reading the given input stream and records the duration as {@link RenderPhase#PARSE}.
+	 * @param in The input stream to read.
+	 * @param metrics The metrics object that records the duration.
+	 * @return The parsed document.
+	 * @throws ParserConfigurationException Is thrown if the parser is not configured correctly.
+	 * @throws SAXException Is thrown if there is an error parsing the document.
+	 * @throws IOException Is thrown if an I/O error occurs.
+	 */
+	public SimplePDFDocument readMeasured(InputStream in, RenderMetrics metrics)
 			throws ParserConfigurationException, SAXException, IOException {
-		Document doc = getBuilder().parse(in);
-		return parse(doc.getDocumentElement());
+		long start = System.nanoTime();
+		try {
+			return read(in);
+		} finally {
+			metrics.addDuration(RenderPhase.PARSE, System.nanoTime() - start);
+		}
 	}
 
 	/**
@@ -65,19 +98,61 @@ public class SimplePDFReader {
 	 */
 	public SimplePDFDocument read(String xml) throws SAXException, IOException,
 			ParserConfigurationException {
-		Document doc = getBuilder().parse(
-				new InputSource(new StringReader(xml)));
-		return parse(doc.getDocumentElement());
+		XMLInputFactory factory = DocumentStreamParser.createInputFactory();
+		try {
+			return parse(factory.createXMLStreamReader(new StringReader(xml)), null);
+		} catch (XMLStreamException e) {
+			throw toException(e);
+		}
+	}
+
+	/**
+	 * Parses a {@link SimplePDFDocument} from the given XML text and records the duration as {@link RenderPhase#PARSE}.
+	 * @param xml The XML text to parse from.
+	 * @param metrics The metrics object that records the duration.
+	 * @return The parsed document.
+	 * @throws SAXException Is thrown if there is an error parsing the document.
+	 * @throws IOException Is thrown if an I/O error occurs.
+	 * @throws ParserConfigurationException Is thrown if the parses is not configured correctly.
+	 */
+	public SimplePDFDocument readMeasured(String xml, RenderMetrics metrics) throws SAXException, IOException,
+			ParserConfigurationException {
+		long start = System.nanoTime();
+		try {
+			return read(xml);
+		} finally {
+			metrics.addDuration(RenderPhase.PARSE, System.nanoTime() - start);
+		}
+	}
+
+	/**
+	 * Parses the document provided by the given reader and closes the reader afterwards.
+	 * @param reader The reader to parse from.
+	 * @param handler The handler that receives the parsed elements or <code>null</code> if the elements should be added to the
+	 * document.
+	 * @return The parsed document.
+	 * @throws XMLStreamException Is thrown if there is an error parsing the document.
+	 * @throws ParserConfigurationException Is thrown if the parser is not configured correctly.
+	 */
+	private SimplePDFDocument parse(XMLStreamReader reader, ElementHandler handler)
+			throws XMLStreamException, ParserConfigurationException {
+		try {
+			return new DocumentStreamParser(reader, handler).parse();
+		} finally {
+			reader.close();
+		}
 	}
 
 	/**
-	 * Parses the given node.
-	 * @param n The node to be parsed.
-	 * @return A document created by parsing the given node.
+	 * Converts the given exception into the exception that is thrown by the read methods of this class.
+	 * @param e The exception to convert.
+	 * @return A {@link SAXException} describing the given exception.
+	 * @throws IOException Is thrown if the given exception was caused by an I/O error.
 	 */
-	private SimplePDFDocument parse(Node n) {
-		SimplePDFDocument doc = SimplePDFDocument.parse(n);
-		return doc;
+	private static SAXException toException(XMLStreamException e) throws IOException {
+		if (e.getNestedException() instanceof IOException)
+			throw (IOException) e.getNestedException();
+		return new SAXException(e.getMessage(), e);
 	}
 
 }
@@ -50,6 +50,7 @@ public class StyleDefinition implements XmlSerializable {
 	public static final Color STD_COLOR = Color.BLACK;
 
 	private String id = "";
+	private final IdentifierIndex.Indexes indexes = new IdentifierIndex.Indexes();
 	private int fontSize = STD_FONT_SIZE;
 	private TextDecoration decoration = STD_DECORATION;
 	private String fontName = STD_FONT_NAME;
@@ -159,6 +160,15 @@ public class StyleDefinition implements XmlSerializable {
 		if (id.isEmpty())
 			throw new IllegalArgumentException("The id may not be empty.");
 		this.id = id;
+		indexes.identifierChanged();
+	}
+
+	/**
+	 * Returns the indexes containing this style definition.
+	 * @return The indexes containing this style definition.
+	 */
+	IdentifierIndex.Indexes getIndexes() {
+		return indexes;
 	}
 
 	/**
@@ -1,5 +1,6 @@
 package com.github.randomcodeorg.simplepdf;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
@@ -111,6 +112,21 @@ public class Table extends DocumentElement {
 		sb.append(String.format("\n<DoAutoAlign>%s</DoAutoAlign>", aalg));
 		return sb.toString();
 	}
+
+	/**
+	 * {@inheritDoc}
+	 * <p>The rows are streamed to the given writer instead of serializing the whole table into a string first.</p>
+	 */
+	@Override
+	public void writeXML(XmlWriter out) throws IOException {
+		String aalg = "false";
+		if(doAutoAligment) aalg = "true";
+		writeStartTag(out);
+		out.write(">\n");
+		out.writeIndented(new XmlList<TableRow>("Rows", rows));
+		out.write(String.format("\n\t<DoAutoAlign>%s</DoAutoAlign>", aalg));
+		out.write("\n</DocumentElement>");
+	}
 	
 	@Override
 	protected DocumentElement onCopy() {
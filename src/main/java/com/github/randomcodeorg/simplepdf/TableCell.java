@@ -1,5 +1,6 @@
 package com.github.randomcodeorg.simplepdf;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
@@ -10,7 +11,7 @@ import java.util.Locale;
  * @author Marcel Singer
  *
  */
-public class TableCell implements XmlSerializable {
+public class TableCell implements XmlWritable {
 	
 	private float width;
 	private float height;
@@ -90,11 +91,14 @@ public class TableCell implements XmlSerializable {
 	
 	@Override
 	public String toXML() {
-		StringBuilder sb = new StringBuilder();
-		sb.append(String.format(Locale.US,"<TableCell>\n\t<Width>%.2f</Width>\n\t<Height>%.2f</Height>\n", width, height));
-		sb.append(FormattingTools.indentText(new XmlList<DocumentElement>("Contents", contents).toXML()));
-		sb.append("\n</TableCell>");
-		return sb.toString();
+		return XmlWriter.toXML(this);
+	}
+
+	@Override
+	public void writeXML(XmlWriter out) throws IOException {
+		out.write(String.format(Locale.US,"<TableCell>\n\t<Width>%.2f</Width>\n\t<Height>%.2f</Height>\n", width, height));
+		out.writeIndented(new XmlList<DocumentElement>("Contents", contents));
+		out.write("\n</TableCell>");
 	}
 	
 	/**
@@ -1,5 +1,6 @@
 package com.github.randomcodeorg.simplepdf;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
@@ -9,7 +10,7 @@ import java.util.List;
  * @author Marcel Singer
  *
  */
-public class TableRow implements XmlSerializable {
+public class TableRow implements XmlWritable {
 
 	private final List<TableCell> cells;
 
@@ -74,11 +75,14 @@ public class TableRow implements XmlSerializable {
 
 	@Override
 	public String toXML() {
-		StringBuilder sb = new StringBuilder();
-		sb.append("<TableRow>\n");
-		sb.append(FormattingTools.indentText(new XmlList<TableCell>("Cells", cells).toXML()));
-		sb.append("\n</TableRow>");
-		return sb.toString();
+		return XmlWriter.toXML(this);
+	}
+
+	@Override
+	public void writeXML(XmlWriter out) throws IOException {
+		out.write("<TableRow>\n");
+		out.writeIndented(new XmlList<TableCell>("Cells", cells));
+		out.write("\n</TableRow>");
 	}
 
 
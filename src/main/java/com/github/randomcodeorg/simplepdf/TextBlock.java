@@ -65,11 +65,11 @@ public class TextBlock extends DocumentElement {
 	public void validate(SimplePDFDocument doc, ProcessListener listener, String xmlDoc) {
 		super.validate(doc, listener, xmlDoc);
 		if(content.isEmpty()){
-			listener.addMessage(new ProcessMessage(MessageType.WARNING, this, "This text-block has no content.", xmlDoc));
+			listener.addMessage(new ProcessMessage(MessageType.WARNING, this, "This text-block has no content.", doc));
 		}
 		if(content.contains("\n")){
 			listener.addMessage(new ProcessMessage(MessageType.INFORMATION, this, "This text-block contains an " +
-					"explicit linebreak. Consider using a new textblock.", xmlDoc));
+					"explicit linebreak. Consider using a new textblock.", doc));
 		}
 	}
 	
@@ -1,5 +1,6 @@
 package com.github.randomcodeorg.simplepdf;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
@@ -13,7 +14,7 @@ import java.util.ListIterator;
  *
  * @param <T> The containing element type.
  */
-class XmlList<T> implements XmlSerializable, List<T>{
+class XmlList<T> implements XmlWritable, List<T>{
 
 	private String tagName;
 	private List<T> data;
@@ -69,7 +70,7 @@ class XmlList<T> implements XmlSerializable, List<T>{
 		if(tagName == null) throw new NullPointerException("The tag name may not be null.");
 		if(tagName.isEmpty())throw new IllegalArgumentException("The tag name may not be empty.");
 		this.tagName = tagName;
-		data = new ArrayList<T>();
+		data = new TrackingList<T>();
 	}
 	
 	/**
@@ -85,6 +86,16 @@ class XmlList<T> implements XmlSerializable, List<T>{
 		return result;
 	}
 	
+	/**
+	 * Returns a number that changes every time this list is modified. Can be used to detect modifications (see {@link IdentifierIndex}).
+	 * @return A number that changes every time this list is modified or <i>-1</i> if modifications can not be detected (which is the case
+	 * if this list wraps a list that was given on creation).
+	 */
+	int getModificationCount(){
+		if(data instanceof TrackingList) return ((TrackingList<?>) data).getModificationCount();
+		return -1;
+	}
+	
 	/**
 	 * Returns the XML tag name.
 	 * @return The XML tag name.
@@ -105,19 +116,30 @@ class XmlList<T> implements XmlSerializable, List<T>{
 	
 	@Override
 	public String toXML() {
-		StringBuilder sb = new StringBuilder();
-		sb.append(String.format("<%s>\n", tagName));
+		return XmlWriter.toXML(this);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * <p>Elements that are not serializable or that fail to serialize before writing any content are skipped. If an element fails after
+	 * parts of its XML representation were written, the exception is passed on, because the written text can not be taken back.</p>
+	 */
+	@Override
+	public void writeXML(XmlWriter out) throws IOException {
+		out.write(String.format("<%s>\n", tagName));
+		int position;
 		for(T o : data){
+			if(!(o instanceof XmlSerializable)) continue;
+			position = out.getPosition();
 			try{
-				XmlSerializable s = (XmlSerializable) o;
-				sb.append(FormattingTools.indentText(s.toXML()));
-				sb.append("\n");
-			}catch(Throwable t){
-				
+				out.writeIndented((XmlSerializable) o);
+			}catch(RuntimeException e){
+				if(out.getPosition() != position) throw e;
+				continue;
 			}
+			out.write("\n");
 		}
-		sb.append(String.format("</%s>", tagName));
-		return sb.toString();
+		out.write(String.format("</%s>", tagName));
 	}
 
 	
@@ -240,4 +262,31 @@ class XmlList<T> implements XmlSerializable, List<T>{
 		return data.toArray(a);
 	}
 
+	/**
+	 * A list that exposes its modification count. Structural modifications (also the ones done using iterators and sub lists) as well as
+	 * replacements of elements using {@link #set(int, Object)} or list iterators are counted.
+	 * @author Marcel Singer
+	 *
+	 * @param <E> The containing element type.
+	 */
+	private static class TrackingList<E> extends ArrayList<E> {
+
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		public E set(int index, E element) {
+			modCount++;
+			return super.set(index, element);
+		}
+
+		/**
+		 * Returns the modification count of this list.
+		 * @return The modification count of this list.
+		 */
+		public int getModificationCount() {
+			return modCount;
+		}
+
+	}
+
 }
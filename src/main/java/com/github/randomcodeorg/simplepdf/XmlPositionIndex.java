@@ -0,0 +1,77 @@
+package com.github.randomcodeorg.simplepdf;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * <p>Locates the elements of a document within its XML representation (see {@link SimplePDFDocument#toXML()}).</p>
+ * <p>The document is serialized when the first position is requested. The serialized text is discarded, only the positions of the
+ * elements are recorded while they are written (see {@link XmlWriter#markPosition(XmlSerializable)}). Therefore the positions refer
+ * to the state of the document at the time the first position was requested.</p>
+ * @author Marcel Singer
+ *
+ */
+final class XmlPositionIndex {
+
+	private final SimplePDFDocument document;
+	private XmlWriter positions;
+
+	/**
+	 * Creates a new instance of {@link XmlPositionIndex}.
+	 * @param document The document to locate the elements in.
+	 */
+	public XmlPositionIndex(SimplePDFDocument document) {
+		this.document = document;
+	}
+
+	/**
+	 * Returns the position of the given element within the XML representation of the document.
+	 * @param element The element to locate.
+	 * @return The position the XML representation of the given element starts at or <i>-1</i> if the element is not part of the
+	 * document.
+	 */
+	public synchronized int getPosition(DocumentElement element) {
+		if (positions == null) {
+			XmlWriter writer = new XmlWriter(new DiscardingWriter(), true);
+			try {
+				// The elements are written before the binary data, which therefore does not need to be read
+				document.writeXML(writer, false);
+			} catch (IOException e) {
+				// Is not thrown because the binary data is not read
+				throw new IllegalStateException(e);
+			}
+			positions = writer;
+		}
+		return positions.getPosition(element);
+	}
+
+	/**
+	 * A writer that discards all characters.
+	 * @author Marcel Singer
+	 *
+	 */
+	private static final class DiscardingWriter extends Writer {
+
+		@Override
+		public void write(int c) {
+		}
+
+		@Override
+		public void write(char[] cbuf, int off, int len) {
+		}
+
+		@Override
+		public void write(String str, int off, int len) {
+		}
+
+		@Override
+		public void flush() {
+		}
+
+		@Override
+		public void close() {
+		}
+
+	}
+
+}
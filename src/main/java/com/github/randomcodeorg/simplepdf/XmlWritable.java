@@ -0,0 +1,21 @@
+package com.github.randomcodeorg.simplepdf;
+
+import java.io.IOException;
+
+/**
+ * An interface that declares a method that can be used to serialize an implementing object directly to a stream (see
+ * {@link XmlWriter}). The written XML is the same as the one returned by {@link #toXML()}.
+ * @author Marcel Singer
+ *
+ */
+public interface XmlWritable extends XmlSerializable {
+
+	/**
+	 * Writes the XML representation of this object to the given writer. The written lines are indented by the current indentation
+	 * level of the writer.
+	 * @param out The writer to write to.
+	 * @throws IOException If an I/O error occurs.
+	 */
+	public void writeXML(XmlWriter out) throws IOException;
+
+}
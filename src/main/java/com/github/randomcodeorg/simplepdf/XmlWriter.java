@@ -0,0 +1,236 @@
+package com.github.randomcodeorg.simplepdf;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * <p>A writer that indents every line it writes by the current indentation level using tabulators. The indentation level is a
+ * counter, so nested XML structures can be written straight to the underlying writer instead of indenting the serialized text of every
+ * child (see {@link FormattingTools#indentText(String)}).</p>
+ * <p>Objects implementing {@link XmlWritable} are streamed using {@link XmlWritable#writeXML(XmlWriter)}. Other
+ * {@link XmlSerializable} objects are written using the result of {@link XmlSerializable#toXML()}.</p>
+ * <p>The writer counts the written characters. If it was created to record positions, objects can mark the position their XML
+ * representation starts at (see {@link #markPosition(XmlSerializable)}).</p>
+ * @author Marcel Singer
+ *
+ */
+public class XmlWriter extends Writer {
+
+	private final Writer out;
+	private final Map<XmlSerializable, Integer> positions;
+	private int level = 0;
+	private boolean lineStart = true;
+	private char[] tabs = new char[0];
+	private int position = 0;
+
+	/**
+	 * Creates a new instance of {@link XmlWriter} that writes to the given writer.
+	 * @param out The writer to write to.
+	 * @throws NullPointerException If the given writer is <code>null</code>.
+	 */
+	public XmlWriter(Writer out) throws NullPointerException {
+		this(out, false);
+	}
+
+	/**
+	 * Creates a new instance of {@link XmlWriter} that writes to the given writer.
+	 * @param out The writer to write to.
+	 * @param recordPositions <code>true</code> if the positions marked using {@link #markPosition(XmlSerializable)} should be
+	 * recorded.
+	 * @throws NullPointerException If the given writer is <code>null</code>.
+	 */
+	public XmlWriter(Writer out, boolean recordPositions) throws NullPointerException {
+		if (out == null)
+			throw new NullPointerException("The writer may not be null.");
+		this.out = out;
+		if (recordPositions) {
+			positions = new IdentityHashMap<XmlSerializable, Integer>();
+		} else {
+			positions = null;
+		}
+	}
+
+	/**
+	 * Serializes the given object using an {@link XmlWriter}.
+	 * @param element The object to serialize.
+	 * @return The XML representation of the given object.
+	 * @throws DataReadException If the object could not read data it has to write (see {@link DocumentData#getData()}).
+	 */
+	public static String toXML(XmlWritable element) throws DataReadException {
+		StringWriter sw = new StringWriter();
+		try {
+			element.writeXML(new XmlWriter(sw));
+		} catch (IOException e) {
+			throw new DataReadException(e);
+		}
+		return sw.toString();
+	}
+
+	/**
+	 * Increases the indentation level by one. Lines that are started afterwards are indented by one more tabulator.
+	 */
+	public void indent() {
+		level++;
+	}
+
+	/**
+	 * Decreases the indentation level by one.
+	 * @throws IllegalStateException If the indentation level is already <i>0</i>.
+	 */
+	public void unindent() throws IllegalStateException {
+		if (level == 0)
+			throw new IllegalStateException("The text is not indented.");
+		level--;
+	}
+
+	/**
+	 * Returns the current indentation level.
+	 * @return The current indentation level.
+	 */
+	public int getLevel() {
+		return level;
+	}
+
+	/**
+	 * Returns the amount of characters written so far.
+	 * @return The amount of characters written so far.
+	 */
+	public int getPosition() {
+		return position;
+	}
+
+	/**
+	 * Records that the XML representation of the given object starts with the next character that is written. The position does not
+	 * include the indentation of the line. Nothing is recorded if this writer was not created to record positions.
+	 * @param element The object whose XML representation is written next.
+	 */
+	public void markPosition(XmlSerializable element) {
+		if (positions == null)
+			return;
+		if (lineStart) {
+			positions.put(element, position + level);
+		} else {
+			positions.put(element, position);
+		}
+	}
+
+	/**
+	 * Returns the recorded position of the given object (see {@link #markPosition(XmlSerializable)}).
+	 * @param element The object.
+	 * @return The position the XML representation of the given object starts at or <i>-1</i> if it was not recorded.
+	 */
+	public int getPosition(XmlSerializable element) {
+		if (positions == null)
+			return -1;
+		Integer result = positions.get(element);
+		if (result == null)
+			return -1;
+		return result;
+	}
+
+	/**
+	 * Writes the XML representation of the given object.
+	 * @param element The object to write.
+	 * @throws IOException If an I/O error occurs.
+	 */
+	public void write(XmlSerializable element) throws IOException {
+		if (element instanceof XmlWritable) {
+			((XmlWritable) element).writeXML(this);
+		} else {
+			write(element.toXML());
+		}
+	}
+
+	/**
+	 * Writes the XML representation of the given object indented by one more tabulator.
+	 * @param element The object to write.
+	 * @throws IOException If an I/O error occurs.
+	 */
+	public void writeIndented(XmlSerializable element) throws IOException {
+		indent();
+		try {
+			write(element);
+		} finally {
+			unindent();
+		}
+	}
+
+	@Override
+	public void write(int c) throws IOException {
+		if (lineStart)
+			writeIndentation();
+		out.write(c);
+		position++;
+		lineStart = c == '\n';
+	}
+
+	@Override
+	public void write(char[] cbuf, int off, int len) throws IOException {
+		int end = off + len;
+		int start = off;
+		for (int i = off; i < end; i++) {
+			if (lineStart) {
+				writeIndentation();
+				lineStart = false;
+			}
+			if (cbuf[i] == '\n') {
+				out.write(cbuf, start, i + 1 - start);
+				start = i + 1;
+				lineStart = true;
+			}
+		}
+		if (start < end)
+			out.write(cbuf, start, end - start);
+		position += len;
+	}
+
+	@Override
+	public void write(String str, int off, int len) throws IOException {
+		int end = off + len;
+		int start = off;
+		for (int i = off; i < end; i++) {
+			if (lineStart) {
+				writeIndentation();
+				lineStart = false;
+			}
+			if (str.charAt(i) == '\n') {
+				out.write(str, start, i + 1 - start);
+				start = i + 1;
+				lineStart = true;
+			}
+		}
+		if (start < end)
+			out.write(str, start, end - start);
+		position += len;
+	}
+
+	/**
+	 * Writes the indentation of the current level.
+	 * @throws IOException If an I/O error occurs.
+	 */
+	private void writeIndentation() throws IOException {
+		if (level == 0)
+			return;
+		if (tabs.length < level) {
+			tabs = new char[level * 2];
+			for (int i = 0; i < tabs.length; i++)
+				tabs[i] = '\t';
+		}
+		out.write(tabs, 0, level);
+		position += level;
+	}
+
+	@Override
+	public void flush() throws IOException {
+		out.flush();
+	}
+
+	@Override
+	public void close() throws IOException {
+		out.close();
+	}
+
+}
@@ -0,0 +1,25 @@
+package com.github.randomcodeorg.simplepdf.creation;
+
+import com.github.randomcodeorg.simplepdf.Size;
+import com.github.randomcodeorg.simplepdf.StyleDefinition;
+
+/**
+ * <p>An extension of {@link DocumentGraphics} that is able to measure a text that is appended piece by piece faster than measuring the
+ * whole text again (see {@link WidthAccumulator}).</p>
+ * <p>The render elements use {@link #createWidthAccumulator(StyleDefinition, Size)} if the used document graphics implement this
+ * interface. Otherwise they use a {@link DefaultWidthAccumulator}.</p>
+ * @author Marcel Singer
+ *
+ */
+public interface AccumulatingDocumentGraphics extends DocumentGraphics {
+
+	/**
+	 * Creates an accumulator that measures a text that is appended piece by piece (see {@link WidthAccumulator}).
+	 * @param sd The style definition to be applied.
+	 * @param reservedSize The reserved size.
+	 * @return An accumulator that measures the width of the appended text.
+	 * @throws RenderingException This exception is thrown if there is an error during the measuring.
+	 */
+	public WidthAccumulator createWidthAccumulator(StyleDefinition sd, Size reservedSize) throws RenderingException;
+
+}
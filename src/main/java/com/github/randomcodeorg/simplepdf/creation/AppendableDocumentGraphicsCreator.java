@@ -0,0 +1,23 @@
+package com.github.randomcodeorg.simplepdf.creation;
+
+import com.github.randomcodeorg.simplepdf.SimplePDFDocument;
+
+/**
+ * <p>An extension of {@link DocumentGraphicsCreator} that allows to draw on a page again after its {@link DocumentGraphics} were disposed.</p>
+ * <p>The pipelined creation mode of the {@link DocumentCreator} uses this interface to release every page as soon as it was drawn. Only the
+ * elements that require the complete layout (see {@link RenderElement#requiresCompleteLayout()}) are drawn after the last page was created.</p>
+ * @author Marcel Singer
+ *
+ */
+public interface AppendableDocumentGraphicsCreator extends DocumentGraphicsCreator {
+
+	/**
+	 * Returns a {@link DocumentGraphics} object that appends to the page with the given index.
+	 * @param doc The affected document.
+	 * @param pageIndex The index of the page to append to.
+	 * @return A {@link DocumentGraphics} object that appends to the page with the given index.
+	 * @throws RenderingException If there was an error creating the graphics object.
+	 */
+	public DocumentGraphics reopenPage(SimplePDFDocument doc, int pageIndex) throws RenderingException;
+
+}
@@ -101,6 +101,7 @@ public class AreaLayout implements Iterable<ElementRenderingInformation> {
 		}catch(Exception ex){
 			ex.printStackTrace();
 		}
+		elements.clear();
 		disposed = true;
 	}
 	
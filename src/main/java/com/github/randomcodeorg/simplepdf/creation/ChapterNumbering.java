@@ -0,0 +1,82 @@
+package com.github.randomcodeorg.simplepdf.creation;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.github.randomcodeorg.simplepdf.ChapterElement;
+import com.github.randomcodeorg.simplepdf.DocumentElement;
+import com.github.randomcodeorg.simplepdf.SimplePDFDocument;
+import com.github.randomcodeorg.simplepdf.TableOfContents;
+
+/**
+ * <p>Holds the chapter/paragraph numbering of all {@link ChapterElement}s of a document.</p>
+ * <p>The numbering is computed in a single pass over the document elements when an instance is created. Tables of contents that reset
+ * the chapter numbering (see {@link TableOfContents#getResetsChapterNumbering()}) are taken into account. If a chapter element is
+ * contained multiple times, the numbering of its first occurrence is used. Instances of this class are immutable. They reflect the
+ * state of the document at the time they were created.</p>
+ * @author Marcel Singer
+ *
+ */
+public class ChapterNumbering {
+
+	private final Map<ChapterElement, String> numbers = new IdentityHashMap<ChapterElement, String>();
+
+	/**
+	 * Creates a new instance of {@link ChapterNumbering} and computes the numbering of the given document.
+	 * @param doc The document thats chapter elements should be numbered.
+	 */
+	public ChapterNumbering(SimplePDFDocument doc) {
+		List<Integer> levels = new ArrayList<Integer>();
+		ChapterElement cc;
+		for (DocumentElement current : doc.getElements()) {
+			if (current instanceof TableOfContents && ((TableOfContents) current).getResetsChapterNumbering())
+				levels.clear();
+			if (current instanceof ChapterElement) {
+				cc = (ChapterElement) current;
+				for (int j = levels.size(); j < cc.getLevel() + 1; j++)
+					levels.add(0);
+				for (int j = 0; j < cc.getLevel(); j++) {
+					if (levels.get(j) == 0)
+						levels.set(j, 1);
+				}
+				levels.set(cc.getLevel(), levels.get(cc.getLevel()) + 1);
+				for (int j = cc.getLevel() + 1; j < levels.size(); j++) {
+					levels.set(j, 0);
+				}
+				if (!numbers.containsKey(cc))
+					numbers.put(cc, toNumberString(levels, cc.getLevel()));
+			}
+		}
+	}
+
+	/**
+	 * Returns the chapter/paragraph numbering for the given chapter element.
+	 * @param element The chapter element that's numbering should be returned.
+	 * @return The chapter/paragraph numbering for the given chapter element or an empty string if it is not part of the document.
+	 */
+	public String getNumberString(ChapterElement element) {
+		String result = numbers.get(element);
+		if (result == null)
+			return "";
+		return result;
+	}
+
+	/**
+	 * Joins the counters of the given levels. The counters of all deeper levels are zero and therefore omitted.
+	 * @param levels The counters of the chapter levels.
+	 * @param level The level of the current chapter element.
+	 * @return The numbering of the current chapter element.
+	 */
+	private static String toNumberString(List<Integer> levels, int level) {
+		StringBuilder sb = new StringBuilder();
+		for (int i = 0; i <= level; i++) {
+			if (i > 0)
+				sb.append(".");
+			sb.append(levels.get(i));
+		}
+		return sb.toString();
+	}
+
+}
@@ -15,5 +15,9 @@ public interface ConversionConstants {
 	 * A constant that can be used to convert units to millimeters.
 	 */
 	public static final float UNITS_TO_MM = (25.4f / 72.0f);
+	/**
+	 * The amount of millimeters per inch.
+	 */
+	public static final float MM_PER_INCH = 25.4f;
 
 }
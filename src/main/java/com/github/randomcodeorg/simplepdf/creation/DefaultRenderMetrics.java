@@ -0,0 +1,101 @@
+package com.github.randomcodeorg.simplepdf.creation;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * This is the default implementation of {@link RenderMetrics}. It will sum up all recorded values until it is reset.
+ * Use a separate instance (or call {@link #reset()}) for every document whose values should be recorded on their own.
+ * @author Marcel Singer
+ *
+ */
+public class DefaultRenderMetrics implements RenderMetrics {
+
+	/**
+	 * Holds the counter values (indexed by the ordinal of the counter).
+	 */
+	private final AtomicLongArray counters = new AtomicLongArray(RenderCounter.values().length);
+	/**
+	 * Holds the phase durations in nanoseconds (indexed by the ordinal of the phase).
+	 */
+	private final AtomicLongArray durations = new AtomicLongArray(RenderPhase.values().length);
+
+	/**
+	 * Creates a new instance of {@link DefaultRenderMetrics}.
+	 */
+	public DefaultRenderMetrics() {
+
+	}
+
+	@Override
+	public void start() {
+
+	}
+
+	/**
+	 * Resets all values.
+	 */
+	public void reset() {
+		for (int i = 0; i < counters.length(); i++)
+			counters.set(i, 0);
+		for (int i = 0; i < durations.length(); i++)
+			durations.set(i, 0);
+	}
+
+	@Override
+	public void increment(RenderCounter counter, long amount) {
+		counters.addAndGet(counter.ordinal(), amount);
+	}
+
+	@Override
+	public void addDuration(RenderPhase phase, long nanos) {
+		durations.addAndGet(phase.ordinal(), nanos);
+	}
+
+	@Override
+	public void complete() {
+
+	}
+
+	/**
+	 * Returns the value of the given counter.
+	 * @param counter The counter thats value should be returned.
+	 * @return The value of the given counter.
+	 */
+	public long getCount(RenderCounter counter) {
+		return counters.get(counter.ordinal());
+	}
+
+	/**
+	 * Returns the duration of the given phase in nanoseconds.
+	 * @param phase The phase thats duration should be returned.
+	 * @return The duration of the given phase in nanoseconds.
+	 */
+	public long getDuration(RenderPhase phase) {
+		return durations.get(phase.ordinal());
+	}
+
+	/**
+	 * Returns the duration of the given phase in milliseconds.
+	 * @param phase The phase thats duration should be returned.
+	 * @return The duration of the given phase in milliseconds.
+	 */
+	public long getDurationMillis(RenderPhase phase) {
+		return TimeUnit.NANOSECONDS.toMillis(getDuration(phase));
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder();
+		for (RenderCounter c : RenderCounter.values()) {
+			if (sb.length() > 0)
+				sb.append(", ");
+			sb.append(c.toString().toLowerCase()).append('=').append(getCount(c));
+		}
+		for (RenderPhase p : RenderPhase.values()) {
+			sb.append(", ").append(p.toString().toLowerCase()).append("_ms=").append(getDurationMillis(p));
+		}
+		return sb.toString();
+	}
+
+}
@@ -0,0 +1,52 @@
+package com.github.randomcodeorg.simplepdf.creation;
+
+import com.github.randomcodeorg.simplepdf.Size;
+import com.github.randomcodeorg.simplepdf.StyleDefinition;
+
+/**
+ * A {@link WidthAccumulator} that measures the whole appended text using
+ * {@link DocumentGraphics#getTextSize(String, StyleDefinition, Size)} whenever the width is requested. It is used for every
+ * implementation of {@link DocumentGraphics} that does not implement {@link AccumulatingDocumentGraphics}.
+ * @author Marcel Singer
+ *
+ */
+public class DefaultWidthAccumulator implements WidthAccumulator {
+
+	private final DocumentGraphics graphics;
+	private final StyleDefinition sd;
+	private final Size reservedSize;
+	private final StringBuilder text = new StringBuilder();
+
+	/**
+	 * Creates a new instance of {@link DefaultWidthAccumulator}.
+	 * @param graphics The document graphics used to measure the text.
+	 * @param sd The style definition to be applied.
+	 * @param reservedSize The reserved size.
+	 */
+	public DefaultWidthAccumulator(DocumentGraphics graphics, StyleDefinition sd, Size reservedSize) {
+		this.graphics = graphics;
+		this.sd = sd;
+		this.reservedSize = reservedSize;
+	}
+
+	@Override
+	public void append(CharSequence text, int start, int end) {
+		this.text.append(text, start, end);
+	}
+
+	@Override
+	public double getWidth() throws RenderingException {
+		return graphics.getTextSize(text.toString(), sd, reservedSize).getWidth();
+	}
+
+	@Override
+	public double getHeight() throws RenderingException {
+		return graphics.getTextSize(text.toString(), sd, reservedSize).getHeight();
+	}
+
+	@Override
+	public void clear() {
+		text.setLength(0);
+	}
+
+}
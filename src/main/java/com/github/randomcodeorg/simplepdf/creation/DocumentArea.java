@@ -41,6 +41,10 @@ public class DocumentArea {
 	 * A list of elements that where successfully positioned within this area. 
 	 */
 	private final List<RenderElement<? extends DocumentElement>> elements;
+	/**
+	 * The amount of contained elements that are not repeating.
+	 */
+	private int nonRepeatingCount;
 
 	/**
 	 * The current horizontal position.
@@ -56,7 +60,7 @@ public class DocumentArea {
 	private float dY = 0;
 
 	/**
-	 * Creates a new instance of {@link DocumentArea}.
+	 * Creates a new instance of {@link DocumentArea} containing all elements of the given document that belong to the given area.
 	 * @param renderMapping The render mapping to be used.
 	 * @param ad The affected area definition.
 	 * @param doc The containing document.
@@ -64,14 +68,25 @@ public class DocumentArea {
 	 */
 	public DocumentArea(ElementRenderMapping renderMapping, AreaDefinition ad, SimplePDFDocument doc,
 			Map<DocumentElement, RenderOrigin> renderOriging) {
+		this(renderMapping, ad, doc, selectElements(ad, doc), renderOriging);
+	}
+
+	/**
+	 * Creates a new instance of {@link DocumentArea} containing the given elements.
+	 * @param renderMapping The render mapping to be used.
+	 * @param ad The affected area definition.
+	 * @param doc The containing document.
+	 * @param areaElements The elements of the given document that belong to the given area (in the order they should be positioned).
+	 * @param renderOriging A map storing the originating {@link DocumentElement}s.
+	 */
+	public DocumentArea(ElementRenderMapping renderMapping, AreaDefinition ad, SimplePDFDocument doc,
+			Iterable<DocumentElement> areaElements, Map<DocumentElement, RenderOrigin> renderOriging) {
 		this.skippedElements = new LinkedList<RenderElement<? extends DocumentElement>>();
 		this.area = ad;
 		this.document = doc;
 		this.renderMapping = renderMapping;
 		this.elements = new LinkedList<RenderElement<? extends DocumentElement>>();
-		for (DocumentElement de : doc.getElements()) {
-			if (!area.getID().equals(de.getAreaID()))
-				continue;
+		for (DocumentElement de : areaElements) {
 			Collection<RenderElement<? extends DocumentElement>> re = renderMapping.getRenderer(document, de);
 			if (re == null) {
 				System.err.println("No mapping found for '" + de.getClass().getSimpleName() + "' => skipped");
@@ -79,6 +94,7 @@ public class DocumentArea {
 			} else {
 				renderOriging.put(de, new RenderOrigin(de, this, re));
 				elements.addAll(re);
+				nonRepeatingCount += countNonRepeating(re);
 			}
 		}
 	}
@@ -90,13 +106,15 @@ public class DocumentArea {
 	 * @param doc The containing document.
 	 * @param elements The elements that were already positioned.
 	 * @param skippedElements The elements that were skipped.
+	 * @param nonRepeatingCount The amount of the given elements that are not repeating.
 	 */
 	private DocumentArea(ElementRenderMapping renderMapping, AreaDefinition ad, SimplePDFDocument doc,
 			List<RenderElement<? extends DocumentElement>> elements,
-			List<RenderElement<? extends DocumentElement>> skippedElements) {
+			List<RenderElement<? extends DocumentElement>> skippedElements, int nonRepeatingCount) {
 		this.area = ad;
 		this.document = doc;
 		this.elements = elements;
+		this.nonRepeatingCount = nonRepeatingCount;
 		this.renderMapping = renderMapping;
 		this.skippedElements = skippedElements;
 	}
@@ -108,7 +126,7 @@ public class DocumentArea {
 	public DocumentArea next() {
 		if (area.getAvailability() == AreaAvailability.ONLY_FIRST_PAGE)
 			return null;
-		DocumentArea docArea = new DocumentArea(renderMapping, area, document, elements, skippedElements);
+		DocumentArea docArea = new DocumentArea(renderMapping, area, document, elements, skippedElements, nonRepeatingCount);
 		return docArea;
 	}
 
@@ -117,11 +135,48 @@ public class DocumentArea {
 	 * @return <code>true</code> if all remaining elements are repeating.
 	 */
 	public boolean onlyRepeats() {
+		return nonRepeatingCount == 0;
+	}
+
+	/**
+	 * Returns the elements of the given document that belong to the given area.
+	 * @param ad The area definition.
+	 * @param doc The containing document.
+	 * @return The elements of the given document that belong to the given area.
+	 */
+	private static List<DocumentElement> selectElements(AreaDefinition ad, SimplePDFDocument doc) {
+		List<DocumentElement> result = new LinkedList<DocumentElement>();
+		for (DocumentElement de : doc.getElements()) {
+			if (ad.getID().equals(de.getAreaID()))
+				result.add(de);
+		}
+		return result;
+	}
+
+	/**
+	 * Returns the amount of the given elements that are not repeating.
+	 * @param elements The elements to count.
+	 * @return The amount of the given elements that are not repeating.
+	 */
+	private static int countNonRepeating(Collection<RenderElement<? extends DocumentElement>> elements) {
+		int result = 0;
 		for (RenderElement<? extends DocumentElement> re : elements) {
 			if (!re.isRepeating())
-				return false;
+				result++;
 		}
-		return true;
+		return result;
+	}
+
+	/**
+	 * Removes the current element of the given iteration.
+	 * @param iteration The iteration over the contained elements.
+	 * @param current The current element of the given iteration.
+	 */
+	private void remove(ListIterator<RenderElement<? extends DocumentElement>> iteration,
+			RenderElement<? extends DocumentElement> current) {
+		iteration.remove();
+		if (!current.isRepeating())
+			nonRepeatingCount--;
 	}
 
 	/**
@@ -167,7 +222,7 @@ public class DocumentArea {
 	 */
 	public boolean canHold(RenderElement<? extends DocumentElement> docElement, PreRenderInformation info)
 			throws RenderingException {
-		Size totalElementSize = docElement.getTotalSize(info, area.getSize());
+		Size totalElementSize = info.getMeasurementCache().getTotalSize(docElement, info, area.getSize());
 		if (y + totalElementSize.getHeight() > area.getSize().getHeight())
 			return false;
 		if (x + totalElementSize.getWidth() > area.getSize().getWidth())
@@ -189,17 +244,16 @@ public class DocumentArea {
 	/**
 	 * Splits the given element.
 	 * @param element The element to be split.
-	 * @param g The document graphics to be used.
-	 * @param layout The current area layout.
-	 * @param areas All currently available document areas.
+	 * @param info Information about the current document creation process.
 	 * @return A list containing the split result.
 	 * @throws RenderingException Is thrown if there is an error during the split process.
 	 */
 	private List<RenderElement<? extends DocumentElement>> doSplit(RenderElement<? extends DocumentElement> element,
-			DocumentGraphics g, AreaLayout layout, Iterable<DocumentArea> areas) throws RenderingException {
-		Spacing spacing = element.getRenderMargin(g);
+			PreRenderInformation info) throws RenderingException {
+		Spacing spacing = info.getMeasurementCache().getRenderMargin(element, info.getGraphics());
 		Size s = getAvailableSize(spacing);
-		return element.splitToFit(new PreRenderInformationImpl(document, areas, layout, g, ElementRenderMapping.getDefault()), s);
+		return element.splitToFit(new PreRenderInformationImpl(document, info.getAreas(), info.getLayout(), info.getGraphics(),
+				ElementRenderMapping.getDefault(), info.getMetrics(), info.getMeasurementCache(), info.getChapterNumbering()), s);
 	}
 
 	/**
@@ -215,16 +269,21 @@ public class DocumentArea {
 		float currY;
 		boolean cancel = false;
 		RenderElement<? extends DocumentElement> current;
+		MeasurementCache measurements = info.getMeasurementCache();
 		while (iteration.hasNext() && !cancel) {
 			current = iteration.next();
 			current.onLayout(info);
+			// The layout callback may change the content of the element
+			measurements.invalidate(current);
 			if (!canHold(current, info)) {
-				List<RenderElement<? extends DocumentElement>> splits = doSplit(current, info.getGraphics(),
-						info.getLayout(), info.getAreas());
+				List<RenderElement<? extends DocumentElement>> splits = doSplit(current, info);
 				if (splits != null) {
-					iteration.remove();
+					info.getMetrics().increment(RenderCounter.SPLITS, 1);
+					measurements.invalidate(current);
+					remove(iteration, current);
 					int index = iteration.nextIndex();
 					elements.addAll(index, splits);
+					nonRepeatingCount += countNonRepeating(splits);
 					iteration = elements.listIterator(index);
 					continue;
 				}
@@ -232,22 +291,25 @@ public class DocumentArea {
 					skippedElements.add(current);
 					cancel = true;
 				} else {
-					iteration.remove();
+					measurements.invalidate(current);
+					remove(iteration, current);
 					System.err.println("The element '" + current.toString() + "' can't be aligend => skipped");
 				}
 				continue;
 			}
 			currX = getTranslatedX();
 			currY = getTranslatedY();
-			Size reservedSize = current.getRenderSize(info, area.getSize());
-			Size totalSize = current.getTotalSize(info, area.getSize());
-			Spacing position = current.getRenderMargin(info.getGraphics());
+			Size reservedSize = measurements.getRenderSize(current, info, area.getSize());
+			Size totalSize = measurements.getTotalSize(current, info, area.getSize());
+			Spacing position = measurements.getRenderMargin(current, info.getGraphics());
 			info.getLayout().addElement(current,
 					new Position((float) (currX + position.getLeft()), (float) (currY + position.getTop())),
 					reservedSize);
+			info.getMetrics().increment(RenderCounter.ELEMENTS_LAID_OUT, 1);
 			move(current, totalSize);
 			if (!current.isRepeating()) {
-				iteration.remove();
+				measurements.invalidate(current);
+				remove(iteration, current);
 			}
 		}
 
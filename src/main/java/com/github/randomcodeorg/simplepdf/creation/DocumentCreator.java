@@ -1,7 +1,10 @@
 package com.github.randomcodeorg.simplepdf.creation;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -32,6 +35,11 @@ public class DocumentCreator implements ConversionConstants {
 	 */
 	private final DocumentGraphicsCreator documentGraphicsCreator;
 
+	/**
+	 * Stores if the pipelined creation mode is enabled.
+	 */
+	private boolean pipelined = false;
+
 	/**
 	 * Creates a new instance of {@link DocumentCreator} that uses the given {@link DocumentGraphicsCreator}.
 	 * @param documentGraphicsCreator The document graphics creator to be used.
@@ -40,27 +48,172 @@ public class DocumentCreator implements ConversionConstants {
 		this.documentGraphicsCreator = documentGraphicsCreator;
 	}
 
+	/**
+	 * Returns <code>true</code> if the pipelined creation mode is enabled.
+	 * @return <code>true</code> if the pipelined creation mode is enabled.
+	 * @see #setPipelined(boolean)
+	 */
+	public boolean isPipelined() {
+		return pipelined;
+	}
+
+	/**
+	 * <p>Enables or disables the pipelined creation mode.</p>
+	 * <p>By default every page is laid out before the first one is drawn. In the pipelined mode a page is drawn and disposed as soon as its
+	 * layout was completed. Only the elements that require the complete layout (see {@link RenderElement#requiresCompleteLayout()}) are held back
+	 * until the last page was created. This bounds the amount of memory required to render large documents.</p>
+	 * <p><b>Note:</b> In the pipelined mode {@link RenderingInformation#getPageCount()} will return <i>-1</i> for all elements that do not
+	 * require the complete layout. If the used {@link DocumentGraphicsCreator} does not implement {@link AppendableDocumentGraphicsCreator}, pages
+	 * containing held back elements are kept open until the end of the rendering process.</p>
+	 * @param pipelined <code>true</code> if the pipelined creation mode should be used.
+	 */
+	public void setPipelined(boolean pipelined) {
+		this.pipelined = pipelined;
+	}
+
 	/**
 	 * Renders the given document.
 	 * @param doc The document to be rendered.
 	 * @throws RenderingException Is thrown if there is an error during the rendering.
 	 */
 	public void create(SimplePDFDocument doc) throws RenderingException {
-		documentGraphicsCreator.startDocument(doc);
+		create(doc, new NullRenderMetrics());
+	}
+
+	/**
+	 * Renders the given document and records the counters and phase durations of the process.
+	 * @param doc The document to be rendered.
+	 * @param metrics The metrics object that records the counters and phase durations.
+	 * @throws RenderingException Is thrown if there is an error during the rendering.
+	 */
+	public void create(SimplePDFDocument doc, RenderMetrics metrics) throws RenderingException {
+		metrics.start();
+		try {
+			startDocument(doc, metrics);
+			createDocument(doc, metrics);
+		} finally {
+			metrics.complete();
+		}
+	}
+
+	/**
+	 * Starts the given document using the {@link DocumentGraphicsCreator}. Subclasses that release the document afterwards should only do so
+	 * if this method succeeded, because the document might have been started by another process.
+	 * @param doc The document to be started.
+	 * @param metrics The metrics object that records the counters and phase durations.
+	 * @throws RenderingException Is thrown if the document could not be started.
+	 */
+	protected void startDocument(SimplePDFDocument doc, RenderMetrics metrics) throws RenderingException {
+		if (documentGraphicsCreator instanceof MeasurableDocumentGraphicsCreator) {
+			((MeasurableDocumentGraphicsCreator) documentGraphicsCreator).startDocument(doc, metrics);
+		} else {
+			documentGraphicsCreator.startDocument(doc);
+		}
+	}
+
+	/**
+	 * Renders the given document without starting or completing the given metrics object. Subclasses can use this method
+	 * to record further phases (e.g. saving the result) within the same process.
+	 * <p><b>Note:</b> The document must be started (using {@link #startDocument(SimplePDFDocument, RenderMetrics)}) before.</p>
+	 * @param doc The document to be rendered.
+	 * @param metrics The metrics object that records the counters and phase durations.
+	 * @throws RenderingException Is thrown if there is an error during the rendering.
+	 */
+	protected void createDocument(SimplePDFDocument doc, RenderMetrics metrics) throws RenderingException {
 		List<DocumentArea> areas = new ArrayList<DocumentArea>();
 		Map<DocumentElement, RenderOrigin> originMap = new HashMap<DocumentElement, RenderOrigin>();
+		Map<String, List<DocumentElement>> areaElements = partitionElements(doc);
+		List<DocumentElement> current;
 		for (AreaDefinition ad : doc.getAreas()) {
-			areas.add(new DocumentArea(renderMapping, ad, doc, originMap));
+			current = areaElements.get(ad.getID());
+			if (current == null)
+				current = Collections.emptyList();
+			areas.add(new DocumentArea(renderMapping, ad, doc, current, originMap));
 		}
 
-		List<AreaLayout> all = new ArrayList<AreaLayout>();
-		layout(all, doc, 0, areas);
-		render(doc, all, areas, originMap);
-		cleanup(all);
+		ChapterNumbering chapterNumbering = new ChapterNumbering(doc);
+		RenderContext context = new RenderContext(doc, areas, originMap, metrics, chapterNumbering,
+				documentGraphicsCreator instanceof TemplateDocumentGraphicsCreator);
+		if (pipelined) {
+			createPipelined(context, areas);
+		} else {
+			List<AreaLayout> all = new ArrayList<AreaLayout>();
+			long start = System.nanoTime();
+			layout(all, doc, areas, metrics, chapterNumbering);
+			metrics.addDuration(RenderPhase.LAYOUT, System.nanoTime() - start);
+			start = System.nanoTime();
+			render(context, all);
+			metrics.addDuration(RenderPhase.RENDER, System.nanoTime() - start);
+			cleanup(all);
+		}
 
 		documentGraphicsCreator.completeDocument(doc);
 	}
 
+	/**
+	 * Lays out, draws and disposes one page after the other. Elements that require the complete layout are drawn after the last page was created.
+	 * @param context The state of the current document creation.
+	 * @param areas The document areas.
+	 * @throws RenderingException Is thrown if there is an error during the rendering.
+	 */
+	private void createPipelined(RenderContext context, List<DocumentArea> areas) throws RenderingException {
+		SimplePDFDocument doc = context.document;
+		RenderMetrics metrics = context.metrics;
+		boolean appendable = documentGraphicsCreator instanceof AppendableDocumentGraphicsCreator;
+		Map<AreaLayout, List<ElementRenderingInformation>> deferred = new LinkedHashMap<AreaLayout, List<ElementRenderingInformation>>();
+		List<AreaLayout> openLayouts = new ArrayList<AreaLayout>();
+		List<AreaLayout> pageLayouts = new ArrayList<AreaLayout>();
+		List<DocumentArea> current = areas;
+		MeasurementCache measurementCache = new MeasurementCache();
+		int pageIndex = 0;
+		while (hasRemainingContent(current)) {
+			pageLayouts.clear();
+			long start = System.nanoTime();
+			current = layoutPage(pageLayouts, doc, pageIndex, current, metrics, measurementCache, context.chapterNumbering);
+			metrics.addDuration(RenderPhase.LAYOUT, System.nanoTime() - start);
+			start = System.nanoTime();
+			boolean keepOpen = false;
+			for (AreaLayout al : pageLayouts) {
+				List<ElementRenderingInformation> held = new ArrayList<ElementRenderingInformation>();
+				render(context, al, al.getGraphics(), -1, held);
+				if (!held.isEmpty()) {
+					deferred.put(al, held);
+					keepOpen = keepOpen || !appendable;
+				}
+			}
+			if (keepOpen) {
+				openLayouts.addAll(pageLayouts);
+			} else {
+				cleanup(pageLayouts);
+			}
+			metrics.addDuration(RenderPhase.RENDER, System.nanoTime() - start);
+			pageIndex++;
+		}
+
+		long start = System.nanoTime();
+		int pageCount = pageIndex;
+		int openedPage = -1;
+		DocumentGraphics g = null;
+		for (Map.Entry<AreaLayout, List<ElementRenderingInformation>> entry : deferred.entrySet()) {
+			AreaLayout al = entry.getKey();
+			if (!appendable) {
+				g = al.getGraphics();
+			} else if (al.getPageIndex() != openedPage) {
+				if (g != null)
+					g.dispose();
+				g = ((AppendableDocumentGraphicsCreator) documentGraphicsCreator).reopenPage(doc, al.getPageIndex());
+				openedPage = al.getPageIndex();
+			}
+			for (ElementRenderingInformation rI : entry.getValue()) {
+				render(context, al, g, rI, pageCount);
+			}
+		}
+		if (appendable && g != null)
+			g.dispose();
+		cleanup(openLayouts);
+		metrics.addDuration(RenderPhase.RENDER, System.nanoTime() - start);
+	}
+
 	/**
 	 * Disposes all layouts contained in the given {@link Iterable}.
 	 * @param layouts The layouts to be disposed.
@@ -73,62 +226,241 @@ public class DocumentCreator implements ConversionConstants {
 
 	/**
 	 * Draws the elements after the layout phase completed.
-	 * @param doc The document that is currently rendered.
+	 * @param context The state of the current document creation.
 	 * @param layouts The result of the the layout phase.
-	 * @param areas The resulting document areas.
-	 * @param originMap The origin map.
 	 * @throws RenderingException Is thrown if there is an error during the rendering.
 	 */
-	private void render(SimplePDFDocument doc, Iterable<AreaLayout> layouts, Iterable<DocumentArea> areas, Map<DocumentElement, RenderOrigin> originMap) throws RenderingException {
+	private void render(RenderContext context, Iterable<AreaLayout> layouts) throws RenderingException {
 		int pageLength = 0;
 		for (AreaLayout al : layouts)
 			if (al.getPageIndex() > pageLength)
 				pageLength = al.getPageIndex();
 		pageLength++;
+		List<Runnable> pages = new ArrayList<Runnable>();
+		List<AreaLayout> page = null;
+		int pageIndex = -1;
 		for (AreaLayout al : layouts) {
-			DocumentGraphics g = al.getGraphics();
-			for (ElementRenderingInformation rI : al) {
-				rI.getElement()
-						.render(new RenderingInformationImpl(rI.getLocation(), rI.getSize(), doc, g, al, pageLength, areas, originMap, renderMapping, doc.getAreaDefinition(rI.getElement().documentElement.getAreaID()).getSize()));
+			if (page == null || al.getPageIndex() != pageIndex) {
+				page = new ArrayList<AreaLayout>();
+				pageIndex = al.getPageIndex();
+				pages.add(createPageTask(context, page, pageLength));
+			}
+			page.add(al);
+		}
+		renderPages(pages);
+	}
+
+	/**
+	 * Creates a task that draws all elements of a single page.
+	 * @param context The state of the current document creation.
+	 * @param pageLayouts The area layouts of the page to draw.
+	 * @param pageLength The amount of pages.
+	 * @return A task that draws the given page.
+	 */
+	private Runnable createPageTask(final RenderContext context, final List<AreaLayout> pageLayouts, final int pageLength) {
+		return new Runnable() {
+
+			@Override
+			public void run() {
+				for (AreaLayout al : pageLayouts) {
+					render(context, al, al.getGraphics(), pageLength, null);
+				}
+			}
+		};
+	}
+
+	/**
+	 * <p>Executes the given tasks. Every task draws all elements of a single page of the currently created document.</p>
+	 * <p>The tasks are called after the layout of the whole document was completed. They do not depend on each other
+	 * and every task only uses the {@link DocumentGraphics} of its own page. The default implementation executes them one after
+	 * the other on the calling thread. Subclasses may override this method to draw the pages concurrently. This method must not
+	 * return before all tasks were completed.</p>
+	 * <p><b>Note:</b> This method is not used in the pipelined creation mode (see {@link #setPipelined(boolean)}).</p>
+	 * @param pages The tasks to be executed (ordered by the page index).
+	 * @throws RenderingException Is thrown if there is an error during the rendering.
+	 */
+	protected void renderPages(List<Runnable> pages) throws RenderingException {
+		for (Runnable page : pages) {
+			page.run();
+		}
+	}
+
+	/**
+	 * <p>Draws the elements of the given area layout.</p>
+	 * <p>If the used {@link DocumentGraphicsCreator} supports templates, the shared elements of the area (see
+	 * {@link #isShared(RenderElement)}) are drawn
+	 * as a template as soon as they were placed at the same positions on a second page. The template is drawn instead of the first of
+	 * these elements.</p>
+	 * @param context The state of the current document creation.
+	 * @param al The area layout to draw.
+	 * @param g The document graphics to draw with.
+	 * @param pageLength The amount of pages or <i>-1</i> if it is not known yet.
+	 * @param held The list the elements that require the complete layout are added to instead of drawing them or <code>null</code> if
+	 * all elements should be drawn.
+	 * @throws RenderingException Is thrown if there is an error during the rendering.
+	 */
+	private void render(RenderContext context, AreaLayout al, DocumentGraphics g, int pageLength,
+			List<ElementRenderingInformation> held) throws RenderingException {
+		DocumentTemplate template = null;
+		if (context.templates != null)
+			template = getTemplate(context, al, pageLength);
+		boolean templateDrawn = false;
+		for (ElementRenderingInformation rI : al) {
+			if (held != null && rI.getElement().requiresCompleteLayout()) {
+				held.add(rI);
+			} else if (template != null && isShared(rI.getElement())) {
+				if (!templateDrawn) {
+					template.drawOn(g);
+					templateDrawn = true;
+				}
+			} else {
+				render(context, al, g, rI, pageLength);
+			}
+		}
+	}
+
+	/**
+	 * Returns the template containing the shared elements of the given area layout (see {@link #isShared(RenderElement)}).
+	 * @param context The state of the current document creation.
+	 * @param al The area layout.
+	 * @param pageLength The amount of pages or <i>-1</i> if it is not known yet.
+	 * @return The template or <code>null</code> if the elements should be drawn directly (e.g. because they were not placed at the same
+	 * positions before).
+	 * @throws RenderingException Is thrown if there is an error during the rendering.
+	 */
+	private DocumentTemplate getTemplate(RenderContext context, AreaLayout al, int pageLength) throws RenderingException {
+		List<ElementRenderingInformation> shared = new ArrayList<ElementRenderingInformation>();
+		for (ElementRenderingInformation rI : al) {
+			if (isShared(rI.getElement()))
+				shared.add(rI);
+		}
+		if (shared.isEmpty())
+			return null;
+		TemplateKey key = new TemplateKey(shared);
+		synchronized (context.templates) {
+			if (!context.templates.containsKey(key)) {
+				context.templates.put(key, null);
+				return null;
+			}
+			DocumentTemplate template = context.templates.get(key);
+			if (template == null) {
+				template = ((TemplateDocumentGraphicsCreator) documentGraphicsCreator).createTemplate(context.document);
+				for (ElementRenderingInformation rI : shared) {
+					render(context, al, template.getGraphics(), rI, pageLength);
+				}
+				template.complete();
+				context.templates.put(key, template);
+			}
+			return template;
+		}
+	}
+
+	/**
+	 * Returns <code>true</code> if the given element can be drawn as part of a template. Elements that require the complete layout are
+	 * never shared, since the template may be drawn before the layout was completed.
+	 * @param element The element to check.
+	 * @return <code>true</code> if the given element is repeating, page independent and does not require the complete layout.
+	 */
+	private boolean isShared(RenderElement<? extends DocumentElement> element) {
+		return element.isRepeating() && element.isPageIndependent() && !element.requiresCompleteLayout();
+	}
+
+	/**
+	 * Draws a single element.
+	 * @param context The state of the current document creation.
+	 * @param al The area layout containing the element.
+	 * @param g The document graphics to draw with.
+	 * @param rI The rendering information about the element to draw.
+	 * @param pageLength The amount of pages or <i>-1</i> if it is not known yet.
+	 * @throws RenderingException Is thrown if there is an error during the rendering.
+	 */
+	private void render(RenderContext context, AreaLayout al, DocumentGraphics g, ElementRenderingInformation rI, int pageLength)
+			throws RenderingException {
+		SimplePDFDocument doc = context.document;
+		rI.getElement()
+				.render(new RenderingInformationImpl(rI.getLocation(), rI.getSize(), doc, g, al, pageLength, context.areas, context.originMap, renderMapping, doc.getAreaDefinition(rI.getElement().documentElement.getAreaID()).getSize(), context.metrics,
+						context.chapterNumbering));
+	}
+
+	/**
+	 * Groups the elements of the given document by the identifier of their area. The order of the elements is retained.
+	 * @param doc The currently created document.
+	 * @return A map containing the elements of each area.
+	 */
+	static Map<String, List<DocumentElement>> partitionElements(SimplePDFDocument doc) {
+		Map<String, List<DocumentElement>> result = new HashMap<String, List<DocumentElement>>();
+		List<DocumentElement> current;
+		for (DocumentElement de : doc.getElements()) {
+			current = result.get(de.getAreaID());
+			if (current == null) {
+				current = new ArrayList<DocumentElement>();
+				result.put(de.getAreaID(), current);
 			}
+			current.add(de);
 		}
+		return result;
 	}
 
 	/**
 	 * Performs the layout of the contained document elements.
 	 * @param layouts The area layouts.
 	 * @param doc The currently created document.
-	 * @param pageIndex The current page index.
 	 * @param areas The document areas.
+	 * @param metrics The metrics object that records the counters and phase durations.
+	 * @param chapterNumbering The chapter/paragraph numbering of the given document.
 	 * @throws RenderingException Is thrown if there is is an error during the layout process.
 	 */
-	private void layout(List<AreaLayout> layouts, SimplePDFDocument doc, int pageIndex, List<DocumentArea> areas)
-			throws RenderingException {
-		if (areas.size() == 0)
-			return;
-		boolean found = false;
+	private void layout(List<AreaLayout> layouts, SimplePDFDocument doc, List<DocumentArea> areas, RenderMetrics metrics,
+			ChapterNumbering chapterNumbering) throws RenderingException {
+		MeasurementCache measurementCache = new MeasurementCache();
+		int pageIndex = 0;
+		while (hasRemainingContent(areas)) {
+			areas = layoutPage(layouts, doc, pageIndex, areas, metrics, measurementCache, chapterNumbering);
+			pageIndex++;
+		}
+	}
+
+	/**
+	 * Returns <code>true</code> if at least one of the given areas contains an element that was not positioned yet.
+	 * @param areas The document areas.
+	 * @return <code>true</code> if another page is required.
+	 */
+	private boolean hasRemainingContent(List<DocumentArea> areas) {
 		for (DocumentArea da : areas) {
-			if (!da.onlyRepeats()) {
-				found = true;
-				break;
-			}
+			if (!da.onlyRepeats())
+				return true;
 		}
-		if (!found)
-			return;
+		return false;
+	}
+
+	/**
+	 * Creates the next page and performs the layout of its areas.
+	 * @param layouts The list the resulting area layouts will be added to.
+	 * @param doc The currently created document.
+	 * @param pageIndex The current page index.
+	 * @param areas The document areas of the current page.
+	 * @param metrics The metrics object that records the counters and phase durations.
+	 * @param measurementCache The cache storing the measured sizes of the elements during the current layout pass.
+	 * @param chapterNumbering The chapter/paragraph numbering of the given document.
+	 * @return The document areas of the following page.
+	 * @throws RenderingException Is thrown if there is is an error during the layout process.
+	 */
+	private List<DocumentArea> layoutPage(List<AreaLayout> layouts, SimplePDFDocument doc, int pageIndex, List<DocumentArea> areas,
+			RenderMetrics metrics, MeasurementCache measurementCache, ChapterNumbering chapterNumbering) throws RenderingException {
 		DocumentGraphics page = documentGraphicsCreator.nextPage(doc);
+		metrics.increment(RenderCounter.PAGES, 1);
 		List<DocumentArea> following = new ArrayList<DocumentArea>();
 		DocumentArea ancestor = null;
 
 		for (DocumentArea a : areas) {
 			AreaLayout al = new AreaLayout(page, a, pageIndex);
-			a.layout(new PreRenderInformationImpl(doc, areas, al, page, renderMapping));
+			a.layout(new PreRenderInformationImpl(doc, areas, al, page, renderMapping, metrics, measurementCache, chapterNumbering));
 			layouts.add(al);
 			ancestor = a.next();
 			if (ancestor != null)
 				following.add(ancestor);
 		}
-
-		layout(layouts, doc, pageIndex + 1, following);
+		return following;
 	}
 
 	/**
@@ -139,4 +471,101 @@ public class DocumentCreator implements ConversionConstants {
 		return documentGraphicsCreator;
 	}
 
+	/**
+	 * Holds the state of a single document creation that is required to draw the elements.
+	 * @author Marcel Singer
+	 *
+	 */
+	private static final class RenderContext {
+
+		private final SimplePDFDocument document;
+		private final Iterable<DocumentArea> areas;
+		private final Map<DocumentElement, RenderOrigin> originMap;
+		private final RenderMetrics metrics;
+		private final ChapterNumbering chapterNumbering;
+		/**
+		 * The templates of the repeating elements or <code>null</code> if templates are not supported. A key is mapped to
+		 * <code>null</code> if the corresponding elements were drawn once without a template.
+		 */
+		private final Map<TemplateKey, DocumentTemplate> templates;
+
+		/**
+		 * Creates a new instance of {@link RenderContext}.
+		 * @param document The document that is currently rendered.
+		 * @param areas The document areas.
+		 * @param originMap The origin map.
+		 * @param metrics The metrics object that records the counters and phase durations.
+		 * @param chapterNumbering The chapter/paragraph numbering of the given document.
+		 * @param useTemplates <code>true</code> if the repeating elements should be drawn using templates.
+		 */
+		private RenderContext(SimplePDFDocument document, Iterable<DocumentArea> areas, Map<DocumentElement, RenderOrigin> originMap,
+				RenderMetrics metrics, ChapterNumbering chapterNumbering, boolean useTemplates) {
+			this.document = document;
+			this.areas = areas;
+			this.originMap = originMap;
+			this.metrics = metrics;
+			this.chapterNumbering = chapterNumbering;
+			if (useTemplates) {
+				this.templates = new HashMap<TemplateKey, DocumentTemplate>();
+			} else {
+				this.templates = null;
+			}
+		}
+
+	}
+
+	/**
+	 * Identifies the repeating elements of an area layout together with their positions and sizes. Two keys are equal if they consist
+	 * of the same elements (compared by identity) that are placed at the same positions using the same sizes.
+	 * @author Marcel Singer
+	 *
+	 */
+	private static final class TemplateKey {
+
+		private final RenderElement<?>[] elements;
+		private final float[] bounds;
+		private final int hash;
+
+		/**
+		 * Creates a new instance of {@link TemplateKey}.
+		 * @param elements The repeating elements and their positions.
+		 */
+		private TemplateKey(List<ElementRenderingInformation> elements) {
+			this.elements = new RenderElement<?>[elements.size()];
+			this.bounds = new float[elements.size() * 4];
+			ElementRenderingInformation rI;
+			int h = 1;
+			for (int i = 0; i < elements.size(); i++) {
+				rI = elements.get(i);
+				this.elements[i] = rI.getElement();
+				bounds[i * 4] = rI.getLocation().getX();
+				bounds[i * 4 + 1] = rI.getLocation().getY();
+				bounds[i * 4 + 2] = (float) rI.getSize().getWidth();
+				bounds[i * 4 + 3] = (float) rI.getSize().getHeight();
+				h = 31 * h + System.identityHashCode(rI.getElement());
+			}
+			this.hash = 31 * h + Arrays.hashCode(bounds);
+		}
+
+		@Override
+		public int hashCode() {
+			return hash;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (!(obj instanceof TemplateKey))
+				return false;
+			TemplateKey other = (TemplateKey) obj;
+			if (elements.length != other.elements.length)
+				return false;
+			for (int i = 0; i < elements.length; i++) {
+				if (elements[i] != other.elements[i])
+					return false;
+			}
+			return Arrays.equals(bounds, other.bounds);
+		}
+
+	}
+
 }
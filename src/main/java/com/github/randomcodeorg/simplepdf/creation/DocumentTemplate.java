@@ -0,0 +1,32 @@
+package com.github.randomcodeorg.simplepdf.creation;
+
+/**
+ * <p>Content that is drawn once and can be placed on multiple pages (see {@link TemplateDocumentGraphicsCreator}).</p>
+ * <p>The content is drawn using the graphics returned by {@link #getGraphics()} with the same coordinates that would be used on a page.
+ * After {@link #complete()} was called the template can be placed on any page of the same document.</p>
+ * @author Marcel Singer
+ *
+ */
+public interface DocumentTemplate {
+
+	/**
+	 * Returns the graphics that draw the content of this template.
+	 * @return The graphics that draw the content of this template.
+	 */
+	public DocumentGraphics getGraphics();
+
+	/**
+	 * Completes the content of this template. The graphics returned by {@link #getGraphics()} must not be used afterwards.
+	 * @throws RenderingException If there was an error completing the template.
+	 */
+	public void complete() throws RenderingException;
+
+	/**
+	 * Places the content of this template on the page drawn by the given graphics.
+	 * @param page The graphics of the page to draw on. They must be created by the same {@link TemplateDocumentGraphicsCreator} for the same
+	 * document.
+	 * @throws RenderingException If there was an error drawing the template.
+	 */
+	public void drawOn(DocumentGraphics page) throws RenderingException;
+
+}
@@ -11,23 +11,43 @@ import com.github.randomcodeorg.simplepdf.Table;
 import com.github.randomcodeorg.simplepdf.TableOfContents;
 import com.github.randomcodeorg.simplepdf.TextBlock;
 
+import java.io.IOException;
 import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
- * This class provides information about the render elements that will be used to render certain document elements.
+ * <p>This class provides information about the render elements that will be used to render certain document elements.</p>
+ * <p>The render elements are created by the factory registered for the class of the document element. If there is no factory
+ * registered for this class, the factory of the nearest registered super class is used. The result of this lookup is cached.</p>
  * @author Marcel Singer
  *
  */
 public class ElementRenderMapping {
 
+	/**
+	 * Marks document element classes that have no registered factory (neither for the class itself nor for one of its super classes).
+	 */
+	private static final RendererFactory NO_RENDERER = new RendererFactory() {
+
+		@Override
+		public RenderElement<? extends DocumentElement> create(SimplePDFDocument doc, DocumentElement element) {
+			return null;
+		}
+	};
+
 	/**
 	 * Holds the mapping entries.
 	 */
-	private final Map<Class<?>, Class<? extends RenderElement<? extends DocumentElement>>> mapping;
+	private final ConcurrentMap<Class<?>, RendererFactory> mapping;
+
+	/**
+	 * Holds the factories resolved for the classes of the rendered document elements.
+	 */
+	private final ConcurrentMap<Class<?>, RendererFactory> resolved;
 
 	/**
 	 * Holds the default render mapping.
@@ -38,30 +58,55 @@ public class ElementRenderMapping {
 	 * Creates an empty instance of {@link ElementRenderMapping}.
 	 */
 	public ElementRenderMapping() {
-		mapping = new HashMap<Class<?>, Class<? extends RenderElement<? extends DocumentElement>>>();
+		mapping = new ConcurrentHashMap<Class<?>, RendererFactory>();
+		resolved = new ConcurrentHashMap<Class<?>, RendererFactory>();
+	}
+
+	/**
+	 * Registers the given factory for the given class of document elements. The factory is also used for sub classes of the given class
+	 * unless there is a factory registered for a more specific class.
+	 * @param documentElementType The class of the document element that will be rendered using the render elements created by the given factory.
+	 * @param factory The factory that creates the render elements.
+	 */
+	public void register(Class<?> documentElementType, RendererFactory factory) {
+		mapping.put(documentElementType, factory);
+		resolved.clear();
 	}
 
 	/**
-	 * Registers the mapping specified by the given classes.
+	 * Registers the mapping specified by the given classes. The render elements will be created using the public constructor of the given
+	 * render element class that takes the containing document and the document element. Document elements are skipped if the constructor
+	 * throws an exception.
 	 * @param documentElementType The class of the document element that will be rendered using instances of the given render element class.
 	 * @param renderElement The class of the render element that will be used to render instances of the given document element class.
 	 */
 	public void register(
 			Class<?> documentElementType,
 			Class<? extends RenderElement<? extends DocumentElement>> renderElement) {
-		mapping.put(documentElementType, renderElement);
+		register(documentElementType, new ConstructorRendererFactory(renderElement));
 	}
 
 	/**
-	 * Returns the class of the render element that will be used to render the given type of document elements.
-	 * @param documentElementType The class of the document element thats corresponding render elements class should be returned.
-	 * @return The class of the render element that will be used to render the given type of document elements.
+	 * Returns the factory that will be used to render the given type of document elements.
+	 * @param documentElementType The class of the document element thats corresponding factory should be returned.
+	 * @return The factory that will be used to render the given type of document elements or <code>null</code> if there is none.
 	 */
-	private Class<? extends RenderElement<? extends DocumentElement>> getRendererClass(
-			Class<?> documentElementType) {
-		if (!mapping.containsKey(documentElementType))
+	private RendererFactory getFactory(Class<?> documentElementType) {
+		RendererFactory factory = resolved.get(documentElementType);
+		if (factory == null) {
+			factory = NO_RENDERER;
+			for (Class<?> c = documentElementType; c != null; c = c.getSuperclass()) {
+				RendererFactory registered = mapping.get(c);
+				if (registered != null) {
+					factory = registered;
+					break;
+				}
+			}
+			resolved.put(documentElementType, factory);
+		}
+		if (factory == NO_RENDERER)
 			return null;
-		return mapping.get(documentElementType);
+		return factory;
 	}
 
 	/**
@@ -75,35 +120,21 @@ public class ElementRenderMapping {
 			SimplePDFDocument doc, DocumentElement docElement) {
 		if (docElement == null)
 			return null;
-		Class<? extends RenderElement<? extends DocumentElement>> el = getRendererClass(docElement
-				.getClass());
-		if (el == null)
-			return null;
-		try {
-			for (Constructor<?> c : el.getConstructors()) {
-				if (c.getParameterTypes().length == 2
-						&& SimplePDFDocument.class.isAssignableFrom(c
-								.getParameterTypes()[0])
-						&& DocumentElement.class.isAssignableFrom(c
-								.getParameterTypes()[1])) {
-					RenderElement<DocumentElement> res = (RenderElement<DocumentElement>) c
-							.newInstance(doc, docElement);
-					res.setElement(docElement);
-					Collection<RenderElement<? extends DocumentElement>> col = res
-							.preSplit();
-					if (col == null) {
-						ArrayList<RenderElement<? extends DocumentElement>> lst = new ArrayList<RenderElement<? extends DocumentElement>>();
-						lst.add(res);
-						col = lst;
-					}
-					return col;
-				}
-			}
+		RendererFactory factory = getFactory(docElement.getClass());
+		if (factory == null)
 			return null;
-		} catch (Exception ex) {
-			if(ex instanceof RuntimeException) throw (RuntimeException) ex;
+		RenderElement<DocumentElement> res = (RenderElement<DocumentElement>) factory.create(doc, docElement);
+		if (res == null)
 			return null;
+		res.setElement(docElement);
+		Collection<RenderElement<? extends DocumentElement>> col = res
+				.preSplit();
+		if (col == null) {
+			ArrayList<RenderElement<? extends DocumentElement>> lst = new ArrayList<RenderElement<? extends DocumentElement>>();
+			lst.add(res);
+			col = lst;
 		}
+		return col;
 	}
 
 	/**
@@ -122,16 +153,110 @@ public class ElementRenderMapping {
 	public static synchronized ElementRenderMapping getDefault() {
 		if (defaultMapping == null) {
 			defaultMapping = new ElementRenderMapping();
-			defaultMapping.register(TableOfContents.class, RenderTableOfContents.class);
-			defaultMapping.register(PageNumber.class, RenderPageNumber.class);
-			defaultMapping.register(ChapterElement.class, RenderChapterElement.class);
-			defaultMapping.register(TextBlock.class, TextLine.class);
-			defaultMapping.register(Line.class, RenderLine.class);
-			defaultMapping.register(DocumentImage.class, RenderImage.class);
-			defaultMapping.register(Rectangle.class, RenderRectangle.class);
-			defaultMapping.register(Table.class, RenderTable.class);
+			defaultMapping.register(TableOfContents.class, new RendererFactory() {
+
+				@Override
+				public RenderElement<? extends DocumentElement> create(SimplePDFDocument doc, DocumentElement element) {
+					return new RenderTableOfContents(doc, element);
+				}
+			});
+			defaultMapping.register(PageNumber.class, new RendererFactory() {
+
+				@Override
+				public RenderElement<? extends DocumentElement> create(SimplePDFDocument doc, DocumentElement element) {
+					return new RenderPageNumber(doc, element);
+				}
+			});
+			defaultMapping.register(ChapterElement.class, new RendererFactory() {
+
+				@Override
+				public RenderElement<? extends DocumentElement> create(SimplePDFDocument doc, DocumentElement element) {
+					return new RenderChapterElement(doc, element);
+				}
+			});
+			defaultMapping.register(TextBlock.class, new RendererFactory() {
+
+				@Override
+				public RenderElement<? extends DocumentElement> create(SimplePDFDocument doc, DocumentElement element) {
+					return new TextLine(doc, element);
+				}
+			});
+			defaultMapping.register(Line.class, new RendererFactory() {
+
+				@Override
+				public RenderElement<? extends DocumentElement> create(SimplePDFDocument doc, DocumentElement element) {
+					return new RenderLine(doc, (Line) element);
+				}
+			});
+			defaultMapping.register(DocumentImage.class, new RendererFactory() {
+
+				@Override
+				public RenderElement<? extends DocumentElement> create(SimplePDFDocument doc, DocumentElement element) {
+					try {
+						return new RenderImage(doc, (DocumentImage) element);
+					} catch (IOException e) {
+						// Images that can not be read are skipped (as before)
+						return null;
+					}
+				}
+			});
+			defaultMapping.register(Rectangle.class, new RendererFactory() {
+
+				@Override
+				public RenderElement<? extends DocumentElement> create(SimplePDFDocument doc, DocumentElement element) {
+					return new RenderRectangle(doc, (Rectangle) element);
+				}
+			});
+			defaultMapping.register(Table.class, new RendererFactory() {
+
+				@Override
+				public RenderElement<? extends DocumentElement> create(SimplePDFDocument doc, DocumentElement element) {
+					return new RenderTable(doc, (Table) element);
+				}
+			});
 		}
 		return defaultMapping;
 	}
 
+	/**
+	 * A factory that creates render elements using the public constructor of a render element class that takes the containing document and
+	 * the document element. The constructor is looked up once when the factory is created.
+	 * @author Marcel Singer
+	 *
+	 */
+	private static class ConstructorRendererFactory implements RendererFactory {
+
+		private final Constructor<?> constructor;
+
+		public ConstructorRendererFactory(Class<? extends RenderElement<? extends DocumentElement>> renderElement) {
+			Constructor<?> result = null;
+			for (Constructor<?> c : renderElement.getConstructors()) {
+				Class<?>[] params = c.getParameterTypes();
+				if (params.length == 2 && SimplePDFDocument.class.isAssignableFrom(params[0])
+						&& DocumentElement.class.isAssignableFrom(params[1])) {
+					result = c;
+					break;
+				}
+			}
+			this.constructor = result;
+		}
+
+		@Override
+		public RenderElement<? extends DocumentElement> create(SimplePDFDocument doc, DocumentElement element) {
+			if (constructor == null)
+				return null;
+			try {
+				return (RenderElement<?>) constructor.newInstance(doc, element);
+			} catch (InvocationTargetException ex) {
+				// Elements that can not be created are skipped (as before)
+				return null;
+			} catch (Exception ex) {
+				if (ex instanceof RuntimeException)
+					throw (RuntimeException) ex;
+				return null;
+			}
+		}
+
+	}
+
 }
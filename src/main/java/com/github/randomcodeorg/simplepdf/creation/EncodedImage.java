@@ -0,0 +1,334 @@
+package com.github.randomcodeorg.simplepdf.creation;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Iterator;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+
+import com.github.randomcodeorg.simplepdf.DataReadException;
+import com.github.randomcodeorg.simplepdf.DocumentData;
+
+/**
+ * <p>Provides the header information of an image stored in a {@link DocumentData} instance.</p>
+ * <p>The header of JPEG and PNG images is read without decoding the pixels. The size of images in other formats is read from their
+ * metadata using an {@link ImageReader}, which does not decode the pixels either. Images whose encoding can be carried by a PDF document
+ * as it is (see {@link #isEmbeddable()}) do not need to be decoded at all:</p>
+ * <ul>
+ * <li>Baseline and progressive JPEG images with one (gray) or three (RGB) components are embedded as DCT encoded stream.</li>
+ * <li>Non interlaced PNG images with 8 bits per sample and without transparency (gray or RGB) are embedded as flate encoded
+ * stream using the PNG predictors.</li>
+ * </ul>
+ * <p>Instances that were read from a {@link DocumentData} instance do not keep the encoded image in memory. The data is read again
+ * when it is embedded or decoded.</p>
+ * @author Marcel Singer
+ *
+ */
+final class EncodedImage {
+
+	/**
+	 * The format of images that are neither JPEG nor PNG images.
+	 */
+	public static final int UNKNOWN = 0;
+	/**
+	 * The format of JPEG images.
+	 */
+	public static final int JPEG = 1;
+	/**
+	 * The format of PNG images.
+	 */
+	public static final int PNG = 2;
+
+	private static final byte[] PNG_SIGNATURE = { (byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n' };
+	private static final int PNG_GRAY = 0;
+	private static final int PNG_RGB = 2;
+
+	/**
+	 * The data the image was read from or <code>null</code> if it was read from a byte array.
+	 */
+	private final DocumentData source;
+	/**
+	 * The encoded image while the header is read or if it was read from a byte array.
+	 */
+	private byte[] data;
+	private int format = UNKNOWN;
+	private int width = -1;
+	private int height = -1;
+	private int components = -1;
+	private boolean embeddable = false;
+
+	/**
+	 * Creates a new instance of {@link EncodedImage} and reads the header of the given image data.
+	 * @param data The encoded image.
+	 * @param source The data the image was read from or <code>null</code> if it was read from a byte array.
+	 */
+	private EncodedImage(byte[] data, DocumentData source) {
+		this.data = data;
+		this.source = source;
+		if (startsWith(data, PNG_SIGNATURE)) {
+			readPNGHeader();
+		} else if (data.length > 2 && (data[0] & 0xFF) == 0xFF && (data[1] & 0xFF) == 0xD8) {
+			readJPEGHeader();
+		}
+		if (width < 0 || height < 0)
+			readImageReaderHeader();
+		if (source != null)
+			this.data = null;
+	}
+
+	/**
+	 * Reads the header of the image stored in the given data.
+	 * @param data The data that holds the encoded image.
+	 * @return The header information of the given image.
+	 * @throws IOException If the data could not be read.
+	 */
+	public static EncodedImage read(DocumentData data) throws IOException {
+		try {
+			return new EncodedImage(data.getData(), data);
+		} catch (DataReadException e) {
+			throw e.getCause();
+		}
+	}
+
+	/**
+	 * Reads the header of the given image.
+	 * @param data The encoded image.
+	 * @return The header information of the given image.
+	 */
+	public static EncodedImage read(byte[] data) {
+		return new EncodedImage(data, null);
+	}
+
+	/**
+	 * Returns the format of the image.
+	 * @return The format of the image (see {@link #JPEG}, {@link #PNG} and {@link #UNKNOWN}).
+	 */
+	public int getFormat() {
+		return format;
+	}
+
+	/**
+	 * Returns the width of the image.
+	 * @return The width of the image in pixels or <i>-1</i> if it is unknown.
+	 */
+	public int getWidth() {
+		return width;
+	}
+
+	/**
+	 * Returns the height of the image.
+	 * @return The height of the image in pixels or <i>-1</i> if it is unknown.
+	 */
+	public int getHeight() {
+		return height;
+	}
+
+	/**
+	 * Returns the amount of color components.
+	 * @return The amount of color components or <i>-1</i> if it is unknown.
+	 */
+	public int getComponents() {
+		return components;
+	}
+
+	/**
+	 * Returns <code>true</code> if the image can be embedded into a PDF document without decoding it.
+	 * @return <code>true</code> if the image can be embedded into a PDF document without decoding it.
+	 */
+	public boolean isEmbeddable() {
+		return embeddable;
+	}
+
+	/**
+	 * Returns the data that has to be stored inside the PDF image stream. This is the whole file for JPEG images and the content of the
+	 * image data chunks for PNG images.
+	 * @return The data that has to be stored inside the PDF image stream.
+	 * @throws IOException If the image could not be read from its data.
+	 * @throws IllegalStateException If the image can not be embedded (see {@link #isEmbeddable()}).
+	 */
+	public InputStream openStream() throws IOException {
+		if (!embeddable)
+			throw new IllegalStateException("The image can not be embedded without decoding it.");
+		if (format == JPEG)
+			return openEncoded();
+		byte[] data = getEncoded();
+		ByteArrayOutputStream out = new ByteArrayOutputStream(data.length);
+		int offset = PNG_SIGNATURE.length;
+		int length;
+		while (offset + 8 <= data.length) {
+			length = readInt(data, offset);
+			if (isChunk(data, offset, "IDAT"))
+				out.write(data, offset + 8, length);
+			offset += length + 12;
+		}
+		return new ByteArrayInputStream(out.toByteArray());
+	}
+
+	/**
+	 * Decodes the image.
+	 * @return The decoded image.
+	 * @throws IOException If the image could not be decoded.
+	 */
+	public BufferedImage decode() throws IOException {
+		BufferedImage image = ImageIO.read(openEncoded());
+		if (image == null)
+			throw new IOException("The image format is not supported.");
+		return image;
+	}
+
+	/**
+	 * Opens a stream that reads the encoded image.
+	 * @return A stream that reads the encoded image.
+	 * @throws IOException If the image could not be read from its data.
+	 */
+	private InputStream openEncoded() throws IOException {
+		if (source == null)
+			return new ByteArrayInputStream(data);
+		return source.openStream();
+	}
+
+	/**
+	 * Returns the encoded image.
+	 * @return The encoded image.
+	 * @throws IOException If the image could not be read from its data.
+	 */
+	private byte[] getEncoded() throws IOException {
+		if (source == null)
+			return data;
+		try {
+			return source.getData();
+		} catch (DataReadException e) {
+			throw e.getCause();
+		}
+	}
+
+	/**
+	 * Reads the size of the image using the first {@link ImageReader} that supports the format of the image. The size remains unknown
+	 * if there is no such reader or if the header can not be read.
+	 */
+	private void readImageReaderHeader() {
+		try {
+			ImageInputStream in = ImageIO.createImageInputStream(new ByteArrayInputStream(data));
+			if (in == null)
+				return;
+			try {
+				Iterator<ImageReader> readers = ImageIO.getImageReaders(in);
+				if (!readers.hasNext())
+					return;
+				ImageReader reader = readers.next();
+				try {
+					reader.setInput(in, true, true);
+					width = reader.getWidth(0);
+					height = reader.getHeight(0);
+				} finally {
+					reader.dispose();
+				}
+			} finally {
+				in.close();
+			}
+		} catch (IOException e) {
+			width = -1;
+			height = -1;
+		}
+	}
+
+	/**
+	 * Reads the header of a JPEG image. The image is embeddable if the frame is encoded using the baseline or progressive DCT and
+	 * contains one or three components with 8 bits per sample.
+	 */
+	private void readJPEGHeader() {
+		format = JPEG;
+		int offset = 2;
+		int marker;
+		while (offset + 4 <= data.length) {
+			if ((data[offset] & 0xFF) != 0xFF)
+				return;
+			marker = data[offset + 1] & 0xFF;
+			if (marker == 0xFF) {
+				// Fill byte
+				offset++;
+				continue;
+			}
+			if (marker == 0xD9 || marker == 0xDA)
+				return;
+			if (marker >= 0xC0 && marker <= 0xCF && marker != 0xC4 && marker != 0xC8 && marker != 0xCC) {
+				if (offset + 10 > data.length)
+					return;
+				int precision = data[offset + 4] & 0xFF;
+				height = readShort(data, offset + 5);
+				width = readShort(data, offset + 7);
+				components = data[offset + 9] & 0xFF;
+				embeddable = (marker == 0xC0 || marker == 0xC1 || marker == 0xC2) && precision == 8
+						&& (components == 1 || components == 3) && width > 0 && height > 0;
+				return;
+			}
+			offset += 2 + readShort(data, offset + 2);
+		}
+	}
+
+	/**
+	 * Reads the header of a PNG image. The image is embeddable if it is a non interlaced gray or RGB image with 8 bits per sample and
+	 * without a transparency chunk.
+	 */
+	private void readPNGHeader() {
+		format = PNG;
+		int offset = PNG_SIGNATURE.length;
+		if (offset + 21 > data.length || !isChunk(data, offset, "IHDR"))
+			return;
+		width = readInt(data, offset + 8);
+		height = readInt(data, offset + 12);
+		int bitDepth = data[offset + 16] & 0xFF;
+		int colorType = data[offset + 17] & 0xFF;
+		int interlace = data[offset + 20] & 0xFF;
+		if (colorType == PNG_GRAY)
+			components = 1;
+		else if (colorType == PNG_RGB)
+			components = 3;
+		if (components == -1 || bitDepth != 8 || interlace != 0)
+			return;
+		int length;
+		while (offset + 8 <= data.length) {
+			length = readInt(data, offset);
+			if (length < 0 || offset + length + 12 > data.length || isChunk(data, offset, "tRNS"))
+				return;
+			if (isChunk(data, offset, "IEND")) {
+				embeddable = width > 0 && height > 0;
+				return;
+			}
+			offset += length + 12;
+		}
+	}
+
+	private static boolean isChunk(byte[] data, int offset, String type) {
+		for (int i = 0; i < 4; i++) {
+			if (data[offset + 4 + i] != type.charAt(i))
+				return false;
+		}
+		return true;
+	}
+
+	private static int readShort(byte[] data, int offset) {
+		return ((data[offset] & 0xFF) << 8) | (data[offset + 1] & 0xFF);
+	}
+
+	private static int readInt(byte[] data, int offset) {
+		return ((data[offset] & 0xFF) << 24) | ((data[offset + 1] & 0xFF) << 16) | ((data[offset + 2] & 0xFF) << 8)
+				| (data[offset + 3] & 0xFF);
+	}
+
+	private static boolean startsWith(byte[] data, byte[] prefix) {
+		if (data.length < prefix.length)
+			return false;
+		for (int i = 0; i < prefix.length; i++) {
+			if (data[i] != prefix[i])
+				return false;
+		}
+		return true;
+	}
+
+}
@@ -3,9 +3,10 @@ package com.github.randomcodeorg.simplepdf.creation;
 import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import org.apache.pdfbox.pdmodel.PDDocument;
 import org.apache.pdfbox.pdmodel.font.PDFont;
@@ -18,6 +19,13 @@ import com.github.randomcodeorg.simplepdf.TextDecoration;
 /**
  * This is a manager that provides and manages {@link PDFont} objects. Instances of this class are used by the {@link PDDocumentCreator}
  * to request font objects according to a given style definition.
+ * <p>Instances of this class are thread-safe. A single font manager (e.g. the default one returned by {@link #getDefaultFontManager()}) can be
+ * shared by multiple {@link PDDocumentCreator}s that create documents concurrently. The loaded fonts are held per {@link PDDocument} and
+ * are released as soon as the affected document is released (see {@link #release(PDDocument)}).</p>
+ * <p>The font files are parsed once per process and not once per document. The parsed fonts are held by a cache that is shared by all
+ * font managers (see {@link #setFontCacheCapacity(long)}). A font file is read again if it was modified.</p>
+ * <p><b>Note:</b> If the default font (see {@link #setDefaultFont(PDFont)}) is one of the standard 14 fonts, every document will use
+ * its own instance of it. Any other default font is shared by all documents and should therefore not be used concurrently.</p>
  * 
  * @author Marcel Singer
  *
@@ -25,12 +33,15 @@ import com.github.randomcodeorg.simplepdf.TextDecoration;
 public class FontManager {
 
 	private static FontManager defaultManager;
+	private static final RenderMetrics NO_METRICS = new NullRenderMetrics();
 
-	private final Map<PDDocument, Map<String, PDFont>> loadedFonts = new HashMap<PDDocument, Map<String, PDFont>>();
-	private final Map<String, File> fontLocations = new HashMap<String, File>();
+	private final ConcurrentMap<PDDocument, Map<String, PDFont>> loadedFonts = new ConcurrentHashMap<PDDocument, Map<String, PDFont>>();
+	private final ConcurrentMap<PDDocument, PDFont> defaultFonts = new ConcurrentHashMap<PDDocument, PDFont>();
+	private final ConcurrentMap<PDDocument, Map<ResolvedFontKey, ResolvedFont>> resolvedFonts = new ConcurrentHashMap<PDDocument, Map<ResolvedFontKey, ResolvedFont>>();
+	private final Map<String, File> fontLocations = new ConcurrentHashMap<String, File>();
 	private final List<File> knownLocations = new ArrayList<File>();
-	private PDFont defaultFont = PDType1Font.HELVETICA;
-	private boolean errorFallback = true;
+	private volatile PDFont defaultFont = PDType1Font.HELVETICA;
+	private volatile boolean errorFallback = true;
 
 	/**
 	 * Creates a new instance of {@link FontManager}.
@@ -44,7 +55,7 @@ public class FontManager {
 	 * @param location The directory to register.
 	 * @throws IllegalArgumentException This exception is thrown if the given location does not exist or is not a directory.
 	 */
-	public void registerLocation(File location) throws IllegalArgumentException {
+	public synchronized void registerLocation(File location) throws IllegalArgumentException {
 		if (!location.exists())
 			throw new IllegalArgumentException("The given directory doesn't exist.");
 		if (!location.isDirectory())
@@ -93,8 +104,9 @@ public class FontManager {
 	 * @param doc The document that fonts should be released.
 	 */
 	public void release(PDDocument doc) {
-		if (loadedFonts.containsKey(doc))
-			loadedFonts.remove(doc);
+		loadedFonts.remove(doc);
+		defaultFonts.remove(doc);
+		resolvedFonts.remove(doc);
 	}
 
 	/**
@@ -105,6 +117,7 @@ public class FontManager {
 		if (font == null)
 			return;
 		this.defaultFont = font;
+		resolvedFonts.clear();
 	}
 
 	/**
@@ -115,6 +128,25 @@ public class FontManager {
 		return defaultFont;
 	}
 
+	/**
+	 * Returns the default font to be used within the specified document. If the default font is one of the standard 14 fonts, a separate
+	 * instance is created for every document. This is required because {@link PDFont} objects cache the measured widths internally and can
+	 * therefore not be shared by documents that are created concurrently.
+	 * @param doc The document that is going to use the default font.
+	 * @return The default font to be used within the specified document.
+	 */
+	private PDFont getDefaultFont(PDDocument doc) {
+		PDFont font = getDefaultFont();
+		if (!(font instanceof PDType1Font) || PDType1Font.getStandardFont(font.getBaseFont()) == null)
+			return font;
+		PDFont docFont = defaultFonts.get(doc);
+		if (docFont != null && docFont.getBaseFont().equals(font.getBaseFont()))
+			return docFont;
+		docFont = new PDType1Font(font.getBaseFont());
+		defaultFonts.put(doc, docFont);
+		return docFont;
+	}
+
 	/**
 	 * Loads the font with the given name to be used within the specified document.
 	 * @param doc The document that is going to use the requested font.
@@ -122,9 +154,20 @@ public class FontManager {
 	 * @return The requested font. This method will return the default font ({@link #getDefaultFont()}) if the requested one could not be found.
 	 */
 	public PDFont getFont(PDDocument doc, String fontName) {
-		PDFont loaded = getOrLoadFont(doc, fontName);
+		return getFont(doc, fontName, NO_METRICS);
+	}
+
+	/**
+	 * Loads the font with the given name to be used within the specified document.
+	 * @param doc The document that is going to use the requested font.
+	 * @param fontName The name of the font to return.
+	 * @param metrics The metrics object that records the font loads.
+	 * @return The requested font. This method will return the default font ({@link #getDefaultFont()}) if the requested one could not be found.
+	 */
+	public PDFont getFont(PDDocument doc, String fontName, RenderMetrics metrics) {
+		PDFont loaded = getOrLoadFont(doc, fontName, metrics);
 		if (loaded == null) {
-			loaded = getDefaultFont();
+			loaded = getDefaultFont(doc);
 			if (errorFallback){
 				System.err.println("Unable to find font for '" + fontName + "'. => Fallback on '"
 						+ loaded.getFontDescriptor().getFontName() + "'.");
@@ -139,14 +182,15 @@ public class FontManager {
 	 * @param doc The document that is going to use the requested font.
 	 * @param fontName The name of the font to return.
 	 * @param decoration The text decoration of the font to be returned.
+	 * @param metrics The metrics object that records the font loads.
 	 * @return The requested font. This method will return the default font ({@link #getDefaultFont()}) if the requested one could not be found.
 	 */
-	private PDFont getFont(PDDocument doc, String fontName, TextDecoration decoration) {
+	private PDFont getFont(PDDocument doc, String fontName, TextDecoration decoration, RenderMetrics metrics) {
 		String extra = decoration.toString().substring(0, 1)
 				+ decoration.toString().substring(1).toLowerCase();
-		PDFont res =  getOrLoadFont(doc, fontName + "-" + extra);
+		PDFont res =  getOrLoadFont(doc, fontName + "-" + extra, metrics);
 		if(res != null) return res;
-		res = getOrLoadFont(doc, fontName + " " + extra);
+		res = getOrLoadFont(doc, fontName + " " + extra, metrics);
 		return res;
 	}
 
@@ -157,37 +201,83 @@ public class FontManager {
 	 * @return The requested font. This method will return the default font ({@link #getDefaultFont()}) if the requested one could not be found.
 	 */
 	public PDFont getFont(PDDocument doc, StyleDefinition sd) {
+		return getFont(doc, sd, NO_METRICS);
+	}
+
+	/**
+	 * Loads the font according to the given style definition.
+	 * @param doc The document that is going to use the requested font.
+	 * @param sd The style definition thats according font should be returned.
+	 * @param metrics The metrics object that records the font loads.
+	 * @return The requested font. This method will return the default font ({@link #getDefaultFont()}) if the requested one could not be found.
+	 */
+	public PDFont getFont(PDDocument doc, StyleDefinition sd, RenderMetrics metrics) {
 		String fontName = "";
 		if (sd != null)
 			fontName = sd.getFontName();
-		PDFont result = getFont(doc, fontName, sd.getDecoration());
+		PDFont result = getFont(doc, fontName, sd.getDecoration(), metrics);
 		if (result != null)
 			return result;
-		result = getFont(doc, fontName);
+		result = getFont(doc, fontName, metrics);
 
 		return result;
 	}
 
+	/**
+	 * Returns the font according to the given style definition together with its precomputed metrics (see {@link ResolvedFont}).
+	 * The result is cached per document, font name, text decoration and font size.
+	 * @param doc The document that is going to use the requested font.
+	 * @param sd The style definition thats according font should be returned.
+	 * @param metrics The metrics object that records the font loads.
+	 * @return The requested font. This method will return the default font ({@link #getDefaultFont()}) if the requested one could not be found.
+	 * @throws IOException If the metrics of the font could not be read.
+	 */
+	public ResolvedFont getResolvedFont(PDDocument doc, StyleDefinition sd, RenderMetrics metrics) throws IOException {
+		Map<ResolvedFontKey, ResolvedFont> fonts = resolvedFonts.get(doc);
+		if (fonts == null) {
+			fonts = new ConcurrentHashMap<ResolvedFontKey, ResolvedFont>();
+			Map<ResolvedFontKey, ResolvedFont> existing = resolvedFonts.putIfAbsent(doc, fonts);
+			if (existing != null)
+				fonts = existing;
+		}
+		ResolvedFontKey key = new ResolvedFontKey(sd.getFontName(), sd.getDecoration(), sd.getFontSize());
+		ResolvedFont result = fonts.get(key);
+		if (result == null) {
+			result = new ResolvedFont(getFont(doc, sd, metrics), sd.getFontSize());
+			fonts.put(key, result);
+		}
+		return result;
+	}
+
 	/**
 	 * Tests if the requested font is already loaded and tries to load it if it isn't.
 	 * @param doc The document that is going to use the requested font.
 	 * @param name The name of the font to return.
+	 * @param metrics The metrics object that records the font loads.
 	 * @return The requested font. This method will return the default font ({@link #getDefaultFont()}) if the requested one could not be found.
 	 */
-	private PDFont getOrLoadFont(PDDocument doc, String name) {
+	private PDFont getOrLoadFont(PDDocument doc, String name, RenderMetrics metrics) {
 		if (name == null)
 			return null;
 		name = modifyName(name);
-		if (!loadedFonts.containsKey(doc))
-			loadedFonts.put(doc, new HashMap<String, PDFont>());
 		Map<String, PDFont> fonts = loadedFonts.get(doc);
-		if (fonts.containsKey(name))
-			return fonts.get(name);
-		if (!fontLocations.containsKey(name))
-			return null;
+		if (fonts == null) {
+			fonts = new ConcurrentHashMap<String, PDFont>();
+			Map<String, PDFont> existing = loadedFonts.putIfAbsent(doc, fonts);
+			if (existing != null)
+				fonts = existing;
+		}
+		PDFont font = fonts.get(name);
+		if (font != null)
+			return font;
 		File location = fontLocations.get(name);
+		if (location == null)
+			return null;
+		long start = System.nanoTime();
 		try {
-			PDTrueTypeFont f = PDTrueTypeFont.loadTTF(doc, location);
+			PDTrueTypeFont f = FontProgramCache.getShared().load(doc, location);
+			metrics.increment(RenderCounter.FONT_LOADS, 1);
+			metrics.addDuration(RenderPhase.FONT_LOADING, System.nanoTime() - start);
 			if (f == null)
 				return null;
 			fonts.put(name, f);
@@ -198,6 +288,31 @@ public class FontManager {
 		}
 	}
 
+	/**
+	 * Returns the maximum size of the font files that are held by the font cache shared by all font managers.
+	 * @return The maximum size of the cached font files in bytes.
+	 */
+	public static long getFontCacheCapacity() {
+		return FontProgramCache.getShared().getCapacity();
+	}
+
+	/**
+	 * Sets the maximum size of the font files that are held by the font cache shared by all font managers. The least recently used fonts
+	 * are evicted if the cached fonts exceed the given capacity. The default capacity is <i>32</i> MiB.
+	 * @param capacity The maximum size of the cached font files in bytes. A capacity of <i>0</i> disables the cache.
+	 * @throws IllegalArgumentException If the given capacity is negative.
+	 */
+	public static void setFontCacheCapacity(long capacity) throws IllegalArgumentException {
+		FontProgramCache.getShared().setCapacity(capacity);
+	}
+
+	/**
+	 * Removes all fonts from the font cache shared by all font managers. Fonts that are already embedded into documents are not affected.
+	 */
+	public static void clearFontCache() {
+		FontProgramCache.getShared().clear();
+	}
+
 	/**
 	 * <p>Creates a font manager with the default OS font locations.</p>
 	 * <p><b>Note:</b> Only the following operation systems are currently supported:</p>
@@ -285,4 +400,39 @@ public class FontManager {
 	public static synchronized void setDefaultFontManager(FontManager fm) {
 		defaultManager = fm;
 	}
+
+	/**
+	 * The key of a resolved font. Two keys are equal if the font names, text decorations and font sizes are equal.
+	 * @author Marcel Singer
+	 *
+	 */
+	private static final class ResolvedFontKey {
+
+		private final String fontName;
+		private final TextDecoration decoration;
+		private final int fontSize;
+
+		public ResolvedFontKey(String fontName, TextDecoration decoration, int fontSize) {
+			this.fontName = fontName;
+			this.decoration = decoration;
+			this.fontSize = fontSize;
+		}
+
+		@Override
+		public int hashCode() {
+			int result = fontName == null ? 0 : fontName.hashCode();
+			result = 31 * result + (decoration == null ? 0 : decoration.hashCode());
+			return 31 * result + fontSize;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (!(obj instanceof ResolvedFontKey))
+				return false;
+			ResolvedFontKey other = (ResolvedFontKey) obj;
+			return fontSize == other.fontSize && decoration == other.decoration
+					&& (fontName == null ? other.fontName == null : fontName.equals(other.fontName));
+		}
+
+	}
 }
@@ -0,0 +1,295 @@
+package com.github.randomcodeorg.simplepdf.creation;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.apache.pdfbox.cos.COSArray;
+import org.apache.pdfbox.cos.COSBase;
+import org.apache.pdfbox.cos.COSDictionary;
+import org.apache.pdfbox.cos.COSName;
+import org.apache.pdfbox.cos.COSNull;
+import org.apache.pdfbox.cos.COSStream;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.common.PDStream;
+import org.apache.pdfbox.pdmodel.font.PDTrueTypeFont;
+
+/**
+ * <p>Holds the parsed true type font files that were embedded into PDF documents. The cache is shared by all font managers of the
+ * process (see {@link #getShared()}), so a font file is only read and parsed once and not once per created document.</p>
+ * <p>A parsed font consists of its font dictionary (including the font descriptor and the glyph widths) and of the compressed content
+ * of the font file. Embedding a cached font into a document copies the dictionaries and stores the already compressed content, so the
+ * embedded font equals the one returned by {@link PDTrueTypeFont#loadTTF(PDDocument, File)}.</p>
+ * <p>The fonts are identified by their canonical file. A cached font is parsed again if the modification time or the length of its file
+ * changed. The least recently used fonts are evicted as soon as the size of the compressed font files exceeds the capacity.</p>
+ * <p>Instances of this class are thread-safe.</p>
+ * @author Marcel Singer
+ *
+ */
+final class FontProgramCache {
+
+	/**
+	 * The default capacity of the shared cache in bytes.
+	 */
+	public static final long DEFAULT_CAPACITY = 32L * 1024 * 1024;
+
+	private static final FontProgramCache shared = new FontProgramCache(DEFAULT_CAPACITY);
+
+	private final Map<File, FontProgram> programs = new LinkedHashMap<File, FontProgram>(16, 0.75f, true);
+	private long capacity;
+	private long size = 0;
+
+	/**
+	 * Creates a new instance of {@link FontProgramCache}.
+	 * @param capacity The maximum size of the cached font files in bytes.
+	 * @throws IllegalArgumentException If the given capacity is negative.
+	 */
+	public FontProgramCache(long capacity) throws IllegalArgumentException {
+		setCapacity(capacity);
+	}
+
+	/**
+	 * Returns the cache that is shared by all font managers.
+	 * @return The cache that is shared by all font managers.
+	 */
+	public static FontProgramCache getShared() {
+		return shared;
+	}
+
+	/**
+	 * Returns the maximum size of the cached font files in bytes.
+	 * @return The maximum size of the cached font files in bytes.
+	 */
+	public synchronized long getCapacity() {
+		return capacity;
+	}
+
+	/**
+	 * Sets the maximum size of the cached font files in bytes. The least recently used fonts are evicted if the cached fonts exceed the
+	 * given capacity.
+	 * @param capacity The maximum size of the cached font files in bytes. A capacity of <i>0</i> disables the cache.
+	 * @throws IllegalArgumentException If the given capacity is negative.
+	 */
+	public synchronized void setCapacity(long capacity) throws IllegalArgumentException {
+		if (capacity < 0)
+			throw new IllegalArgumentException("The capacity may not be negative.");
+		this.capacity = capacity;
+		evict();
+	}
+
+	/**
+	 * Returns the size of the cached font files in bytes.
+	 * @return The size of the cached font files in bytes.
+	 */
+	public synchronized long getSize() {
+		return size;
+	}
+
+	/**
+	 * Removes all cached fonts.
+	 */
+	public synchronized void clear() {
+		programs.clear();
+		size = 0;
+	}
+
+	/**
+	 * Embeds the font stored in the given file into the specified document. The file is only read if it is not cached or if it was
+	 * modified since it was cached.
+	 * @param doc The document that is going to use the font.
+	 * @param file The font file.
+	 * @return The embedded font.
+	 * @throws IOException If the font file could not be read or parsed.
+	 */
+	public PDTrueTypeFont load(PDDocument doc, File file) throws IOException {
+		return getProgram(file).embed(doc);
+	}
+
+	/**
+	 * Returns the parsed font stored in the given file. The font is parsed and cached if it is not cached yet.
+	 * @param file The font file.
+	 * @return The parsed font.
+	 * @throws IOException If the font file could not be read or parsed.
+	 */
+	private FontProgram getProgram(File file) throws IOException {
+		File key = file.getCanonicalFile();
+		long lastModified = key.lastModified();
+		long length = key.length();
+		FontProgram program;
+		synchronized (this) {
+			program = programs.get(key);
+			if (program != null && program.lastModified == lastModified && program.length == length)
+				return program;
+		}
+		// The file is parsed without holding the lock, so other fonts can be embedded in the meantime
+		program = FontProgram.parse(key, lastModified, length);
+		synchronized (this) {
+			FontProgram previous = programs.remove(key);
+			if (previous != null)
+				size -= previous.getSize();
+			if (program.getSize() <= capacity) {
+				programs.put(key, program);
+				size += program.getSize();
+				evict();
+			}
+		}
+		return program;
+	}
+
+	/**
+	 * Evicts the least recently used fonts until the cached fonts do not exceed the capacity.
+	 */
+	private void evict() {
+		Iterator<FontProgram> iterator = programs.values().iterator();
+		while (size > capacity && iterator.hasNext()) {
+			size -= iterator.next().getSize();
+			iterator.remove();
+		}
+	}
+
+	/**
+	 * Copies the given object. Dictionaries and arrays are copied deeply. Any other object (e.g. names, numbers and strings) is not
+	 * modified when a document is written and is therefore shared by the original and the copy.
+	 * @param base The object to copy.
+	 * @return The copy of the given object.
+	 * @throws IOException If the given object contains a stream. Streams belong to the document they were created for and can not
+	 * be shared.
+	 */
+	private static COSBase copy(COSBase base) throws IOException {
+		if (base instanceof COSStream)
+			throw new IOException("The font contains an unexpected stream.");
+		if (base instanceof COSDictionary) {
+			COSDictionary result = new COSDictionary();
+			copyEntries((COSDictionary) base, result);
+			return result;
+		}
+		if (base instanceof COSArray) {
+			COSArray array = (COSArray) base;
+			COSArray result = new COSArray();
+			for (int i = 0; i < array.size(); i++)
+				result.add(copy(array.get(i)));
+			return result;
+		}
+		return base;
+	}
+
+	/**
+	 * Copies the entries of the given dictionary (see {@link #copy(COSBase)}) into the target dictionary. The order of the entries
+	 * is preserved.
+	 * @param source The dictionary to copy the entries from.
+	 * @param target The dictionary to copy the entries to.
+	 * @throws IOException If the given dictionary contains a stream.
+	 */
+	private static void copyEntries(COSDictionary source, COSDictionary target) throws IOException {
+		for (Map.Entry<COSName, COSBase> entry : source.entrySet())
+			target.setItem(entry.getKey(), copy(entry.getValue()));
+	}
+
+	/**
+	 * Returns the font descriptor of the given font dictionary.
+	 * @param font The font dictionary.
+	 * @return The font descriptor.
+	 * @throws IOException If the font dictionary has no font descriptor.
+	 */
+	private static COSDictionary getDescriptor(COSDictionary font) throws IOException {
+		COSBase descriptor = font.getDictionaryObject(COSName.FONT_DESC);
+		if (!(descriptor instanceof COSDictionary))
+			throw new IOException("The font has no font descriptor.");
+		return (COSDictionary) descriptor;
+	}
+
+	/**
+	 * A parsed true type font.
+	 * @author Marcel Singer
+	 *
+	 */
+	private static final class FontProgram {
+
+		private final COSDictionary font;
+		private final COSDictionary fontFile;
+		private final byte[] data;
+		private final long lastModified;
+		private final long length;
+
+		private FontProgram(COSDictionary font, COSDictionary fontFile, byte[] data, long lastModified, long length) {
+			this.font = font;
+			this.fontFile = fontFile;
+			this.data = data;
+			this.lastModified = lastModified;
+			this.length = length;
+		}
+
+		/**
+		 * Parses the given font file. The font is loaded into a temporary document, so the dictionaries and the compressed content of
+		 * the font file are created by {@link PDTrueTypeFont#loadTTF(PDDocument, File)}. Within the stored font dictionary the embedded
+		 * font file is replaced by {@link COSNull#NULL}, so the position of its entry in the font descriptor is preserved.
+		 * @param file The font file.
+		 * @param lastModified The modification time of the font file.
+		 * @param length The length of the font file.
+		 * @return The parsed font.
+		 * @throws IOException If the font file could not be read or parsed.
+		 */
+		public static FontProgram parse(File file, long lastModified, long length) throws IOException {
+			PDDocument doc = new PDDocument();
+			try {
+				PDTrueTypeFont loaded = PDTrueTypeFont.loadTTF(doc, file);
+				COSDictionary dictionary = (COSDictionary) loaded.getCOSObject();
+				COSDictionary descriptor = getDescriptor(dictionary);
+				COSBase stream = descriptor.getDictionaryObject(COSName.FONT_FILE2);
+				if (!(stream instanceof COSStream))
+					throw new IOException("The font has no embedded font file.");
+				// The temporary document is discarded, so the font file can be replaced in place
+				descriptor.setItem(COSName.FONT_FILE2, COSNull.NULL);
+				COSDictionary font = (COSDictionary) copy(dictionary);
+				COSDictionary fontFile = new COSDictionary();
+				copyEntries((COSStream) stream, fontFile);
+				return new FontProgram(font, fontFile, readFully(((COSStream) stream).getFilteredStream()), lastModified, length);
+			} finally {
+				doc.close();
+			}
+		}
+
+		/**
+		 * Embeds this font into the given document.
+		 * @param doc The document that is going to use the font.
+		 * @return The embedded font.
+		 * @throws IOException If the font could not be embedded.
+		 */
+		public PDTrueTypeFont embed(PDDocument doc) throws IOException {
+			// The content is already compressed, so it is stored as it is
+			PDStream stream = new PDStream(doc, new ByteArrayInputStream(data), true);
+			copyEntries(fontFile, stream.getStream());
+			COSDictionary result = (COSDictionary) copy(font);
+			getDescriptor(result).setItem(COSName.FONT_FILE2, stream.getStream());
+			return new PDTrueTypeFont(result);
+		}
+
+		/**
+		 * Returns the size of the compressed font file in bytes.
+		 * @return The size of the compressed font file in bytes.
+		 */
+		public long getSize() {
+			return data.length;
+		}
+
+		private static byte[] readFully(InputStream in) throws IOException {
+			try {
+				ByteArrayOutputStream out = new ByteArrayOutputStream();
+				byte[] buffer = new byte[8192];
+				int read;
+				while ((read = in.read(buffer)) != -1)
+					out.write(buffer, 0, read);
+				return out.toByteArray();
+			} finally {
+				in.close();
+			}
+		}
+
+	}
+
+}
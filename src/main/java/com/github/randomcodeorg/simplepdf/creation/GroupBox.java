@@ -1,6 +1,6 @@
 package com.github.randomcodeorg.simplepdf.creation;
 
-import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -24,7 +24,7 @@ public class GroupBox {
 	private float x = 0;
 	private float y = 0;
 
-	private final Map<RenderElement<? extends DocumentElement>, ElementRenderingInformation> elements = new HashMap<RenderElement<? extends DocumentElement>, ElementRenderingInformation>();
+	private final Map<RenderElement<? extends DocumentElement>, ElementRenderingInformation> elements = new LinkedHashMap<RenderElement<? extends DocumentElement>, ElementRenderingInformation>();
 
 	/**
 	 * Creates a new group box.
@@ -58,14 +58,18 @@ public class GroupBox {
 	 */
 	public void take(RenderElement<? extends DocumentElement> e, PreRenderInformation info) {
 		Size maxSize = getMaxSize();
-		Size s = e.getTotalSize(info, maxSize);
-		Spacing margin = e.getRenderMargin(info.getGraphics());
+		MeasurementCache measurements = info.getMeasurementCache();
+		Size s = measurements.getTotalSize(e, info, maxSize);
+		Spacing margin = measurements.getRenderMargin(e, info.getGraphics());
 		if (maxSize.holds(s)) {
 			register(e, s, margin);
+			// The registered element is not measured again, so its results would only occupy memory until the end of the layout pass
+			measurements.invalidate(e);
 			return;
 		} else {
 			maxSize = new Size(maxSize.getWidth() - margin.getLeft() - margin.getRight(), maxSize.getHeight() - margin.getTop() - margin.getBottom());
 			List<RenderElement<? extends DocumentElement>> splits = e.splitToFit(info, maxSize);
+			measurements.invalidate(e);
 			for (RenderElement<? extends DocumentElement> split : splits) {
 				take(split, info);
 			}
@@ -135,11 +139,37 @@ public class GroupBox {
 			currentInfo = new RenderingInformationImpl(info.getPosition().add(elementInfo.getLocation()).add(offset),
 					elementInfo.getSize(), info.getDocument(), info.getGraphics(), info.getLayout(),
 					info.getPageCount(), info.getAreas(), info.getOriginMap(), info.getElementRenderMapping(),
-					parentSize);
+					parentSize, info.getMetrics(), info.getChapterNumbering());
 			re.render(currentInfo);
 		}
 	}
 
+	/**
+	 * Returns <code>true</code> if one of the contained elements requires the complete layout to be drawn.
+	 * @return <code>true</code> if one of the contained elements requires the complete layout to be drawn.
+	 * @see RenderElement#requiresCompleteLayout()
+	 */
+	public boolean requiresCompleteLayout() {
+		for (RenderElement<? extends DocumentElement> e : elements.keySet()) {
+			if (e.requiresCompleteLayout())
+				return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Returns <code>true</code> if all contained elements are drawn the same way on every page.
+	 * @return <code>true</code> if all contained elements are drawn the same way on every page.
+	 * @see RenderElement#isPageIndependent()
+	 */
+	public boolean isPageIndependent() {
+		for (RenderElement<? extends DocumentElement> e : elements.keySet()) {
+			if (!e.isPageIndependent())
+				return false;
+		}
+		return true;
+	}
+
 	public float getMaxWidth() {
 		return width;
 	}
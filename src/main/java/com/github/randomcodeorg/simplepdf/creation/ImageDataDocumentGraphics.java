@@ -0,0 +1,33 @@
+package com.github.randomcodeorg.simplepdf.creation;
+
+import java.awt.image.BufferedImage;
+
+import com.github.randomcodeorg.simplepdf.DocumentData;
+import com.github.randomcodeorg.simplepdf.Position;
+import com.github.randomcodeorg.simplepdf.Size;
+import com.github.randomcodeorg.simplepdf.StyleDefinition;
+
+/**
+ * <p>An extension of {@link DocumentGraphics} that draws images using the data they are stored in.</p>
+ * <p>The {@link RenderImage} uses {@link #drawImage(Position, Size, DocumentData, BufferedImage, StyleDefinition)} if the used document
+ * graphics implement this interface. Otherwise it decodes the image and draws it using
+ * {@link DocumentGraphics#drawImage(Position, Size, BufferedImage, StyleDefinition)}.</p>
+ * @author Marcel Singer
+ *
+ */
+public interface ImageDataDocumentGraphics extends DocumentGraphics {
+
+	/**
+	 * Renders the image stored in the given data at the given position. Implementations may use the data to identify the image, e.g.
+	 * to embed an image that is drawn multiple times only once, and may use the encoded image instead of the decoded one.
+	 * @param p The position.
+	 * @param s The expected size of the image.
+	 * @param data The data that holds the binary representation of the image.
+	 * @param image The decoded image or <code>null</code> if the image was not decoded yet. In this case the image is decoded by the
+	 * implementation if needed.
+	 * @param sd The style definition to be applied.
+	 * @throws RenderingException This exception is thrown if there is an error during the rendering.
+	 */
+	public void drawImage(Position p, Size s, DocumentData data, BufferedImage image, StyleDefinition sd) throws RenderingException;
+
+}
@@ -5,7 +5,12 @@ import com.github.randomcodeorg.simplepdf.SimplePDFDocument;
 import java.awt.image.BufferedImage;
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
 import javax.imageio.ImageIO;
 
@@ -17,6 +22,11 @@ import javax.imageio.ImageIO;
  */
 public class ImageDocumentCreator extends DocumentCreator {
 
+	/**
+	 * Holds the executor used to draw and encode the pages or <code>null</code> if the calling thread should be used.
+	 */
+	private ExecutorService executor = null;
+
 	/**
 	 * Creates a new instance of {@link ImageDocumentCreator} using the give scale factor.
 	 * @param scaleFactor The scale factor to be used.
@@ -25,6 +35,16 @@ public class ImageDocumentCreator extends DocumentCreator {
 		super(new ImageDocumentGraphicsCreator(scaleFactor));
 	}
 
+	/**
+	 * Creates a new instance of {@link ImageDocumentCreator} using the give scale factor and executor.
+	 * @param scaleFactor The scale factor to be used.
+	 * @param executor The executor used to draw and encode the pages concurrently (see {@link #setExecutor(ExecutorService)}).
+	 */
+	public ImageDocumentCreator(float scaleFactor, ExecutorService executor) {
+		this(scaleFactor);
+		this.executor = executor;
+	}
+
 	/**
 	 * Creates a new instance of {@link ImageDocumentCreator} using the default scale factor (which is: <i>1</i>).
 	 */
@@ -32,6 +52,41 @@ public class ImageDocumentCreator extends DocumentCreator {
 		super(new ImageDocumentGraphicsCreator());
 	}
 
+	/**
+	 * Returns the executor used to draw and encode the pages.
+	 * @return The executor used to draw and encode the pages or <code>null</code> if the calling thread is used.
+	 */
+	public ExecutorService getExecutor() {
+		return executor;
+	}
+
+	/**
+	 * <p>Sets the executor used to draw and encode the pages.</p>
+	 * <p>If an executor is set, the pages are drawn concurrently after the layout of the whole document was completed. The image files
+	 * are also encoded concurrently. The executor is not shut down by this instance.</p>
+	 * @param executor The executor to be used or <code>null</code> if the calling thread should be used (which is the default).
+	 */
+	public void setExecutor(ExecutorService executor) {
+		this.executor = executor;
+	}
+
+	@Override
+	protected void renderPages(List<Runnable> pages) throws RenderingException {
+		if (executor == null) {
+			super.renderPages(pages);
+			return;
+		}
+		List<Future<?>> futures = new ArrayList<Future<?>>(pages.size());
+		for (Runnable page : pages) {
+			futures.add(executor.submit(page));
+		}
+		try {
+			awaitAll(futures);
+		} catch (IOException e) {
+			throw new RenderingException(e);
+		}
+	}
+
 	/**
 	 * Renders every page of the given document as an image and saves it as a file with the name 'page' + <i>page number</i> + '.png'.
 	 * @param doc The document to render.
@@ -40,20 +95,109 @@ public class ImageDocumentCreator extends DocumentCreator {
 	 */
 	public void create(SimplePDFDocument doc, File outputDirectory)
 			throws IOException {
-		super.create(doc);
-		List<BufferedImage> pages = ((ImageDocumentGraphicsCreator) getDocumentGraphicsCreator())
-				.getImages(doc);
-		getDocumentGraphicsCreator().releaseDocument(doc);
-		String file = outputDirectory.getAbsolutePath();
-		if (file.endsWith(File.separator))
-			file += File.separator;
-		int index = 0;
-		File currentF;
-		for (BufferedImage bi : pages) {
-			currentF = new File(file + "page" + index + ".png");
-			System.out.println(currentF.getAbsolutePath());
-			ImageIO.write(bi, "PNG", currentF);
-			index++;
+		create(doc, outputDirectory, new NullRenderMetrics());
+	}
+
+	/**
+	 * Renders every page of the given document as an image and saves it as a file with the name 'page' + <i>page number</i> + '.png'.
+	 * The counters and phase durations of the process are recorded by the given metrics object.
+	 * @param doc The document to render.
+	 * @param outputDirectory The directory that will contain the image files.
+	 * @param metrics The metrics object that records the counters and phase durations.
+	 * @throws IOException If an I/O error occurs.
+	 */
+	public void create(SimplePDFDocument doc, File outputDirectory, RenderMetrics metrics)
+			throws IOException {
+		metrics.start();
+		try {
+			List<BufferedImage> pages;
+			startDocument(doc, metrics);
+			try {
+				createDocument(doc, metrics);
+				pages = ((ImageDocumentGraphicsCreator) getDocumentGraphicsCreator()).getImages(doc);
+			} finally {
+				getDocumentGraphicsCreator().releaseDocument(doc);
+			}
+			long start = System.nanoTime();
+			String file = outputDirectory.getAbsolutePath();
+			if (!file.endsWith(File.separator))
+				file += File.separator;
+			List<Future<?>> futures = new ArrayList<Future<?>>(pages.size());
+			List<File> files = new ArrayList<File>(pages.size());
+			int index = 0;
+			for (BufferedImage bi : pages) {
+				File currentF = new File(file + "page" + index + ".png");
+				files.add(currentF);
+				if (executor == null) {
+					ImageIO.write(bi, "PNG", currentF);
+				} else {
+					futures.add(executor.submit(createWriteTask(bi, currentF)));
+				}
+				index++;
+			}
+			awaitAll(futures);
+			for (File f : files) {
+				metrics.increment(RenderCounter.BYTES_WRITTEN, f.length());
+			}
+			metrics.increment(RenderCounter.IMAGE_ENCODES, files.size());
+			metrics.addDuration(RenderPhase.SAVE, System.nanoTime() - start);
+		} finally {
+			metrics.complete();
+		}
+	}
+
+	/**
+	 * Creates a task that saves the given image as a PNG file.
+	 * @param image The image to save.
+	 * @param target The file to write to.
+	 * @return A task that saves the given image.
+	 */
+	private Callable<Void> createWriteTask(final BufferedImage image, final File target) {
+		return new Callable<Void>() {
+
+			@Override
+			public Void call() throws IOException {
+				ImageIO.write(image, "PNG", target);
+				return null;
+			}
+		};
+	}
+
+	/**
+	 * Waits until all given tasks are completed. If one of the tasks failed, the remaining ones are cancelled and the causing exception is rethrown.
+	 * @param futures The futures of the tasks to wait for.
+	 * @throws IOException If one of the tasks failed because of an I/O error.
+	 * @throws RenderingException If one of the tasks failed because of any other reason or if the current thread was interrupted.
+	 */
+	private void awaitAll(List<Future<?>> futures) throws IOException, RenderingException {
+		try {
+			for (Future<?> f : futures) {
+				f.get();
+			}
+		} catch (InterruptedException e) {
+			cancelAll(futures);
+			Thread.currentThread().interrupt();
+			throw new RenderingException(e);
+		} catch (ExecutionException e) {
+			cancelAll(futures);
+			Throwable cause = e.getCause();
+			if (cause instanceof IOException)
+				throw (IOException) cause;
+			if (cause instanceof RuntimeException)
+				throw (RuntimeException) cause;
+			if (cause instanceof Error)
+				throw (Error) cause;
+			throw new RenderingException(cause);
+		}
+	}
+
+	/**
+	 * Cancels all given tasks that are not completed yet.
+	 * @param futures The futures of the tasks to cancel.
+	 */
+	private void cancelAll(List<Future<?>> futures) {
+		for (Future<?> f : futures) {
+			f.cancel(true);
 		}
 	}
 
@@ -25,6 +25,7 @@ public class ImageDocumentGraphics implements DocumentGraphics {
 	private final float scaleFactor;
 	private final float scaleFactorInv;
 	private final Graphics2D g;
+	private final RenderMetrics metrics;
 
 	int dpiH, dpiV;
 
@@ -34,6 +35,17 @@ public class ImageDocumentGraphics implements DocumentGraphics {
 	 * @param g The document graphics to be used.
 	 */
 	public ImageDocumentGraphics(float scaleFactor, Graphics2D g) {
+		this(scaleFactor, g, new NullRenderMetrics());
+	}
+
+	/**
+	 * Creates a new instance of {@link ImageDocumentGraphics}.
+	 * @param scaleFactor The scale factor to be applied.
+	 * @param g The document graphics to be used.
+	 * @param metrics The metrics object that records the text measurements.
+	 */
+	public ImageDocumentGraphics(float scaleFactor, Graphics2D g, RenderMetrics metrics) {
+		this.metrics = metrics;
 		this.scaleFactor = scaleFactor;
 		this.scaleFactorInv = 1.0f / scaleFactor;
 		this.g = g;
@@ -93,6 +105,7 @@ public class ImageDocumentGraphics implements DocumentGraphics {
 
 	@Override
 	public Size getTextSize(String text, StyleDefinition sd, Size reservedSize) throws RenderingException {
+		metrics.increment(RenderCounter.TEXT_MEASUREMENTS, 1);
 		FontMetrics fm = g.getFontMetrics(getFont(sd));
 		Rectangle2D r = fm.getStringBounds(text, g);
 		return new Size(r.getWidth() * scaleFactorInv, r.getHeight() * scaleFactorInv);
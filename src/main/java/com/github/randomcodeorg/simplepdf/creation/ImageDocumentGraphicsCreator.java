@@ -2,7 +2,8 @@ package com.github.randomcodeorg.simplepdf.creation;
 
 import java.awt.image.BufferedImage;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -11,12 +12,16 @@ import com.github.randomcodeorg.simplepdf.SimplePDFDocument;
 /**
  * <p>This class is an implementation of {@link DocumentGraphicsCreator} that can be used to render documents as an image.</p>
  * <p><b>Note:</b> The image rendering is intended for creating document previews. A smooth and accurate result can not be guaranteed.</p>
+ * <p>Instances of this class are thread-safe. The pages of a started document are bound to the {@link SimplePDFDocument} instance.
+ * Therefore multiple threads may use the same instance to create different documents concurrently and a started document may be
+ * continued by another thread. A single {@link SimplePDFDocument} instance can only be started once at a time.</p>
  * @author Marcel Singer
  *
  */
-public class ImageDocumentGraphicsCreator implements DocumentGraphicsCreator {
+public class ImageDocumentGraphicsCreator implements AppendableDocumentGraphicsCreator, MeasurableDocumentGraphicsCreator {
 	
-	private final Map<SimplePDFDocument, List<BufferedImage>> openedDocs = new HashMap<SimplePDFDocument, List<BufferedImage>>();
+	private final Map<SimplePDFDocument, RenderSession> openedDocs = Collections
+			.synchronizedMap(new IdentityHashMap<SimplePDFDocument, RenderSession>());
 	private final float scaleFactor;
 	
 	
@@ -32,15 +37,45 @@ public class ImageDocumentGraphicsCreator implements DocumentGraphicsCreator {
 
 	@Override
 	public void startDocument(SimplePDFDocument doc) throws RenderingException {
-		openedDocs.put(doc, new ArrayList<BufferedImage>());
+		startDocument(doc, new NullRenderMetrics());
+	}
+
+	@Override
+	public void startDocument(SimplePDFDocument doc, RenderMetrics metrics) throws RenderingException {
+		synchronized (openedDocs) {
+			if (openedDocs.containsKey(doc))
+				throw new IllegalStateException("document already started");
+			openedDocs.put(doc, new RenderSession(metrics));
+		}
+	}
+
+	/**
+	 * Returns the render session of the given document.
+	 * @param doc The affected document.
+	 * @return The render session of the given document.
+	 * @throws IllegalStateException If the given document was not started or was already released.
+	 */
+	private RenderSession getSession(SimplePDFDocument doc) throws IllegalStateException {
+		RenderSession session = openedDocs.get(doc);
+		if (session == null)
+			throw new IllegalStateException("document not started");
+		return session;
 	}
 
 	@Override
 	public DocumentGraphics nextPage(SimplePDFDocument doc)
 			throws RenderingException {
+		RenderSession session = getSession(doc);
 		BufferedImage bi = new BufferedImage((int) (doc.getPageSize().getWidth() * scaleFactor), (int) (doc.getPageSize().getHeight() * scaleFactor), BufferedImage.TYPE_INT_ARGB);
-		openedDocs.get(doc).add(bi);
-		return new ImageDocumentGraphics(scaleFactor, bi.createGraphics());
+		session.images.add(bi);
+		return new ImageDocumentGraphics(scaleFactor, bi.createGraphics(), session.metrics);
+	}
+
+	@Override
+	public DocumentGraphics reopenPage(SimplePDFDocument doc, int pageIndex)
+			throws RenderingException {
+		RenderSession session = getSession(doc);
+		return new ImageDocumentGraphics(scaleFactor, session.images.get(pageIndex).createGraphics(), session.metrics);
 	}
 
 	@Override
@@ -52,11 +87,45 @@ public class ImageDocumentGraphicsCreator implements DocumentGraphicsCreator {
 	@Override
 	public void releaseDocument(SimplePDFDocument doc)
 			throws RenderingException {
-			openedDocs.remove(doc);
+		openedDocs.remove(doc);
 	}
 
+	/**
+	 * Returns the pages of the given document.
+	 * @param doc The affected document.
+	 * @return The pages of the given document or <code>null</code> if the given document was not started.
+	 */
 	public List<BufferedImage> getImages(SimplePDFDocument doc){
-		return openedDocs.get(doc);
+		RenderSession session = openedDocs.get(doc);
+		if (session == null)
+			return null;
+		return session.images;
+	}
+
+	/**
+	 * Holds the state of a started document.
+	 * @author Marcel Singer
+	 *
+	 */
+	private static class RenderSession {
+
+		/**
+		 * The pages that were created so far.
+		 */
+		private final List<BufferedImage> images = Collections.synchronizedList(new ArrayList<BufferedImage>());
+		/**
+		 * The metrics object that records the counters of the process.
+		 */
+		private final RenderMetrics metrics;
+
+		/**
+		 * Creates a new instance of {@link RenderSession}.
+		 * @param metrics The metrics object that records the counters of the process.
+		 */
+		private RenderSession(RenderMetrics metrics) {
+			this.metrics = metrics;
+		}
+
 	}
 	
 }
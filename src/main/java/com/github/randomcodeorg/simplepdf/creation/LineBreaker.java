@@ -0,0 +1,61 @@
+package com.github.randomcodeorg.simplepdf.creation;
+
+/**
+ * <p>Finds the positions at which a text has to be broken to fit a given width.</p>
+ * <p>The text is scanned forwards and the width of every word is only measured once (using a {@link WidthAccumulator}). A line is
+ * broken at the last space that keeps the line within the available width.</p>
+ * @author Marcel Singer
+ *
+ */
+public class LineBreaker {
+
+	private final WidthAccumulator accumulator;
+	private final double maxWidth;
+
+	/**
+	 * Creates a new instance of {@link LineBreaker}.
+	 * @param accumulator The accumulator used to measure the text.
+	 * @param maxWidth The available width (in millimeters).
+	 */
+	public LineBreaker(WidthAccumulator accumulator, double maxWidth) {
+		this.accumulator = accumulator;
+		this.maxWidth = maxWidth;
+	}
+
+	/**
+	 * Finds the position at which the given line has to be broken.
+	 * @param text The text containing the line.
+	 * @param start The index of the first character of the line.
+	 * @param end The index after the last character of the remaining text.
+	 * @return <i>end</i> if the whole remaining text fits, the index of the space the line has to be broken at or <i>-1</i> if
+	 * not even the first word fits.
+	 * @throws RenderingException This exception is thrown if there is an error during the measuring.
+	 */
+	public int findBreak(CharSequence text, int start, int end) throws RenderingException {
+		accumulator.clear();
+		int measured = start;
+		int result = -1;
+		for (int i = start; i < end; i++) {
+			if (text.charAt(i) != ' ')
+				continue;
+			accumulator.append(text, measured, i);
+			measured = i;
+			if (!fits())
+				return result;
+			result = i;
+		}
+		accumulator.append(text, measured, end);
+		if (fits())
+			return end;
+		return result;
+	}
+
+	/**
+	 * Returns <code>true</code> if the text measured so far fits the available width.
+	 * @return <code>true</code> if the text measured so far fits the available width.
+	 */
+	private boolean fits() {
+		return accumulator.getWidth() <= maxWidth;
+	}
+
+}
@@ -0,0 +1,22 @@
+package com.github.randomcodeorg.simplepdf.creation;
+
+import com.github.randomcodeorg.simplepdf.SimplePDFDocument;
+
+/**
+ * <p>An extension of {@link DocumentGraphicsCreator} that records counters (e.g. text measurements or font loads) of the documents it creates.</p>
+ * <p>The {@link DocumentCreator} uses {@link #startDocument(SimplePDFDocument, RenderMetrics)} instead of
+ * {@link #startDocument(SimplePDFDocument)} if the used document graphics creator implements this interface.</p>
+ * @author Marcel Singer
+ *
+ */
+public interface MeasurableDocumentGraphicsCreator extends DocumentGraphicsCreator {
+
+	/**
+	 * This method is called at the beginning of a document creation process.
+	 * @param doc The document that will be created.
+	 * @param metrics The metrics object that records the counters and phase durations of the process.
+	 * @throws RenderingException If there is an error during the initialization process.
+	 */
+	public void startDocument(SimplePDFDocument doc, RenderMetrics metrics) throws RenderingException;
+
+}
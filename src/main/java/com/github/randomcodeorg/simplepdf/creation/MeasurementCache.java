@@ -0,0 +1,144 @@
+package com.github.randomcodeorg.simplepdf.creation;
+
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+import com.github.randomcodeorg.simplepdf.DocumentElement;
+import com.github.randomcodeorg.simplepdf.Size;
+import com.github.randomcodeorg.simplepdf.Spacing;
+
+/**
+ * <p>Stores the measured sizes and margins of render elements during a layout pass.</p>
+ * <p>The layout measures every element multiple times using the same available size (e.g. to check if it fits and to reserve its
+ * space). This cache makes sure that every element is only measured once per distinct available size. The results of an element
+ * must be discarded (see {@link #invalidate(RenderElement)}) as soon as they may change, e.g. if the element was split, and as soon as
+ * the element was positioned for the last time. Otherwise the results of every element would be held until the end of the layout pass.</p>
+ * <p><b>Note:</b> Instances of this class are not thread safe. They are intended to be used by a single layout pass.</p>
+ * @author Marcel Singer
+ *
+ */
+public class MeasurementCache {
+
+	private Map<RenderElement<? extends DocumentElement>, Map<SizeKey, Size>> renderSizes;
+	private Map<RenderElement<? extends DocumentElement>, Spacing> renderMargins;
+
+	/**
+	 * Creates a new and empty measurement cache.
+	 */
+	public MeasurementCache() {
+
+	}
+
+	/**
+	 * Returns the size the given element will take up (see {@link RenderElement#getRenderSize(PreRenderInformation, Size)}).
+	 * The element is only measured if there is no result for the given parent size yet.
+	 * @param element The element to measure.
+	 * @param info Information about the current creation process.
+	 * @param parentSize The size of the containing element.
+	 * @return The size the given element will take up.
+	 * @throws RenderingException Is thrown if there is an error during the measuring process.
+	 */
+	public Size getRenderSize(RenderElement<? extends DocumentElement> element, PreRenderInformation info, Size parentSize)
+			throws RenderingException {
+		if (renderSizes == null)
+			renderSizes = new IdentityHashMap<RenderElement<? extends DocumentElement>, Map<SizeKey, Size>>();
+		Map<SizeKey, Size> sizes = renderSizes.get(element);
+		if (sizes == null) {
+			sizes = new HashMap<SizeKey, Size>(4);
+			renderSizes.put(element, sizes);
+		}
+		SizeKey key = new SizeKey(parentSize);
+		Size result = sizes.get(key);
+		if (result == null) {
+			result = element.getRenderSize(info, parentSize);
+			sizes.put(key, result);
+		}
+		return result;
+	}
+
+	/**
+	 * Returns the margin to other elements required by the given element (see {@link RenderElement#getRenderMargin(DocumentGraphics)}).
+	 * @param element The element to measure.
+	 * @param g The document graphics to be used.
+	 * @return The margin to other elements required by the given element.
+	 * @throws RenderingException Is thrown if there is an error during the measuring process.
+	 */
+	public Spacing getRenderMargin(RenderElement<? extends DocumentElement> element, DocumentGraphics g) throws RenderingException {
+		if (renderMargins == null)
+			renderMargins = new IdentityHashMap<RenderElement<? extends DocumentElement>, Spacing>();
+		Spacing result = renderMargins.get(element);
+		if (result == null) {
+			result = element.getRenderMargin(g);
+			renderMargins.put(element, result);
+		}
+		return result;
+	}
+
+	/**
+	 * Returns the total size the given element will take up (see {@link RenderElement#getTotalSize(PreRenderInformation, Size)}).
+	 * @param element The element to measure.
+	 * @param info Information about the current creation process.
+	 * @param parentSize The size of the containing element.
+	 * @return The total size the given element will take up.
+	 * @throws RenderingException Is thrown if there is an error during the measuring process.
+	 */
+	public Size getTotalSize(RenderElement<? extends DocumentElement> element, PreRenderInformation info, Size parentSize)
+			throws RenderingException {
+		Size rS = getRenderSize(element, info, parentSize);
+		Spacing rM = getRenderMargin(element, info.getGraphics());
+		return new Size(rS.getWidth() + rM.getLeft() + rM.getRight(), rS.getHeight() + rM.getBottom() + rM.getTop());
+	}
+
+	/**
+	 * Discards all results of the given element.
+	 * @param element The element whose results should be discarded.
+	 */
+	public void invalidate(RenderElement<? extends DocumentElement> element) {
+		if (renderSizes != null)
+			renderSizes.remove(element);
+		if (renderMargins != null)
+			renderMargins.remove(element);
+	}
+
+	/**
+	 * Discards all stored results.
+	 */
+	public void clear() {
+		renderSizes = null;
+		renderMargins = null;
+	}
+
+	/**
+	 * The key used to store the results of a single element. Two keys are equal if the represented sizes have the same width and height.
+	 * @author Marcel Singer
+	 *
+	 */
+	private static final class SizeKey {
+
+		private final double width;
+		private final double height;
+
+		public SizeKey(Size size) {
+			this.width = size.getWidth();
+			this.height = size.getHeight();
+		}
+
+		@Override
+		public int hashCode() {
+			long bits = Double.doubleToLongBits(width) * 31 + Double.doubleToLongBits(height);
+			return (int) (bits ^ (bits >>> 32));
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (!(obj instanceof SizeKey))
+				return false;
+			SizeKey other = (SizeKey) obj;
+			return Double.doubleToLongBits(width) == Double.doubleToLongBits(other.width)
+					&& Double.doubleToLongBits(height) == Double.doubleToLongBits(other.height);
+		}
+
+	}
+
+}
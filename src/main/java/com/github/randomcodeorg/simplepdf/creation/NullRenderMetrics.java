@@ -0,0 +1,30 @@
+package com.github.randomcodeorg.simplepdf.creation;
+
+/**
+ * An implementation of {@link RenderMetrics} that simply discards all values.
+ * @author Marcel Singer
+ *
+ */
+public class NullRenderMetrics implements RenderMetrics {
+
+	@Override
+	public void start() {
+
+	}
+
+	@Override
+	public void increment(RenderCounter counter, long amount) {
+
+	}
+
+	@Override
+	public void addDuration(RenderPhase phase, long nanos) {
+
+	}
+
+	@Override
+	public void complete() {
+
+	}
+
+}
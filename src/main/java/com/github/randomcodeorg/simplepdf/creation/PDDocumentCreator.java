@@ -3,6 +3,7 @@ package com.github.randomcodeorg.simplepdf.creation;
 import com.github.randomcodeorg.simplepdf.DocumentMetaInformation;
 import com.github.randomcodeorg.simplepdf.SimplePDFDocument;
 
+import java.io.FilterOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
 
@@ -12,6 +13,9 @@ import org.apache.pdfbox.pdmodel.PDDocumentInformation;
 
 /**
  * A document creator that uses PDFBox to create PDF documents.
+ * <p>Instances of this class are thread-safe as long as their configuration is not changed. A single instance (and its {@link FontManager})
+ * can be shared by multiple threads that create documents concurrently. Every call of {@link #create(SimplePDFDocument, OutputStream)}
+ * uses its own render session. The same {@link SimplePDFDocument} instance can not be created by multiple threads at the same time.</p>
  * @author Marcel Singer
  *
  */
@@ -32,6 +36,26 @@ public class PDDocumentCreator extends DocumentCreator {
 		this(FontManager.getDefaultFontManager());
 	}
 
+	/**
+	 * Returns the maximum resolution of embedded images.
+	 * @return The maximum resolution in dots per inch or <i>0</i> if images are embedded using their original resolution.
+	 * @see #setMaxImageResolution(float)
+	 */
+	public float getMaxImageResolution() {
+		return ((PDDocumentGraphicsCreator) getDocumentGraphicsCreator()).getMaxImageResolution();
+	}
+
+	/**
+	 * Sets the maximum resolution of embedded images. Images that are drawn at a size that would exceed this resolution are
+	 * downsampled before they are embedded (e.g. a photo that is drawn 5 cm wide is embedded with at most 590 pixels per row at 300 dpi).
+	 * @param maxImageResolution The maximum resolution in dots per inch or <i>0</i> if images should be embedded using their original
+	 * resolution (default).
+	 * @throws IllegalArgumentException If the given resolution is negative.
+	 */
+	public void setMaxImageResolution(float maxImageResolution) throws IllegalArgumentException {
+		((PDDocumentGraphicsCreator) getDocumentGraphicsCreator()).setMaxImageResolution(maxImageResolution);
+	}
+
 	/**
 	 * Creates the document and writes the resulting PDF to the given stream.
 	 * @param doc The document to be created.
@@ -41,27 +65,83 @@ public class PDDocumentCreator extends DocumentCreator {
 	 */
 	public void create(SimplePDFDocument doc, OutputStream out)
 			throws IOException, RenderingException {
-		super.create(doc);
+		create(doc, out, new NullRenderMetrics());
+	}
+
+	/**
+	 * Creates the document, writes the resulting PDF to the given stream and records the counters and phase durations of the process.
+	 * @param doc The document to be created.
+	 * @param out The output stream that should be used for writing the result to.
+	 * @param metrics The metrics object that records the counters and phase durations.
+	 * @throws IOException If an I/O error occurs.
+	 * @throws RenderingException If there is an error during the document creation.
+	 */
+	public void create(SimplePDFDocument doc, OutputStream out, RenderMetrics metrics)
+			throws IOException, RenderingException {
 		PDDocumentGraphicsCreator dcc = (PDDocumentGraphicsCreator) getDocumentGraphicsCreator();
-		PDDocument pdDoc = dcc.getDocument(doc);
-		
-		DocumentMetaInformation dmi = doc.getMetaInformation();
-		PDDocumentInformation di = pdDoc.getDocumentInformation();
-		if(dmi.hasAuthor()) di.setAuthor(dmi.getAuthor());
-		if(dmi.hasCreationDate()) di.setCreationDate(dmi.getCreationDate());
-		if(dmi.hasCreator()) di.setCreator(dmi.getCreator());
-		if(dmi.hasKeywords()) di.setKeywords(dmi.getKeywords());
-		if(dmi.hasModificationDate()) di.setModificationDate(dmi.getModificationDate());
-		if(dmi.hasProducer()) di.setProducer(dmi.getProducer());
-		if(dmi.hasSubject()) di.setSubject(dmi.getSubject());
-		if(dmi.hasTitle()) di.setTitle(dmi.getTitle());
+		metrics.start();
 		try {
-			pdDoc.save(out);
-			
+			startDocument(doc, metrics);
+			try {
+				createDocument(doc, metrics);
+				PDDocument pdDoc = dcc.getDocument(doc);
+
+				DocumentMetaInformation dmi = doc.getMetaInformation();
+				PDDocumentInformation di = pdDoc.getDocumentInformation();
+				if(dmi.hasAuthor()) di.setAuthor(dmi.getAuthor());
+				if(dmi.hasCreationDate()) di.setCreationDate(dmi.getCreationDate());
+				if(dmi.hasCreator()) di.setCreator(dmi.getCreator());
+				if(dmi.hasKeywords()) di.setKeywords(dmi.getKeywords());
+				if(dmi.hasModificationDate()) di.setModificationDate(dmi.getModificationDate());
+				if(dmi.hasProducer()) di.setProducer(dmi.getProducer());
+				if(dmi.hasSubject()) di.setSubject(dmi.getSubject());
+				if(dmi.hasTitle()) di.setTitle(dmi.getTitle());
+				long start = System.nanoTime();
+				CountingOutputStream cos = new CountingOutputStream(out);
+				pdDoc.save(cos);
+				metrics.increment(RenderCounter.BYTES_WRITTEN, cos.count);
+				metrics.addDuration(RenderPhase.SAVE, System.nanoTime() - start);
+			} finally {
+				dcc.releaseDocument(doc);
+			}
 		} catch (COSVisitorException e) {
 			throw new RenderingException(e);
 		}finally{
-			dcc.releaseDocument(doc);
+			metrics.complete();
+		}
+
+	}
+
+	/**
+	 * An output stream that counts the bytes written to the underlying stream.
+	 * @author Marcel Singer
+	 *
+	 */
+	private static class CountingOutputStream extends FilterOutputStream {
+
+		/**
+		 * The amount of bytes written so far.
+		 */
+		private long count = 0;
+
+		/**
+		 * Creates a new instance of {@link CountingOutputStream}.
+		 * @param out The underlying stream.
+		 */
+		private CountingOutputStream(OutputStream out) {
+			super(out);
+		}
+
+		@Override
+		public void write(int b) throws IOException {
+			out.write(b);
+			count++;
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) throws IOException {
+			out.write(b, off, len);
+			count += len;
 		}
 
 	}
@@ -1,15 +1,31 @@
 package com.github.randomcodeorg.simplepdf.creation;
 
 import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.geom.AffineTransform;
 import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
 
+import javax.imageio.ImageIO;
+
+import org.apache.pdfbox.cos.COSDictionary;
+import org.apache.pdfbox.cos.COSName;
+import org.apache.pdfbox.cos.COSStream;
 import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.common.PDStream;
 import org.apache.pdfbox.pdmodel.edit.PDPageContentStream;
 import org.apache.pdfbox.pdmodel.font.PDFont;
+import org.apache.pdfbox.pdmodel.graphics.color.PDDeviceGray;
+import org.apache.pdfbox.pdmodel.graphics.color.PDDeviceRGB;
+import org.apache.pdfbox.pdmodel.graphics.xobject.PDJpeg;
 import org.apache.pdfbox.pdmodel.graphics.xobject.PDPixelMap;
+import org.apache.pdfbox.pdmodel.graphics.xobject.PDXObjectForm;
 import org.apache.pdfbox.pdmodel.graphics.xobject.PDXObjectImage;
 
+import com.github.randomcodeorg.simplepdf.DocumentData;
 import com.github.randomcodeorg.simplepdf.Position;
 import com.github.randomcodeorg.simplepdf.SimplePDFDocument;
 import com.github.randomcodeorg.simplepdf.Size;
@@ -21,12 +37,15 @@ import com.github.randomcodeorg.simplepdf.TextAlignment;
  * @author Marcel Singer
  *
  */
-public class PDDocumentGraphics implements DocumentGraphics, ConversionConstants {
+public class PDDocumentGraphics implements AccumulatingDocumentGraphics, ImageDataDocumentGraphics, ConversionConstants {
 
 	private final PDPageContentStream contentStream;
 	private final PDDocument pdDocument;
 	private final FontManager fontManager;
 	private final SimplePDFDocument sDoc;
+	private final RenderMetrics metrics;
+	private final PDImageCache images;
+	private final float maxImageResolution;
 
 	/**
 	 * Creates a new instance of {@link PDDocumentGraphics} using the given values.
@@ -37,10 +56,42 @@ public class PDDocumentGraphics implements DocumentGraphics, ConversionConstants
 	 */
 	public PDDocumentGraphics(SimplePDFDocument sDoc, PDPageContentStream contentStream, PDDocument doc,
 			FontManager manager) {
+		this(sDoc, contentStream, doc, manager, new NullRenderMetrics());
+	}
+
+	/**
+	 * Creates a new instance of {@link PDDocumentGraphics} using the given values.
+	 * @param sDoc The document to be rendered.
+	 * @param contentStream The content stream to write to.
+	 * @param doc The PDFBox document instance.
+	 * @param manager The font manager to be used.
+	 * @param metrics The metrics object that records the text measurements, image encodes and font loads.
+	 */
+	public PDDocumentGraphics(SimplePDFDocument sDoc, PDPageContentStream contentStream, PDDocument doc,
+			FontManager manager, RenderMetrics metrics) {
+		this(sDoc, contentStream, doc, manager, metrics, new PDImageCache(), 0);
+	}
+
+	/**
+	 * Creates a new instance of {@link PDDocumentGraphics} using the given values.
+	 * @param sDoc The document to be rendered.
+	 * @param contentStream The content stream to write to.
+	 * @param doc The PDFBox document instance.
+	 * @param manager The font manager to be used.
+	 * @param metrics The metrics object that records the text measurements, image encodes and font loads.
+	 * @param images The images that were already embedded into the given PDFBox document.
+	 * @param maxImageResolution The maximum resolution (in dots per inch) of embedded images or <i>0</i> if images should be embedded
+	 * using their original resolution.
+	 */
+	PDDocumentGraphics(SimplePDFDocument sDoc, PDPageContentStream contentStream, PDDocument doc,
+			FontManager manager, RenderMetrics metrics, PDImageCache images, float maxImageResolution) {
 		this.contentStream = contentStream;
 		this.pdDocument = doc;
 		this.fontManager = manager;
 		this.sDoc = sDoc;
+		this.metrics = metrics;
+		this.images = images;
+		this.maxImageResolution = maxImageResolution;
 	}
 
 	/**
@@ -50,9 +101,14 @@ public class PDDocumentGraphics implements DocumentGraphics, ConversionConstants
 	 * @return The default tab space.
 	 */
 	private float getTabSpace(StyleDefinition sd, Size reservedSize) {
-		return getRawTextWidth("   ", sd);
+		return getRawTextWidth(TAB_SPACE, sd);
 	}
 
+	/**
+	 * The text whose width is used as the default tab space.
+	 */
+	private static final String TAB_SPACE = "   ";
+
 	/**
 	 * Returns the raw text width.
 	 * @param text The text to measure.
@@ -60,9 +116,18 @@ public class PDDocumentGraphics implements DocumentGraphics, ConversionConstants
 	 * @return The raw text width.
 	 */
 	public float getRawTextWidth(String text, StyleDefinition sd) {
+		return getResolvedFont(sd).getWidth(text);
+	}
+
+	/**
+	 * Returns the font (and its metrics) to be used for the given style definition.
+	 * @param sd The style definition to be applied.
+	 * @return The font to be used for the given style definition.
+	 * @throws RenderingException Is thrown if the metrics of the font could not be read.
+	 */
+	private ResolvedFont getResolvedFont(StyleDefinition sd) throws RenderingException {
 		try {
-			PDFont f = fontManager.getFont(pdDocument, sd);
-			return ((f.getStringWidth(text) * sd.getFontSize())/ 1000.0f) * UNITS_TO_MM;
+			return fontManager.getResolvedFont(pdDocument, sd, metrics);
 		} catch (IOException e) {
 			throw new RenderingException(e);
 		}
@@ -130,7 +195,7 @@ public class PDDocumentGraphics implements DocumentGraphics, ConversionConstants
 		if (sd != null && sd.getColor() != null)
 			col = sd.getColor();
 		try {
-			PDFont f = fontManager.getFont(pdDocument, sd);
+			PDFont f = getResolvedFont(sd).getFont();
 			contentStream.beginText();
 			contentStream.setFont(f, fontSize);
 
@@ -173,8 +238,201 @@ public class PDDocumentGraphics implements DocumentGraphics, ConversionConstants
 
 	@Override
 	public void drawImage(Position p, Size s, BufferedImage image, StyleDefinition sd) throws RenderingException {
+		PDXObjectImage img = images.get(image);
+		if (img == null) {
+			img = encode(image);
+			images.put(image, img);
+		}
+		drawImage(p, s, img);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * <p>Every distinct image is embedded once per PDF document and referenced wherever it is drawn again. Images whose encoding
+	 * can be carried by PDF (see {@link EncodedImage#isEmbeddable()}) are embedded as they are, without decoding them.</p>
+	 * <p>If a maximum image resolution is set, images that would exceed this resolution at the given size are downsampled before they
+	 * are embedded. Every downsampled size of an image is embedded once.</p>
+	 */
+	@Override
+	public void drawImage(Position p, Size s, DocumentData data, BufferedImage image, StyleDefinition sd)
+			throws RenderingException {
+		try {
+			EncodedImage encoded = images.getHeader(data);
+			int width = encoded.getWidth();
+			int height = encoded.getHeight();
+			boolean downsample = false;
+			if (maxImageResolution > 0 && width > 0 && height > 0) {
+				double scale = Math.max(s.getWidth() / MM_PER_INCH * maxImageResolution / width,
+						s.getHeight() / MM_PER_INCH * maxImageResolution / height);
+				int targetWidth = Math.max(1, (int) Math.ceil(width * scale));
+				int targetHeight = Math.max(1, (int) Math.ceil(height * scale));
+				if (targetWidth < width && targetHeight < height) {
+					width = targetWidth;
+					height = targetHeight;
+					downsample = true;
+				}
+			}
+			PDXObjectImage img = images.get(data, width, height);
+			if (img == null) {
+				if (!downsample && encoded.isEmbeddable()) {
+					img = embed(encoded);
+				} else {
+					if (image == null)
+						image = encoded.decode();
+					if (downsample)
+						img = encodeDownsampled(downsample(image, width, height), encoded.getFormat() == EncodedImage.JPEG);
+					else
+						img = encode(image);
+				}
+				images.put(data, width, height, img);
+			}
+			drawImage(p, s, img);
+		} catch (IOException e) {
+			throw new RenderingException(e);
+		}
+	}
+
+	/**
+	 * Scales the given image down to the given size. The image is halved repeatedly using bilinear interpolation until the given size
+	 * is reached, which is fast and avoids the artifacts of scaling down by a large factor in a single step.
+	 * @param image The image to scale.
+	 * @param width The target width in pixels.
+	 * @param height The target height in pixels.
+	 * @return The scaled image.
+	 */
+	private static BufferedImage downsample(BufferedImage image, int width, int height) {
+		int type;
+		if (image.getColorModel().hasAlpha())
+			type = BufferedImage.TYPE_INT_ARGB;
+		else if (image.getColorModel().getNumComponents() == 1)
+			type = BufferedImage.TYPE_BYTE_GRAY;
+		else
+			type = BufferedImage.TYPE_INT_RGB;
+		BufferedImage current = image;
+		int currentWidth = image.getWidth();
+		int currentHeight = image.getHeight();
+		BufferedImage next;
+		Graphics2D g;
+		do {
+			currentWidth = Math.max(width, currentWidth / 2);
+			currentHeight = Math.max(height, currentHeight / 2);
+			next = new BufferedImage(currentWidth, currentHeight, type);
+			g = next.createGraphics();
+			g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+			g.drawImage(current, 0, 0, currentWidth, currentHeight, null);
+			g.dispose();
+			current = next;
+		} while (currentWidth != width || currentHeight != height);
+		return current;
+	}
+
+	/**
+	 * Embeds the given image into the PDF document without decoding it.
+	 * @param encoded The image to embed.
+	 * @return The embedded image.
+	 * @throws RenderingException This exception is thrown if the image could not be embedded.
+	 */
+	private PDXObjectImage embed(EncodedImage encoded) throws RenderingException {
+		InputStream in;
+		try {
+			in = encoded.openStream();
+		} catch (IOException e) {
+			throw new RenderingException(e);
+		}
+		try {
+			PDStream stream = new PDStream(pdDocument, in, true);
+			COSStream cos = stream.getStream();
+			cos.setItem(COSName.TYPE, COSName.XOBJECT);
+			cos.setItem(COSName.SUBTYPE, COSName.IMAGE);
+			PDXObjectImage img;
+			if (encoded.getFormat() == EncodedImage.JPEG) {
+				cos.setItem(COSName.FILTER, COSName.DCT_DECODE);
+				img = new PDJpeg(stream);
+			} else {
+				cos.setItem(COSName.FILTER, COSName.FLATE_DECODE);
+				COSDictionary params = new COSDictionary();
+				params.setInt(COSName.PREDICTOR, 15);
+				params.setInt(COSName.COLORS, encoded.getComponents());
+				params.setInt(COSName.BITS_PER_COMPONENT, 8);
+				params.setInt(COSName.COLUMNS, encoded.getWidth());
+				cos.setItem(COSName.DECODE_PARMS, params);
+				img = new PDPixelMap(stream);
+			}
+			img.setWidth(encoded.getWidth());
+			img.setHeight(encoded.getHeight());
+			img.setBitsPerComponent(8);
+			if (encoded.getComponents() == 1)
+				img.setColorSpace(new PDDeviceGray());
+			else
+				img.setColorSpace(PDDeviceRGB.INSTANCE);
+			return img;
+		} catch (IOException e) {
+			throw new RenderingException(e);
+		} finally {
+			try {
+				in.close();
+			} catch (IOException e) {
+				// The image was embedded already
+			}
+		}
+	}
+
+	/**
+	 * Embeds the given image into the PDF document.
+	 * @param image The image to embed.
+	 * @return The embedded image.
+	 * @throws RenderingException This exception is thrown if the image could not be encoded.
+	 */
+	private PDXObjectImage encode(BufferedImage image) throws RenderingException {
 		try {
 			PDXObjectImage img = new PDPixelMap(pdDocument, image);
+			metrics.increment(RenderCounter.IMAGE_ENCODES, 1);
+			return img;
+		} catch (IOException e) {
+			throw new RenderingException(e);
+		}
+	}
+
+	/**
+	 * Embeds the given downsampled image into the PDF document. Images that were decoded from a JPEG image are encoded as JPEG image
+	 * again. Images without transparency are encoded as PNG image and embedded using the PNG predictors, which compresses them
+	 * considerably better than {@link PDPixelMap}.
+	 * @param image The downsampled image to embed.
+	 * @param jpeg <code>true</code> if the image was decoded from a JPEG image.
+	 * @return The embedded image.
+	 * @throws RenderingException This exception is thrown if the image could not be encoded.
+	 */
+	private PDXObjectImage encodeDownsampled(BufferedImage image, boolean jpeg) throws RenderingException {
+		try {
+			if (jpeg) {
+				PDXObjectImage img = new PDJpeg(pdDocument, image);
+				metrics.increment(RenderCounter.IMAGE_ENCODES, 1);
+				return img;
+			}
+			if (!image.getColorModel().hasAlpha()) {
+				ByteArrayOutputStream out = new ByteArrayOutputStream();
+				ImageIO.write(image, "png", out);
+				EncodedImage encoded = EncodedImage.read(out.toByteArray());
+				if (encoded.isEmbeddable()) {
+					metrics.increment(RenderCounter.IMAGE_ENCODES, 1);
+					return embed(encoded);
+				}
+			}
+		} catch (IOException e) {
+			throw new RenderingException(e);
+		}
+		return encode(image);
+	}
+
+	/**
+	 * Draws the given embedded image.
+	 * @param p The position.
+	 * @param s The expected size of the image.
+	 * @param img The embedded image.
+	 * @throws RenderingException This exception is thrown if there is an error during the rendering.
+	 */
+	private void drawImage(Position p, Size s, PDXObjectImage img) throws RenderingException {
+		try {
 			p = translate(p);
 			p = new Position(p.getX(), p.getY() - ((float) s.getHeight() * MM_TO_UNITS));
 			contentStream.drawXObject(img, p.getX(), p.getY(), (float) s.getWidth() * MM_TO_UNITS,
@@ -184,8 +442,22 @@ public class PDDocumentGraphics implements DocumentGraphics, ConversionConstants
 		}
 	}
 
+	/**
+	 * Draws the given form XObject. The form is drawn using the coordinate system of the page.
+	 * @param form The form to draw.
+	 * @throws RenderingException This exception is thrown if there is an error during the rendering.
+	 */
+	void drawForm(PDXObjectForm form) throws RenderingException {
+		try {
+			contentStream.drawXObject(form, new AffineTransform());
+		} catch (IOException e) {
+			throw new RenderingException(e);
+		}
+	}
+
 	@Override
 	public Size getTextSize(String text, StyleDefinition sd, Size reservedSize) throws RenderingException {
+		metrics.increment(RenderCounter.TEXT_MEASUREMENTS, 1);
 		return new Size(getTextWidth(text, sd, reservedSize), getTextHeight(sd));
 	}
 
@@ -197,15 +469,18 @@ public class PDDocumentGraphics implements DocumentGraphics, ConversionConstants
 	 * @return The measured text width (including tabs).
 	 */
 	public float getTextWidth(String text, StyleDefinition sd, Size reservedSize) {
-		float width = 0;
-		String[] parts = text.split("\t");
-		for (int i = 0; i < parts.length; i++) {
-			if (i > 0) {
-				width = getNextTab(sd, reservedSize, width);
-			}
-			width += getRawTextWidth(parts[i], sd);
-		}
-		return width;
+		ResolvedFont font = getResolvedFont(sd);
+		if (text.indexOf('\t') == -1)
+			return font.getWidth(text);
+		TextWidthAccumulator accumulator = new TextWidthAccumulator(font);
+		accumulator.append(text, 0, text.length());
+		return accumulator.getTextWidth();
+	}
+
+	@Override
+	public WidthAccumulator createWidthAccumulator(StyleDefinition sd, Size reservedSize) throws RenderingException {
+		metrics.increment(RenderCounter.TEXT_MEASUREMENTS, 1);
+		return new TextWidthAccumulator(getResolvedFont(sd));
 	}
 
 	/**
@@ -214,12 +489,7 @@ public class PDDocumentGraphics implements DocumentGraphics, ConversionConstants
 	 * @return The measured height.
 	 */
 	public float getTextHeight(StyleDefinition sd) {
-		try {
-			PDFont f = fontManager.getFont(pdDocument, sd);
-			return (f.getFontBoundingBox().getHeight() / 1000.0f * sd.getFontSize()) * UNITS_TO_MM;
-		} catch (IOException e) {
-			throw new RenderingException(e);
-		}
+		return getResolvedFont(sd).getLineHeight();
 	}
 
 	/**
@@ -265,6 +535,83 @@ public class PDDocumentGraphics implements DocumentGraphics, ConversionConstants
 	}
 
 	
+	/**
+	 * A {@link WidthAccumulator} that keeps a running sum of the advance widths of a {@link ResolvedFont}. Tabs move the position
+	 * to the next tab stop (see {@link #getTextWidth(String, StyleDefinition, Size)}). Trailing tabs are ignored until further text is appended.
+	 * @author Marcel Singer
+	 *
+	 */
+	private static class TextWidthAccumulator implements WidthAccumulator {
+
+		private final ResolvedFont font;
+		private final float tabSpace;
+		private float tabbedWidth;
+		private float advanceSum;
+		private int pendingTabs;
+
+		public TextWidthAccumulator(ResolvedFont font) {
+			this.font = font;
+			this.tabSpace = font.getWidth(TAB_SPACE);
+		}
+
+		@Override
+		public void append(CharSequence text, int start, int end) {
+			int runStart = start;
+			for (int i = start; i < end; i++) {
+				if (text.charAt(i) == '\t') {
+					appendRun(text, runStart, i);
+					pendingTabs++;
+					runStart = i + 1;
+				}
+			}
+			appendRun(text, runStart, end);
+		}
+
+		/**
+		 * Appends a part of a text that does not contain any tabs.
+		 * @param text The text containing the part to append.
+		 * @param start The index of the first character to append.
+		 * @param end The index after the last character to append.
+		 */
+		private void appendRun(CharSequence text, int start, int end) {
+			if (start >= end)
+				return;
+			while (pendingTabs > 0) {
+				tabbedWidth += font.toMillimeters(advanceSum);
+				tabbedWidth = ((int) (tabbedWidth / tabSpace) + 1) * tabSpace;
+				advanceSum = 0;
+				pendingTabs--;
+			}
+			advanceSum = font.addAdvances(advanceSum, text, start, end);
+		}
+
+		/**
+		 * Returns the width of the text appended so far.
+		 * @return The width of the text appended so far (in millimeters).
+		 */
+		public float getTextWidth() {
+			return tabbedWidth + font.toMillimeters(advanceSum);
+		}
+
+		@Override
+		public double getWidth() {
+			return getTextWidth();
+		}
+
+		@Override
+		public double getHeight() {
+			return font.getLineHeight();
+		}
+
+		@Override
+		public void clear() {
+			tabbedWidth = 0;
+			advanceSum = 0;
+			pendingTabs = 0;
+		}
+
+	}
+
 	@Override
 	public void drawRect(Position p, Size s, double lineWidth, StyleDefinition sd) throws RenderingException {
 		drawLine(p, p.add(new Position((float)s.getWidth(), 0f)), lineWidth, sd);
@@ -4,7 +4,10 @@ import com.github.randomcodeorg.simplepdf.DocumentMetaInformation;
 import com.github.randomcodeorg.simplepdf.SimplePDFDocument;
 
 import java.io.IOException;
-import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
 import java.util.Map;
 
 import org.apache.pdfbox.pdmodel.PDDocument;
@@ -12,17 +15,23 @@ import org.apache.pdfbox.pdmodel.PDDocumentInformation;
 import org.apache.pdfbox.pdmodel.PDPage;
 import org.apache.pdfbox.pdmodel.common.PDRectangle;
 import org.apache.pdfbox.pdmodel.edit.PDPageContentStream;
+import org.apache.pdfbox.pdmodel.graphics.xobject.PDXObjectForm;
 
 /**
- * An implementation of {@link DocumentGraphicsCreator} that uses PDFBox.
+ * <p>An implementation of {@link DocumentGraphicsCreator} that uses PDFBox.</p>
+ * <p>Instances of this class are thread-safe. The state of a started document is held in a render session that is bound to the
+ * {@link SimplePDFDocument} instance. Therefore multiple threads may use the same instance to create different documents concurrently and
+ * a started document may be continued by another thread. A single {@link SimplePDFDocument} instance can only be started once at a time.</p>
  * @author Marcel Singer
  *
  */
-public class PDDocumentGraphicsCreator implements DocumentGraphicsCreator,
-		ConversionConstants {
+public class PDDocumentGraphicsCreator implements AppendableDocumentGraphicsCreator, MeasurableDocumentGraphicsCreator,
+		TemplateDocumentGraphicsCreator, ConversionConstants {
 
-	private final Map<SimplePDFDocument, PDDocument> openDocuments = new HashMap<SimplePDFDocument, PDDocument>();
+	private final Map<SimplePDFDocument, RenderSession> sessions = Collections
+			.synchronizedMap(new IdentityHashMap<SimplePDFDocument, RenderSession>());
 	private final FontManager fontManager;
+	private volatile float maxImageResolution = 0;
 
 	/**
 	 * Creates a new instance of {@link PDDocumentGraphicsCreator} using the given font manager.
@@ -33,8 +42,37 @@ public class PDDocumentGraphicsCreator implements DocumentGraphicsCreator,
 
 	}
 
+	/**
+	 * Returns the maximum resolution of embedded images.
+	 * @return The maximum resolution in dots per inch or <i>0</i> if images are embedded using their original resolution.
+	 * @see #setMaxImageResolution(float)
+	 */
+	public float getMaxImageResolution() {
+		return maxImageResolution;
+	}
+
+	/**
+	 * <p>Sets the maximum resolution of embedded images.</p>
+	 * <p>Images that are drawn at a size that would exceed this resolution are downsampled before they are embedded. Downsampled JPEG
+	 * images are encoded as JPEG images again, all other images are encoded losslessly. The setting is applied to documents that are
+	 * started afterwards.</p>
+	 * @param maxImageResolution The maximum resolution in dots per inch or <i>0</i> if images should be embedded using their original
+	 * resolution (default).
+	 * @throws IllegalArgumentException If the given resolution is negative.
+	 */
+	public void setMaxImageResolution(float maxImageResolution) throws IllegalArgumentException {
+		if (maxImageResolution < 0)
+			throw new IllegalArgumentException("The maximum image resolution may not be negative.");
+		this.maxImageResolution = maxImageResolution;
+	}
+
 	@Override
 	public void startDocument(SimplePDFDocument doc) throws RenderingException {
+		startDocument(doc, new NullRenderMetrics());
+	}
+
+	@Override
+	public void startDocument(SimplePDFDocument doc, RenderMetrics metrics) throws RenderingException {
 		PDDocument pdDoc = new PDDocument();
 		
 		DocumentMetaInformation dmi = doc.getMetaInformation();
@@ -48,7 +86,30 @@ public class PDDocumentGraphicsCreator implements DocumentGraphicsCreator,
 		if(dmi.hasSubject()) di.setSubject(dmi.getSubject());
 		if(dmi.hasTitle()) di.setTitle(dmi.getTitle());
 		
-		openDocuments.put(doc, pdDoc);
+		synchronized (sessions) {
+			if (sessions.containsKey(doc)) {
+				try {
+					pdDoc.close();
+				} catch (IOException e) {
+					throw new RenderingException(e);
+				}
+				throw new IllegalStateException("document already started");
+			}
+			sessions.put(doc, new RenderSession(pdDoc, metrics, maxImageResolution));
+		}
+	}
+
+	/**
+	 * Returns the render session of the given document.
+	 * @param doc The affected document.
+	 * @return The render session of the given document.
+	 * @throws IllegalStateException If the given document was not started or was already released.
+	 */
+	private RenderSession getSession(SimplePDFDocument doc) throws IllegalStateException {
+		RenderSession session = sessions.get(doc);
+		if (session == null)
+			throw new IllegalStateException("document not started");
+		return session;
 	}
 
 	private PDRectangle getPageSize(SimplePDFDocument doc) {
@@ -61,18 +122,54 @@ public class PDDocumentGraphicsCreator implements DocumentGraphicsCreator,
 	public DocumentGraphics nextPage(SimplePDFDocument doc)
 			throws RenderingException {
 		try {
-			PDDocument pdDoc = openDocuments.get(doc);
+			RenderSession session = getSession(doc);
+			PDDocument pdDoc = session.document;
 			PDPage page = new PDPage(getPageSize(doc));
 			pdDoc.addPage(page);
+			session.pages.add(page);
 			PDPageContentStream stream = new PDPageContentStream(pdDoc, page);
 			PDDocumentGraphics g = new PDDocumentGraphics(doc, stream, pdDoc,
-					fontManager);
+					fontManager, session.metrics, session.images, session.maxImageResolution);
 			return g;
 		} catch (IOException e) {
 			throw new RenderingException(e);
 		}
 	}
 
+	@Override
+	public DocumentGraphics reopenPage(SimplePDFDocument doc, int pageIndex)
+			throws RenderingException {
+		try {
+			RenderSession session = getSession(doc);
+			PDDocument pdDoc = session.document;
+			PDPage page = session.pages.get(pageIndex);
+			PDPageContentStream stream = new PDPageContentStream(pdDoc, page, true, true, true);
+			return new PDDocumentGraphics(doc, stream, pdDoc, fontManager, session.metrics, session.images,
+					session.maxImageResolution);
+		} catch (IOException e) {
+			throw new RenderingException(e);
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * <p>The template is stored as a form XObject that is referenced by every page it is placed on.</p>
+	 */
+	@Override
+	public DocumentTemplate createTemplate(SimplePDFDocument doc) throws RenderingException {
+		try {
+			RenderSession session = getSession(doc);
+			PDDocument pdDoc = session.document;
+			// The content is recorded using a page that is not part of the document
+			PDPage page = new PDPage(getPageSize(doc));
+			PDPageContentStream stream = new PDPageContentStream(pdDoc, page);
+			return new PDDocumentTemplate(page, new PDDocumentGraphics(doc, stream, pdDoc, fontManager, session.metrics,
+					session.images, session.maxImageResolution));
+		} catch (IOException e) {
+			throw new RenderingException(e);
+		}
+	}
+
 	@Override
 	public void completeDocument(SimplePDFDocument doc)
 			throws RenderingException {
@@ -81,12 +178,15 @@ public class PDDocumentGraphicsCreator implements DocumentGraphicsCreator,
 	@Override
 	public void releaseDocument(SimplePDFDocument doc)
 			throws RenderingException {
+		RenderSession session = sessions.remove(doc);
+		if (session == null)
+			return;
 		try {
-			PDDocument pd = openDocuments.get(doc);
-			pd.close();
-			openDocuments.remove(doc);
+			session.document.close();
 		} catch (IOException e) {
 			throw new RenderingException(e);
+		} finally {
+			fontManager.release(session.document);
 		}
 
 	}
@@ -98,7 +198,102 @@ public class PDDocumentGraphicsCreator implements DocumentGraphicsCreator,
 	 * @return an instance of {@link PDDocument} that represents the rendering of the given {@link SimplePDFDocument}.
 	 */
 	public PDDocument getDocument(SimplePDFDocument doc){
-		return openDocuments.get(doc);
+		RenderSession session = sessions.get(doc);
+		if (session == null)
+			return null;
+		return session.document;
+	}
+
+	/**
+	 * A template that is stored as a form XObject.
+	 * @author Marcel Singer
+	 *
+	 */
+	private static class PDDocumentTemplate implements DocumentTemplate {
+
+		/**
+		 * The page (that is not part of the document) the content is recorded with.
+		 */
+		private final PDPage page;
+		private final PDDocumentGraphics graphics;
+		private PDXObjectForm form;
+
+		/**
+		 * Creates a new instance of {@link PDDocumentTemplate}.
+		 * @param page The page the content is recorded with.
+		 * @param graphics The graphics that draw on the given page.
+		 */
+		private PDDocumentTemplate(PDPage page, PDDocumentGraphics graphics) {
+			this.page = page;
+			this.graphics = graphics;
+		}
+
+		@Override
+		public DocumentGraphics getGraphics() {
+			return graphics;
+		}
+
+		@Override
+		public void complete() throws RenderingException {
+			graphics.dispose();
+			try {
+				form = new PDXObjectForm(page.getContents());
+			} catch (IOException e) {
+				throw new RenderingException(e);
+			}
+			form.setResources(page.getResources());
+			form.setBBox(page.getMediaBox());
+		}
+
+		@Override
+		public void drawOn(DocumentGraphics page) throws RenderingException {
+			if (form == null)
+				throw new IllegalStateException("The template was not completed yet.");
+			((PDDocumentGraphics) page).drawForm(form);
+		}
+
+	}
+
+	/**
+	 * Holds the state of a started document.
+	 * @author Marcel Singer
+	 *
+	 */
+	private static class RenderSession {
+
+		/**
+		 * The {@link PDDocument} the document is rendered to.
+		 */
+		private final PDDocument document;
+		/**
+		 * The pages that were created so far.
+		 */
+		private final List<PDPage> pages = Collections.synchronizedList(new ArrayList<PDPage>());
+		/**
+		 * The metrics object that records the counters of the process.
+		 */
+		private final RenderMetrics metrics;
+		/**
+		 * The images that were embedded into the document so far.
+		 */
+		private final PDImageCache images = new PDImageCache();
+		/**
+		 * The maximum resolution of embedded images (in dots per inch) or <i>0</i> if it is not limited.
+		 */
+		private final float maxImageResolution;
+
+		/**
+		 * Creates a new instance of {@link RenderSession}.
+		 * @param document The {@link PDDocument} the document is rendered to.
+		 * @param metrics The metrics object that records the counters of the process.
+		 * @param maxImageResolution The maximum resolution of embedded images (in dots per inch) or <i>0</i> if it is not limited.
+		 */
+		private RenderSession(PDDocument document, RenderMetrics metrics, float maxImageResolution) {
+			this.document = document;
+			this.metrics = metrics;
+			this.maxImageResolution = maxImageResolution;
+		}
+
 	}
 
 }
@@ -0,0 +1,197 @@
+package com.github.randomcodeorg.simplepdf.creation;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+import org.apache.pdfbox.pdmodel.graphics.xobject.PDXObjectImage;
+
+import com.github.randomcodeorg.simplepdf.DocumentData;
+
+/**
+ * <p>Holds the images that were embedded into a single PDF document. Every distinct image is embedded once per embedded size and
+ * referenced by all pages it is drawn on.</p>
+ * <p>Images drawn from {@link DocumentData} are identified by a digest of the content of the data and the size (in pixels) they were
+ * embedded with. Therefore the same image is also reused if it is stored multiple times using different identifiers. The content itself
+ * is not kept, so data that is provided by a source is read again when it is needed. Images that are drawn without their
+ * originating data are identified by the {@link BufferedImage} instance.</p>
+ * <p><b>Note:</b> Instances of this class are not thread safe. They are intended to be used by a single render session.</p>
+ * @author Marcel Singer
+ *
+ */
+final class PDImageCache {
+
+	private final Map<DocumentData, EncodedImage> headers = new IdentityHashMap<DocumentData, EncodedImage>();
+	private final Map<DocumentData, ContentKey> contentKeys = new IdentityHashMap<DocumentData, ContentKey>();
+	private final Map<ImageKey, PDXObjectImage> byContent = new HashMap<ImageKey, PDXObjectImage>();
+	private final Map<BufferedImage, PDXObjectImage> byInstance = new IdentityHashMap<BufferedImage, PDXObjectImage>();
+
+	/**
+	 * Returns the header information of the image stored in the given data. The header is only read once.
+	 * @param data The data that holds the image.
+	 * @return The header information of the image.
+	 * @throws IOException If the data could not be read.
+	 */
+	public EncodedImage getHeader(DocumentData data) throws IOException {
+		EncodedImage result = headers.get(data);
+		if (result == null) {
+			result = EncodedImage.read(data);
+			headers.put(data, result);
+		}
+		return result;
+	}
+
+	/**
+	 * Returns the embedded image of the given data.
+	 * @param data The data that holds the image.
+	 * @param width The width of the embedded image in pixels.
+	 * @param height The height of the embedded image in pixels.
+	 * @return The embedded image or <code>null</code> if the image was not embedded using the given size yet.
+	 * @throws IOException If the data could not be read.
+	 */
+	public PDXObjectImage get(DocumentData data, int width, int height) throws IOException {
+		return byContent.get(new ImageKey(getContentKey(data), width, height));
+	}
+
+	/**
+	 * Stores the embedded image of the given data.
+	 * @param data The data that holds the image.
+	 * @param width The width of the embedded image in pixels.
+	 * @param height The height of the embedded image in pixels.
+	 * @param image The embedded image.
+	 * @throws IOException If the data could not be read.
+	 */
+	public void put(DocumentData data, int width, int height, PDXObjectImage image) throws IOException {
+		byContent.put(new ImageKey(getContentKey(data), width, height), image);
+	}
+
+	/**
+	 * Returns the embedded representation of the given image.
+	 * @param image The image.
+	 * @return The embedded image or <code>null</code> if the image was not embedded yet.
+	 */
+	public PDXObjectImage get(BufferedImage image) {
+		return byInstance.get(image);
+	}
+
+	/**
+	 * Stores the embedded representation of the given image.
+	 * @param image The image.
+	 * @param embedded The embedded image.
+	 */
+	public void put(BufferedImage image, PDXObjectImage embedded) {
+		byInstance.put(image, embedded);
+	}
+
+	/**
+	 * Returns the key that identifies the content of the given data. The content is only digested once per data instance.
+	 * @param data The data.
+	 * @return The key that identifies the content of the given data.
+	 * @throws IOException If the data could not be read.
+	 */
+	private ContentKey getContentKey(DocumentData data) throws IOException {
+		ContentKey result = contentKeys.get(data);
+		if (result == null) {
+			result = new ContentKey(digest(data));
+			contentKeys.put(data, result);
+		}
+		return result;
+	}
+
+	/**
+	 * Computes the SHA-256 digest of the given data. The data is streamed, so it does not need to be held in memory.
+	 * @param data The data to digest.
+	 * @return The digest of the given data.
+	 * @throws IOException If the data could not be read.
+	 */
+	private static byte[] digest(DocumentData data) throws IOException {
+		MessageDigest digest;
+		try {
+			digest = MessageDigest.getInstance("SHA-256");
+		} catch (NoSuchAlgorithmException e) {
+			// Every Java platform is required to support SHA-256
+			throw new IllegalStateException(e);
+		}
+		InputStream in = data.openStream();
+		try {
+			byte[] buffer = new byte[8192];
+			int read;
+			while ((read = in.read(buffer)) != -1)
+				digest.update(buffer, 0, read);
+		} finally {
+			in.close();
+		}
+		return digest.digest();
+	}
+
+	/**
+	 * Identifies binary data by the digest of its content.
+	 * @author Marcel Singer
+	 *
+	 */
+	private static final class ContentKey {
+
+		private final byte[] digest;
+		private final int hash;
+
+		public ContentKey(byte[] digest) {
+			this.digest = digest;
+			this.hash = Arrays.hashCode(digest);
+		}
+
+		@Override
+		public int hashCode() {
+			return hash;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj)
+				return true;
+			if (!(obj instanceof ContentKey))
+				return false;
+			ContentKey other = (ContentKey) obj;
+			return hash == other.hash && Arrays.equals(digest, other.digest);
+		}
+
+	}
+
+	/**
+	 * Identifies an image by its content and the size it was embedded with.
+	 * @author Marcel Singer
+	 *
+	 */
+	private static final class ImageKey {
+
+		private final ContentKey content;
+		private final int width;
+		private final int height;
+
+		public ImageKey(ContentKey content, int width, int height) {
+			this.content = content;
+			this.width = width;
+			this.height = height;
+		}
+
+		@Override
+		public int hashCode() {
+			return (content.hashCode() * 31 + width) * 31 + height;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (!(obj instanceof ImageKey))
+				return false;
+			ImageKey other = (ImageKey) obj;
+			return width == other.width && height == other.height && content.equals(other.content);
+		}
+
+	}
+
+}
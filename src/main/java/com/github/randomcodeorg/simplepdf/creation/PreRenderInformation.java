@@ -34,5 +34,20 @@ public interface PreRenderInformation {
 	 * @return The used element render mapping.
 	 */
 	ElementRenderMapping getElementRenderMapping();
+	/**
+	 * Returns the metrics object that records the counters and phase durations of the current process.
+	 * @return The metrics object that records the counters and phase durations of the current process.
+	 */
+	RenderMetrics getMetrics();
+	/**
+	 * Returns the cache storing the measured sizes of the elements during the current layout pass.
+	 * @return The cache storing the measured sizes of the elements during the current layout pass.
+	 */
+	MeasurementCache getMeasurementCache();
+	/**
+	 * Returns the chapter/paragraph numbering of the currently created document.
+	 * @return The chapter/paragraph numbering of the currently created document.
+	 */
+	ChapterNumbering getChapterNumbering();
 	
 }
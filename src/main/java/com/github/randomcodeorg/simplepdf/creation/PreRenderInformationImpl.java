@@ -14,6 +14,9 @@ public class PreRenderInformationImpl implements PreRenderInformation {
 	private final AreaLayout layout;
 	private final DocumentGraphics graphics;
 	private final ElementRenderMapping erm;
+	private final RenderMetrics metrics;
+	private final MeasurementCache measurementCache;
+	private ChapterNumbering chapterNumbering;
 	
 	/**
 	 * Creates a new instance of {@link PreRenderInformationImpl} using the given values.
@@ -24,11 +27,59 @@ public class PreRenderInformationImpl implements PreRenderInformation {
 	 * @param erm The used element render mapping.
 	 */
 	public PreRenderInformationImpl(SimplePDFDocument doc, Iterable<DocumentArea> areas, AreaLayout layout, DocumentGraphics g, ElementRenderMapping erm) {
+		this(doc, areas, layout, g, erm, new NullRenderMetrics());
+	}
+
+	/**
+	 * Creates a new instance of {@link PreRenderInformationImpl} using the given values.
+	 * @param doc The currently created document.
+	 * @param areas The available areas.
+	 * @param layout The current area layout.
+	 * @param g The document graphics object to be used.
+	 * @param erm The used element render mapping.
+	 * @param metrics The metrics object that records the counters and phase durations.
+	 */
+	public PreRenderInformationImpl(SimplePDFDocument doc, Iterable<DocumentArea> areas, AreaLayout layout, DocumentGraphics g, ElementRenderMapping erm, RenderMetrics metrics) {
+		this(doc, areas, layout, g, erm, metrics, new MeasurementCache());
+	}
+
+	/**
+	 * Creates a new instance of {@link PreRenderInformationImpl} using the given values.
+	 * @param doc The currently created document.
+	 * @param areas The available areas.
+	 * @param layout The current area layout.
+	 * @param g The document graphics object to be used.
+	 * @param erm The used element render mapping.
+	 * @param metrics The metrics object that records the counters and phase durations.
+	 * @param measurementCache The cache storing the measured sizes of the elements during the current layout pass.
+	 */
+	public PreRenderInformationImpl(SimplePDFDocument doc, Iterable<DocumentArea> areas, AreaLayout layout, DocumentGraphics g, ElementRenderMapping erm, RenderMetrics metrics,
+			MeasurementCache measurementCache) {
+		this(doc, areas, layout, g, erm, metrics, measurementCache, null);
+	}
+
+	/**
+	 * Creates a new instance of {@link PreRenderInformationImpl} using the given values.
+	 * @param doc The currently created document.
+	 * @param areas The available areas.
+	 * @param layout The current area layout.
+	 * @param g The document graphics object to be used.
+	 * @param erm The used element render mapping.
+	 * @param metrics The metrics object that records the counters and phase durations.
+	 * @param measurementCache The cache storing the measured sizes of the elements during the current layout pass.
+	 * @param chapterNumbering The chapter/paragraph numbering of the given document or <code>null</code> if it should be computed when it is
+	 * requested for the first time.
+	 */
+	public PreRenderInformationImpl(SimplePDFDocument doc, Iterable<DocumentArea> areas, AreaLayout layout, DocumentGraphics g, ElementRenderMapping erm, RenderMetrics metrics,
+			MeasurementCache measurementCache, ChapterNumbering chapterNumbering) {
 		this.document = doc;
 		this.areas = areas;
 		this.layout = layout;
 		this.graphics = g;
 		this.erm = erm;
+		this.metrics = metrics;
+		this.measurementCache = measurementCache;
+		this.chapterNumbering = chapterNumbering;
 	}
 	
 	@Override
@@ -55,4 +106,21 @@ public class PreRenderInformationImpl implements PreRenderInformation {
 	public ElementRenderMapping getElementRenderMapping() {
 		return erm;
 	}
+
+	@Override
+	public RenderMetrics getMetrics() {
+		return metrics;
+	}
+
+	@Override
+	public MeasurementCache getMeasurementCache() {
+		return measurementCache;
+	}
+
+	@Override
+	public ChapterNumbering getChapterNumbering() {
+		if (chapterNumbering == null)
+			chapterNumbering = new ChapterNumbering(document);
+		return chapterNumbering;
+	}
 }
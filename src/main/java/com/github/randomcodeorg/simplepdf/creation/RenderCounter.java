@@ -0,0 +1,39 @@
+package com.github.randomcodeorg.simplepdf.creation;
+
+/**
+ * The counters of a document creation process that are recorded by a {@link RenderMetrics} object.
+ * @author Marcel Singer
+ *
+ */
+public enum RenderCounter {
+
+	/**
+	 * The amount of created pages.
+	 */
+	PAGES,
+	/**
+	 * The amount of render elements that were positioned within a document area.
+	 */
+	ELEMENTS_LAID_OUT,
+	/**
+	 * The amount of render elements that were split because they did not fit into the remaining space of a document area.
+	 */
+	SPLITS,
+	/**
+	 * The amount of text measurements (see {@link DocumentGraphics#getTextSize(String, com.github.randomcodeorg.simplepdf.StyleDefinition, com.github.randomcodeorg.simplepdf.Size)}).
+	 */
+	TEXT_MEASUREMENTS,
+	/**
+	 * The amount of fonts that were loaded.
+	 */
+	FONT_LOADS,
+	/**
+	 * The amount of images that were encoded.
+	 */
+	IMAGE_ENCODES,
+	/**
+	 * The amount of bytes that were written.
+	 */
+	BYTES_WRITTEN
+
+}
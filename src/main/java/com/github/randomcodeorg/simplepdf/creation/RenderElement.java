@@ -1,9 +1,10 @@
 package com.github.randomcodeorg.simplepdf.creation;
 
 import java.lang.reflect.Constructor;
-import java.lang.reflect.Parameter;
 import java.util.Collection;
 import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import com.github.randomcodeorg.simplepdf.DocumentElement;
 import com.github.randomcodeorg.simplepdf.Position;
@@ -20,6 +21,11 @@ import com.github.randomcodeorg.simplepdf.StyleDefinition;
  */
 public abstract class RenderElement<T extends DocumentElement> implements ConversionConstants {
 
+	/**
+	 * Holds the constructors used to create copies of render elements (see {@link #createCopy(DocumentElement)}).
+	 */
+	private static final ConcurrentMap<Class<?>, Constructor<?>> COPY_CONSTRUCTORS = new ConcurrentHashMap<Class<?>, Constructor<?>>();
+
 	protected final T documentElement;
 	protected final SimplePDFDocument document;
 	private AreaLayout layout;
@@ -178,27 +184,72 @@ public abstract class RenderElement<T extends DocumentElement> implements Conver
 	 */
 	@SuppressWarnings("unchecked")
 	public RenderElement<T> copy() {
-		RenderElement<T> result;
-		Parameter[] params;
-		for (Constructor<?> c : getClass().getConstructors()) {
-			params = c.getParameters();
-			if (params.length == 2 && params[0].getType().isAssignableFrom(SimplePDFDocument.class)
-					&& params[1].getType().isAssignableFrom(DocumentElement.class)) {
-				Object tmp = null;
-				try {
-					T elementCopy = (T) documentElement.copy();
-					tmp = c.newInstance(document, elementCopy);
-					result = (RenderElement<T>) tmp;
-					result.setElement(elementCopy);
-					return result;
-				} catch (Exception ex) {
-					throw new RuntimeException(
-							String.format("Can't create a copy of this item (Class: %s).", getClass()), ex);
-				}
+		T elementCopy = (T) documentElement.copy();
+		RenderElement<T> result = createCopy(elementCopy);
+		result.setElement(elementCopy);
+		return result;
+	}
 
+	/**
+	 * <p>Creates a new instance of this class for the given copy of the document element (see {@link #copy()}).</p>
+	 * <p>The default implementation uses the public constructor of this class that takes the containing document and the document element.
+	 * The constructor is looked up once per class. Inheriting classes should overwrite this method to avoid the reflective call.</p>
+	 * @param elementCopy The copy of the document element.
+	 * @return The new instance.
+	 */
+	@SuppressWarnings("unchecked")
+	protected RenderElement<T> createCopy(T elementCopy) {
+		Constructor<?> c = getCopyConstructor(getClass());
+		if (c == null)
+			throw new RuntimeException("Can't create a copy of this item.");
+		try {
+			return (RenderElement<T>) c.newInstance(document, elementCopy);
+		} catch (Exception ex) {
+			throw new RuntimeException(String.format("Can't create a copy of this item (Class: %s).", getClass()), ex);
+		}
+	}
+
+	/**
+	 * Returns the constructor used to create copies of the given class.
+	 * @param type The class of the render element.
+	 * @return The constructor used to create copies or <code>null</code> if there is none.
+	 */
+	private static Constructor<?> getCopyConstructor(Class<?> type) {
+		Constructor<?> result = COPY_CONSTRUCTORS.get(type);
+		if (result != null)
+			return result;
+		Class<?>[] params;
+		for (Constructor<?> c : type.getConstructors()) {
+			params = c.getParameterTypes();
+			if (params.length == 2 && params[0].isAssignableFrom(SimplePDFDocument.class)
+					&& params[1].isAssignableFrom(DocumentElement.class)) {
+				COPY_CONSTRUCTORS.put(type, c);
+				return c;
 			}
 		}
-		throw new RuntimeException("Can't create a copy of this item.");
+		return null;
+	}
+
+	/**
+	 * <p>Returns <code>true</code> if this element can only be drawn after the layout of the whole document was completed (e.g. because it
+	 * displays the amount of pages).</p>
+	 * <p><b>Note:</b> This method returns <code>false</code> (by default). It can be overwritten in an inheriting class.</p>
+	 * @return <code>true</code> if this element requires the complete layout to be drawn.
+	 * @see DocumentCreator#setPipelined(boolean)
+	 */
+	public boolean requiresCompleteLayout() {
+		return false;
+	}
+
+	/**
+	 * <p>Returns <code>true</code> if this element is drawn the same way on every page it is placed on at the same position. Repeating elements
+	 * that are page independent may be drawn only once and reused on every page (see {@link TemplateDocumentGraphicsCreator}).</p>
+	 * <p><b>Note:</b> This method returns <code>false</code> (by default), so an element is drawn on every page unless it is known to be
+	 * static. It can be overwritten in an inheriting class whose appearance does not depend on the current page.</p>
+	 * @return <code>true</code> if this element is drawn the same way on every page.
+	 */
+	public boolean isPageIndependent() {
+		return false;
 	}
 
 	/**
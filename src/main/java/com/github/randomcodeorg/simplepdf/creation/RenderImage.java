@@ -1,13 +1,9 @@
 package com.github.randomcodeorg.simplepdf.creation;
 
-import java.awt.image.BufferedImage;
-import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.util.LinkedList;
 import java.util.List;
 
-import javax.imageio.ImageIO;
-
 import com.github.randomcodeorg.simplepdf.DocumentData;
 import com.github.randomcodeorg.simplepdf.DocumentElement;
 import com.github.randomcodeorg.simplepdf.DocumentImage;
@@ -16,35 +12,56 @@ import com.github.randomcodeorg.simplepdf.Size;
 import com.github.randomcodeorg.simplepdf.Spacing;
 
 /**
- * The render element corresponding to the {@link DocumentImage} element.
+ * <p>The render element corresponding to the {@link DocumentImage} element.</p>
+ * <p>Images are sized using their header (see {@link EncodedImage}), so the layout does not need to decode them. The pixels are
+ * decoded by the graphics while the image is drawn, and only if they are needed (e.g. by {@link ImageDocumentGraphics} or for
+ * images that can not be embedded without decoding them). The decoded pixels are not kept after drawing.</p>
  * @author Marcel Singer
  *
  */
 public class RenderImage extends RenderElement<DocumentImage> {
 
 	private DocumentData data;
-	private BufferedImage image;
+	private final int width;
+	private final int height;
 	private float mmPerPixel = 1f / 5f;
 
 	/**
 	 * Creates a new instance of {@link RenderImage}.
 	 * @param document The containing document.
 	 * @param documentElement The corresponding document element.
-	 * @throws IOException Is thrown if an I/O error occurs during the reading of the image data.
+	 * @throws IOException Is thrown if the image data does not exist or if an I/O error occurs during the reading of the image data.
 	 */
 	public RenderImage(SimplePDFDocument document, DocumentImage documentElement) throws IOException {
 		super(document, documentElement);
 		data = document.getData(documentElement.getDataID());
-		ByteArrayInputStream in = new ByteArrayInputStream(data.getData());
-		in.reset();
-		image = ImageIO.read(in);
-		in.close();
+		if (data == null)
+			throw new IOException(String.format("There is no data with the ID '%s'.", documentElement.getDataID()));
+		EncodedImage encoded = EncodedImage.read(data);
+		if (encoded.getWidth() < 0 || encoded.getHeight() < 0)
+			throw new IOException("The image format is not supported.");
+		width = encoded.getWidth();
+		height = encoded.getHeight();
+	}
 
+	/**
+	 * Creates a new instance of {@link RenderImage} using the header information of an already created instance.
+	 * @param document The containing document.
+	 * @param documentElement The corresponding document element.
+	 * @param data The data that holds the image.
+	 * @param width The width of the image in pixels.
+	 * @param height The height of the image in pixels.
+	 */
+	private RenderImage(SimplePDFDocument document, DocumentImage documentElement, DocumentData data, int width, int height) {
+		super(document, documentElement);
+		this.data = data;
+		this.width = width;
+		this.height = height;
 	}
 
 	@Override
 	public Size getRenderSize(PreRenderInformation info, Size parentSize) throws RenderingException {
-		return new Size(image.getWidth() * mmPerPixel, image.getHeight() * mmPerPixel);
+		return new Size(width * mmPerPixel, height * mmPerPixel);
 	}
 
 	@Override
@@ -54,8 +71,24 @@ public class RenderImage extends RenderElement<DocumentImage> {
 
 	@Override
 	public void render(RenderingInformation info) throws RenderingException {
-		info.getGraphics().drawImage(info.getPosition(),
-				new Size(image.getWidth() * mmPerPixel, image.getHeight() * mmPerPixel), image, null);
+		DocumentGraphics g = info.getGraphics();
+		Size size = new Size(width * mmPerPixel, height * mmPerPixel);
+		if (g instanceof ImageDataDocumentGraphics) {
+			((ImageDataDocumentGraphics) g).drawImage(info.getPosition(), size, data, null, null);
+			return;
+		}
+		try {
+			g.drawImage(info.getPosition(), size, EncodedImage.read(data).decode(), null);
+		} catch (IOException e) {
+			throw new RenderingException(e);
+		}
+	}
+
+	@Override
+	protected RenderElement<DocumentImage> createCopy(DocumentImage elementCopy) {
+		if (getClass() != RenderImage.class)
+			return super.createCopy(elementCopy);
+		return new RenderImage(document, elementCopy, data, width, height);
 	}
 
 	@Override
@@ -63,6 +96,11 @@ public class RenderImage extends RenderElement<DocumentImage> {
 		return true;
 	}
 
+	@Override
+	public boolean isPageIndependent() {
+		return true;
+	}
+
 	@Override
 	protected List<RenderElement<? extends DocumentElement>> splitToFit(PreRenderInformation info, Size s)
 			throws RenderingException {
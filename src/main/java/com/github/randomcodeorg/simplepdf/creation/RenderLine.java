@@ -44,6 +44,11 @@ public class RenderLine extends RenderElement<Line> {
 	protected boolean isLineBreak() {
 		return false;
 	}
+
+	@Override
+	public boolean isPageIndependent() {
+		return true;
+	}
 	
 	@Override
 	protected List<RenderElement<? extends DocumentElement>> splitToFit(PreRenderInformation info, Size s)
@@ -0,0 +1,37 @@
+package com.github.randomcodeorg.simplepdf.creation;
+
+/**
+ * <p>This interface declares methods that will be invoked to record the counters and phase durations of a document creation process.</p>
+ * <p>An instance can be passed to {@link DocumentCreator#create(com.github.randomcodeorg.simplepdf.SimplePDFDocument, RenderMetrics)} (or to
+ * the according methods of the specialized creators). Implementations must be thread-safe because the pages of a document might be drawn
+ * concurrently.</p>
+ * @author Marcel Singer
+ *
+ */
+public interface RenderMetrics {
+
+	/**
+	 * This method is called when the process starts.
+	 */
+	public void start();
+
+	/**
+	 * This method is called to increment the given counter.
+	 * @param counter The counter to increment.
+	 * @param amount The amount to add.
+	 */
+	public void increment(RenderCounter counter, long amount);
+
+	/**
+	 * This method is called when a part of the given phase completed.
+	 * @param phase The affected phase.
+	 * @param nanos The (wall-clock) duration of the completed part in nanoseconds.
+	 */
+	public void addDuration(RenderPhase phase, long nanos);
+
+	/**
+	 * This method is called when the process ends.
+	 */
+	public void complete();
+
+}
@@ -21,10 +21,35 @@ public class RenderPageNumber extends TextLine {
 	public RenderPageNumber(SimplePDFDocument document, DocumentElement docElement) {
 		super(document, toTextBlock((PageNumber) docElement));
 	}
+
+	/**
+	 * Creates a new instance of {@link RenderPageNumber} for the given already converted page number (see {@link #createCopy(DocumentElement)}).
+	 * @param document The containing document.
+	 * @param textBlock The text block holding the format of the page number.
+	 */
+	private RenderPageNumber(SimplePDFDocument document, TextBlock textBlock) {
+		super(document, textBlock);
+	}
 	
 	@Override
 	protected String getRenderText(PreRenderInformation info, int pageLength, Size parentSize) {
-		return super.getRenderText(info, pageLength, parentSize).replace("@currentPage;", "" + (info.getLayout().getPageIndex() + 1)).replace("@pageCount;", "" + pageLength);
+		return super.getRenderText(info, pageLength, parentSize).replace(PageNumber.CURRENT_PAGE_PLACEHOLDER, "" + (info.getLayout().getPageIndex() + 1)).replace(PageNumber.PAGE_COUNT_PLACEHOLDER, "" + pageLength);
+	}
+
+	@Override
+	protected String getRenderPreSplitText(PreRenderInformation info, int pageCount, Size parentSize) {
+		// The placeholders are replaced as soon as the lines are placed on a page
+		return super.getRenderText(info, pageCount, parentSize);
+	}
+
+	@Override
+	public boolean isPageIndependent() {
+		return false;
+	}
+
+	@Override
+	public boolean requiresCompleteLayout() {
+		return super.getRenderText(null, -1, null).contains(PageNumber.PAGE_COUNT_PLACEHOLDER);
 	}
 	
 	/**
@@ -41,7 +66,17 @@ public class RenderPageNumber extends TextLine {
 	
 	@Override
 	public void setElement(DocumentElement element) {
-		super.setElement(toTextBlock((PageNumber) element));
+		// Copies are created using the already converted text block
+		if (element instanceof PageNumber)
+			element = toTextBlock((PageNumber) element);
+		super.setElement(element);
+	}
+
+	@Override
+	protected RenderElement<DocumentElement> createCopy(DocumentElement elementCopy) {
+		if (getClass() != RenderPageNumber.class)
+			return super.createCopy(elementCopy);
+		return new RenderPageNumber(document, (TextBlock) elementCopy);
 	}
 	
 	
@@ -0,0 +1,33 @@
+package com.github.randomcodeorg.simplepdf.creation;
+
+/**
+ * The phases of a document creation process whose durations are recorded by a {@link RenderMetrics} object.
+ * <p><b>Note:</b> The phases may overlap. For example the fonts are loaded while the elements are laid out or drawn. Therefore the duration
+ * of the {@link #FONT_LOADING} phase is also contained in the durations of the {@link #LAYOUT} and {@link #RENDER} phases.</p>
+ * @author Marcel Singer
+ *
+ */
+public enum RenderPhase {
+
+	/**
+	 * The parsing of the document that is going to be created.
+	 */
+	PARSE,
+	/**
+	 * The layout of the document elements.
+	 */
+	LAYOUT,
+	/**
+	 * The drawing of the document elements.
+	 */
+	RENDER,
+	/**
+	 * The loading of fonts.
+	 */
+	FONT_LOADING,
+	/**
+	 * The writing of the result.
+	 */
+	SAVE
+
+}
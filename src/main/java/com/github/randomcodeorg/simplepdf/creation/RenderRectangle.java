@@ -72,6 +72,11 @@ public class RenderRectangle extends RenderElement<Rectangle> {
 	protected boolean isLineBreak() {
 		return false;
 	}
+
+	@Override
+	public boolean isPageIndependent() {
+		return true;
+	}
 	
 	@Override
 	protected List<RenderElement<? extends DocumentElement>> splitToFit(PreRenderInformation info, Size s)
@@ -1,6 +1,7 @@
 package com.github.randomcodeorg.simplepdf.creation;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
 
@@ -23,7 +24,17 @@ public class RenderTableOfContents extends TextLine {
 	private ChapterElement chapterElement;
 	private boolean isCopy = false;
 	private int lineNumber = -1;
+	/**
+	 * The position of this line within all lines of the table of contents or <i>-1</i> if it is not one of them (e.g. because it is the
+	 * copy of a split line).
+	 */
+	private int lineIndex = -1;
 	private List<RenderElement<? extends DocumentElement>> allLines;
+	private ChapterNumbering numbering;
+	/**
+	 * The width of a single dot, which is shared by all lines of the table of contents.
+	 */
+	private LeaderDot leaderDot = new LeaderDot();
 
 	/**
 	 * Creates a new instance of {@link RenderTableOfContents}.
@@ -56,6 +67,7 @@ public class RenderTableOfContents extends TextLine {
 		RenderTableOfContents rtoc;
 		Collection<RenderElement<? extends DocumentElement>> intermediate;
 		allLines = result;
+		numbering = new ChapterNumbering(document);
 		for (int i = elements.indexOf(element) + 1; i < elements.size(); i++) {
 			if (elements.get(i) instanceof TableOfContents)
 				break;
@@ -65,6 +77,8 @@ public class RenderTableOfContents extends TextLine {
 				rtoc.setElement(element);
 				rtoc.chapterElement = current;
 				rtoc.allLines = allLines;
+				rtoc.numbering = numbering;
+				rtoc.leaderDot = leaderDot;
 				intermediate = rtoc.preSplit();
 				if (intermediate != null)
 					result.addAll(intermediate);
@@ -75,6 +89,7 @@ public class RenderTableOfContents extends TextLine {
 		for(int i=0; i<result.size(); i++){
 			((TextLine) result.get(i)).firstLine = (i==0);
 			((TextLine) result.get(i)).isEndLine = (i == result.size() -1);
+			((RenderTableOfContents) result.get(i)).lineIndex = i;
 		}
 		return result;
 	}
@@ -91,31 +106,98 @@ public class RenderTableOfContents extends TextLine {
 		if (isCopy)
 			txt = ((TextBlock) documentElement).getContent();
 		else
-			txt = RenderChapterElement.getNumberString(document, chapterElement) + " " + chapterElement.getContent();
+			txt = numbering.getNumberString(chapterElement) + " " + chapterElement.getContent();
 		txt += "\t";
 		txt = getIndent(chapterElement) + txt;
 
 		if (info instanceof RenderingInformation) {
 			RenderingInformation rInfo = (RenderingInformation) info;
-			if (allLines.indexOf(this) > 0 && ((RenderTableOfContents) allLines
-					.get(allLines.indexOf(this) - 1)).chapterElement == chapterElement) {
+			if (lineIndex > 0 && ((RenderTableOfContents) allLines
+					.get(lineIndex - 1)).chapterElement == chapterElement) {
 				txt = " " + txt;
 			}
-			if (allLines.indexOf(this) == allLines.size() - 1 || ((RenderTableOfContents) allLines
-					.get(allLines.indexOf(this) + 1)).chapterElement != chapterElement) {
+			if (lineIndex == allLines.size() - 1 || ((RenderTableOfContents) allLines
+					.get(lineIndex + 1)).chapterElement != chapterElement) {
 				txt += "    ";
 				String number = " " + (rInfo.getOriginMap().get(chapterElement).getFirst().getLayout().getPageIndex() + 1);
-				txt += number;
 				AreaDefinition ad = document.getAreaDefinition(documentElement.getAreaID());
-				while (getRenderSize(rInfo.getGraphics(), txt, parentSize).getWidth() < ad.getSize().getWidth()) {
-					txt = txt.substring(0, txt.length() - number.length()) + "." + number;
-				}
-				txt = txt.substring(0, txt.length() - number.length() - 1) + number;
+				txt = appendPageNumber(rInfo.getGraphics(), txt, number, ad.getSize().getWidth(), parentSize);
 			}
 		}
 		return txt;
 	}
+
+	/**
+	 * Appends the dot leader and the given page number to the given text.
+	 * @param g The current document graphics.
+	 * @param txt The text preceding the dots. The text has to end with a space.
+	 * @param number The page number following the dots.
+	 * @param width The width to fill.
+	 * @param parentSize The size of the containing element.
+	 * @return The resulting line.
+	 * @throws RenderingException Is thrown if the size of the text could not be calculated.
+	 */
+	String appendPageNumber(DocumentGraphics g, String txt, String number, double width, Size parentSize)
+			throws RenderingException {
+		int dots = getLeaderLength(g, txt, number, width, parentSize);
+		// The leader ends with the last dot that still fits
+		if (dots > 0)
+			return txt + repeat('.', dots - 1) + number;
+		return txt.substring(0, txt.length() - 1) + number;
+	}
 	
+	/**
+	 * <p>Returns the least amount of dots that have to be inserted between the given text and page number such that the resulting line
+	 * is at least as wide as the given width.</p>
+	 * <p>The amount is estimated using the widths of the text, the page number and a single dot. The estimate is verified by measuring
+	 * the resulting line (and corrected if required) such that the result is equal to inserting one dot after another.</p>
+	 * @param g The current document graphics.
+	 * @param txt The text preceding the dots.
+	 * @param number The page number following the dots.
+	 * @param width The width to fill.
+	 * @param parentSize The size of the containing element.
+	 * @return The least amount of dots that fills the given width.
+	 * @throws RenderingException Is thrown if the size of the text could not be calculated.
+	 */
+	private int getLeaderLength(DocumentGraphics g, String txt, String number, double width, Size parentSize) throws RenderingException {
+		double dotWidth = leaderDot.getWidth(this, g, parentSize);
+		if (dotWidth <= 0)
+			return 0;
+		double textWidth = getRenderSize(g, txt, parentSize).getWidth();
+		double numberWidth = getRenderSize(g, number, parentSize).getWidth();
+		int dots = Math.max(0, (int) Math.ceil((width - textWidth - numberWidth) / dotWidth));
+		while (dots > 0 && !fits(g, txt + repeat('.', dots - 1) + number, width, parentSize))
+			dots--;
+		while (fits(g, txt + repeat('.', dots) + number, width, parentSize))
+			dots++;
+		return dots;
+	}
+
+	/**
+	 * Returns <code>true</code> if the given line is narrower than the given width.
+	 * @param g The current document graphics.
+	 * @param line The line to measure.
+	 * @param width The width to compare with.
+	 * @param parentSize The size of the containing element.
+	 * @return <code>true</code> if the given line is narrower than the given width.
+	 * @throws RenderingException Is thrown if the size of the text could not be calculated.
+	 */
+	private boolean fits(DocumentGraphics g, String line, double width, Size parentSize) throws RenderingException {
+		return getRenderSize(g, line, parentSize).getWidth() < width;
+	}
+
+	/**
+	 * Returns a string consisting of the given character repeated the given amount of times.
+	 * @param c The character to repeat.
+	 * @param count The amount of repetitions.
+	 * @return The resulting string.
+	 */
+	private static String repeat(char c, int count) {
+		char[] result = new char[count];
+		Arrays.fill(result, c);
+		return new String(result);
+	}
+
 	/**
 	 * Calculates the indent of a table of contents entry based on the corresponding chapter element. 
 	 * @param e The chapter element.
@@ -127,6 +209,11 @@ public class RenderTableOfContents extends TextLine {
 		return sb.toString();
 	}
 
+	@Override
+	public boolean requiresCompleteLayout() {
+		return true;
+	}
+
 	@Override
 	public RenderElement<DocumentElement> copy() {
 		RenderTableOfContents result = new RenderTableOfContents(document, element);
@@ -134,7 +221,36 @@ public class RenderTableOfContents extends TextLine {
 		result.lineNumber = lineNumber + 1;
 		result.isCopy = true;
 		result.allLines = allLines;
+		result.numbering = numbering;
+		result.leaderDot = leaderDot;
 		return result;
 	}
 
+	/**
+	 * Holds the width of a single dot of the leaders. The width is measured once for all lines of a table of contents, because they
+	 * share the style definition.
+	 * @author Marcel Singer
+	 *
+	 */
+	private static final class LeaderDot {
+
+		private double width = Double.NaN;
+
+		/**
+		 * Returns the width of a single dot and measures it if this was not done before.
+		 * @param line The line whose style definition is applied.
+		 * @param g The current document graphics.
+		 * @param parentSize The size of the containing element.
+		 * @return The width of a single dot.
+		 * @throws RenderingException Is thrown if the size of the dot could not be calculated.
+		 */
+		private synchronized double getWidth(RenderTableOfContents line, DocumentGraphics g, Size parentSize)
+				throws RenderingException {
+			if (Double.isNaN(width))
+				width = line.getRenderSize(g, ".", parentSize).getWidth();
+			return width;
+		}
+
+	}
+
 }
@@ -115,6 +115,28 @@ public class RenderTableRow extends RenderElement<Table> {
 
 	}
 
+	@Override
+	public boolean requiresCompleteLayout() {
+		if (cellMappings == null)
+			return false;
+		for (GroupBox gb : cellMappings.values()) {
+			if (gb.requiresCompleteLayout())
+				return true;
+		}
+		return false;
+	}
+
+	@Override
+	public boolean isPageIndependent() {
+		if (cellMappings == null)
+			return true;
+		for (GroupBox gb : cellMappings.values()) {
+			if (!gb.isPageIndependent())
+				return false;
+		}
+		return true;
+	}
+
 	@Override
 	protected boolean isLineBreak() {
 		return true;
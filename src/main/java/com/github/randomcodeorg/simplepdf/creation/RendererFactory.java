@@ -0,0 +1,23 @@
+package com.github.randomcodeorg.simplepdf.creation;
+
+import com.github.randomcodeorg.simplepdf.DocumentElement;
+import com.github.randomcodeorg.simplepdf.SimplePDFDocument;
+
+/**
+ * Creates the render elements that are used to render certain document elements (see
+ * {@link ElementRenderMapping#register(Class, RendererFactory)}).
+ * @author Marcel Singer
+ *
+ */
+public interface RendererFactory {
+
+	/**
+	 * Creates a new render element for the given document element.
+	 * @param doc The containing document.
+	 * @param element The document element to render.
+	 * @return The render element that renders the given document element or <code>null</code> if the given element can not be rendered.
+	 * @throws RenderingException Is thrown if the render element could not be created.
+	 */
+	public RenderElement<? extends DocumentElement> create(SimplePDFDocument doc, DocumentElement element) throws RenderingException;
+
+}
@@ -25,7 +25,7 @@ public interface RenderingInformation extends PreRenderInformation {
 	Size getReservedSize();
 	/**
 	 * Returns the amount of pages.
-	 * @return The amount of pages.
+	 * @return The amount of pages or <i>-1</i> if it is not known yet (see {@link DocumentCreator#setPipelined(boolean)}).
 	 */
 	int getPageCount();
 	/**
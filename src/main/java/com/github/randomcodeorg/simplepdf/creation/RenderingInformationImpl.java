@@ -36,7 +36,49 @@ public class RenderingInformationImpl extends PreRenderInformationImpl implement
 	 */
 	public RenderingInformationImpl(Position p, Size reservedSize, SimplePDFDocument doc, DocumentGraphics g,
 			AreaLayout layout, int pageLength, Iterable<DocumentArea> areas, Map<DocumentElement, RenderOrigin> originMap, ElementRenderMapping erm, Size parentSize) {
-		super(doc, areas, layout, g, erm);
+		this(p, reservedSize, doc, g, layout, pageLength, areas, originMap, erm, parentSize, new NullRenderMetrics());
+	}
+
+	/**
+	 * Creates a new instance of {@link RenderingInformationImpl} using the given values.
+	 * @param p The current position within the document.
+	 * @param reservedSize The size that was reserved for the current element.
+	 * @param doc The document to render.
+	 * @param g The document graphics to be used.
+	 * @param layout The current layout.
+	 * @param pageLength The amount of pages.
+	 * @param areas All available document areas.
+	 * @param originMap A map containing the originated render elements for a given document element.
+	 * @param erm The current element render mapping to be used.
+	 * @param parentSize The size of the containing element.
+	 * @param metrics The metrics object that records the counters and phase durations.
+	 */
+	public RenderingInformationImpl(Position p, Size reservedSize, SimplePDFDocument doc, DocumentGraphics g,
+			AreaLayout layout, int pageLength, Iterable<DocumentArea> areas, Map<DocumentElement, RenderOrigin> originMap, ElementRenderMapping erm, Size parentSize,
+			RenderMetrics metrics) {
+		this(p, reservedSize, doc, g, layout, pageLength, areas, originMap, erm, parentSize, metrics, null);
+	}
+
+	/**
+	 * Creates a new instance of {@link RenderingInformationImpl} using the given values.
+	 * @param p The current position within the document.
+	 * @param reservedSize The size that was reserved for the current element.
+	 * @param doc The document to render.
+	 * @param g The document graphics to be used.
+	 * @param layout The current layout.
+	 * @param pageLength The amount of pages.
+	 * @param areas All available document areas.
+	 * @param originMap A map containing the originated render elements for a given document element.
+	 * @param erm The current element render mapping to be used.
+	 * @param parentSize The size of the containing element.
+	 * @param metrics The metrics object that records the counters and phase durations.
+	 * @param chapterNumbering The chapter/paragraph numbering of the given document or <code>null</code> if it should be computed when it is
+	 * requested for the first time.
+	 */
+	public RenderingInformationImpl(Position p, Size reservedSize, SimplePDFDocument doc, DocumentGraphics g,
+			AreaLayout layout, int pageLength, Iterable<DocumentArea> areas, Map<DocumentElement, RenderOrigin> originMap, ElementRenderMapping erm, Size parentSize,
+			RenderMetrics metrics, ChapterNumbering chapterNumbering) {
+		super(doc, areas, layout, g, erm, metrics, new MeasurementCache(), chapterNumbering);
 		this.position = p;
 		this.reservedSize = reservedSize;
 		this.pageCount = pageLength;
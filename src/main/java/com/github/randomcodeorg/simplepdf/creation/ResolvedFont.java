@@ -0,0 +1,151 @@
+package com.github.randomcodeorg.simplepdf.creation;
+
+import java.io.IOException;
+
+import org.apache.pdfbox.pdmodel.font.PDFont;
+
+/**
+ * <p>Holds a {@link PDFont} resolved for a certain font size together with its precomputed metrics.</p>
+ * <p>The advance widths of all characters that can be encoded by the font are looked up once. Measuring a text is therefore a simple
+ * loop that does neither allocate memory nor query the font again. The results are equal to the ones of {@link PDFont#getStringWidth(String)}.
+ * Instances of this class are provided by {@link FontManager#getResolvedFont(org.apache.pdfbox.pdmodel.PDDocument, com.github.randomcodeorg.simplepdf.StyleDefinition, RenderMetrics)}.</p>
+ * @author Marcel Singer
+ *
+ */
+public class ResolvedFont implements ConversionConstants {
+
+	/**
+	 * The amount of characters that can be encoded (PDFBox encodes text using ISO-8859-1).
+	 */
+	private static final int ENCODABLE_CHARACTERS = 256;
+	/**
+	 * The character used in place of characters that can not be encoded.
+	 */
+	private static final int REPLACEMENT_CHARACTER = '?';
+
+	private final PDFont font;
+	private final int fontSize;
+	private final float[] advances;
+	private final float lineHeight;
+
+	/**
+	 * Creates a new instance of {@link ResolvedFont} and looks up the metrics of the given font.
+	 * @param font The font to be resolved.
+	 * @param fontSize The font size (in points).
+	 * @throws IOException If the metrics could not be read from the given font.
+	 */
+	public ResolvedFont(PDFont font, int fontSize) throws IOException {
+		this.font = font;
+		this.fontSize = fontSize;
+		this.advances = new float[ENCODABLE_CHARACTERS];
+		byte[] character = new byte[1];
+		for (int i = 0; i < ENCODABLE_CHARACTERS; i++) {
+			character[0] = (byte) i;
+			advances[i] = font.getFontWidth(character, 0, 1);
+		}
+		this.lineHeight = (font.getFontBoundingBox().getHeight() / 1000.0f * fontSize) * UNITS_TO_MM;
+	}
+
+	/**
+	 * Returns the resolved font.
+	 * @return The resolved font.
+	 */
+	public PDFont getFont() {
+		return font;
+	}
+
+	/**
+	 * Returns the font size (in points).
+	 * @return The font size.
+	 */
+	public int getFontSize() {
+		return fontSize;
+	}
+
+	/**
+	 * Returns the height of a line of text.
+	 * @return The height of a line of text in millimeters.
+	 */
+	public float getLineHeight() {
+		return lineHeight;
+	}
+
+	/**
+	 * Returns the advance width of the given character.
+	 * @param codePoint The code point of the character.
+	 * @return The advance width in glyph space units (1/1000 of the font size).
+	 */
+	public float getAdvance(int codePoint) {
+		if (codePoint < 0 || codePoint >= ENCODABLE_CHARACTERS)
+			codePoint = REPLACEMENT_CHARACTER;
+		return advances[codePoint];
+	}
+
+	/**
+	 * Returns the width of the given text.
+	 * @param text The text to measure.
+	 * @return The width of the given text in millimeters.
+	 */
+	public float getWidth(CharSequence text) {
+		return getWidth(text, 0, text.length());
+	}
+
+	/**
+	 * Returns the width of the given part of a text.
+	 * @param text The text containing the part to measure.
+	 * @param start The index of the first character to measure.
+	 * @param end The index after the last character to measure.
+	 * @return The width of the given part of the text in millimeters.
+	 */
+	public float getWidth(CharSequence text, int start, int end) {
+		return toMillimeters(getAdvanceSum(text, start, end));
+	}
+
+	/**
+	 * Returns the sum of the advance widths of the given part of a text.
+	 * @param text The text containing the part to measure.
+	 * @param start The index of the first character to measure.
+	 * @param end The index after the last character to measure.
+	 * @return The sum of the advance widths in glyph space units (1/1000 of the font size).
+	 */
+	public float getAdvanceSum(CharSequence text, int start, int end) {
+		return addAdvances(0, text, start, end);
+	}
+
+	/**
+	 * Adds the advance widths of the given part of a text to the given sum. The characters are added one after another which makes
+	 * sure that the result is equal to the one of {@link #getAdvanceSum(CharSequence, int, int)} for the whole text.
+	 * @param sum The sum of the advance widths measured so far.
+	 * @param text The text containing the part to measure.
+	 * @param start The index of the first character to measure.
+	 * @param end The index after the last character to measure.
+	 * @return The resulting sum of the advance widths in glyph space units (1/1000 of the font size).
+	 */
+	public float addAdvances(float sum, CharSequence text, int start, int end) {
+		float total = sum;
+		char c;
+		for (int i = start; i < end; i++) {
+			c = text.charAt(i);
+			if (Character.isHighSurrogate(c) && i + 1 < end && Character.isLowSurrogate(text.charAt(i + 1))) {
+				// A supplementary character is encoded as a single replacement character
+				i++;
+				total += advances[REPLACEMENT_CHARACTER];
+			} else if (c < ENCODABLE_CHARACTERS) {
+				total += advances[c];
+			} else {
+				total += advances[REPLACEMENT_CHARACTER];
+			}
+		}
+		return total;
+	}
+
+	/**
+	 * Converts the given sum of advance widths to millimeters.
+	 * @param advanceSum The sum of advance widths in glyph space units.
+	 * @return The resulting width in millimeters.
+	 */
+	public float toMillimeters(float advanceSum) {
+		return ((advanceSum * fontSize) / 1000.0f) * UNITS_TO_MM;
+	}
+
+}
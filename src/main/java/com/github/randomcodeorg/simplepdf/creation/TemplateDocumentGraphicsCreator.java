@@ -0,0 +1,23 @@
+package com.github.randomcodeorg.simplepdf.creation;
+
+import com.github.randomcodeorg.simplepdf.SimplePDFDocument;
+
+/**
+ * <p>An extension of {@link DocumentGraphicsCreator} that is able to draw content once and to reuse it on multiple pages.</p>
+ * <p>The {@link DocumentCreator} uses this interface to draw the repeating elements of an area (see {@link RenderElement#isRepeating()})
+ * only once if they are placed at the same positions on multiple pages. Elements whose appearance depends on the page (see
+ * {@link RenderElement#isPageIndependent()}) are still drawn on every page.</p>
+ * @author Marcel Singer
+ *
+ */
+public interface TemplateDocumentGraphicsCreator extends DocumentGraphicsCreator {
+
+	/**
+	 * Creates a new and empty template that can be drawn on the pages of the given document.
+	 * @param doc The affected document.
+	 * @return The created template.
+	 * @throws RenderingException If there was an error creating the template.
+	 */
+	public DocumentTemplate createTemplate(SimplePDFDocument doc) throws RenderingException;
+
+}
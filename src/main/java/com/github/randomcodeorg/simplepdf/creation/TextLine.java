@@ -3,10 +3,10 @@ package com.github.randomcodeorg.simplepdf.creation;
 import java.awt.Color;
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.LinkedList;
 import java.util.List;
 
 import com.github.randomcodeorg.simplepdf.DocumentElement;
+import com.github.randomcodeorg.simplepdf.PageNumber;
 import com.github.randomcodeorg.simplepdf.SimplePDFDocument;
 import com.github.randomcodeorg.simplepdf.Size;
 import com.github.randomcodeorg.simplepdf.Spacing;
@@ -14,13 +14,23 @@ import com.github.randomcodeorg.simplepdf.StyleDefinition;
 import com.github.randomcodeorg.simplepdf.TextBlock;
 
 /**
- * The render element for a single line of text created by splitting a {@link TextBlock}.
+ * <p>The render element for a single line of text created by splitting a {@link TextBlock}.</p>
+ * <p>The lines of a split text block share the text block (and therefore its style and area). Their text is represented by a
+ * {@link TextSpan} that is only converted into a string when the line is drawn.</p>
  * @author Marcel Singer
  *
  */
 public class TextLine extends RenderElement<DocumentElement> {
 
 	private TextBlock textBlock;
+	/**
+	 * The text of this line or <code>null</code> if the whole text of the text block is rendered.
+	 */
+	private TextSpan span;
+	/**
+	 * <code>false</code> if this line must not be repeated even if the text block is repeating.
+	 */
+	private boolean repeatable = true;
 	private boolean lastLine = true;
 	protected boolean isEndLine = true;
 	protected boolean firstLine = true;
@@ -47,6 +57,17 @@ public class TextLine extends RenderElement<DocumentElement> {
 		textBlock = (TextBlock) docElement;
 	}
 
+	/**
+	 * Creates a new line of the given text block.
+	 * @param document The containing document.
+	 * @param textBlock The text block containing the line.
+	 * @param span The text of the line.
+	 */
+	private TextLine(SimplePDFDocument document, TextBlock textBlock, TextSpan span) {
+		this(document, textBlock);
+		this.span = span;
+	}
+
 	/**
 	 * Returned the text to render.
 	 * @param info Information about the current creation process.
@@ -55,9 +76,23 @@ public class TextLine extends RenderElement<DocumentElement> {
 	 * @return The text to render.
 	 */
 	protected String getRenderText(PreRenderInformation info, int pageCount, Size parentSize) {
+		if (span != null)
+			return span.toString();
 		return textBlock.getContent();
 	}
 
+	/**
+	 * Returns the text to be measured during the layout process. Lines of a split text block return their span without copying it.
+	 * @param info Information about the current creation process.
+	 * @param parentSize The size of the containing element.
+	 * @return The text to be measured.
+	 */
+	private TextSpan getLayoutText(PreRenderInformation info, Size parentSize) {
+		if (span != null)
+			return span;
+		return new TextSpan(getRenderText(info, -1, parentSize));
+	}
+
 	/**
 	 * Sets if this is the last line of a split text block.
 	 * @param value The value to set.
@@ -72,24 +107,53 @@ public class TextLine extends RenderElement<DocumentElement> {
 	public Collection<RenderElement<? extends DocumentElement>> preSplit() {
 		String txt = getRenderPreSplitText(new PreRenderInformationImpl(document, new ArrayList<DocumentArea>(),
 				new AreaLayout(null, null, -1), null, null), -1, null);
-		if (!txt.contains("\n"))
+		if (txt.indexOf('\n') == -1)
 			return null;
-		String[] lines = txt.split("\n");
 		List<RenderElement<? extends DocumentElement>> result = new ArrayList<RenderElement<? extends DocumentElement>>();
+		// Trailing line breaks are ignored (see String.split(String))
+		int end = txt.length();
+		while (end > 0 && txt.charAt(end - 1) == '\n')
+			end--;
 		TextLine current = null;
-		boolean first = true;
-		for (String line : lines) {
-			current = (TextLine) copy();
-			current.textBlock.setContent(line);
-			current.firstLine = first;
-			if (first)
-				first = false;
+		int start = 0;
+		int lineEnd;
+		while (start < end) {
+			lineEnd = txt.indexOf('\n', start);
+			if (lineEnd == -1)
+				lineEnd = end;
+			current = createPreSplitLine(txt, start, lineEnd);
+			current.firstLine = result.isEmpty();
 			result.add(current);
+			start = lineEnd + 1;
 		}
 		if (current != null)
 			current.isEndLine = true;
 		return result;
 	}
+
+	/**
+	 * <p>Creates a line of the pre split text (see {@link #preSplit()}).</p>
+	 * <p>Lines of a plain text block are spans sharing this element's text block. Inheriting classes may compute their text based on
+	 * more information than the text block (e.g. the current page). Their lines are therefore copies of this element.</p>
+	 * @param txt The text that is split.
+	 * @param start The index of the first character of the line.
+	 * @param end The index after the last character of the line.
+	 * @return The created line.
+	 */
+	private TextLine createPreSplitLine(String txt, int start, int end) {
+		if (getClass() == TextLine.class)
+			return new TextLine(document, textBlock, new TextSpan(txt, start, end));
+		TextLine line = (TextLine) copy();
+		line.textBlock.setContent(txt.substring(start, end));
+		return line;
+	}
+
+	@Override
+	protected RenderElement<DocumentElement> createCopy(DocumentElement elementCopy) {
+		if (getClass() != TextLine.class)
+			return super.createCopy(elementCopy);
+		return new TextLine(document, elementCopy);
+	}
 	
 	/**
 	 * Returns the text to render assuming it was not split before.
@@ -104,8 +168,12 @@ public class TextLine extends RenderElement<DocumentElement> {
 
 	@Override
 	public Size getRenderSize(PreRenderInformation info, Size parentSize) throws RenderingException {
-		return info.getGraphics().getTextSize(getRenderText(info, -1, parentSize), getStyleDefinition(),
-				parentSize);
+		if (span == null)
+			return info.getGraphics().getTextSize(getRenderText(info, -1, parentSize), getStyleDefinition(),
+					parentSize);
+		WidthAccumulator accumulator = createWidthAccumulator(info.getGraphics(), getStyleDefinition(), parentSize);
+		accumulator.append(span, 0, span.length());
+		return new Size(accumulator.getWidth(), accumulator.getHeight());
 	}
 
 	/**
@@ -120,6 +188,22 @@ public class TextLine extends RenderElement<DocumentElement> {
 		return g.getTextSize(txt, getStyleDefinition(), parentSize);
 	}
 
+	/**
+	 * Creates an accumulator that measures a text using the given document graphics. A {@link DefaultWidthAccumulator} is used if the
+	 * document graphics do not implement {@link AccumulatingDocumentGraphics}.
+	 * @param g The current document graphics.
+	 * @param sd The style definition to be applied.
+	 * @param reservedSize The reserved size.
+	 * @return An accumulator that measures the width of the appended text.
+	 * @throws RenderingException Is thrown if the accumulator could not be created.
+	 */
+	private static WidthAccumulator createWidthAccumulator(DocumentGraphics g, StyleDefinition sd, Size reservedSize)
+			throws RenderingException {
+		if (g instanceof AccumulatingDocumentGraphics)
+			return ((AccumulatingDocumentGraphics) g).createWidthAccumulator(sd, reservedSize);
+		return new DefaultWidthAccumulator(g, sd, reservedSize);
+	}
+
 	@Override
 	public Spacing getRenderMargin(DocumentGraphics g) {
 		Spacing result = getStyleDefinition().getLinePadding();
@@ -152,45 +236,85 @@ public class TextLine extends RenderElement<DocumentElement> {
 		return true;
 	}
 
+	@Override
+	public boolean isRepeating() {
+		return repeatable && super.isRepeating();
+	}
+
+	/**
+	 * Returns <code>true</code> if the text of this line does not contain a page placeholder (see {@link PageNumber}).
+	 */
+	@Override
+	public boolean isPageIndependent() {
+		String text;
+		if (span != null)
+			text = span.toString();
+		else
+			text = textBlock.getContent();
+		return !text.contains(PageNumber.CURRENT_PAGE_PLACEHOLDER) && !text.contains(PageNumber.PAGE_COUNT_PLACEHOLDER);
+	}
+
+	/**
+	 * <p>Splits this element into lines that fit the given width. All lines that fit the given height are created in a single pass.
+	 * The remaining text (if any) is returned as the last element and will be split again as soon as there is more space available.</p>
+	 * <p>A line is broken at the last space that keeps it within the given width (see {@link LineBreaker}).</p>
+	 */
 	@Override
 	protected List<RenderElement<? extends DocumentElement>> splitToFit(PreRenderInformation info, Size s)
 			throws RenderingException {
-		String txt = getRenderText(info, -1, s);
-		float height = (float) info.getGraphics().getTextSize(txt, getStyleDefinition(), s).getHeight();
+		TextSpan txt = getLayoutText(info, s);
+		StyleDefinition sd = getStyleDefinition();
+		float height = (float) getRenderSize(info, s).getHeight();
 		if (s.getHeight() < height)
 			return null;
-		int dividerPos = txt.length();
-		Size cS = getRenderSize(info, s);
-		while (!s.holdsHorizontal(cS)) {
-			dividerPos = txt.lastIndexOf(" ", dividerPos - 1);
-			if (dividerPos == -1)
-				return null;
-			cS = getRenderSize(info.getGraphics(), txt.substring(0, dividerPos), s);
-		}
-		if (dividerPos == 0)
-			return null;
-		List<RenderElement<? extends DocumentElement>> result = new LinkedList<RenderElement<? extends DocumentElement>>();
-		TextBlock tb1 = new TextBlock(textBlock.getAreaID(), textBlock.getStyleID(),
-				txt.substring(0, dividerPos).trim());
-		TextLine tl1 = new TextLine(document, tb1);
-		tl1.setElement(tb1);
-		result.add(tl1.setIsLastLine(false));
-
-		if (dividerPos + 1 >= txt.length()) {
-			tl1.setIsLastLine(true);
-			tl1.isEndLine = isEndLine;
-			tl1.firstLine = firstLine;
-		} else {
-			tb1 = new TextBlock(textBlock.getAreaID(), textBlock.getStyleID(),
-					txt.substring(dividerPos + 1, txt.length()).trim());
-			TextLine tl2 = new TextLine(document, tb1);
-			tl2.setElement(tb1);
-			result.add(tl2.setIsLastLine(true));
-			tl2.isEndLine = isEndLine;
-			tl1.isEndLine = false;
-			tl1.firstLine = firstLine;
-			tl2.firstLine = false;
+		Spacing linePadding = sd.getLinePadding();
+		double lineHeight = height + linePadding.getTop() + linePadding.getBottom();
+		LineBreaker breaker = new LineBreaker(createWidthAccumulator(info.getGraphics(), sd, s), s.getWidth());
+		List<RenderElement<? extends DocumentElement>> result = new ArrayList<RenderElement<? extends DocumentElement>>();
+		double availableHeight = s.getHeight();
+		int start = 0;
+		int end = txt.length();
+		int dividerPos;
+		TextLine line;
+		while (true) {
+			dividerPos = availableHeight < height ? -1 : breaker.findBreak(txt, start, end);
+			if (dividerPos == -1 || dividerPos == start) {
+				// The remaining text can't be placed within the given size
+				if (result.isEmpty())
+					return null;
+				result.add(createLine(txt.subSequence(start, end), true, isEndLine, false));
+				return result;
+			}
+			if (dividerPos + 1 >= end) {
+				result.add(createLine(txt.subSequence(start, dividerPos).trim(), true, isEndLine, result.isEmpty() && firstLine));
+				return result;
+			}
+			line = createLine(txt.subSequence(start, dividerPos).trim(), false, false, result.isEmpty() && firstLine);
+			result.add(line);
+			availableHeight -= lineHeight;
+			// The following lines start and end without any white spaces (see String.trim())
+			start = dividerPos + 1;
+			while (start < end && txt.charAt(start) <= ' ')
+				start++;
+			while (end > start && txt.charAt(end - 1) <= ' ')
+				end--;
 		}
+	}
+
+	/**
+	 * Creates a line of a split text. The line shares the text block of this element but is never repeated.
+	 * @param text The text of the line.
+	 * @param lastLine <code>true</code> if the line is the last line of a split text block.
+	 * @param endLine <code>true</code> if the line ends the text block.
+	 * @param firstLine <code>true</code> if the line starts the text block.
+	 * @return The created line.
+	 */
+	private TextLine createLine(TextSpan text, boolean lastLine, boolean endLine, boolean firstLine) {
+		TextLine result = new TextLine(document, textBlock, text);
+		result.repeatable = false;
+		result.setIsLastLine(lastLine);
+		result.isEndLine = endLine;
+		result.firstLine = firstLine;
 		return result;
 	}
 	
@@ -0,0 +1,103 @@
+package com.github.randomcodeorg.simplepdf.creation;
+
+/**
+ * <p>A view on a part of a text. Creating a span (or a span of a span) does not copy any characters. The characters are only copied
+ * if the span is converted into a string (see {@link #toString()}).</p>
+ * <p>Spans are used to represent the lines of a split text block (see {@link TextLine}) without copying the text of every line.</p>
+ * @author Marcel Singer
+ *
+ */
+public final class TextSpan implements CharSequence {
+
+	private final String source;
+	private final int start;
+	private final int end;
+
+	/**
+	 * Creates a new span covering the whole given text.
+	 * @param source The text to be covered.
+	 */
+	public TextSpan(String source) {
+		this(source, 0, source.length());
+	}
+
+	/**
+	 * Creates a new span covering the given part of a text.
+	 * @param source The text containing the part to be covered.
+	 * @param start The index of the first character of the span.
+	 * @param end The index after the last character of the span.
+	 * @throws IndexOutOfBoundsException If the given indices are not within the bounds of the given text.
+	 */
+	public TextSpan(String source, int start, int end) throws IndexOutOfBoundsException {
+		if (start < 0 || end > source.length() || start > end)
+			throw new IndexOutOfBoundsException("The span [" + start + ", " + end + ") is out of bounds.");
+		this.source = source;
+		this.start = start;
+		this.end = end;
+	}
+
+	/**
+	 * Returns the text that contains this span.
+	 * @return The text that contains this span.
+	 */
+	public String getSource() {
+		return source;
+	}
+
+	/**
+	 * Returns the index of the first character of this span within the source text.
+	 * @return The index of the first character of this span within the source text.
+	 */
+	public int getStart() {
+		return start;
+	}
+
+	/**
+	 * Returns the index after the last character of this span within the source text.
+	 * @return The index after the last character of this span within the source text.
+	 */
+	public int getEnd() {
+		return end;
+	}
+
+	@Override
+	public int length() {
+		return end - start;
+	}
+
+	@Override
+	public char charAt(int index) {
+		if (index < 0 || index >= length())
+			throw new IndexOutOfBoundsException("Index: " + index);
+		return source.charAt(start + index);
+	}
+
+	@Override
+	public TextSpan subSequence(int start, int end) {
+		if (start < 0 || end > length() || start > end)
+			throw new IndexOutOfBoundsException("The span [" + start + ", " + end + ") is out of bounds.");
+		return new TextSpan(source, this.start + start, this.start + end);
+	}
+
+	/**
+	 * Returns a span without leading and trailing white spaces (see {@link String#trim()}).
+	 * @return A span without leading and trailing white spaces.
+	 */
+	public TextSpan trim() {
+		int s = start;
+		int e = end;
+		while (s < e && source.charAt(s) <= ' ')
+			s++;
+		while (e > s && source.charAt(e - 1) <= ' ')
+			e--;
+		if (s == start && e == end)
+			return this;
+		return new TextSpan(source, s, e);
+	}
+
+	@Override
+	public String toString() {
+		return source.substring(start, end);
+	}
+
+}
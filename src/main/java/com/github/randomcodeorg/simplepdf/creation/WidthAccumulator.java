@@ -0,0 +1,42 @@
+package com.github.randomcodeorg.simplepdf.creation;
+
+/**
+ * <p>Measures the width of a text that is appended piece by piece. Instances of this interface are created by
+ * {@link AccumulatingDocumentGraphics#createWidthAccumulator(com.github.randomcodeorg.simplepdf.StyleDefinition, com.github.randomcodeorg.simplepdf.Size)}.</p>
+ * <p>The size returned by {@link #getWidth()} and {@link #getHeight()} is equal to the size of the whole appended text measured by
+ * {@link DocumentGraphics#getTextSize(String, com.github.randomcodeorg.simplepdf.StyleDefinition, com.github.randomcodeorg.simplepdf.Size)}.
+ * Implementations should keep running sums such that appending a piece of text only requires the new characters to be measured.</p>
+ * @author Marcel Singer
+ *
+ */
+public interface WidthAccumulator {
+
+	/**
+	 * Appends the given part of a text.
+	 * @param text The text containing the part to append.
+	 * @param start The index of the first character to append.
+	 * @param end The index after the last character to append.
+	 * @throws RenderingException This exception is thrown if there is an error during the measuring.
+	 */
+	public void append(CharSequence text, int start, int end) throws RenderingException;
+
+	/**
+	 * Returns the width of the text appended so far.
+	 * @return The width of the text appended so far (in millimeters).
+	 * @throws RenderingException This exception is thrown if there is an error during the measuring.
+	 */
+	public double getWidth() throws RenderingException;
+
+	/**
+	 * Returns the height of the text appended so far.
+	 * @return The height of the text appended so far (in millimeters).
+	 * @throws RenderingException This exception is thrown if there is an error during the measuring.
+	 */
+	public double getHeight() throws RenderingException;
+
+	/**
+	 * Removes the text appended so far.
+	 */
+	public void clear();
+
+}
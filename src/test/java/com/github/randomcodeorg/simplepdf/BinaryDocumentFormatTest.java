@@ -0,0 +1,362 @@
+package com.github.randomcodeorg.simplepdf;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.awt.Color;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.List;
+import java.util.Random;
+import java.util.TimeZone;
+
+import org.junit.Test;
+
+public class BinaryDocumentFormatTest extends DocumentTestBase {
+
+	@Test
+	public void testRoundTrip() throws IOException {
+		SimplePDFDocument doc = createDocument();
+		byte[] encoded = BinaryDocumentFormat.toByteArray(doc);
+		SimplePDFDocument decoded = BinaryDocumentFormat.read(encoded);
+
+		assertDocumentEquals(doc, decoded);
+		assertEquals(doc.toXML(), decoded.toXML());
+		assertArrayEquals(encoded, BinaryDocumentFormat.toByteArray(decoded));
+
+		DocumentMetaInformation expected = doc.getMetaInformation();
+		DocumentMetaInformation actual = decoded.getMetaInformation();
+		assertEquals(expected.getTitle(), actual.getTitle());
+		assertEquals(expected.getAuthor(), actual.getAuthor());
+		assertEquals(expected.getProducer(), actual.getProducer());
+		assertEquals(expected.getKeywords(), actual.getKeywords());
+		assertEquals(expected.getSubject(), actual.getSubject());
+		assertEquals(expected.getCreator(), actual.getCreator());
+		assertEquals(expected.getCreationDate().getTimeInMillis(), actual.getCreationDate().getTimeInMillis());
+		assertEquals(expected.getCreationDate().getTimeZone().getID(), actual.getCreationDate().getTimeZone().getID());
+		assertEquals(null, actual.getModificationDate());
+		assertEquals(new Color(10, 20, 30, 40), decoded.getStyleDefinition("colored").getColor());
+	}
+
+	@Test
+	public void testXmlRoundTrip() throws Exception {
+		// The XML format only supports text blocks, lines, images and rectangles
+		DIN5008ADocument doc = new DIN5008ADocument("TestDoc", "Unit-Test");
+		StyleDefinition colored = new StyleDefinition("colored");
+		colored.setColor(new Color(10, 20, 30));
+		colored.setDecoration(TextDecoration.UNDERLINE);
+		colored.setAlignment(TextAlignment.CENTER);
+		colored.setFontSize(14);
+		doc.addStyleDefinition(colored);
+		doc.addData(new DocumentData("image", new byte[] { 1, 2, 3, 4, 5, (byte) 0xFF }));
+		doc.addHeaderElement(new TextBlock("/", "colored", "Header element").setIsRepeating(true));
+		setSeed(42);
+		for (int i = 0; i < 3; i++) {
+			doc.addTextElement(new TextBlock("/", "/", createParagraphs(2)));
+		}
+		doc.addTextElement(new Line("/", new Position(1, 2), new Position(3, 4), 0.75, true));
+		doc.addTextElement(new Rectangle("/", new Position(5, 6), new Size(7, 8), 1.5f));
+		doc.addTextElement(new DocumentImage("/", "image"));
+
+		SimplePDFDocument parsed = new SimplePDFReader().read(doc.toXML());
+		SimplePDFDocument decoded = BinaryDocumentFormat.read(BinaryDocumentFormat.toByteArray(parsed));
+		assertDocumentEquals(doc, decoded);
+	}
+
+	@Test
+	public void testDataSource() throws IOException {
+		File file = File.createTempFile("simplepdf", ".bin");
+		try {
+			byte[] content = new byte[100000];
+			for (int i = 0; i < content.length; i++)
+				content[i] = (byte) (i * 31);
+			FileOutputStream out = new FileOutputStream(file);
+			try {
+				out.write(content);
+			} finally {
+				out.close();
+			}
+			SimplePDFDocument doc = new SimplePDFDocument("Data", "Unit-Test");
+			doc.addData(DocumentData.fromFile("file", file));
+			SimplePDFDocument decoded = BinaryDocumentFormat.read(BinaryDocumentFormat.toByteArray(doc));
+			assertArrayEquals(content, decoded.getData("file").getData());
+		} finally {
+			file.delete();
+		}
+	}
+
+	@Test
+	public void testElementHandler() throws IOException {
+		SimplePDFDocument doc = createDocument();
+		final List<DocumentElement> elements = new ArrayList<DocumentElement>();
+		SimplePDFDocument decoded = BinaryDocumentFormat.read(new ByteArrayInputStream(BinaryDocumentFormat.toByteArray(doc)),
+				new ElementHandler() {
+
+					@Override
+					public void elementParsed(SimplePDFDocument document, DocumentElement element) {
+						assertTrue(document.containsData("image"));
+						elements.add(element);
+					}
+				});
+		assertEquals(0, decoded.getElementCount());
+		assertEquals(doc.getElementCount(), elements.size());
+		for (int i = 0; i < elements.size(); i++) {
+			assertElementEquals(doc.getElements().get(i), elements.get(i));
+		}
+	}
+
+	@Test
+	public void testSmallerThanXml() throws IOException {
+		SimplePDFDocument doc = createDocument();
+		assertTrue(BinaryDocumentFormat.toByteArray(doc).length < doc.toXML().getBytes("UTF-8").length);
+	}
+
+	@Test
+	public void testRejectsNewerVersion() {
+		try {
+			byte[] encoded = BinaryDocumentFormat.toByteArray(createDocument());
+			// The version follows the magic number
+			encoded[4] = (byte) (BinaryDocumentFormat.VERSION + 1);
+			BinaryDocumentFormat.read(encoded);
+			fail("A document of a newer version was decoded.");
+		} catch (IOException e) {
+			// Expected
+		}
+	}
+
+	@Test
+	public void testTruncatedInput() throws IOException {
+		byte[] encoded = BinaryDocumentFormat.toByteArray(createDocument());
+		for (int length = 0; length < encoded.length; length++) {
+			assertInvalid(Arrays.copyOf(encoded, length));
+		}
+	}
+
+	@Test
+	public void testUnboundedLength() throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		DataOutputStream dos = new DataOutputStream(out);
+		dos.write(Arrays.copyOf(BinaryDocumentFormat.toByteArray(createDocument()), 5));
+		// The length of the title announces 2 GiB, but the stream ends after a few bytes
+		dos.write(new byte[] { (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x07 });
+		dos.write(new byte[100000]);
+		assertInvalid(out.toByteArray());
+		// The length exceeds the range of an integer
+		out.reset();
+		dos.write(Arrays.copyOf(BinaryDocumentFormat.toByteArray(createDocument()), 5));
+		dos.write(new byte[] { (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x01 });
+		assertInvalid(out.toByteArray());
+	}
+
+	@Test
+	public void testGarbageInput() throws IOException {
+		byte[] header = Arrays.copyOf(BinaryDocumentFormat.toByteArray(createDocument()), 5);
+		Random random = new Random(24);
+		byte[] garbage = new byte[header.length + 2000];
+		for (int i = 0; i < 500; i++) {
+			random.nextBytes(garbage);
+			assertInvalid(garbage);
+			System.arraycopy(header, 0, garbage, 0, header.length);
+			assertInvalid(garbage);
+		}
+	}
+
+	@Test
+	public void testCorruptedInput() throws IOException {
+		byte[] encoded = BinaryDocumentFormat.toByteArray(createDocument());
+		Random random = new Random(24);
+		byte[] corrupted;
+		for (int i = 0; i < 2000; i++) {
+			corrupted = encoded.clone();
+			for (int j = 0; j < 3; j++)
+				corrupted[5 + random.nextInt(corrupted.length - 5)] = (byte) random.nextInt();
+			// Changed text or values may still be decoded, but the decoding may only fail with an IOException
+			try {
+				BinaryDocumentFormat.read(corrupted);
+			} catch (IOException e) {
+				// Expected
+			}
+		}
+	}
+
+	/**
+	 * Asserts that decoding the given bytes fails with an {@link IOException}.
+	 * @param data The bytes to decode.
+	 */
+	private static void assertInvalid(byte[] data) {
+		try {
+			BinaryDocumentFormat.read(data);
+			fail("Invalid data of length " + data.length + " was decoded.");
+		} catch (IOException e) {
+			// Expected
+		}
+	}
+
+	private SimplePDFDocument createDocument() {
+		setSeed(42);
+		DIN5008ADocument doc = new DIN5008ADocument("TestDoc", "Unit-Test");
+		Calendar creationDate = Calendar.getInstance(TimeZone.getTimeZone("Europe/Berlin"));
+		creationDate.setTimeInMillis(1500000000000L);
+		doc.getMetaInformation().setKeywords("binary, format").setSubject("Round trip").setCreationDate(creationDate);
+		StyleDefinition colored = new StyleDefinition("colored");
+		colored.setColor(new Color(10, 20, 30, 40));
+		colored.setDecoration(TextDecoration.UNDERLINE);
+		colored.setAlignment(TextAlignment.CENTER);
+		doc.addStyleDefinition(colored);
+		doc.addData(new DocumentData("image", new byte[] { 1, 2, 3, 4, 5, (byte) 0xFF }));
+
+		doc.addAddressElement(new TextBlock("/", "colored", "Address element\nwith two lines"));
+		doc.addHeaderElement(new TextBlock("/", "/", "Header element").setIsRepeating(true));
+		doc.addTextElement(new ChapterElement("/", "/", "Inhaltsverzeichnis").setDisplayNumber(false));
+		doc.addTextElement(new TableOfContents("/", "/").setResetsChapterNumbering(true).setIndentString(" - "));
+		for (DocumentElement e : createChapteredParagraphs(4)) {
+			doc.addTextElement(e);
+		}
+		doc.addTextElement(new Line("/", new Position(1, 2), new Position(3, 4), 0.75));
+		doc.addTextElement(new Rectangle("/", new Position(5, 6), new Size(7, 8), 1.5f));
+		doc.addTextElement(new DocumentImage("/", "image"));
+		doc.addTextElement(new PageCloser("/"));
+		Table table = createTable(3, 4);
+		TableCell cell = table.getCell(1, 1);
+		cell.setWidth(20);
+		cell.setHeight(10);
+		Table nested = new Table("/", false, new TableRow(new TableCell(new TextBlock("/", "/", "Nested"),
+				new Line("/", new Position(0, 0), new Position(1, 1), 0.25), new ChapterElement("/", "/", "Nested chapter"))),
+				new TableRow(new TableCell()));
+		nested.getRows().get(1).getCells().get(0).setWidth(15);
+		cell.getContents().add(createTable(2, 2));
+		cell.getContents().add(nested);
+		doc.addTextElement(table);
+		doc.addFooterElement(new PageNumber("/", "/", "Seite " + PageNumber.CURRENT_PAGE_PLACEHOLDER).setIsRepeating(true));
+		return doc;
+	}
+
+	/**
+	 * Compares the properties of the given documents that are not part of the meta information.
+	 * @param expected The expected document.
+	 * @param actual The actual document.
+	 */
+	private static void assertDocumentEquals(SimplePDFDocument expected, SimplePDFDocument actual) {
+		assertEquals(expected.getMetaInformation().getTitle(), actual.getMetaInformation().getTitle());
+		assertEquals(expected.getMetaInformation().getAuthor(), actual.getMetaInformation().getAuthor());
+		assertSizeEquals(expected.getPageSize(), actual.getPageSize());
+		assertSpacingEquals(expected.getPagePadding(), actual.getPagePadding());
+		assertEquals(expected.getStyles().size(), actual.getStyles().size());
+		for (int i = 0; i < expected.getStyles().size(); i++) {
+			StyleDefinition e = expected.getStyles().get(i);
+			StyleDefinition a = actual.getStyles().get(i);
+			assertEquals(e.getID(), a.getID());
+			assertEquals(e.getFontSize(), a.getFontSize());
+			assertEquals(e.getDecoration(), a.getDecoration());
+			assertEquals(e.getFontName(), a.getFontName());
+			assertSpacingEquals(e.getLinePadding(), a.getLinePadding());
+			assertSpacingEquals(e.getBlockPadding(), a.getBlockPadding());
+			assertEquals(e.getColor(), a.getColor());
+			assertEquals(e.getAlignment(), a.getAlignment());
+		}
+		assertEquals(expected.getAreas().size(), actual.getAreas().size());
+		for (int i = 0; i < expected.getAreas().size(); i++) {
+			AreaDefinition e = expected.getAreas().get(i);
+			AreaDefinition a = actual.getAreas().get(i);
+			assertEquals(e.getID(), a.getID());
+			assertEquals(e.getAvailability(), a.getAvailability());
+			assertPositionEquals(e.getPosition(), a.getPosition());
+			assertSizeEquals(e.getSize(), a.getSize());
+		}
+		assertEquals(expected.getData().size(), actual.getData().size());
+		for (int i = 0; i < expected.getData().size(); i++) {
+			assertEquals(expected.getData().get(i).getID(), actual.getData().get(i).getID());
+			assertArrayEquals(expected.getData().get(i).getData(), actual.getData().get(i).getData());
+		}
+		assertElementsEqual(expected.getElements(), actual.getElements());
+	}
+
+	private static void assertElementsEqual(List<DocumentElement> expected, List<DocumentElement> actual) {
+		assertEquals(expected.size(), actual.size());
+		for (int i = 0; i < expected.size(); i++) {
+			assertElementEquals(expected.get(i), actual.get(i));
+		}
+	}
+
+	/**
+	 * Compares the given elements including all properties of the built-in element types and the contents of tables.
+	 * @param expected The expected element.
+	 * @param actual The actual element.
+	 */
+	private static void assertElementEquals(DocumentElement expected, DocumentElement actual) {
+		assertEquals(expected.getClass(), actual.getClass());
+		assertEquals(expected.getAreaID(), actual.getAreaID());
+		assertEquals(expected.getStyleID(), actual.getStyleID());
+		assertEquals(expected.getIsRepeating(), actual.getIsRepeating());
+		if (expected instanceof TextBlock) {
+			assertEquals(((TextBlock) expected).getContent(), ((TextBlock) actual).getContent());
+		}
+		if (expected instanceof ChapterElement) {
+			assertEquals(((ChapterElement) expected).getLevel(), ((ChapterElement) actual).getLevel());
+			assertEquals(((ChapterElement) expected).getDisplayNumber(), ((ChapterElement) actual).getDisplayNumber());
+		} else if (expected instanceof PageNumber) {
+			assertEquals(((PageNumber) expected).getFormat(), ((PageNumber) actual).getFormat());
+		} else if (expected instanceof TableOfContents) {
+			TableOfContents e = (TableOfContents) expected;
+			TableOfContents a = (TableOfContents) actual;
+			assertEquals(e.getResetsChapterNumbering(), a.getResetsChapterNumbering());
+			assertEquals(e.getIndentString(), a.getIndentString());
+		} else if (expected instanceof DocumentImage) {
+			assertEquals(((DocumentImage) expected).getDataID(), ((DocumentImage) actual).getDataID());
+		} else if (expected instanceof Line) {
+			Line e = (Line) expected;
+			Line a = (Line) actual;
+			assertPositionEquals(e.getStartPoint(), a.getStartPoint());
+			assertPositionEquals(e.getEndPoint(), a.getEndPoint());
+			assertEquals(e.getLineWidth(), a.getLineWidth(), 0);
+		} else if (expected instanceof Rectangle) {
+			Rectangle e = (Rectangle) expected;
+			Rectangle a = (Rectangle) actual;
+			assertPositionEquals(e.getLocation(), a.getLocation());
+			assertSizeEquals(e.getSize(), a.getSize());
+			assertEquals(e.getLineWidth(), a.getLineWidth(), 0);
+		} else if (expected instanceof Table) {
+			Table e = (Table) expected;
+			Table a = (Table) actual;
+			assertEquals(e.getDoAutoAligment(), a.getDoAutoAligment());
+			assertEquals(e.getRows().size(), a.getRows().size());
+			for (int y = 0; y < e.getRows().size(); y++) {
+				List<TableCell> expectedCells = e.getRows().get(y).getCells();
+				List<TableCell> actualCells = a.getRows().get(y).getCells();
+				assertEquals(expectedCells.size(), actualCells.size());
+				for (int x = 0; x < expectedCells.size(); x++) {
+					assertEquals(expectedCells.get(x).getWidth(), actualCells.get(x).getWidth(), 0);
+					assertEquals(expectedCells.get(x).getHeight(), actualCells.get(x).getHeight(), 0);
+					assertElementsEqual(expectedCells.get(x).getContents(), actualCells.get(x).getContents());
+				}
+			}
+		}
+	}
+
+	private static void assertPositionEquals(Position expected, Position actual) {
+		assertEquals(expected.getX(), actual.getX(), 0);
+		assertEquals(expected.getY(), actual.getY(), 0);
+	}
+
+	private static void assertSizeEquals(Size expected, Size actual) {
+		assertEquals(expected.getWidth(), actual.getWidth(), 0);
+		assertEquals(expected.getHeight(), actual.getHeight(), 0);
+	}
+
+	private static void assertSpacingEquals(Spacing expected, Spacing actual) {
+		assertEquals(expected.getTop(), actual.getTop(), 0);
+		assertEquals(expected.getRight(), actual.getRight(), 0);
+		assertEquals(expected.getBottom(), actual.getBottom(), 0);
+		assertEquals(expected.getLeft(), actual.getLeft(), 0);
+	}
+
+}
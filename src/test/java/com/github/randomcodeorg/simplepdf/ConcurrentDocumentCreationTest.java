@@ -0,0 +1,68 @@
+package com.github.randomcodeorg.simplepdf;
+
+import static org.junit.Assert.assertArrayEquals;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Test;
+
+import com.github.randomcodeorg.simplepdf.creation.PDDocumentCreator;
+
+public class ConcurrentDocumentCreationTest extends DocumentTestBase {
+
+	private static final int DOCUMENTS = 8;
+	private static final int RENDERINGS = 200;
+	private static final int THREADS = 16;
+
+	@Test
+	public void test() throws Exception {
+		List<byte[]> expected = new ArrayList<byte[]>();
+		final PDDocumentCreator creator = new PDDocumentCreator();
+		for (int i = 0; i < DOCUMENTS; i++) {
+			setSeed(i);
+			expected.add(render(creator, createDocument(3 + i)));
+		}
+		// A document instance can only be rendered once at a time, so every rendering uses an equal copy
+		List<SimplePDFDocument> documents = new ArrayList<SimplePDFDocument>();
+		for (int i = 0; i < RENDERINGS; i++) {
+			setSeed(i % DOCUMENTS);
+			documents.add(createDocument(3 + i % DOCUMENTS));
+		}
+
+		ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+		try {
+			List<Future<byte[]>> results = new ArrayList<Future<byte[]>>();
+			for (int i = 0; i < RENDERINGS; i++) {
+				final SimplePDFDocument doc = documents.get(i);
+				results.add(executor.submit(new Callable<byte[]>() {
+
+					@Override
+					public byte[] call() throws Exception {
+						return render(creator, doc);
+					}
+				}));
+			}
+			for (int i = 0; i < RENDERINGS; i++) {
+				assertArrayEquals("Rendering " + i + " differs", expected.get(i % DOCUMENTS), results.get(i).get());
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	private byte[] render(PDDocumentCreator creator, SimplePDFDocument doc) throws IOException {
+		ByteArrayOutputStream bos = new ByteArrayOutputStream();
+		creator.create(doc, bos);
+		// The document ID is derived from the current time and therefore differs between the renderings.
+		String pdf = new String(bos.toByteArray(), "ISO-8859-1");
+		return pdf.replaceAll("/ID \\[<[0-9A-F]+> <[0-9A-F]+>\\]", "").getBytes("ISO-8859-1");
+	}
+
+}
@@ -0,0 +1,127 @@
+package com.github.randomcodeorg.simplepdf;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class DocumentDataTest {
+
+	private static final byte[] CONTENT = { 1, 2, 3, 4, 5, 6, 7, 8, 9, 10 };
+	private static final byte[] CHANGED = { 10, 9, 8, 7, 6, 5 };
+
+	private File file;
+
+	@Before
+	public void createFile() throws IOException {
+		file = File.createTempFile("simplepdf", ".bin");
+		write(file, CONTENT);
+	}
+
+	@After
+	public void deleteFile() {
+		file.delete();
+	}
+
+	@Test
+	public void testFileIsReadLazily() throws IOException {
+		DocumentData data = DocumentData.fromFile("data", file);
+		// The file is read whenever the data is needed, so changes are visible
+		write(file, CHANGED);
+		assertArrayEquals(CHANGED, data.getData());
+		assertArrayEquals(CHANGED, readFully(data.openStream()));
+		write(file, CONTENT);
+		assertArrayEquals(CONTENT, data.getData());
+		assertEquals(new DocumentData("data", CONTENT).toXML(), data.toXML());
+	}
+
+	@Test
+	public void testMappedFileIsReadLazily() throws IOException {
+		DocumentData data = DocumentData.mapFile("data", file);
+		// The file is mapped when the data is needed for the first time
+		write(file, CHANGED);
+		assertArrayEquals(CHANGED, data.getData());
+		assertArrayEquals(CHANGED, readFully(data.openStream()));
+		assertEquals(new DocumentData("data", CHANGED).toXML(), data.toXML());
+	}
+
+	@Test
+	public void testMissingFile() throws IOException {
+		assertTrue(file.delete());
+		// Creating the data does not access the file
+		assertReportsMissingFile(DocumentData.fromFile("data", file));
+		assertReportsMissingFile(DocumentData.mapFile("data", file));
+	}
+
+	@Test
+	public void testDeletedFile() throws IOException {
+		DocumentData data = DocumentData.fromFile("data", file);
+		assertArrayEquals(CONTENT, data.getData());
+		assertTrue(file.delete());
+		assertReportsMissingFile(data);
+	}
+
+	@Test(expected = NullPointerException.class)
+	public void testDataReadExceptionWithoutCause() {
+		new DataReadException(null);
+	}
+
+	/**
+	 * Verifies that every way of reading the given data reports that its file is missing.
+	 * @param data The data whose file is missing.
+	 */
+	private static void assertReportsMissingFile(DocumentData data) {
+		try {
+			data.getData();
+			fail("The data of a missing file was read");
+		} catch (DataReadException e) {
+			assertTrue(e.getCause() instanceof FileNotFoundException);
+		}
+		try {
+			data.openStream().close();
+			fail("The data of a missing file was opened");
+		} catch (IOException e) {
+			assertTrue(e instanceof FileNotFoundException);
+		}
+		try {
+			data.toXML();
+			fail("The data of a missing file was serialized");
+		} catch (DataReadException e) {
+			assertTrue(e.getCause() instanceof FileNotFoundException);
+		}
+	}
+
+	private static void write(File file, byte[] content) throws IOException {
+		FileOutputStream out = new FileOutputStream(file);
+		try {
+			out.write(content);
+		} finally {
+			out.close();
+		}
+	}
+
+	private static byte[] readFully(InputStream in) throws IOException {
+		try {
+			ByteArrayOutputStream out = new ByteArrayOutputStream();
+			byte[] buffer = new byte[8192];
+			int read;
+			while ((read = in.read(buffer)) != -1)
+				out.write(buffer, 0, read);
+			return out.toByteArray();
+		} finally {
+			in.close();
+		}
+	}
+
+}
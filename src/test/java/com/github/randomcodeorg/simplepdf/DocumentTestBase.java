@@ -1,14 +1,23 @@
 package com.github.randomcodeorg.simplepdf;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Random;
 
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.util.PDFTextStripper;
+
 public class DocumentTestBase {
 
 	private static final char[] CHARACTERS = "abcdefghijklmnopqrstuvwxyz".toCharArray();
 	private static final Random random = new Random();
 
+	protected void setSeed(long seed) {
+		random.setSeed(seed);
+	}
+
 	protected String createText(int length) {
 		if (length < 0)
 			throw new IllegalArgumentException();
@@ -104,4 +113,45 @@ public class DocumentTestBase {
 		return table;
 	}
 
+	/**
+	 * Creates a document containing an address, a repeating header, a table of contents, the given amount of chapters, a table and
+	 * page numbers. The content is created using the random generator, so documents created using the same seed (see
+	 * {@link #setSeed(long)}) are equal.
+	 * @param chapters The amount of chapters to create.
+	 * @return The created document.
+	 */
+	protected DIN5008ADocument createDocument(int chapters) {
+		DIN5008ADocument doc = new DIN5008ADocument("TestDoc", "Unit-Test");
+		doc.addAddressElement(new TextBlock("/", "/", "Address element"));
+		doc.addHeaderElement(new TextBlock("/", "/", "Header element").setIsRepeating(true));
+		doc.addTextElement(new ChapterElement("/", "/", "Inhaltsverzeichnis").setDisplayNumber(false));
+		doc.addTextElement(new TableOfContents("/", "/").setResetsChapterNumbering(true));
+		for (DocumentElement e : createChapteredParagraphs(chapters)) {
+			doc.addTextElement(e);
+		}
+		doc.addTextElement(createTable(3, 5));
+		PageNumber pn = new PageNumber("/", "/");
+		pn.setFormat(
+				String.format("Page %s of %s", PageNumber.CURRENT_PAGE_PLACEHOLDER, PageNumber.PAGE_COUNT_PLACEHOLDER));
+		doc.addFooterElement(pn);
+		return doc;
+	}
+
+	protected List<String> extractPageTexts(byte[] pdf) throws IOException {
+		List<String> result = new ArrayList<String>();
+		PDDocument doc = PDDocument.load(new ByteArrayInputStream(pdf));
+		try {
+			PDFTextStripper stripper = new PDFTextStripper();
+			stripper.setSortByPosition(true);
+			for (int i = 1; i <= doc.getNumberOfPages(); i++) {
+				stripper.setStartPage(i);
+				stripper.setEndPage(i);
+				result.add(stripper.getText(doc));
+			}
+		} finally {
+			doc.close();
+		}
+		return result;
+	}
+
 }
@@ -0,0 +1,146 @@
+package com.github.randomcodeorg.simplepdf;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class IdentifierIndexTest {
+
+	@Test
+	public void testLookup() {
+		SimplePDFDocument doc = new SimplePDFDocument("Test", "Unit-Test");
+		StyleDefinition style = new StyleDefinition("Heading");
+		doc.addStyleDefinition(style);
+		assertSame(style, doc.getStyleDefinition("Heading"));
+		assertSame(style, doc.getStyleDefinition(" heading "));
+		assertNull(doc.getStyleDefinition("Body"));
+	}
+
+	@Test
+	public void testSetID() {
+		SimplePDFDocument doc = new SimplePDFDocument("Test", "Unit-Test");
+		StyleDefinition style = new StyleDefinition("Heading");
+		doc.addStyleDefinition(style);
+		AreaDefinition area = new AreaDefinition("Main", new Position(0, 0), new Size(10, 10));
+		doc.addAreaDefinition(area);
+		DocumentData data = new DocumentData("Logo", new byte[] { 1 });
+		doc.addData(data);
+		assertNull(doc.getStyleDefinition("Title"));
+		assertSame(area, doc.getAreaDefinition("Main"));
+		assertSame(data, doc.getData("Logo"));
+
+		style.setID("Title");
+		area.setID("Footer");
+		data.setID("Icon");
+		assertNull(doc.getStyleDefinition("Heading"));
+		assertSame(style, doc.getStyleDefinition("Title"));
+		assertNull(doc.getAreaDefinition("Main"));
+		assertSame(area, doc.getAreaDefinition("Footer"));
+		assertNull(doc.getData("Logo"));
+		assertSame(data, doc.getData("Icon"));
+	}
+
+	@Test
+	public void testRemove() {
+		SimplePDFDocument doc = new SimplePDFDocument("Test", "Unit-Test");
+		StyleDefinition first = new StyleDefinition("Heading");
+		StyleDefinition second = new StyleDefinition("heading");
+		doc.addStyleDefinition(first);
+		doc.getStyles().add(second);
+		assertSame(first, doc.getStyleDefinition("Heading"));
+		doc.removeStyleDefinition(first);
+		assertSame(second, doc.getStyleDefinition("Heading"));
+		doc.getStyles().remove(second);
+		assertNull(doc.getStyleDefinition("Heading"));
+	}
+
+	@Test
+	public void testSharedElement() {
+		SimplePDFDocument first = new SimplePDFDocument("First", "Unit-Test");
+		SimplePDFDocument second = new SimplePDFDocument("Second", "Unit-Test");
+		StyleDefinition style = new StyleDefinition("Heading");
+		first.addStyleDefinition(style);
+		second.addStyleDefinition(style);
+		assertSame(style, first.getStyleDefinition("Heading"));
+		assertSame(style, second.getStyleDefinition("Heading"));
+		style.setID("Title");
+		assertSame(style, first.getStyleDefinition("Title"));
+		assertSame(style, second.getStyleDefinition("Title"));
+	}
+
+	@Test
+	public void testOtherIndexesAreNotRebuilt() {
+		CountingIndex first = new CountingIndex();
+		CountingIndex second = new CountingIndex();
+		StyleDefinition style = new StyleDefinition("Heading");
+		first.add(style);
+		second.add(second.body);
+		assertSame(style, first.get("Heading"));
+		assertEquals(1, first.rebuilds);
+		assertSame(second.body, second.get("Body"));
+		assertEquals(1, second.rebuilds);
+
+		style.setID("Title");
+		assertSame(style, first.get("Title"));
+		assertEquals(2, first.rebuilds);
+		second.get("Body");
+		assertEquals(1, second.rebuilds);
+	}
+
+	@Test
+	public void testMissesAreNotCached() {
+		CountingIndex index = new CountingIndex();
+		index.add(index.body);
+		for (int i = 0; i < 10000; i++)
+			assertNull(index.get("Missing " + i));
+		assertEquals(0, index.getCachedLookupCount());
+		assertSame(index.body, index.get("Body"));
+		assertSame(index.body, index.get(" body "));
+		assertEquals(2, index.getCachedLookupCount());
+	}
+
+	@Test
+	public void testCachedLookupsAreBounded() {
+		CountingIndex index = new CountingIndex();
+		index.add(index.body);
+		String id = "Body";
+		for (int i = 0; i < 2000; i++) {
+			assertSame(index.body, index.get(id));
+			id = " " + id;
+		}
+		int count = index.getCachedLookupCount();
+		assertTrue(count > 0 && count <= 1024);
+		assertSame(index.body, index.get(id));
+		assertEquals(count, index.getCachedLookupCount());
+	}
+
+	/**
+	 * An index that counts how often it was rebuilt.
+	 */
+	private static class CountingIndex extends IdentifierIndex<StyleDefinition> {
+
+		private final StyleDefinition body = new StyleDefinition("Body");
+		private int rebuilds = 0;
+
+		public CountingIndex() {
+			super(new XmlList<StyleDefinition>("Styles"));
+		}
+
+		@Override
+		protected String getID(StyleDefinition element) {
+			return element.getID();
+		}
+
+		@Override
+		protected Indexes getIndexes(StyleDefinition element) {
+			// Is called once per rebuild, since the tests index a single element
+			rebuilds++;
+			return element.getIndexes();
+		}
+
+	}
+
+}
@@ -0,0 +1,35 @@
+package com.github.randomcodeorg.simplepdf;
+
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.github.randomcodeorg.simplepdf.creation.PDDocumentCreator;
+
+public class PageNumberTest extends DocumentTestBase {
+
+	@Test
+	public void testRepeatingPageNumber() throws IOException {
+		setSeed(11);
+		DIN5008ADocument doc = new DIN5008ADocument("TestDoc", "Unit-Test");
+		doc.addHeaderElement(new TextBlock("/", "/", "Header element").setIsRepeating(true));
+		for (int i = 0; i < 60; i++) {
+			doc.addTextElement(new TextBlock("/", "/", createParagraphs(8)));
+		}
+		// The footer is placed at the same position on every page, but the page number must not be shared with the header
+		doc.addFooterElement(new PageNumber("/", "/", "Seite " + PageNumber.CURRENT_PAGE_PLACEHOLDER).setIsRepeating(true));
+		ByteArrayOutputStream bos = new ByteArrayOutputStream();
+		new PDDocumentCreator().create(doc, bos);
+		List<String> pages = extractPageTexts(bos.toByteArray());
+		assertTrue(pages.size() >= 26);
+		for (int i = 0; i < pages.size(); i++) {
+			assertTrue("Page " + (i + 1), Arrays.asList(pages.get(i).split("\\s*\n")).contains("Seite " + (i + 1)));
+		}
+	}
+
+}
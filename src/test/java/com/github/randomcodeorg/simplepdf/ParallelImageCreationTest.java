@@ -0,0 +1,66 @@
+package com.github.randomcodeorg.simplepdf;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import javax.imageio.ImageIO;
+
+import org.junit.Test;
+
+import com.github.randomcodeorg.simplepdf.creation.ImageDocumentCreator;
+
+public class ParallelImageCreationTest extends DocumentTestBase {
+
+	@Test
+	public void test() throws IOException {
+		setSeed(11);
+		SimplePDFDocument doc = createDocument(10);
+		File sequential = createDirectory("sequential");
+		File parallel = createDirectory("parallel");
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			new ImageDocumentCreator(0.5f).create(doc, sequential);
+			new ImageDocumentCreator(0.5f, executor).create(doc, parallel);
+
+			File[] expected = sequential.listFiles();
+			assertTrue(expected.length > 1);
+			assertEquals(expected.length, parallel.listFiles().length);
+			for (File f : expected) {
+				assertArrayEquals(f.getName(), getPixels(f), getPixels(new File(parallel, f.getName())));
+			}
+		} finally {
+			executor.shutdownNow();
+			delete(sequential);
+			delete(parallel);
+		}
+	}
+
+	private int[] getPixels(File file) throws IOException {
+		BufferedImage image = ImageIO.read(file);
+		return image.getRGB(0, 0, image.getWidth(), image.getHeight(), null, 0, image.getWidth());
+	}
+
+	private File createDirectory(String name) throws IOException {
+		File dir = File.createTempFile("simplepdf-" + name, "");
+		dir.delete();
+		dir.mkdirs();
+		return dir;
+	}
+
+	private void delete(File dir) {
+		File[] files = dir.listFiles();
+		if (files != null) {
+			for (File f : files)
+				f.delete();
+		}
+		dir.delete();
+	}
+
+}
@@ -0,0 +1,32 @@
+package com.github.randomcodeorg.simplepdf;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.github.randomcodeorg.simplepdf.creation.PDDocumentCreator;
+
+public class PipelinedDocumentCreationTest extends DocumentTestBase {
+
+	@Test
+	public void test() throws IOException {
+		setSeed(7);
+		SimplePDFDocument doc = createDocument(12);
+		PDDocumentCreator creator = new PDDocumentCreator();
+		List<String> expected = render(creator, doc);
+		creator.setPipelined(true);
+		// The held back elements are appended to their pages, so the content streams differ while the drawn text has to be equal
+		assertEquals(expected, render(creator, doc));
+	}
+
+	private List<String> render(PDDocumentCreator creator, SimplePDFDocument doc) throws IOException {
+		ByteArrayOutputStream bos = new ByteArrayOutputStream();
+		creator.create(doc, bos);
+		return extractPageTexts(bos.toByteArray());
+	}
+
+}
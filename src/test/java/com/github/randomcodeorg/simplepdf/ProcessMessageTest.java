@@ -0,0 +1,150 @@
+package com.github.randomcodeorg.simplepdf;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.github.randomcodeorg.simplepdf.ProcessMessage.MessageType;
+import com.github.randomcodeorg.simplepdf.creation.NullProcessListener;
+import com.github.randomcodeorg.simplepdf.creation.ProcessListener;
+
+public class ProcessMessageTest {
+
+	@Test
+	public void testPositionsAreResolvedLazily() {
+		SimplePDFDocument doc = createDocument();
+		CountingTextBlock counting = new CountingTextBlock();
+		doc.addElement(counting);
+
+		doc.validate(new NullProcessListener());
+		assertEquals(0, counting.writes);
+
+		RecordingListener listener = new RecordingListener();
+		doc.validate(listener);
+		assertEquals(0, counting.writes);
+		assertFalse(listener.messages.isEmpty());
+
+		// All messages of a validation share a single serialization of the document
+		for (ProcessMessage message : listener.messages)
+			assertTrue(message.hasPosition());
+		assertEquals(1, counting.writes);
+		for (ProcessMessage message : listener.messages)
+			message.getAffectedPosition();
+		assertEquals(1, counting.writes);
+	}
+
+	@Test
+	public void testPositions() {
+		SimplePDFDocument doc = createDocument();
+		RecordingListener listener = new RecordingListener();
+		doc.validate(listener);
+		String xml = doc.toXML();
+		int previous = -1;
+		int count = 0;
+		DocumentElement previousElement = null;
+		for (ProcessMessage message : listener.messages) {
+			if (message.getAffectedElement().getAreaID().equals("missing"))
+				count++;
+			int position = message.getAffectedPosition();
+			String elementXml = message.getAffectedElement().toXML();
+			assertTrue(xml.startsWith(elementXml.substring(0, elementXml.indexOf('\n')), position));
+			// The messages are reported in the order of the elements, equal elements have different positions
+			if (message.getAffectedElement() == previousElement) {
+				assertEquals(previous, position);
+			} else {
+				assertTrue(position > previous);
+			}
+			previous = position;
+			previousElement = message.getAffectedElement();
+		}
+		// Three elements without area and style definition, two of them without content
+		assertEquals(8, count);
+	}
+
+	@Test
+	public void testElementNotPartOfTheDocument() {
+		SimplePDFDocument doc = createDocument();
+		ProcessMessage message = ProcessMessage.createNoAreaIDMessage(new TextBlock("missing", "/", "Text"), doc);
+		assertEquals(-1, message.getAffectedPosition());
+		assertFalse(message.hasPosition());
+	}
+
+	@Test
+	public void testSetAffectedPosition() {
+		SimplePDFDocument doc = createDocument();
+		DocumentElement element = doc.getElements().get(0);
+		ProcessMessage message = ProcessMessage.createNoAreaIDMessage(element, doc);
+		message.setAffectedPosition(42);
+		assertEquals(42, message.getAffectedPosition());
+		assertSame(element, message.getAffectedElement());
+	}
+
+	@Test
+	public void testXmlText() {
+		SimplePDFDocument doc = createDocument();
+		String xml = doc.toXML();
+		DocumentElement element = doc.getElements().get(1);
+		ProcessMessage message = new ProcessMessage(MessageType.ERROR, element, "Message", xml);
+		assertEquals(FormattingTools.findIndex(xml, element.toXML()), message.getAffectedPosition());
+		assertTrue(message.hasPosition());
+	}
+
+	private SimplePDFDocument createDocument() {
+		DIN5008ADocument doc = new DIN5008ADocument("Test", "Unit-Test");
+		doc.addTextElement(new TextBlock("/", "/", "Valid"));
+		doc.addElement(new TextBlock("missing", "/", ""));
+		doc.addTextElement(new TextBlock("/", "/", "Valid"));
+		doc.addElement(new TextBlock("missing", "/", ""));
+		doc.addElement(new TextBlock("missing", "/", "Valid"));
+		return doc;
+	}
+
+	/**
+	 * A listener that records all messages.
+	 */
+	private static class RecordingListener implements ProcessListener {
+
+		private final List<ProcessMessage> messages = new ArrayList<ProcessMessage>();
+
+		@Override
+		public void start() {
+		}
+
+		@Override
+		public void addMessage(ProcessMessage pm) {
+			messages.add(pm);
+		}
+
+		@Override
+		public void complete() {
+		}
+
+	}
+
+	/**
+	 * A text block that counts how often it was serialized.
+	 */
+	private static class CountingTextBlock extends TextBlock {
+
+		private int writes = 0;
+
+		public CountingTextBlock() {
+			super("missing", "/", "");
+		}
+
+		@Override
+		public void writeXML(XmlWriter out) throws IOException {
+			writes++;
+			super.writeXML(out);
+		}
+
+	}
+
+}
@@ -0,0 +1,79 @@
+package com.github.randomcodeorg.simplepdf;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+
+import org.junit.Test;
+
+import com.github.randomcodeorg.simplepdf.creation.DefaultRenderMetrics;
+import com.github.randomcodeorg.simplepdf.creation.PDDocumentCreator;
+import com.github.randomcodeorg.simplepdf.creation.RenderCounter;
+import com.github.randomcodeorg.simplepdf.creation.RenderPhase;
+
+public class RenderMetricsTest extends DocumentTestBase {
+
+	@Test
+	public void test() throws Exception {
+		setSeed(3);
+		CountingMetrics metrics = new CountingMetrics();
+		SimplePDFDocument doc = new SimplePDFReader().readMeasured(createDocument().toXML(), metrics);
+		assertTrue(metrics.getDuration(RenderPhase.PARSE) > 0);
+
+		ByteArrayOutputStream bos = new ByteArrayOutputStream();
+		new PDDocumentCreator().create(doc, bos, metrics);
+		assertEquals(1, metrics.started);
+		assertEquals(1, metrics.completed);
+		assertEquals(extractPageTexts(bos.toByteArray()).size(), metrics.getCount(RenderCounter.PAGES));
+		assertEquals(bos.size(), metrics.getCount(RenderCounter.BYTES_WRITTEN));
+		assertTrue(metrics.getCount(RenderCounter.PAGES) > 1);
+		assertTrue(metrics.getCount(RenderCounter.ELEMENTS_LAID_OUT) >= doc.getElementCount());
+		assertTrue(metrics.getCount(RenderCounter.SPLITS) > 0);
+		assertTrue(metrics.getCount(RenderCounter.TEXT_MEASUREMENTS) > 0);
+		assertEquals(0, metrics.getCount(RenderCounter.IMAGE_ENCODES));
+		assertTrue(metrics.getDuration(RenderPhase.LAYOUT) > 0);
+		assertTrue(metrics.getDuration(RenderPhase.RENDER) > 0);
+		assertTrue(metrics.getDuration(RenderPhase.SAVE) > 0);
+
+		// The counters of a document creation do not depend on the timing
+		long pages = metrics.getCount(RenderCounter.PAGES);
+		long laidOut = metrics.getCount(RenderCounter.ELEMENTS_LAID_OUT);
+		long splits = metrics.getCount(RenderCounter.SPLITS);
+		metrics.reset();
+		assertEquals(0, metrics.getCount(RenderCounter.PAGES));
+		assertEquals(0, metrics.getDuration(RenderPhase.PARSE));
+		new PDDocumentCreator().create(doc, new ByteArrayOutputStream(), metrics);
+		assertEquals(pages, metrics.getCount(RenderCounter.PAGES));
+		assertEquals(laidOut, metrics.getCount(RenderCounter.ELEMENTS_LAID_OUT));
+		assertEquals(splits, metrics.getCount(RenderCounter.SPLITS));
+	}
+
+	private SimplePDFDocument createDocument() {
+		DIN5008ADocument doc = new DIN5008ADocument("TestDoc", "Unit-Test");
+		doc.addHeaderElement(new TextBlock("/", "/", "Header element").setIsRepeating(true));
+		for (DocumentElement e : createChapteredParagraphs(6)) {
+			doc.addTextElement(e);
+		}
+		doc.addTextElement(new TextBlock("/", "/", createParagraphs(12)));
+		return doc;
+	}
+
+	private static class CountingMetrics extends DefaultRenderMetrics {
+
+		private int started = 0;
+		private int completed = 0;
+
+		@Override
+		public void start() {
+			started++;
+		}
+
+		@Override
+		public void complete() {
+			completed++;
+		}
+
+	}
+
+}
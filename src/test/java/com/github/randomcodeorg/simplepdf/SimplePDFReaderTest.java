@@ -0,0 +1,184 @@
+package com.github.randomcodeorg.simplepdf;
+
+import static com.github.randomcodeorg.simplepdf.ParseTool.getAttribute;
+import static com.github.randomcodeorg.simplepdf.ParseTool.getChild;
+import static com.github.randomcodeorg.simplepdf.ParseTool.getChildContentText;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.awt.Color;
+import java.io.ByteArrayInputStream;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Random;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+
+import org.junit.Test;
+import org.w3c.dom.Node;
+import org.xml.sax.InputSource;
+
+public class SimplePDFReaderTest extends DocumentTestBase {
+
+	private static final String ESCAPED_TEXT = "ESCAPED_TEXT";
+
+	@Test
+	public void testMatchesDomParsing() throws Exception {
+		for (int seed = 0; seed < 5; seed++) {
+			SimplePDFDocument doc = createSeededDocument(seed);
+			String xml = doc.toXML();
+			SimplePDFDocument expected = parseDom(xml);
+			SimplePDFDocument actual = new SimplePDFReader().read(xml);
+			assertEquals(expected.toXML(), actual.toXML());
+			assertEquals(expected.getPagePadding().toXML(), actual.getPagePadding().toXML());
+			assertArrayEquals(expected.getData("image").getData(), actual.getData("image").getData());
+			assertArrayEquals(expected.getData("large").getData(), actual.getData("large").getData());
+
+			SimplePDFDocument fromStream = new SimplePDFReader().read(new ByteArrayInputStream(xml.getBytes("UTF-8")));
+			assertEquals(expected.toXML(), fromStream.toXML());
+		}
+	}
+
+	@Test
+	public void testElementHandler() throws Exception {
+		SimplePDFDocument doc = createSeededDocument(3);
+		String xml = doc.toXML();
+		SimplePDFDocument expected = parseDom(xml);
+		final List<DocumentElement> elements = new ArrayList<DocumentElement>();
+		SimplePDFDocument actual = new SimplePDFReader().read(new ByteArrayInputStream(xml.getBytes("UTF-8")),
+				new ElementHandler() {
+
+					@Override
+					public void elementParsed(SimplePDFDocument document, DocumentElement element) {
+						// The definitions precede the elements
+						assertTrue(document.getStyleDefinition("colored") != null);
+						elements.add(element);
+					}
+				});
+		assertEquals(0, actual.getElementCount());
+		assertEquals(expected.getElementCount(), elements.size());
+		for (int i = 0; i < elements.size(); i++) {
+			assertEquals(expected.getElements().get(i).toXML(), elements.get(i).toXML());
+		}
+	}
+
+	@Test
+	public void testWithoutElementHandler() throws Exception {
+		String xml = createSeededDocument(3).toXML();
+		// A null handler adds the elements to the document
+		SimplePDFDocument actual = new SimplePDFReader().read(new ByteArrayInputStream(xml.getBytes("UTF-8")), null);
+		assertEquals(parseDom(xml).toXML(), actual.toXML());
+	}
+
+	@Test
+	public void testFormattedXml() throws Exception {
+		// Whitespace between the nodes and comments have to be ignored the same way the DOM parsing ignores them
+		String xml = createSeededDocument(1).toXML().replace("><", ">\n\t<!-- comment -->\n  <");
+		assertEquals(parseDom(xml).toXML(), new SimplePDFReader().read(xml).toXML());
+	}
+
+	@Test
+	public void testEntitiesAndCData() throws Exception {
+		// The documents are written without escaping the text, so the references are inserted into the written XML text
+		String xml = createSeededDocument(2).toXML().replace(ESCAPED_TEXT,
+				"&amp; &lt;tag&gt; &quot;&#228;&#x20AC;\" <![CDATA[<raw> & ]]>text<![CDATA[]]> &amp;");
+		SimplePDFDocument expected = parseDom(xml);
+		// Only the first text node is used as content, which ends at the CDATA section
+		assertTrue(expected.toXML().contains("<Content>& <tag> \"\u00e4\u20ac\" </Content>"));
+		assertEquals(expected.toXML(), new SimplePDFReader().read(xml).toXML());
+	}
+
+	@Test
+	public void testDataSplitByComment() throws Exception {
+		// The image data { 1, 2, 3, 4, 5, 0xFF } is encoded as 'AQIDBAX/', only the first text node is decoded
+		String xml = createSeededDocument(4).toXML();
+		assertTrue(xml.contains(">AQIDBAX/<"));
+		xml = xml.replace(">AQIDBAX/<", ">AQID<!-- comment -->BAX/<");
+		SimplePDFDocument expected = parseDom(xml);
+		SimplePDFDocument actual = new SimplePDFReader().read(xml);
+		assertArrayEquals(new byte[] { 1, 2, 3 }, expected.getData("image").getData());
+		assertArrayEquals(expected.getData("image").getData(), actual.getData("image").getData());
+		assertArrayEquals(expected.getData("large").getData(), actual.getData("large").getData());
+	}
+
+	private SimplePDFDocument createSeededDocument(int seed) {
+		setSeed(seed);
+		DIN5008ADocument doc = new DIN5008ADocument("Test Document", "Unit-Test \u00e4\u00f6\u00fc\u00df");
+		StyleDefinition colored = new StyleDefinition("colored");
+		colored.setColor(new Color(10, 20, 30, 40));
+		colored.setDecoration(TextDecoration.UNDERLINE);
+		colored.setAlignment(TextAlignment.CENTER);
+		doc.addStyleDefinition(colored);
+		doc.addData(new DocumentData("image", new byte[] { 1, 2, 3, 4, 5, (byte) 0xFF }));
+		// Exceeds the amount of characters that is decoded at once
+		byte[] large = new byte[100001 + seed];
+		new Random(seed).nextBytes(large);
+		doc.addData(new DocumentData("large", large));
+
+		doc.addAddressElement(new TextBlock("/", "colored", "Address element\nwith two lines"));
+		doc.addHeaderElement(new TextBlock("/", "/", "  Header element \"quoted\" 'single'  ").setIsRepeating(true));
+		doc.addTextElement(new ChapterElement("/", "/", "Inhaltsverzeichnis").setDisplayNumber(false));
+		doc.addTextElement(new TableOfContents("/", "/").setResetsChapterNumbering(true).setIndentString(" - "));
+		for (DocumentElement e : createChapteredParagraphs(3)) {
+			doc.addTextElement(e);
+		}
+		doc.addTextElement(new TextBlock("/", "/", "\u00c4rger \u00fcber \u00d6l \u20ac\n\n\ttabbed\r\nline"));
+		doc.addTextElement(new TextBlock("/", "/", ""));
+		doc.addTextElement(new TextBlock("/", "/", ESCAPED_TEXT));
+		doc.addTextElement(new Line("/", new Position(1, 2), new Position(3, 4), 0.75));
+		doc.addTextElement(new Rectangle("/", new Position(5, 6), new Size(7, 8), 1.5f));
+		doc.addTextElement(new DocumentImage("/", "image"));
+		doc.addTextElement(new PageCloser("/"));
+		Table table = createTable(3, 4);
+		TableCell cell = table.getCell(1, 1);
+		cell.setWidth(20);
+		cell.setHeight(10);
+		cell.getContents().add(createTable(2, 2));
+		doc.addTextElement(table);
+		doc.addFooterElement(new PageNumber("/", "/", "Seite " + PageNumber.CURRENT_PAGE_PLACEHOLDER));
+		return doc;
+	}
+
+	/**
+	 * Parses the given XML text by building a DOM of the whole document, which is how the documents were parsed before they were
+	 * read from a stream.
+	 * @param xml The XML text to parse.
+	 * @return The parsed document.
+	 * @throws Exception If the XML text could not be parsed.
+	 */
+	private static SimplePDFDocument parseDom(String xml) throws Exception {
+		Node n = DocumentBuilderFactory.newInstance().newDocumentBuilder().parse(new InputSource(new StringReader(xml)))
+				.getDocumentElement();
+		String title = ParseTool.getContentText(getChild(n, "Title"));
+		String creator = getChildContentText(n, "Creator");
+		SimplePDFDocument doc = new SimplePDFDocument(title, creator);
+		doc.setPageSize(Size.parse(getChild(n, "PageSize")));
+		doc.setPagePadding(Spacing.parse(getChild(n, "PagePadding")));
+		for (Node c : getChildren(getChild(n, "Areas"), "AreaDefinition"))
+			doc.addAreaDefinition(AreaDefinition.parse(c));
+		for (Node c : getChildren(getChild(n, "Styles"), "StyleDefinition"))
+			doc.addStyleDefinition(StyleDefinition.parse(c));
+		for (Node c : getChildren(getChild(n, "ResourceData"), "DocumentData"))
+			doc.addData(new DocumentData(getAttribute(c, "ID", ""), Base64.getDecoder().decode(getChildContentText(c, "Data"))));
+		DocumentElement element;
+		for (Node c : getChildren(getChild(n, "Elements"), "DocumentElement")) {
+			element = DocumentElement.parse(c);
+			if (element != null)
+				doc.addElement(element);
+		}
+		return doc;
+	}
+
+	private static List<Node> getChildren(Node n, String nodeName) {
+		List<Node> result = new ArrayList<Node>();
+		for (int i = 0; i < n.getChildNodes().getLength(); i++) {
+			if (n.getChildNodes().item(i).getNodeName().equals(nodeName))
+				result.add(n.getChildNodes().item(i));
+		}
+		return result;
+	}
+
+}
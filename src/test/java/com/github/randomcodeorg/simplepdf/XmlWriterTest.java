@@ -0,0 +1,146 @@
+package com.github.randomcodeorg.simplepdf;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+public class XmlWriterTest extends DocumentTestBase {
+
+	@Test
+	public void testTableIsStreamed() throws IOException {
+		setSeed(21);
+		Table table = createTable(3, 4);
+		table.getCell(1, 2).getContents().add(createTable(2, 2));
+		table.getCell(0, 0).getContents().add(new Line("/", new Position(1, 2), new Position(3, 4)));
+		assertEquals(toXMLFromContent(table), table.toXML());
+
+		Table empty = new Table("/", true);
+		assertEquals(toXMLFromContent(empty), empty.toXML());
+	}
+
+	@Test
+	public void testDocumentMatchesStringSerialization() throws IOException {
+		String expected = readResource("document.xml");
+		SimplePDFDocument doc = createDocumentWithData();
+		StringWriter sw = new StringWriter();
+		doc.writeXML(sw);
+		assertEquals(expected, sw.toString());
+		assertEquals(expected, doc.toXML());
+		ByteArrayOutputStream bos = new ByteArrayOutputStream();
+		doc.writeXML(bos);
+		assertArrayEquals(expected.getBytes("UTF-8"), bos.toByteArray());
+	}
+
+	@Test
+	public void testFailingElementIsSkipped() {
+		List<XmlSerializable> elements = new ArrayList<XmlSerializable>();
+		elements.add(new TextBlock("/", "/", "First"));
+		elements.add(new TextBlock("/", "/", "Second"));
+		String expected = new XmlList<XmlSerializable>("Elements", elements).toXML();
+
+		elements.add(1, new FailingElement(null));
+		elements.add(new FailingElement(""));
+		assertEquals(expected, new XmlList<XmlSerializable>("Elements", elements).toXML());
+	}
+
+	@Test
+	public void testPartiallyWrittenElementFails() {
+		List<XmlSerializable> elements = new ArrayList<XmlSerializable>();
+		elements.add(new TextBlock("/", "/", "First"));
+		elements.add(new FailingElement("<Partial>"));
+		try {
+			new XmlList<XmlSerializable>("Elements", elements).toXML();
+			fail("The partially written element was skipped");
+		} catch (IllegalStateException e) {
+			assertEquals("failed", e.getMessage());
+		}
+	}
+
+	/**
+	 * Creates a document containing tables, an image and binary data. The expected serialization of this document
+	 * (<code>document.xml</code>) was created by building the whole XML representation as a string, which is how documents were
+	 * serialized before they were streamed.
+	 * @return The created document.
+	 */
+	private SimplePDFDocument createDocumentWithData() {
+		setSeed(21);
+		DIN5008ADocument doc = createDocument(3);
+		Table table = createTable(3, 4);
+		table.getCell(1, 2).getContents().add(createTable(2, 2));
+		table.getCell(0, 0).getContents().add(new Line("/", new Position(1, 2), new Position(3, 4)));
+		doc.addTextElement(table);
+		doc.addTextElement(new TextBlock("/", "/", "\u00c4rger \u00fcber Stra\u00dfen"));
+		// The data exceeds the size of the chunks that are encoded at once
+		byte[] data = new byte[13000];
+		for (int i = 0; i < data.length; i++)
+			data[i] = (byte) (i * 31 + i / 7);
+		doc.addData(new DocumentData("image", data));
+		doc.addData(new DocumentData("small", new byte[] { 1, 2, 3, 4 }));
+		doc.addTextElement(new DocumentImage("/", "image"));
+		return doc;
+	}
+
+	private static String readResource(String name) throws IOException {
+		InputStream in = XmlWriterTest.class.getResourceAsStream(name);
+		assertNotNull(name, in);
+		try {
+			ByteArrayOutputStream out = new ByteArrayOutputStream();
+			byte[] buffer = new byte[8192];
+			int read;
+			while ((read = in.read(buffer)) != -1)
+				out.write(buffer, 0, read);
+			return out.toString("UTF-8");
+		} finally {
+			in.close();
+		}
+	}
+
+	/**
+	 * Serializes the given element using its inner XML content, which is how every element was written before the rows of a table were
+	 * streamed.
+	 * @param element The element to serialize.
+	 * @return The XML representation of the given element.
+	 * @throws IOException If an I/O error occurs.
+	 */
+	private static String toXMLFromContent(DocumentElement element) throws IOException {
+		StringWriter sw = new StringWriter();
+		element.writeStartTag(new XmlWriter(sw));
+		return sw.toString() + ">\n" + FormattingTools.indentText(element.getXmlContent()) + "\n</DocumentElement>";
+	}
+
+	/**
+	 * An element that writes the given text and fails afterwards.
+	 */
+	private static class FailingElement implements XmlWritable {
+
+		private final String written;
+
+		public FailingElement(String written) {
+			this.written = written;
+		}
+
+		@Override
+		public String toXML() {
+			return XmlWriter.toXML(this);
+		}
+
+		@Override
+		public void writeXML(XmlWriter out) throws IOException {
+			if (written != null)
+				out.write(written);
+			throw new IllegalStateException("failed");
+		}
+
+	}
+
+}
@@ -0,0 +1,117 @@
+package com.github.randomcodeorg.simplepdf.creation;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import com.github.randomcodeorg.simplepdf.ChapterElement;
+import com.github.randomcodeorg.simplepdf.DocumentElement;
+import com.github.randomcodeorg.simplepdf.SimplePDFDocument;
+import com.github.randomcodeorg.simplepdf.TableOfContents;
+import com.github.randomcodeorg.simplepdf.TextBlock;
+
+public class ChapterNumberingTest {
+
+	@Test
+	public void testResetsChapterNumbering() {
+		SimplePDFDocument doc = new SimplePDFDocument("Test", "Unit-Test");
+		ChapterElement first = addChapter(doc, 0);
+		ChapterElement firstSub = addChapter(doc, 1);
+		ChapterElement second = addChapter(doc, 0);
+		doc.addElement(new TableOfContents("/", "/").setResetsChapterNumbering(false));
+		ChapterElement third = addChapter(doc, 0);
+		doc.addElement(new TableOfContents("/", "/").setResetsChapterNumbering(true));
+		ChapterElement deep = addChapter(doc, 2);
+		ChapterElement afterReset = addChapter(doc, 0);
+		ChapterNumbering numbering = new ChapterNumbering(doc);
+		assertEquals("1", numbering.getNumberString(first));
+		assertEquals("1.1", numbering.getNumberString(firstSub));
+		assertEquals("2", numbering.getNumberString(second));
+		assertEquals("3", numbering.getNumberString(third));
+		assertEquals("1.1.1", numbering.getNumberString(deep));
+		assertEquals("2", numbering.getNumberString(afterReset));
+		assertEquals("", numbering.getNumberString(new ChapterElement("/", "/", "Missing")));
+	}
+
+	@Test
+	public void testDuplicateElement() {
+		SimplePDFDocument doc = new SimplePDFDocument("Test", "Unit-Test");
+		addChapter(doc, 0);
+		ChapterElement chapter = addChapter(doc, 1);
+		addChapter(doc, 0);
+		doc.addElement(chapter);
+		assertEquals("1.1", new ChapterNumbering(doc).getNumberString(chapter));
+	}
+
+	/**
+	 * Compares the numbering of randomly structured documents with the one computed by scanning the document up to each chapter
+	 * element, which is how the numbering was computed before it was cached.
+	 */
+	@Test
+	public void testRandomDocuments() {
+		Random random = new Random(5);
+		for (int i = 0; i < 20; i++) {
+			SimplePDFDocument doc = new SimplePDFDocument("Test", "Unit-Test");
+			List<ChapterElement> chapters = new ArrayList<ChapterElement>();
+			for (int j = 0; j < 60; j++) {
+				int kind = random.nextInt(10);
+				if (kind == 0)
+					doc.addElement(new TableOfContents("/", "/").setResetsChapterNumbering(random.nextBoolean()));
+				else if (kind < 3)
+					doc.addElement(new TextBlock("/", "/", "Text"));
+				else
+					chapters.add(addChapter(doc, random.nextInt(4)));
+			}
+			ChapterNumbering numbering = new ChapterNumbering(doc);
+			for (ChapterElement chapter : chapters)
+				assertEquals(getNumberString(doc, chapter), numbering.getNumberString(chapter));
+		}
+	}
+
+	private ChapterElement addChapter(SimplePDFDocument doc, int level) {
+		ChapterElement result = new ChapterElement("/", "/", "Chapter");
+		result.setLevel(level);
+		doc.addElement(result);
+		return result;
+	}
+
+	private static String getNumberString(SimplePDFDocument doc, ChapterElement element) {
+		List<Integer> levels = new ArrayList<Integer>();
+		DocumentElement current;
+		ChapterElement cc;
+		for (int i = 0; i <= doc.getElements().indexOf(element); i++) {
+			current = doc.getElements().get(i);
+			if (current instanceof TableOfContents && ((TableOfContents) current).getResetsChapterNumbering())
+				levels.clear();
+			if (current instanceof ChapterElement) {
+				cc = (ChapterElement) current;
+				for (int j = levels.size(); j < cc.getLevel() + 1; j++)
+					levels.add(0);
+				for (int j = 0; j < cc.getLevel(); j++) {
+					if (levels.get(j) == 0)
+						levels.set(j, 1);
+				}
+				levels.set(cc.getLevel(), levels.get(cc.getLevel()) + 1);
+				for (int j = cc.getLevel() + 1; j < levels.size(); j++)
+					levels.set(j, 0);
+			}
+		}
+		for (int i = levels.size() - 1; i > 0; i--) {
+			if (levels.get(i) != 0)
+				break;
+			levels.remove(i);
+		}
+		StringBuilder sb = new StringBuilder();
+		for (int i = 0; i < levels.size(); i++) {
+			if (i > 0)
+				sb.append(".");
+			sb.append(levels.get(i));
+		}
+		return sb.toString();
+	}
+
+}
@@ -0,0 +1,99 @@
+package com.github.randomcodeorg.simplepdf.creation;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.Test;
+
+import com.github.randomcodeorg.simplepdf.DIN5008ADocument;
+import com.github.randomcodeorg.simplepdf.DocumentElement;
+import com.github.randomcodeorg.simplepdf.DocumentTestBase;
+import com.github.randomcodeorg.simplepdf.Line;
+import com.github.randomcodeorg.simplepdf.Position;
+import com.github.randomcodeorg.simplepdf.SimplePDFDocument;
+import com.github.randomcodeorg.simplepdf.TextBlock;
+
+public class DocumentCreatorTest extends DocumentTestBase {
+
+	@Test
+	public void testPartitionKeepsOrder() {
+		setSeed(12);
+		DIN5008ADocument doc = createDocument(3);
+		addInterleaved(doc, 4);
+		// Elements of an area that is not defined are partitioned as well
+		doc.addElement(new Line("undefined_area", new Position(0, 0), new Position(1, 1)));
+		doc.addTextElement(new TextBlock("/", "/", createSentence()));
+
+		Map<String, List<DocumentElement>> partitions = DocumentCreator.partitionElements(doc);
+		Set<String> areaIDs = new LinkedHashSet<String>();
+		for (DocumentElement de : doc.getElements()) {
+			areaIDs.add(de.getAreaID());
+		}
+		assertEquals(areaIDs, partitions.keySet());
+		int count = 0;
+		for (String areaID : areaIDs) {
+			List<DocumentElement> expected = selectElements(doc, areaID);
+			assertEquals(areaID, expected, partitions.get(areaID));
+			count += expected.size();
+		}
+		assertEquals(doc.getElements().size(), count);
+	}
+
+	@Test
+	public void testInterleavedAreasAreRenderedInOrder() throws RenderingException, IOException {
+		DIN5008ADocument doc = new DIN5008ADocument("Test", "Unit-Test");
+		addInterleaved(doc, 2);
+		ByteArrayOutputStream bos = new ByteArrayOutputStream();
+		new PDDocumentCreator().create(doc, bos);
+		List<String> pages = extractPageTexts(bos.toByteArray());
+		assertEquals(1, pages.size());
+		String text = pages.get(0);
+		for (String prefix : new String[] { "Address", "Info", "Text" }) {
+			int last = -1;
+			for (int i = 1; i <= 2; i++) {
+				int index = text.indexOf(prefix + " " + i);
+				assertTrue(prefix + " " + i, index > last);
+				last = index;
+			}
+		}
+	}
+
+	/**
+	 * Adds the given amount of text blocks to the address, info and text area of the given document. The elements of the areas
+	 * alternate within the element list of the document.
+	 * @param doc The document to extend.
+	 * @param count The amount of text blocks to add to each area.
+	 */
+	private static void addInterleaved(DIN5008ADocument doc, int count) {
+		for (int i = 1; i <= count; i++) {
+			doc.addAddressElement(new TextBlock("/", "/", "Address " + i));
+			doc.addTextElement(new TextBlock("/", "/", "Text " + i));
+			doc.addInfoElement(new TextBlock("/", "/", "Info " + i));
+		}
+	}
+
+	/**
+	 * Selects the elements of the given area by filtering all elements of the document, which is how each area selected its elements
+	 * before the elements were partitioned.
+	 * @param doc The document.
+	 * @param areaID The identifier of the area.
+	 * @return The elements of the given area.
+	 */
+	private static List<DocumentElement> selectElements(SimplePDFDocument doc, String areaID) {
+		List<DocumentElement> result = new ArrayList<DocumentElement>();
+		for (DocumentElement de : doc.getElements()) {
+			if (areaID.equals(de.getAreaID()))
+				result.add(de);
+		}
+		return result;
+	}
+
+}
@@ -0,0 +1,72 @@
+package com.github.randomcodeorg.simplepdf.creation;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.github.randomcodeorg.simplepdf.DIN5008ADocument;
+import com.github.randomcodeorg.simplepdf.DocumentElement;
+import com.github.randomcodeorg.simplepdf.DocumentImage;
+import com.github.randomcodeorg.simplepdf.PageNumber;
+import com.github.randomcodeorg.simplepdf.SimplePDFDocument;
+import com.github.randomcodeorg.simplepdf.TextBlock;
+
+public class ElementRenderMappingTest {
+
+	@Test
+	public void testImageWithoutDataIsSkipped() {
+		SimplePDFDocument doc = new SimplePDFDocument("Test", "Unit-Test");
+		assertNull(ElementRenderMapping.getDefault().getRenderer(doc, new DocumentImage("/", "unknown")));
+	}
+
+	@Test
+	public void testDocumentWithoutImageDataIsCreated() throws Exception {
+		DIN5008ADocument doc = new DIN5008ADocument("Test", "Unit-Test");
+		doc.addTextElement(new TextBlock("/", "/", "Before"));
+		doc.addTextElement(new DocumentImage("/", "unknown"));
+		doc.addTextElement(new TextBlock("/", "/", "After"));
+		ByteArrayOutputStream bos = new ByteArrayOutputStream();
+		new PDDocumentCreator().create(doc, bos);
+		assertTrue(bos.size() > 0);
+	}
+
+	@Test
+	public void testFailingConstructorIsSkipped() {
+		SimplePDFDocument doc = new SimplePDFDocument("Test", "Unit-Test");
+		ElementRenderMapping mapping = new ElementRenderMapping();
+		mapping.register(TextBlock.class, FailingElement.class);
+		assertNull(mapping.getRenderer(doc, new TextBlock("/", "/", "Text")));
+	}
+
+	@Test
+	public void testPreSplitPageNumber() {
+		SimplePDFDocument doc = new SimplePDFDocument("Test", "Unit-Test");
+		Collection<RenderElement<? extends DocumentElement>> lines = ElementRenderMapping.getDefault().getRenderer(doc,
+				new PageNumber("/", "/", "Page " + PageNumber.CURRENT_PAGE_PLACEHOLDER + "\nof " + PageNumber.PAGE_COUNT_PLACEHOLDER));
+		assertEquals(2, lines.size());
+		List<Boolean> requiresCompleteLayout = new ArrayList<Boolean>();
+		for (RenderElement<? extends DocumentElement> line : lines) {
+			assertEquals(RenderPageNumber.class, line.getClass());
+			requiresCompleteLayout.add(line.requiresCompleteLayout());
+		}
+		assertEquals(Arrays.asList(false, true), requiresCompleteLayout);
+	}
+
+	public static class FailingElement extends TextLine {
+
+		public FailingElement(SimplePDFDocument document, DocumentElement docElement) {
+			super(document, docElement);
+			throw new IllegalStateException("The element can not be rendered.");
+		}
+
+	}
+
+}
@@ -0,0 +1,208 @@
+package com.github.randomcodeorg.simplepdf.creation;
+
+import static com.github.randomcodeorg.simplepdf.creation.ImageEmbeddingTest.readFully;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+import org.apache.pdfbox.cos.COSDictionary;
+import org.apache.pdfbox.cos.COSName;
+import org.apache.pdfbox.cos.COSStream;
+import org.apache.pdfbox.exceptions.COSVisitorException;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.edit.PDPageContentStream;
+import org.apache.pdfbox.pdmodel.font.PDTrueTypeFont;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class FontProgramCacheTest {
+
+	private static final File FONT_DIRECTORY = new File("/usr/share/fonts/truetype/dejavu");
+	private static final File SANS = new File(FONT_DIRECTORY, "DejaVuSans.ttf");
+	private static final File SANS_BOLD = new File(FONT_DIRECTORY, "DejaVuSans-Bold.ttf");
+	private static final File SERIF = new File(FONT_DIRECTORY, "DejaVuSerif.ttf");
+
+	private File temporary;
+
+	@Before
+	public void checkFonts() {
+		assumeTrue(SANS.isFile() && SANS_BOLD.isFile() && SERIF.isFile());
+	}
+
+	@After
+	public void deleteTemporaryFile() {
+		if (temporary != null)
+			temporary.delete();
+	}
+
+	@Test
+	public void testEmbedEqualsLoadTTF() throws IOException, COSVisitorException {
+		FontProgramCache cache = new FontProgramCache(FontProgramCache.DEFAULT_CAPACITY);
+		String expected = createPDF(null, SANS);
+		// The first document parses the font, the second one embeds the cached font
+		assertEquals(expected, createPDF(cache, SANS));
+		assertEquals(expected, createPDF(cache, SANS));
+	}
+
+	@Test
+	public void testEmbeddedFontFile() throws IOException {
+		FontProgramCache cache = new FontProgramCache(FontProgramCache.DEFAULT_CAPACITY);
+		PDDocument first = new PDDocument();
+		PDDocument second = new PDDocument();
+		try {
+			PDTrueTypeFont a = cache.load(first, SANS);
+			PDTrueTypeFont b = cache.load(second, SANS);
+			COSStream fontFile = getFontFile(a);
+			// Every document receives its own font file and dictionaries
+			assertNotSame(fontFile, getFontFile(b));
+			assertNotSame(a.getCOSObject(), b.getCOSObject());
+			assertArrayEquals(readFully(new FileInputStream(SANS)), readFully(fontFile.getUnfilteredStream()));
+		} finally {
+			first.close();
+			second.close();
+		}
+	}
+
+	@Test
+	public void testLeastRecentlyUsedEviction() throws IOException {
+		FontProgramCache cache = new FontProgramCache(FontProgramCache.DEFAULT_CAPACITY);
+		long sans = load(cache, SANS);
+		long bold = load(cache, SANS_BOLD) - sans;
+		long serif = load(cache, SERIF) - sans - bold;
+		assertTrue(sans != bold && sans != serif && bold != serif);
+
+		cache = new FontProgramCache(sans + bold + serif - 1);
+		load(cache, SANS);
+		load(cache, SANS_BOLD);
+		load(cache, SANS);
+		// The bold font is the least recently used one
+		assertEquals(sans + serif, load(cache, SERIF));
+		assertEquals(sans + serif, load(cache, SANS));
+		// The serif font is the least recently used one
+		assertEquals(sans + bold, load(cache, SANS_BOLD));
+
+		cache.setCapacity(Math.max(sans, bold));
+		assertEquals(bold, cache.getSize());
+		assertTrue(serif < Math.min(sans, bold));
+		cache.setCapacity(serif - 1);
+		assertEquals(0, cache.getSize());
+		// Fonts that exceed the capacity are not cached
+		assertEquals(0, load(cache, SERIF));
+	}
+
+	@Test
+	public void testReloadOnModification() throws IOException {
+		FontProgramCache cache = new FontProgramCache(FontProgramCache.DEFAULT_CAPACITY);
+		temporary = File.createTempFile("simplepdf", ".ttf");
+		copy(SANS, temporary, 0);
+		assertTrue(temporary.setLastModified(1000000000000L));
+		assertEquals(getBaseFont(cache, SANS), getBaseFont(cache, temporary));
+
+		// The bold font has a different length
+		copy(SANS_BOLD, temporary, 0);
+		assertTrue(temporary.setLastModified(1000000000000L));
+		assertEquals(getBaseFont(cache, SANS_BOLD), getBaseFont(cache, temporary));
+
+		// The serif font is padded to the length of the bold font, so only the modification time differs
+		copy(SERIF, temporary, SANS_BOLD.length() - SERIF.length());
+		assertEquals(SANS_BOLD.length(), temporary.length());
+		assertTrue(temporary.setLastModified(1000000000000L));
+		assertEquals(getBaseFont(cache, SANS_BOLD), getBaseFont(cache, temporary));
+		assertTrue(temporary.setLastModified(1000000002000L));
+		assertEquals(getBaseFont(cache, SERIF), getBaseFont(cache, temporary));
+	}
+
+	/**
+	 * Creates a document that uses the given font and returns its content without the document identifier.
+	 * @param cache The cache to embed the font with or <code>null</code> if the font should be embedded using
+	 * {@link PDTrueTypeFont#loadTTF(PDDocument, File)}.
+	 * @param file The font file.
+	 * @return The content of the created document.
+	 * @throws IOException If the document could not be created.
+	 * @throws COSVisitorException If the document could not be written.
+	 */
+	private String createPDF(FontProgramCache cache, File file) throws IOException, COSVisitorException {
+		PDDocument doc = new PDDocument();
+		try {
+			PDTrueTypeFont font;
+			if (cache == null)
+				font = PDTrueTypeFont.loadTTF(doc, file);
+			else
+				font = cache.load(doc, file);
+			PDPage page = new PDPage();
+			doc.addPage(page);
+			PDPageContentStream content = new PDPageContentStream(doc, page);
+			content.beginText();
+			content.setFont(font, 12);
+			content.moveTextPositionByAmount(100, 700);
+			content.drawString("Font program cache");
+			content.endText();
+			content.close();
+			ByteArrayOutputStream out = new ByteArrayOutputStream();
+			doc.save(out);
+			return out.toString("ISO-8859-1").replaceAll("/ID \\[<[0-9A-F]+> <[0-9A-F]+>\\]", "");
+		} finally {
+			doc.close();
+		}
+	}
+
+	/**
+	 * Embeds the given font into a new document.
+	 * @param cache The cache to embed the font with.
+	 * @param file The font file.
+	 * @return The size of the cache afterwards.
+	 * @throws IOException If the font could not be embedded.
+	 */
+	private static long load(FontProgramCache cache, File file) throws IOException {
+		PDDocument doc = new PDDocument();
+		try {
+			cache.load(doc, file);
+		} finally {
+			doc.close();
+		}
+		return cache.getSize();
+	}
+
+	private static String getBaseFont(FontProgramCache cache, File file) throws IOException {
+		PDDocument doc = new PDDocument();
+		try {
+			return cache.load(doc, file).getBaseFont();
+		} finally {
+			doc.close();
+		}
+	}
+
+	private static COSStream getFontFile(PDTrueTypeFont font) {
+		COSDictionary descriptor = (COSDictionary) ((COSDictionary) font.getCOSObject()).getDictionaryObject(COSName.FONT_DESC);
+		return (COSStream) descriptor.getDictionaryObject(COSName.FONT_FILE2);
+	}
+
+	/**
+	 * Copies the given file and appends zeros.
+	 * @param source The file to copy.
+	 * @param target The file to write.
+	 * @param padding The amount of zeros to append.
+	 * @throws IOException If the file could not be copied.
+	 */
+	private static void copy(File source, File target, long padding) throws IOException {
+		byte[] content = readFully(new FileInputStream(source));
+		FileOutputStream out = new FileOutputStream(target);
+		try {
+			out.write(content);
+			out.write(new byte[(int) padding]);
+		} finally {
+			out.close();
+		}
+	}
+
+}
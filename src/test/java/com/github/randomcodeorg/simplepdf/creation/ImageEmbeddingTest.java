@@ -0,0 +1,285 @@
+package com.github.randomcodeorg.simplepdf.creation;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+
+import org.apache.pdfbox.cos.COSBase;
+import org.apache.pdfbox.cos.COSName;
+import org.apache.pdfbox.cos.COSStream;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.graphics.xobject.PDXObjectImage;
+import org.junit.After;
+import org.junit.Test;
+
+import com.github.randomcodeorg.simplepdf.DIN5008ADocument;
+import com.github.randomcodeorg.simplepdf.DocumentData;
+import com.github.randomcodeorg.simplepdf.DocumentImage;
+import com.github.randomcodeorg.simplepdf.Position;
+import com.github.randomcodeorg.simplepdf.SimplePDFDocument;
+import com.github.randomcodeorg.simplepdf.Size;
+import com.github.randomcodeorg.simplepdf.StyleDefinition;
+import com.github.randomcodeorg.simplepdf.TextBlock;
+
+public class ImageEmbeddingTest {
+
+	private final List<PDDocument> documents = new ArrayList<PDDocument>();
+
+	@After
+	public void closeDocuments() throws IOException {
+		for (PDDocument doc : documents)
+			doc.close();
+	}
+
+	@Test
+	public void testReadHeader() throws IOException {
+		EncodedImage jpeg = EncodedImage.read(write(createImage(40, 30, BufferedImage.TYPE_INT_RGB), "jpg"));
+		assertEquals(EncodedImage.JPEG, jpeg.getFormat());
+		assertEquals(40, jpeg.getWidth());
+		assertEquals(30, jpeg.getHeight());
+		assertEquals(3, jpeg.getComponents());
+		assertTrue(jpeg.isEmbeddable());
+
+		EncodedImage grayJpeg = EncodedImage.read(write(createImage(40, 30, BufferedImage.TYPE_BYTE_GRAY), "jpg"));
+		assertEquals(1, grayJpeg.getComponents());
+		assertTrue(grayJpeg.isEmbeddable());
+
+		EncodedImage png = EncodedImage.read(write(createImage(40, 30, BufferedImage.TYPE_INT_RGB), "png"));
+		assertEquals(EncodedImage.PNG, png.getFormat());
+		assertEquals(40, png.getWidth());
+		assertEquals(30, png.getHeight());
+		assertEquals(3, png.getComponents());
+		assertTrue(png.isEmbeddable());
+
+		EncodedImage gif = EncodedImage.read(write(createImage(40, 30, BufferedImage.TYPE_INT_RGB), "gif"));
+		assertEquals(EncodedImage.UNKNOWN, gif.getFormat());
+		assertEquals(40, gif.getWidth());
+		assertEquals(30, gif.getHeight());
+		assertFalse(gif.isEmbeddable());
+
+		EncodedImage invalid = EncodedImage.read(new byte[] { 1, 2, 3, 4, 5, 6, 7, 8 });
+		assertEquals(-1, invalid.getWidth());
+		assertEquals(-1, invalid.getHeight());
+		assertFalse(invalid.isEmbeddable());
+	}
+
+	@Test
+	public void testImagesThatRequireDecoding() throws IOException {
+		assertFalse(EncodedImage.read(write(createImage(40, 30, BufferedImage.TYPE_INT_ARGB), "png")).isEmbeddable());
+		assertFalse(EncodedImage.read(write(createImage(40, 30, BufferedImage.TYPE_BYTE_INDEXED), "png")).isEmbeddable());
+		assertFalse(EncodedImage.read(write(createImage(40, 30, BufferedImage.TYPE_USHORT_GRAY), "png")).isEmbeddable());
+		assertFalse(EncodedImage.read(writeInterlacedPNG(createImage(40, 30, BufferedImage.TYPE_INT_RGB))).isEmbeddable());
+	}
+
+	@Test
+	public void testJPEGPassthrough() throws IOException {
+		byte[] jpeg = write(createImage(40, 30, BufferedImage.TYPE_INT_RGB), "jpg");
+		DefaultRenderMetrics metrics = new DefaultRenderMetrics();
+		List<PDXObjectImage> images = createPDF(jpeg, metrics);
+		assertEquals(1, images.size());
+		COSStream stream = (COSStream) images.get(0).getCOSObject();
+		assertEquals(COSName.DCT_DECODE, stream.getFilters());
+		assertArrayEquals(jpeg, readFully(stream.getFilteredStream()));
+		assertEquals(0, metrics.getCount(RenderCounter.IMAGE_ENCODES));
+	}
+
+	@Test
+	public void testPNGPassthrough() throws IOException {
+		BufferedImage image = createImage(40, 30, BufferedImage.TYPE_INT_RGB);
+		DefaultRenderMetrics metrics = new DefaultRenderMetrics();
+		List<PDXObjectImage> images = createPDF(write(image, "png"), metrics);
+		assertEquals(1, images.size());
+		COSStream stream = (COSStream) images.get(0).getCOSObject();
+		assertEquals(COSName.FLATE_DECODE, stream.getFilters());
+		assertNotNull(stream.getDictionaryObject(COSName.DECODE_PARMS));
+		assertEquals(0, metrics.getCount(RenderCounter.IMAGE_ENCODES));
+		assertPixelsEqual(image, images.get(0).getRGBImage());
+	}
+
+	@Test
+	public void testDecodingFallback() throws IOException {
+		// PNG images with transparency can not be embedded as they are, so they are decoded and encoded again
+		BufferedImage image = createImage(40, 30, BufferedImage.TYPE_INT_ARGB);
+		DefaultRenderMetrics metrics = new DefaultRenderMetrics();
+		List<PDXObjectImage> images = createPDF(write(image, "png"), metrics);
+		assertEquals(1, images.size());
+		assertEquals(1, metrics.getCount(RenderCounter.IMAGE_ENCODES));
+		assertPixelsEqual(image, images.get(0).getRGBImage());
+	}
+
+	@Test
+	public void testUndecodableImageIsSkipped() throws IOException {
+		DefaultRenderMetrics metrics = new DefaultRenderMetrics();
+		assertEquals(0, createPDF(new byte[] { 1, 2, 3, 4, 5, 6, 7, 8 }, metrics).size());
+	}
+
+	@Test
+	public void testRepeatedImageIsEmbeddedOnce() throws IOException {
+		// The image is drawn on several pages, also using a copy of its data
+		byte[] png = write(createImage(40, 30, BufferedImage.TYPE_INT_RGB), "png");
+		StringBuilder lines = new StringBuilder();
+		for (int i = 0; i < 100; i++)
+			lines.append("Line ").append(i).append('\n');
+		DIN5008ADocument doc = new DIN5008ADocument("Test", "Unit-Test");
+		doc.addData(new DocumentData("image", png));
+		doc.addData(new DocumentData("copy", png.clone()));
+		doc.addTextElement(new DocumentImage("/", "image"));
+		doc.addTextElement(new DocumentImage("/", "image"));
+		doc.addTextElement(new TextBlock("/", "/", lines.toString()));
+		doc.addTextElement(new DocumentImage("/", "image"));
+		doc.addTextElement(new DocumentImage("/", "copy"));
+		ByteArrayOutputStream bos = new ByteArrayOutputStream();
+		new PDDocumentCreator().create(doc, bos);
+		assertEquals(1, count(bos.toString("ISO-8859-1"), "/Subtype /Image"));
+
+		PDDocument pdf = load(bos.toByteArray());
+		List<?> pages = pdf.getDocumentCatalog().getAllPages();
+		assertTrue(pages.size() > 1);
+		Map<COSBase, Boolean> streams = new IdentityHashMap<COSBase, Boolean>();
+		for (Object page : pages) {
+			for (PDXObjectImage image : ((PDPage) page).getResources().getImages().values())
+				streams.put(image.getCOSObject(), Boolean.TRUE);
+		}
+		assertEquals(1, streams.size());
+	}
+
+	@Test
+	public void testGraphicsWithoutImageData() throws IOException {
+		// Graphics that do not implement ImageDataDocumentGraphics receive the decoded image
+		BufferedImage image = createImage(40, 30, BufferedImage.TYPE_INT_RGB);
+		SimplePDFDocument doc = new SimplePDFDocument("Test", "Unit-Test");
+		doc.addData(new DocumentData("image", write(image, "png")));
+		RenderImage element = new RenderImage(doc, new DocumentImage("/", "image"));
+		RecordingGraphics g = new RecordingGraphics();
+		element.render(new RenderingInformationImpl(new Position(0, 0), new Size(8, 6), doc, g, null, 1, null, null, null,
+				new Size(100, 100)));
+		assertPixelsEqual(image, g.drawn);
+	}
+
+	/**
+	 * Creates a PDF document containing the given image and returns the images embedded into its pages.
+	 * @param data The encoded image.
+	 * @param metrics The metrics of the document creation.
+	 * @return The embedded images.
+	 * @throws IOException If the created document could not be read.
+	 */
+	private List<PDXObjectImage> createPDF(byte[] data, RenderMetrics metrics) throws IOException {
+		DIN5008ADocument doc = new DIN5008ADocument("Test", "Unit-Test");
+		doc.addData(new DocumentData("image", data));
+		doc.addTextElement(new DocumentImage("/", "image"));
+		ByteArrayOutputStream bos = new ByteArrayOutputStream();
+		new PDDocumentCreator().create(doc, bos, metrics);
+		PDDocument pdf = load(bos.toByteArray());
+		List<PDXObjectImage> result = new ArrayList<PDXObjectImage>();
+		for (Object page : pdf.getDocumentCatalog().getAllPages()) {
+			result.addAll(((PDPage) page).getResources().getImages().values());
+		}
+		return result;
+	}
+
+	private PDDocument load(byte[] data) throws IOException {
+		PDDocument result = PDDocument.load(new ByteArrayInputStream(data));
+		documents.add(result);
+		return result;
+	}
+
+	private static int count(String text, String part) {
+		int result = 0;
+		for (int i = text.indexOf(part); i != -1; i = text.indexOf(part, i + part.length()))
+			result++;
+		return result;
+	}
+
+	static BufferedImage createImage(int width, int height, int type) {
+		BufferedImage result = new BufferedImage(width, height, type);
+		for (int x = 0; x < width; x++) {
+			for (int y = 0; y < height; y++) {
+				result.setRGB(x, y, 0xFF000000 | (x * 255 / width) << 16 | (y * 255 / height) << 8 | ((x + y) % 2) * 255);
+			}
+		}
+		return result;
+	}
+
+	static byte[] write(BufferedImage image, String format) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		assertTrue(ImageIO.write(image, format, out));
+		return out.toByteArray();
+	}
+
+	private static byte[] writeInterlacedPNG(BufferedImage image) throws IOException {
+		ImageWriter writer = ImageIO.getImageWritersByFormatName("png").next();
+		ImageWriteParam param = writer.getDefaultWriteParam();
+		param.setProgressiveMode(ImageWriteParam.MODE_DEFAULT);
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		ImageOutputStream ios = ImageIO.createImageOutputStream(out);
+		try {
+			writer.setOutput(ios);
+			writer.write(null, new IIOImage(image, null, null), param);
+		} finally {
+			ios.close();
+			writer.dispose();
+		}
+		return out.toByteArray();
+	}
+
+	static void assertPixelsEqual(BufferedImage expected, BufferedImage actual) {
+		assertEquals(expected.getWidth(), actual.getWidth());
+		assertEquals(expected.getHeight(), actual.getHeight());
+		for (int x = 0; x < expected.getWidth(); x++) {
+			for (int y = 0; y < expected.getHeight(); y++) {
+				assertEquals(expected.getRGB(x, y) & 0xFFFFFF, actual.getRGB(x, y) & 0xFFFFFF);
+			}
+		}
+	}
+
+	/**
+	 * Document graphics that record the drawn image instead of drawing it.
+	 */
+	private static class RecordingGraphics extends ImageDocumentGraphics {
+
+		private BufferedImage drawn;
+
+		public RecordingGraphics() {
+			super(1, new BufferedImage(1, 1, BufferedImage.TYPE_INT_RGB).createGraphics());
+		}
+
+		@Override
+		public void drawImage(Position p, Size s, BufferedImage image, StyleDefinition sd) {
+			drawn = image;
+		}
+
+	}
+
+	static byte[] readFully(InputStream in) throws IOException {
+		try {
+			ByteArrayOutputStream out = new ByteArrayOutputStream();
+			byte[] buffer = new byte[8192];
+			int read;
+			while ((read = in.read(buffer)) != -1)
+				out.write(buffer, 0, read);
+			return out.toByteArray();
+		} finally {
+			in.close();
+		}
+	}
+
+}
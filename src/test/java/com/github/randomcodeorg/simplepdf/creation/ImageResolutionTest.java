@@ -0,0 +1,136 @@
+package com.github.randomcodeorg.simplepdf.creation;
+
+import static com.github.randomcodeorg.simplepdf.creation.ImageEmbeddingTest.createImage;
+import static com.github.randomcodeorg.simplepdf.creation.ImageEmbeddingTest.write;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.pdfbox.cos.COSBase;
+import org.apache.pdfbox.cos.COSName;
+import org.apache.pdfbox.cos.COSStream;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.graphics.xobject.PDXObjectImage;
+import org.junit.After;
+import org.junit.Test;
+
+import com.github.randomcodeorg.simplepdf.DIN5008ADocument;
+import com.github.randomcodeorg.simplepdf.DocumentData;
+import com.github.randomcodeorg.simplepdf.DocumentImage;
+
+public class ImageResolutionTest {
+
+	/**
+	 * The images are 600 x 300 pixels and drawn 120 mm x 60 mm wide, which is about 341 x 171 pixels at 72 dpi.
+	 */
+	private static final int WIDTH = 600;
+	private static final int HEIGHT = 300;
+	private static final int DOWNSAMPLED_WIDTH = 341;
+	private static final int DOWNSAMPLED_HEIGHT = 171;
+
+	private final List<PDDocument> documents = new ArrayList<PDDocument>();
+
+	@After
+	public void closeDocuments() throws IOException {
+		for (PDDocument doc : documents)
+			doc.close();
+	}
+
+	@Test
+	public void testDownsampleJPEG() throws IOException {
+		DefaultRenderMetrics metrics = new DefaultRenderMetrics();
+		PDXObjectImage image = createPDF(write(createImage(WIDTH, HEIGHT, BufferedImage.TYPE_INT_RGB), "jpg"), 72, 1, metrics);
+		assertEquals(DOWNSAMPLED_WIDTH, image.getWidth());
+		assertEquals(DOWNSAMPLED_HEIGHT, image.getHeight());
+		// Downsampled JPEG images are encoded as JPEG images again
+		assertEquals(COSName.DCT_DECODE, ((COSStream) image.getCOSObject()).getFilters());
+		assertEquals(1, metrics.getCount(RenderCounter.IMAGE_ENCODES));
+	}
+
+	@Test
+	public void testDownsamplePNG() throws IOException {
+		DefaultRenderMetrics metrics = new DefaultRenderMetrics();
+		PDXObjectImage image = createPDF(write(createImage(WIDTH, HEIGHT, BufferedImage.TYPE_INT_RGB), "png"), 72, 1, metrics);
+		assertEquals(DOWNSAMPLED_WIDTH, image.getWidth());
+		assertEquals(DOWNSAMPLED_HEIGHT, image.getHeight());
+		COSStream stream = (COSStream) image.getCOSObject();
+		assertEquals(COSName.FLATE_DECODE, stream.getFilters());
+		assertNotNull(stream.getDictionaryObject(COSName.DECODE_PARMS));
+		assertEquals(1, metrics.getCount(RenderCounter.IMAGE_ENCODES));
+	}
+
+	@Test
+	public void testDownsampleTransparentPNG() throws IOException {
+		DefaultRenderMetrics metrics = new DefaultRenderMetrics();
+		PDXObjectImage image = createPDF(write(createImage(WIDTH, HEIGHT, BufferedImage.TYPE_INT_ARGB), "png"), 72, 1, metrics);
+		assertEquals(DOWNSAMPLED_WIDTH, image.getWidth());
+		assertEquals(DOWNSAMPLED_HEIGHT, image.getHeight());
+		assertEquals(1, metrics.getCount(RenderCounter.IMAGE_ENCODES));
+	}
+
+	@Test
+	public void testImagesBelowResolution() throws IOException {
+		byte[] jpeg = write(createImage(WIDTH, HEIGHT, BufferedImage.TYPE_INT_RGB), "jpg");
+		DefaultRenderMetrics metrics = new DefaultRenderMetrics();
+		// 600 pixels on 120 mm are about 127 dpi
+		PDXObjectImage image = createPDF(jpeg, 150, 1, metrics);
+		assertEquals(WIDTH, image.getWidth());
+		assertEquals(HEIGHT, image.getHeight());
+		assertEquals(0, metrics.getCount(RenderCounter.IMAGE_ENCODES));
+		image = createPDF(jpeg, 0, 1, metrics);
+		assertEquals(WIDTH, image.getWidth());
+		assertEquals(0, metrics.getCount(RenderCounter.IMAGE_ENCODES));
+	}
+
+	@Test
+	public void testDownsampledOnce() throws IOException {
+		DefaultRenderMetrics metrics = new DefaultRenderMetrics();
+		createPDF(write(createImage(WIDTH, HEIGHT, BufferedImage.TYPE_INT_RGB), "jpg"), 72, 2, metrics);
+		assertEquals(1, metrics.getCount(RenderCounter.IMAGE_ENCODES));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testNegativeResolution() {
+		new PDDocumentCreator().setMaxImageResolution(-1);
+	}
+
+	/**
+	 * Creates a PDF document that draws the given image at the given resolution and returns the only embedded image.
+	 * @param data The encoded image.
+	 * @param maxImageResolution The maximum image resolution.
+	 * @param count How often the image is drawn.
+	 * @param metrics The metrics of the document creation.
+	 * @return The embedded image.
+	 * @throws IOException If the created document could not be read.
+	 */
+	private PDXObjectImage createPDF(byte[] data, float maxImageResolution, int count, RenderMetrics metrics) throws IOException {
+		DIN5008ADocument doc = new DIN5008ADocument("Test", "Unit-Test");
+		doc.addData(new DocumentData("image", data));
+		for (int i = 0; i < count; i++)
+			doc.addTextElement(new DocumentImage("/", "image"));
+		PDDocumentCreator creator = new PDDocumentCreator();
+		creator.setMaxImageResolution(maxImageResolution);
+		assertEquals(maxImageResolution, creator.getMaxImageResolution(), 0);
+		ByteArrayOutputStream bos = new ByteArrayOutputStream();
+		creator.create(doc, bos, metrics);
+		PDDocument pdf = PDDocument.load(new ByteArrayInputStream(bos.toByteArray()));
+		documents.add(pdf);
+		Map<COSBase, PDXObjectImage> images = new IdentityHashMap<COSBase, PDXObjectImage>();
+		for (Object page : pdf.getDocumentCatalog().getAllPages()) {
+			for (PDXObjectImage image : ((PDPage) page).getResources().getImages().values())
+				images.put(image.getCOSObject(), image);
+		}
+		assertEquals(1, images.size());
+		return images.values().iterator().next();
+	}
+
+}
@@ -0,0 +1,129 @@
+package com.github.randomcodeorg.simplepdf.creation;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.github.randomcodeorg.simplepdf.AreaDefinition;
+import com.github.randomcodeorg.simplepdf.DocumentElement;
+import com.github.randomcodeorg.simplepdf.Position;
+import com.github.randomcodeorg.simplepdf.SimplePDFDocument;
+import com.github.randomcodeorg.simplepdf.Size;
+import com.github.randomcodeorg.simplepdf.Spacing;
+import com.github.randomcodeorg.simplepdf.TextBlock;
+
+public class MeasurementCacheTest {
+
+	@Test
+	public void testMeasuredAgainAfterLayout() {
+		SimplePDFDocument doc = new SimplePDFDocument("Test", "Unit-Test");
+		doc.addAreaDefinition(new AreaDefinition("main", new Position(0, 0), new Size(100, 100)));
+		TextBlock block = new TextBlock("main", "/", "Repeating");
+		block.setIsRepeating(true);
+		doc.addElement(block);
+		final MeasuredElement element = new MeasuredElement(doc, block);
+		ElementRenderMapping mapping = new ElementRenderMapping();
+		mapping.register(TextBlock.class, new RendererFactory() {
+
+			@Override
+			public RenderElement<? extends DocumentElement> create(SimplePDFDocument doc, DocumentElement e) {
+				return element;
+			}
+		});
+		ImageDocumentGraphicsCreator creator = new ImageDocumentGraphicsCreator();
+		creator.startDocument(doc);
+		try {
+			MeasurementCache cache = new MeasurementCache();
+			DocumentArea area = new DocumentArea(mapping, doc.getAreaDefinition("main"), doc, doc.getElements(),
+					new HashMap<DocumentElement, RenderOrigin>());
+			assertEquals(10, layout(creator, doc, area, cache, 0).getHeight(), 0);
+			int measured = element.measured;
+
+			// The element changes its size during the next layout callback
+			element.nextHeight = 20;
+			assertEquals(20, layout(creator, doc, area.next(), cache, 1).getHeight(), 0);
+			assertEquals(measured + 1, element.measured);
+		} finally {
+			creator.releaseDocument(doc);
+		}
+	}
+
+	@Test
+	public void testGroupBoxDiscardsRegisteredElements() {
+		SimplePDFDocument doc = new SimplePDFDocument("Test", "Unit-Test");
+		MeasuredElement element = new MeasuredElement(doc, new TextBlock("/", "/", "Cell"));
+		ImageDocumentGraphicsCreator creator = new ImageDocumentGraphicsCreator();
+		creator.startDocument(doc);
+		try {
+			MeasurementCache cache = new MeasurementCache();
+			DocumentGraphics g = creator.nextPage(doc);
+			PreRenderInformation info = new PreRenderInformationImpl(doc, null, null, g, new ElementRenderMapping(),
+					new NullRenderMetrics(), cache);
+			GroupBox box = new GroupBox(100);
+			box.take(element, info);
+			assertEquals(1, element.measured);
+			cache.getRenderSize(element, info, new Size(100, Float.MAX_VALUE));
+			assertEquals(2, element.measured);
+		} finally {
+			creator.releaseDocument(doc);
+		}
+	}
+
+	private Size layout(ImageDocumentGraphicsCreator creator, SimplePDFDocument doc, DocumentArea area, MeasurementCache cache,
+			int pageIndex) {
+		DocumentGraphics g = creator.nextPage(doc);
+		AreaLayout al = new AreaLayout(g, area, pageIndex);
+		List<DocumentArea> areas = Arrays.asList(area);
+		area.layout(new PreRenderInformationImpl(doc, areas, al, g, new ElementRenderMapping(), new NullRenderMetrics(), cache));
+		Iterator<ElementRenderingInformation> iterator = al.iterator();
+		return iterator.next().getSize();
+	}
+
+	private static class MeasuredElement extends RenderElement<TextBlock> {
+
+		private int measured = 0;
+		private float height = 10;
+		private float nextHeight = 10;
+
+		public MeasuredElement(SimplePDFDocument document, TextBlock documentElement) {
+			super(document, documentElement);
+		}
+
+		@Override
+		public Size getRenderSize(PreRenderInformation info, Size parentSize) {
+			measured++;
+			return new Size(10, height);
+		}
+
+		@Override
+		public Spacing getRenderMargin(DocumentGraphics g) {
+			return new Spacing(0);
+		}
+
+		@Override
+		public void render(RenderingInformation info) {
+		}
+
+		@Override
+		protected boolean isLineBreak() {
+			return true;
+		}
+
+		@Override
+		protected List<RenderElement<? extends DocumentElement>> splitToFit(PreRenderInformation info, Size s) {
+			return null;
+		}
+
+		@Override
+		protected void onLayout(PreRenderInformation info) {
+			height = nextHeight;
+		}
+
+	}
+
+}
@@ -0,0 +1,70 @@
+package com.github.randomcodeorg.simplepdf.creation;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+
+import org.junit.Test;
+
+import com.github.randomcodeorg.simplepdf.DocumentElement;
+import com.github.randomcodeorg.simplepdf.Line;
+import com.github.randomcodeorg.simplepdf.PageNumber;
+import com.github.randomcodeorg.simplepdf.Position;
+import com.github.randomcodeorg.simplepdf.Rectangle;
+import com.github.randomcodeorg.simplepdf.SimplePDFDocument;
+import com.github.randomcodeorg.simplepdf.Size;
+import com.github.randomcodeorg.simplepdf.Spacing;
+import com.github.randomcodeorg.simplepdf.TextBlock;
+
+public class PageIndependenceTest {
+
+	private final SimplePDFDocument doc = new SimplePDFDocument("Test", "Unit-Test");
+
+	@Test
+	public void testStaticElements() {
+		assertTrue(new RenderLine(doc, new Line("/", new Position(0, 0), new Position(1, 1))).isPageIndependent());
+		assertTrue(new RenderRectangle(doc, new Rectangle("/", new Position(0, 0), new Size(1, 1), 1)).isPageIndependent());
+		assertTrue(new TextLine(doc, new TextBlock("/", "/", "Header")).isPageIndependent());
+	}
+
+	@Test
+	public void testPageDependentElements() {
+		assertFalse(new TextLine(doc, new TextBlock("/", "/", "Page " + PageNumber.CURRENT_PAGE_PLACEHOLDER)).isPageIndependent());
+		assertFalse(new TextLine(doc, new TextBlock("/", "/", "of " + PageNumber.PAGE_COUNT_PLACEHOLDER)).isPageIndependent());
+		assertFalse(new RenderPageNumber(doc, new PageNumber("/", "/", "Page")).isPageIndependent());
+	}
+
+	@Test
+	public void testCustomElementsAreNotShared() {
+		// Elements that do not declare to be static are drawn on every page
+		RenderElement<Line> element = new RenderElement<Line>(doc, new Line("/", new Position(0, 0), new Position(1, 1))) {
+
+			@Override
+			public Size getRenderSize(PreRenderInformation info, Size parentSize) {
+				return new Size(0, 0);
+			}
+
+			@Override
+			public Spacing getRenderMargin(DocumentGraphics g) {
+				return new Spacing(0);
+			}
+
+			@Override
+			public void render(RenderingInformation info) {
+			}
+
+			@Override
+			protected boolean isLineBreak() {
+				return false;
+			}
+
+			@Override
+			protected List<RenderElement<? extends DocumentElement>> splitToFit(PreRenderInformation info, Size s) {
+				return null;
+			}
+		};
+		assertFalse(element.isPageIndependent());
+	}
+
+}
@@ -0,0 +1,107 @@
+package com.github.randomcodeorg.simplepdf.creation;
+
+import static com.github.randomcodeorg.simplepdf.creation.ImageEmbeddingTest.createImage;
+import static com.github.randomcodeorg.simplepdf.creation.ImageEmbeddingTest.write;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+
+import org.junit.Test;
+
+import com.github.randomcodeorg.simplepdf.DataSource;
+import com.github.randomcodeorg.simplepdf.DocumentData;
+import com.github.randomcodeorg.simplepdf.DocumentImage;
+import com.github.randomcodeorg.simplepdf.SimplePDFDocument;
+import com.github.randomcodeorg.simplepdf.Size;
+
+public class RenderImageTest {
+
+	@Test
+	public void testSizeFromJPEGHeader() throws IOException {
+		byte[] jpeg = write(createImage(40, 30, BufferedImage.TYPE_INT_RGB), "jpg");
+		// The header ends with the start of frame segment, which contains the size
+		int index = 2;
+		while ((jpeg[index + 1] & 0xFF) != 0xC0)
+			index += 2 + ((jpeg[index + 2] & 0xFF) << 8 | jpeg[index + 3] & 0xFF);
+		assertSizeFromHeader(Arrays.copyOf(jpeg, index + 2 + ((jpeg[index + 2] & 0xFF) << 8 | jpeg[index + 3] & 0xFF)));
+	}
+
+	@Test
+	public void testSizeFromPNGHeader() throws IOException {
+		// The signature and the IHDR chunk
+		assertSizeFromHeader(Arrays.copyOf(write(createImage(40, 30, BufferedImage.TYPE_INT_RGB), "png"), 33));
+	}
+
+	@Test
+	public void testSizeFromImageReaderHeader() throws IOException {
+		// The file header and the info header of a bitmap without palette
+		assertSizeFromHeader(Arrays.copyOf(write(createImage(40, 30, BufferedImage.TYPE_INT_RGB), "bmp"), 54));
+	}
+
+	@Test
+	public void testCopyDoesNotReadData() throws IOException {
+		CountingSource source = new CountingSource(write(createImage(40, 30, BufferedImage.TYPE_INT_RGB), "png"));
+		SimplePDFDocument doc = new SimplePDFDocument("Test", "Unit-Test");
+		doc.addData(new DocumentData("image", source));
+		RenderImage image = new RenderImage(doc, new DocumentImage("/", "image"));
+		int opened = source.opened;
+		RenderElement<?> copy = image.copy();
+		assertEquals(opened, source.opened);
+		assertSize(copy);
+	}
+
+	/**
+	 * Creates a render element from the given image header, whose pixels are missing, and verifies its size. The size of the image is
+	 * 40x30 pixels.
+	 * @param header The header of the image.
+	 * @throws IOException If the size of the image could not be read.
+	 */
+	private static void assertSizeFromHeader(byte[] header) throws IOException {
+		try {
+			EncodedImage.read(header).decode();
+			fail("An image without pixels was decoded");
+		} catch (IOException e) {
+			// The pixels are missing
+		}
+		SimplePDFDocument doc = new SimplePDFDocument("Test", "Unit-Test");
+		doc.addData(new DocumentData("image", header));
+		assertSize(new RenderImage(doc, new DocumentImage("/", "image")));
+	}
+
+	/**
+	 * Verifies that the given image of 40x30 pixels is rendered using 8x6 mm.
+	 * @param image The image to verify.
+	 * @throws RenderingException If the size could not be computed.
+	 */
+	private static void assertSize(RenderElement<?> image) throws RenderingException {
+		Size size = image.getRenderSize(null, new Size(100, 100));
+		assertEquals(8, size.getWidth(), 0.001);
+		assertEquals(6, size.getHeight(), 0.001);
+	}
+
+	/**
+	 * A data source that counts how often it was opened.
+	 */
+	private static class CountingSource implements DataSource {
+
+		private final byte[] data;
+		private int opened = 0;
+
+		public CountingSource(byte[] data) {
+			this.data = data;
+		}
+
+		@Override
+		public InputStream openStream() throws IOException {
+			opened++;
+			return new ByteArrayInputStream(data);
+		}
+
+	}
+
+}
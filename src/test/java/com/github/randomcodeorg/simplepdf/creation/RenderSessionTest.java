@@ -0,0 +1,164 @@
+package com.github.randomcodeorg.simplepdf.creation;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.Test;
+
+import com.github.randomcodeorg.simplepdf.SimplePDFDocument;
+
+public class RenderSessionTest {
+
+	@Test
+	public void testContinueOnAnotherThreadPDF() throws Exception {
+		PDDocumentGraphicsCreator creator = new PDDocumentGraphicsCreator(FontManager.getDefaultFontManager());
+		SimplePDFDocument doc = new SimplePDFDocument("Test", "Unit-Test");
+		testContinueOnAnotherThread(creator, doc);
+		assertNull(creator.getDocument(doc));
+	}
+
+	@Test
+	public void testContinueOnAnotherThreadImage() throws Exception {
+		ImageDocumentGraphicsCreator creator = new ImageDocumentGraphicsCreator();
+		SimplePDFDocument doc = new SimplePDFDocument("Test", "Unit-Test");
+		testContinueOnAnotherThread(creator, doc);
+		assertNull(creator.getImages(doc));
+	}
+
+	@Test
+	public void testNotStartedPDF() {
+		PDDocumentGraphicsCreator creator = new PDDocumentGraphicsCreator(FontManager.getDefaultFontManager());
+		SimplePDFDocument doc = new SimplePDFDocument("Test", "Unit-Test");
+		assertNotStarted(creator, doc);
+		try {
+			creator.createTemplate(doc);
+			fail("The template of a document that was not started was created");
+		} catch (IllegalStateException e) {
+			assertEquals("document not started", e.getMessage());
+		}
+		assertNull(creator.getDocument(doc));
+	}
+
+	@Test
+	public void testNotStartedImage() {
+		ImageDocumentGraphicsCreator creator = new ImageDocumentGraphicsCreator();
+		SimplePDFDocument doc = new SimplePDFDocument("Test", "Unit-Test");
+		assertNotStarted(creator, doc);
+		assertNull(creator.getImages(doc));
+	}
+
+	@Test
+	public void testStartedTwice() {
+		testStartedTwice(new PDDocumentGraphicsCreator(FontManager.getDefaultFontManager()));
+		testStartedTwice(new ImageDocumentGraphicsCreator());
+	}
+
+	@Test
+	public void testEqualDocumentsUseDifferentSessions() {
+		PDDocumentGraphicsCreator creator = new PDDocumentGraphicsCreator(FontManager.getDefaultFontManager());
+		SimplePDFDocument first = new EqualDocument();
+		SimplePDFDocument second = new EqualDocument();
+		creator.startDocument(first);
+		creator.startDocument(second);
+		try {
+			creator.nextPage(first).dispose();
+			assertEquals(1, creator.getDocument(first).getNumberOfPages());
+			assertEquals(0, creator.getDocument(second).getNumberOfPages());
+		} finally {
+			creator.releaseDocument(first);
+			creator.releaseDocument(second);
+		}
+	}
+
+	/**
+	 * Starts the given document on the current thread, draws its pages on another thread and releases it on the current thread again.
+	 * @param creator The creator to be used.
+	 * @param doc The document to be created.
+	 * @throws Exception If the document could not be created.
+	 */
+	private void testContinueOnAnotherThread(final AppendableDocumentGraphicsCreator creator, final SimplePDFDocument doc)
+			throws Exception {
+		creator.startDocument(doc);
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		try {
+			executor.submit(new Callable<Void>() {
+
+				@Override
+				public Void call() throws Exception {
+					creator.nextPage(doc).dispose();
+					creator.nextPage(doc).dispose();
+					creator.reopenPage(doc, 0).dispose();
+					return null;
+				}
+			}).get();
+			creator.reopenPage(doc, 1).dispose();
+			creator.completeDocument(doc);
+		} finally {
+			executor.shutdownNow();
+			creator.releaseDocument(doc);
+		}
+		assertNotStarted(creator, doc);
+	}
+
+	private void testStartedTwice(DocumentGraphicsCreator creator) {
+		SimplePDFDocument doc = new SimplePDFDocument("Test", "Unit-Test");
+		creator.startDocument(doc);
+		try {
+			try {
+				creator.startDocument(doc);
+				fail("The document was started twice");
+			} catch (IllegalStateException e) {
+				assertEquals("document already started", e.getMessage());
+			}
+			// The first session is not affected
+			assertNotNull(creator.nextPage(doc));
+		} finally {
+			creator.releaseDocument(doc);
+		}
+	}
+
+	private void assertNotStarted(AppendableDocumentGraphicsCreator creator, SimplePDFDocument doc) {
+		try {
+			creator.nextPage(doc);
+			fail("A page of a document that was not started was created");
+		} catch (IllegalStateException e) {
+			assertEquals("document not started", e.getMessage());
+		}
+		try {
+			creator.reopenPage(doc, 0);
+			fail("A page of a document that was not started was reopened");
+		} catch (IllegalStateException e) {
+			assertEquals("document not started", e.getMessage());
+		}
+		// Releasing a document that is not started has no effect
+		creator.releaseDocument(doc);
+	}
+
+	/**
+	 * A document that equals every other instance of this class.
+	 */
+	private static class EqualDocument extends SimplePDFDocument {
+
+		public EqualDocument() {
+			super("Test", "Unit-Test");
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			return obj instanceof EqualDocument;
+		}
+
+		@Override
+		public int hashCode() {
+			return 0;
+		}
+
+	}
+
+}
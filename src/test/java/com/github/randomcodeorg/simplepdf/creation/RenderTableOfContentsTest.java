@@ -0,0 +1,112 @@
+package com.github.randomcodeorg.simplepdf.creation;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+
+import org.junit.Test;
+
+import com.github.randomcodeorg.simplepdf.SimplePDFDocument;
+import com.github.randomcodeorg.simplepdf.Size;
+import com.github.randomcodeorg.simplepdf.StyleDefinition;
+import com.github.randomcodeorg.simplepdf.TableOfContents;
+
+public class RenderTableOfContentsTest {
+
+	private static final String[] TEXTS = { "1 Introduction\t    ", " 2.1 A longer chapter title that continues\t    ",
+			"\t    ", "1.2.3 Nested\t    " };
+	private static final String[] NUMBERS = { " 1", " 42", " 1234" };
+
+	@Test
+	public void testLeaderPDF() {
+		PDDocumentGraphicsCreator creator = new PDDocumentGraphicsCreator(new FontManager());
+		SimplePDFDocument doc = new SimplePDFDocument("Test", "Unit-Test");
+		creator.startDocument(doc);
+		try {
+			testLeader(doc, creator.nextPage(doc));
+		} finally {
+			creator.releaseDocument(doc);
+		}
+	}
+
+	@Test
+	public void testLeaderImage() {
+		BufferedImage image = new BufferedImage(10, 10, BufferedImage.TYPE_INT_ARGB);
+		testLeader(new SimplePDFDocument("Test", "Unit-Test"), new ImageDocumentGraphics(1, image.createGraphics()));
+	}
+
+	@Test
+	public void testDotWidthIsMeasuredOnce() {
+		SimplePDFDocument doc = new SimplePDFDocument("Test", "Unit-Test");
+		BufferedImage image = new BufferedImage(10, 10, BufferedImage.TYPE_INT_ARGB);
+		CountingGraphics g = new CountingGraphics(image.createGraphics());
+		RenderTableOfContents line = new RenderTableOfContents(doc, new TableOfContents("/", "/"));
+		RenderElement<?> copy = line.copy();
+		Size parentSize = new Size(120, 1000);
+		for (String number : NUMBERS) {
+			line.appendPageNumber(g, TEXTS[0], number, 120, parentSize);
+			((RenderTableOfContents) copy).appendPageNumber(g, TEXTS[1], number, 120, parentSize);
+		}
+		assertEquals(1, g.dotMeasurements);
+	}
+
+	/**
+	 * Compares the lines created using several texts, page numbers and widths with the ones created by inserting one dot after
+	 * another, which is how the lines were filled before the amount of dots was estimated.
+	 * @param doc The document to be used.
+	 * @param g The graphics to measure with.
+	 */
+	private void testLeader(SimplePDFDocument doc, DocumentGraphics g) {
+		RenderTableOfContents line = new RenderTableOfContents(doc, new TableOfContents("/", "/"));
+		int withoutDots = 0;
+		int withDots = 0;
+		for (String txt : TEXTS) {
+			for (String number : NUMBERS) {
+				for (double width = 0; width <= 200; width += 1.3) {
+					Size parentSize = new Size(width, 1000);
+					String expected = appendByDots(line, g, txt, number, width, parentSize);
+					assertEquals("Width: " + width, expected, line.appendPageNumber(g, txt, number, width, parentSize));
+					if (expected.endsWith("." + number)) {
+						withDots++;
+					} else {
+						withoutDots++;
+					}
+				}
+			}
+		}
+		// Both the lines filled with dots and the ones that are already too wide (which lose their trailing space) have to be covered
+		assertTrue(withDots > 0);
+		assertTrue(withoutDots > 0);
+	}
+
+	private static String appendByDots(TextLine line, DocumentGraphics g, String txt, String number, double width, Size parentSize) {
+		txt += number;
+		while (line.getRenderSize(g, txt, parentSize).getWidth() < width) {
+			txt = txt.substring(0, txt.length() - number.length()) + "." + number;
+		}
+		return txt.substring(0, txt.length() - number.length() - 1) + number;
+	}
+
+	/**
+	 * Graphics that count how often the width of a single dot is measured.
+	 */
+	private static class CountingGraphics extends ImageDocumentGraphics {
+
+		private int dotMeasurements = 0;
+
+		public CountingGraphics(Graphics2D g) {
+			super(1, g);
+		}
+
+		@Override
+		public Size getTextSize(String text, StyleDefinition sd, Size reservedSize) throws RenderingException {
+			if (text.equals("."))
+				dotMeasurements++;
+			return super.getTextSize(text, sd, reservedSize);
+		}
+
+	}
+
+}
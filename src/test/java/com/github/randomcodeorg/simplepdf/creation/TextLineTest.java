@@ -0,0 +1,169 @@
+package com.github.randomcodeorg.simplepdf.creation;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.github.randomcodeorg.simplepdf.DocumentElement;
+import com.github.randomcodeorg.simplepdf.SimplePDFDocument;
+import com.github.randomcodeorg.simplepdf.Size;
+import com.github.randomcodeorg.simplepdf.TextBlock;
+
+public class TextLineTest {
+
+	private static final String TEXT = "Lorem ipsum dolor sit amet, consetetur sadipscing elitr,  sed diam nonumy eirmod tempor invidunt "
+			+ "ut labore et dolore magna aliquyam erat, sed diam voluptua. At vero eos et accusam et justo duo dolores et ea rebum. "
+			+ "Stet clita kasd gubergren, no sea takimata sanctus est Lorem ipsum dolor sit amet. Donaudampfschiff "
+			+ "W Wi Wii Wiii iiiiiiiiiiiiiiiiiiii MMMMMMMM mm.";
+
+	@Test
+	public void testSplitToFitPDF() {
+		testSplitToFit(new PDDocumentGraphicsCreator(new FontManager()));
+	}
+
+	@Test
+	public void testSplitToFitImage() {
+		testSplitToFit(new ImageDocumentGraphicsCreator());
+	}
+
+	@Test
+	public void testSplitToFitTooNarrow() {
+		SimplePDFDocument doc = new SimplePDFDocument("Test", "Unit-Test");
+		ImageDocumentGraphicsCreator creator = new ImageDocumentGraphicsCreator();
+		creator.startDocument(doc);
+		try {
+			PreRenderInformation info = createInfo(doc, creator.nextPage(doc));
+			TextLine line = new TextLine(doc, new TextBlock("/", "/", "Donaudampfschifffahrtsgesellschaft"));
+			assertNull(line.splitToFit(info, new Size(5, 1000)));
+		} finally {
+			creator.releaseDocument(doc);
+		}
+	}
+
+	@Test
+	public void testPreSplitMatchesSubstrings() {
+		String[] texts = { TEXT, "First\nSecond", "First\n\nThird\n", "\nSecond\n\n\n", "Single\n", "\n\n",
+				TEXT + "\n" + TEXT.substring(0, 100) + "\n\n" + TEXT.substring(100) };
+		SimplePDFDocument doc = new SimplePDFDocument("Test", "Unit-Test");
+		ImageDocumentGraphicsCreator creator = new ImageDocumentGraphicsCreator();
+		creator.startDocument(doc);
+		try {
+			DocumentGraphics g = creator.nextPage(doc);
+			PreRenderInformation info = createInfo(doc, g);
+			Size s = new Size(80, 1000);
+			for (String text : texts) {
+				TextBlock block = new TextBlock("/", "/", text);
+				block.setIsRepeating(true);
+				TextLine line = new TextLine(doc, block);
+				Collection<RenderElement<? extends DocumentElement>> lines = line.preSplit();
+				if (text.indexOf('\n') == -1) {
+					assertNull(lines);
+					continue;
+				}
+				// The lines used to be copies of the text line holding the substrings created by String.split(String)
+				String[] expected = text.split("\n");
+				assertEquals(expected.length, lines.size());
+				int index = 0;
+				for (RenderElement<? extends DocumentElement> e : lines) {
+					TextLine current = (TextLine) e;
+					assertEquals(expected[index], current.getRenderText(info, -1, s));
+					assertEquals(index == 0, current.firstLine);
+					assertTrue(current.isEndLine);
+					assertTrue(current.isRepeating());
+					assertEquals(line.getStyleDefinition().toXML(), current.getStyleDefinition().toXML());
+					assertSplitToFit(info, current, expected[index], s);
+					index++;
+				}
+			}
+		} finally {
+			creator.releaseDocument(doc);
+		}
+	}
+
+	/**
+	 * Splits the given line of a pre split text and compares the lines with the ones created from the substring the line used to hold.
+	 * @param info Information about the current creation process.
+	 * @param line The line to split.
+	 * @param expected The text the line used to hold.
+	 * @param s The available size.
+	 */
+	private void assertSplitToFit(PreRenderInformation info, TextLine line, String expected, Size s) {
+		List<RenderElement<? extends DocumentElement>> split = line.splitToFit(info, s);
+		if (expected.isEmpty())
+			return;
+		assertNotNull(split);
+		List<String> actual = new ArrayList<String>();
+		for (RenderElement<? extends DocumentElement> e : split) {
+			actual.add(((TextLine) e).getRenderText(info, -1, s));
+			// The lines used to be created from new text blocks that are not repeating
+			assertFalse(e.isRepeating());
+		}
+		assertEquals(breakLines(info.getGraphics(), line, expected, s), actual);
+	}
+
+	/**
+	 * Splits the text using several widths and compares the lines with the ones created by measuring every possible line as a whole,
+	 * which is how the lines were broken before the text was scanned in a single forward pass.
+	 * @param creator The creator providing the graphics to measure with.
+	 */
+	private void testSplitToFit(DocumentGraphicsCreator creator) {
+		SimplePDFDocument doc = new SimplePDFDocument("Test", "Unit-Test");
+		creator.startDocument(doc);
+		try {
+			DocumentGraphics g = creator.nextPage(doc);
+			PreRenderInformation info = createInfo(doc, g);
+			for (int width = 45; width <= 180; width += 5) {
+				TextLine line = new TextLine(doc, new TextBlock("/", "/", TEXT));
+				Size s = new Size(width, 1000);
+				List<RenderElement<? extends DocumentElement>> lines = line.splitToFit(info, s);
+				assertNotNull(lines);
+				List<String> actual = new ArrayList<String>();
+				for (RenderElement<? extends DocumentElement> e : lines)
+					actual.add(((TextLine) e).getRenderText(info, -1, s));
+				assertEquals("Width: " + width, breakLines(g, line, TEXT, s), actual);
+			}
+		} finally {
+			creator.releaseDocument(doc);
+		}
+	}
+
+	/**
+	 * Breaks the given text by searching the last space that keeps the measured prefix within the given width.
+	 * @param g The graphics to measure with.
+	 * @param line The line providing the style definition.
+	 * @param txt The text to break.
+	 * @param s The available size.
+	 * @return The lines.
+	 */
+	private List<String> breakLines(DocumentGraphics g, TextLine line, String txt, Size s) {
+		List<String> result = new ArrayList<String>();
+		while (true) {
+			int dividerPos = txt.length();
+			Size cS = line.getRenderSize(g, txt, s);
+			while (!s.holdsHorizontal(cS)) {
+				dividerPos = txt.lastIndexOf(" ", dividerPos - 1);
+				assertNotEquals(-1, dividerPos);
+				cS = line.getRenderSize(g, txt.substring(0, dividerPos), s);
+			}
+			result.add(txt.substring(0, dividerPos).trim());
+			if (dividerPos + 1 >= txt.length())
+				return result;
+			txt = txt.substring(dividerPos + 1).trim();
+		}
+	}
+
+	private PreRenderInformation createInfo(SimplePDFDocument doc, DocumentGraphics g) {
+		return new PreRenderInformationImpl(doc, null, null, g, new ElementRenderMapping(), new NullRenderMetrics(),
+				new MeasurementCache());
+	}
+
+}